@@ -0,0 +1,101 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.iec104.apdu.APdu;
+import net.sympower.iec60870.iec104.apdu.APduDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of complete IEC 104 I-frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class APduBenchmark {
+
+    @Param({ "SINGLE_POINT", "SHORT_FLOAT_SEQUENCE", "SHORT_FLOAT_TIME_TAGGED" })
+    private BenchmarkAsdus asduType;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+    private final byte[] buffer = new byte[APdu.MAX_FRAME_LENGTH];
+
+    private ASdu asdu;
+    private APdu apdu;
+    private byte[] frame;
+    private ByteArrayInputStream frameStream;
+    private APduDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        asdu = asduType.create();
+        apdu = new APdu(5, 7, APdu.ApciType.I_FORMAT, asdu);
+        int length = apdu.encode(buffer, settings);
+        frame = Arrays.copyOf(buffer, length);
+        frameStream = new ByteArrayInputStream(frame);
+        decoder = new APduDecoder(settings);
+    }
+
+    @Benchmark
+    public int encode() {
+        return apdu.encode(buffer, settings);
+    }
+
+    @Benchmark
+    public int encodeIFormat() {
+        return APdu.encodeIFormat(buffer, 5, 7, asdu, settings);
+    }
+
+    @Benchmark
+    public APdu decode() throws IOException {
+        frameStream.reset();
+        return APdu.decode(frameStream, settings);
+    }
+
+    @Benchmark
+    public APdu decodeWithDecoder() throws IOException {
+        frameStream.reset();
+        return decoder.read(frameStream);
+    }
+}
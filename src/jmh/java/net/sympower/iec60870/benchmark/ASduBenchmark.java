@@ -0,0 +1,102 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduView;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.internal.ByteBufferInputStream;
+import net.sympower.iec60870.internal.ExtendedDataInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of ASDUs without the APCI, eagerly into {@link ASdu} objects and lazily through {@link ASduView}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ASduBenchmark {
+
+    @Param({ "SINGLE_POINT", "SHORT_FLOAT_SEQUENCE", "SHORT_FLOAT_TIME_TAGGED" })
+    private BenchmarkAsdus asduType;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+    private final ByteBufferInputStream asduInput = new ByteBufferInputStream();
+    private final ExtendedDataInputStream asduStream = new ExtendedDataInputStream(asduInput);
+
+    private ASdu asdu;
+    private byte[] encoded;
+    private ByteBuffer encodedBuffer;
+    private int length;
+
+    @Setup
+    public void setUp() {
+        asdu = asduType.create();
+        encoded = new byte[255];
+        length = asdu.encode(encoded, 0, settings);
+        encodedBuffer = ByteBuffer.wrap(encoded);
+    }
+
+    @Benchmark
+    public int encode() {
+        return asdu.encode(encoded, 0, settings);
+    }
+
+    @Benchmark
+    public ASdu decode() throws IOException {
+        asduInput.reset(encodedBuffer, 0, length);
+        return ASdu.decode(asduStream, settings, length);
+    }
+
+    @Benchmark
+    public void decodeView(Blackhole blackhole) throws IOException {
+        ASduView view = new ASduView(encoded, 0, length, settings);
+        boolean measuredValues = asduType != BenchmarkAsdus.SINGLE_POINT;
+        for (int i = 0; i < view.size(); i++) {
+            blackhole.consume(view.ioa(i));
+            blackhole.consume(view.quality(i));
+            if (measuredValues) {
+                blackhole.consume(view.floatValue(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+
+/**
+ * Representative ASDUs shared by the codec benchmarks.
+ */
+public enum BenchmarkAsdus {
+
+    /**
+     * M_SP_NA_1: one single point, the smallest monitoring ASDU.
+     */
+    SINGLE_POINT {
+        @Override
+        public ASdu create() {
+            return new ASdu(ASduType.M_SP_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                    COMMON_ADDRESS, new InformationObject(1000,
+                            new IeSinglePointWithQuality(true, false, false, false, false)));
+        }
+    },
+
+    /**
+     * M_ME_NC_1 with SQ=1: 48 consecutive short floats, as sent in response to a general interrogation.
+     */
+    SHORT_FLOAT_SEQUENCE {
+        @Override
+        public ASdu create() {
+            InformationElement[][] elements = new InformationElement[48][];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = new InformationElement[] { new IeShortFloat(i * 1.5f), GOOD_QUALITY };
+            }
+            return new ASdu(ASduType.M_ME_NC_1, true, CauseOfTransmission.INTERROGATED_BY_STATION, false, false, 0,
+                    COMMON_ADDRESS, new InformationObject(2000, elements));
+        }
+    },
+
+    /**
+     * M_ME_TF_1: ten short floats, each with its own IOA and CP56Time2a time tag.
+     */
+    SHORT_FLOAT_TIME_TAGGED {
+        @Override
+        public ASdu create() {
+            InformationObject[] objects = new InformationObject[10];
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = new InformationObject(3000 + i, new IeShortFloat(i * 0.25f), GOOD_QUALITY,
+                        new IeTime56(TIMESTAMP + i));
+            }
+            return new ASdu(ASduType.M_ME_TF_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                    COMMON_ADDRESS, objects);
+        }
+    };
+
+    public static final int COMMON_ADDRESS = 1;
+
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+    private static final IeQuality GOOD_QUALITY = new IeQuality(false, false, false, false, false);
+
+    public abstract ASdu create();
+}
@@ -0,0 +1,87 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of IEC 101 variable-length frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Iec101FrameBenchmark {
+
+    private static final int MAX_FRAME_SIZE = 261;
+
+    @Param({ "SINGLE_POINT", "SHORT_FLOAT_SEQUENCE", "SHORT_FLOAT_TIME_TAGGED" })
+    private BenchmarkAsdus asduType;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+    private final byte[] buffer = new byte[MAX_FRAME_SIZE];
+
+    private Iec101VariableFrame frame;
+    private ByteArrayInputStream frameStream;
+
+    @Setup
+    public void setUp() {
+        frame = new Iec101VariableFrame(1, FunctionCode.USER_DATA_CONFIRMED, true, true, false, false, false,
+                asduType.create());
+        int length = frame.encode(buffer, settings);
+        frameStream = new ByteArrayInputStream(Arrays.copyOf(buffer, length));
+    }
+
+    @Benchmark
+    public int encode() {
+        return frame.encode(buffer, settings);
+    }
+
+    @Benchmark
+    public Iec101Frame decode() throws IOException {
+        frameStream.reset();
+        return Iec101Frame.decode(frameStream, settings);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSingleCommand;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.api.Iec104ClientBuilder;
+import net.sympower.iec60870.iec104.api.Iec104ServerBuilder;
+import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end IEC 104 client and server over a loopback socket. {@link #commandRoundTrip()} measures the latency of
+ * a single command until its activation confirmation arrives; {@link #monitoringThroughput()} measures how many
+ * ASDUs per second the client gets acknowledged by the server while keeping the k window full.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Iec104LoopbackBenchmark {
+
+    private static final int PORT = 24040;
+    private static final int COMMON_ADDRESS = 1;
+    private static final int COMMAND_IOA = 5000;
+    private static final int BATCH_SIZE = 96;
+
+    @Param({ "false", "true" })
+    private boolean nonBlockingServer;
+
+    private IEC60870Server server;
+    private Iec104ClientConnection client;
+    private volatile CompletableFuture<ASdu> pendingConfirmation;
+    private final ASdu[] batch = new ASdu[BATCH_SIZE];
+    private final CompletableFuture<?>[] batchFutures = new CompletableFuture<?>[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new Iec104ServerBuilder(PORT)
+                .maxConnections(1)
+                .nonBlocking(nonBlockingServer)
+                .maxTimeNoAckSent(10)
+                .build();
+        server.start(connection -> {
+            try {
+                connection.startDataTransfer(new CommandConfirmingListener(connection));
+            } catch (IOException e) {
+                connection.close();
+            }
+        });
+
+        client = new Iec104ClientBuilder("localhost", PORT)
+                .maxTimeNoAckSent(10)
+                .sendQueueCapacity(BATCH_SIZE)
+                .build();
+        // Returns once the server has confirmed STARTDT
+        client.startDataTransfer(new ConfirmationListener());
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                    COMMON_ADDRESS, new InformationObject(1000 + i, new IeShortFloat(i),
+                            new IeQuality(false, false, false, false, false)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public ASdu commandRoundTrip() throws Exception {
+        CompletableFuture<ASdu> confirmation = new CompletableFuture<>();
+        pendingConfirmation = confirmation;
+        client.singleCommand(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, COMMAND_IOA,
+                new IeSingleCommand(true, 0, false));
+        return confirmation.get(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void monitoringThroughput() throws Exception {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchFutures[i] = client.sendAsync(batch[i]);
+        }
+        CompletableFuture.allOf(batchFutures).get(5, TimeUnit.SECONDS);
+    }
+
+    private class ConfirmationListener implements IEC60870EventListener {
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            CompletableFuture<ASdu> confirmation = pendingConfirmation;
+            if (confirmation != null && asdu.getCauseOfTransmission() == CauseOfTransmission.ACTIVATION_CON) {
+                confirmation.complete(asdu);
+            }
+        }
+
+        @Override
+        public void onConnectionReady() {
+        }
+
+        @Override
+        public void onConnectionLost(IOException cause) {
+            CompletableFuture<ASdu> confirmation = pendingConfirmation;
+            if (confirmation != null) {
+                confirmation.completeExceptionally(cause != null ? cause : new IOException("Connection lost"));
+            }
+        }
+    }
+
+    private static class CommandConfirmingListener implements IEC60870EventListener {
+
+        private final IEC60870Connection connection;
+
+        private CommandConfirmingListener(IEC60870Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            if (asdu.getTypeIdentification() != ASduType.C_SC_NA_1) {
+                return;
+            }
+            try {
+                connection.sendConfirmation(asdu);
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+
+        @Override
+        public void onConnectionReady() {
+        }
+
+        @Override
+        public void onConnectionLost(IOException cause) {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.ASduView;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.common.image.IEC60870PointCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing sequence ASDUs of 48 short floats into a client point cache of half a million points, and consistent reads
+ * of single points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointCacheBenchmark {
+
+    private static final int POINTS = 480_000;
+    private static final int PER_ASDU = 48;
+
+    private IEC60870PointCache cache;
+    private ASduView[] views;
+    private int nextView;
+    private int nextIndex;
+    private final IEC60870PointCache.PointValue point = new IEC60870PointCache.PointValue();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        IEC60870Settings settings = new IEC60870Settings();
+        cache = new IEC60870PointCache(POINTS);
+        views = new ASduView[POINTS / PER_ASDU];
+        for (int v = 0; v < views.length; v++) {
+            InformationElement[][] elements = new InformationElement[PER_ASDU][];
+            for (int i = 0; i < PER_ASDU; i++) {
+                elements[i] = new InformationElement[] { new IeShortFloat(v + i * 0.5f),
+                        new IeQuality(false, false, false, false, false) };
+            }
+            ASdu asdu = new ASdu(ASduType.M_ME_NC_1, true, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                    new InformationObject(v * PER_ASDU, elements));
+            byte[] buffer = new byte[255];
+            views[v] = new ASduView(buffer, 0, asdu.encode(buffer, 0, settings), settings);
+            cache.onAsduViewReceived(views[v]);
+        }
+    }
+
+    @Benchmark
+    public int storeAsdu() {
+        nextView = (nextView + 1) % views.length;
+        cache.onAsduViewReceived(views[nextView]);
+        return nextView;
+    }
+
+    @Benchmark
+    public IEC60870PointCache.PointValue readPoint() {
+        nextIndex = (nextIndex + 104_729) % POINTS;
+        return cache.read(nextIndex, point);
+    }
+}
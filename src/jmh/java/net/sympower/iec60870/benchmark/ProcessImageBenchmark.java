@@ -0,0 +1,99 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.common.image.IEC60870PointType;
+import net.sympower.iec60870.common.image.IEC60870ProcessImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates of a process image with a million short float points and no attached connection, by point index and by
+ * address, from four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ProcessImageBenchmark {
+
+    private static final int POINTS = 1_000_000;
+    private static final int COMMON_ADDRESSES = 10;
+
+    private IEC60870ProcessImage image;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = (int) (Thread.currentThread().getId() * 7919);
+        double value;
+
+        int nextIndex() {
+            next = (next + 104_729) % POINTS;
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        image = new IEC60870ProcessImage(POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            image.addPoint(i % COMMON_ADDRESSES, i / COMMON_ADDRESSES, IEC60870PointType.SHORT_FLOAT, true, 0.5);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        image.close();
+    }
+
+    @Benchmark
+    public boolean updateByIndex(Cursor cursor) {
+        cursor.value += 0.25;
+        return image.update(cursor.nextIndex(), cursor.value, IEC60870ProcessImage.QUALITY_GOOD, 1_700_000_000_000L);
+    }
+
+    @Benchmark
+    public boolean updateByAddress(Cursor cursor) {
+        int point = cursor.nextIndex();
+        cursor.value += 0.25;
+        return image.update(point % COMMON_ADDRESSES, point / COMMON_ADDRESSES, cursor.value,
+                IEC60870ProcessImage.QUALITY_GOOD, 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.benchmark;
+
+import net.sympower.iec60870.internal.LegacyTimeoutManager;
+import net.sympower.iec60870.internal.TimeoutTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link TimerBenchmark}: the same t3 workload on the scheduler the connections used before the
+ * hashed-wheel timer, a {@link LegacyTimeoutManager} with its own thread per connection. Every received frame moved
+ * the connection's t3 task, and {@code expireAll} measures how long the managers take to fire the t3 of every
+ * connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeoutManagerBenchmark {
+
+    private static final int T3_MILLIS = 20000;
+
+    @Param({ "1000", "10000" })
+    private int connections;
+
+    private LegacyTimeoutManager[] managers;
+    private Thread[] threads;
+    private TimeoutTask[] idleTasks;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        managers = new LegacyTimeoutManager[connections];
+        threads = new Thread[connections];
+        idleTasks = new TimeoutTask[connections];
+        for (int i = 0; i < connections; i++) {
+            managers[i] = new LegacyTimeoutManager();
+            threads[i] = new Thread(managers[i], "TimeoutManager-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+            idleTasks[i] = idleTask(T3_MILLIS);
+            managers[i].addTimerTask(idleTasks[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        for (int i = 0; i < connections; i++) {
+            managers[i].cancel();
+            threads[i].interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Benchmark
+    public TimeoutTask frameReceivedMoveTask() {
+        int connection = nextConnection();
+        TimeoutTask task = idleTasks[connection];
+        managers[connection].addTimerTask(task);
+        return task;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public void expireAll() throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            // Spread over 10 ms as connections started at different times would be
+            managers[i].addTimerTask(new TimeoutTask(1 + i % 10) {
+                @Override
+                protected void execute() {
+                    expired.countDown();
+                }
+            });
+        }
+        expired.await();
+    }
+
+    private int nextConnection() {
+        int connection = next;
+        next = connection + 1 == connections ? 0 : connection + 1;
+        return connection;
+    }
+
+    private static TimeoutTask idleTask(int timeout) {
+        return new TimeoutTask(timeout) {
+            @Override
+            protected void execute() {
+            }
+        };
+    }
+}
@@ -25,21 +25,26 @@ package net.sympower.iec60870.internal;
 
 import java.util.concurrent.PriorityBlockingQueue;
 
-public class TimeoutManager implements Runnable {
+/**
+ * Copy of the per-connection timeout scheduler that connections used before the {@link HashedWheelTimer}: one thread
+ * per connection waiting on a priority queue of its tasks. It is only kept as the baseline of
+ * {@code TimeoutManagerBenchmark}.
+ */
+public class LegacyTimeoutManager implements Runnable {
 
     private final PriorityBlockingQueue<TimeoutTask> queue;
 
     private final Object guadedLock;
 
-    boolean canceled;
+    volatile boolean canceled;
 
-    public TimeoutManager() {
+    public LegacyTimeoutManager() {
         this.queue = new PriorityBlockingQueue<>(4);
         this.guadedLock = new Object();
     }
 
     public void addTimerTask(TimeoutTask task) {
-        task.updateDueTime();
+        task.updateDueTime(task.getTimeout());
         removeDuplicates(task);
         this.queue.add(task);
         synchronized (this.guadedLock) {
@@ -59,7 +64,6 @@ public class TimeoutManager implements Runnable {
 
     @Override
     public void run() {
-        Thread.currentThread().setName("TimeoutManager");
         TimeoutTask currTask;
         while (!canceled) {
             try {
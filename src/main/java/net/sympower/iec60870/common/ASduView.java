@@ -0,0 +1,416 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+import net.sympower.iec60870.common.elements.CP56Time2a;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.internal.ByteBufferInputStream;
+import net.sympower.iec60870.internal.ExtendedDataInputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Flyweight view of an encoded ASDU. Only the data unit identifier is decoded up front; addresses, values, quality
+ * descriptors and time tags are read from the raw bytes when an accessor is called, so forwarding or filtering by
+ * IOA and type does not create any information object or element instances. {@link #toASdu()} decodes the full
+ * {@link ASdu} when the object model is needed.
+ * <p>
+ * The typed accessors address points by index. For a sequence (SQ=1) the index runs over the elements of the single
+ * information object, otherwise over the information objects. They are available for the monitoring types with
+ * fixed element layout (single/double points, step positions, bitstrings, measured values and integrated totals);
+ * other types can still be inspected through the header accessors and {@link #toASdu()}.
+ *
+ * @since 2.1
+ */
+public class ASduView {
+
+    /**
+     * Invalid (IV) bit of the quality descriptor returned by {@link #quality(int)}.
+     */
+    public static final int QUALITY_INVALID = 0x80;
+    /**
+     * Not topical (NT) bit of the quality descriptor returned by {@link #quality(int)}.
+     */
+    public static final int QUALITY_NOT_TOPICAL = 0x40;
+    /**
+     * Substituted (SB) bit of the quality descriptor returned by {@link #quality(int)}.
+     */
+    public static final int QUALITY_SUBSTITUTED = 0x20;
+    /**
+     * Blocked (BL) bit of the quality descriptor returned by {@link #quality(int)}.
+     */
+    public static final int QUALITY_BLOCKED = 0x10;
+    /**
+     * Overflow (OV) bit of the quality descriptor returned by {@link #quality(int)}. Only used by measured values,
+     * step positions and bitstrings.
+     */
+    public static final int QUALITY_OVERFLOW = 0x01;
+
+    private static final Map<ASduType, Layout> LAYOUTS = createLayouts();
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final IEC60870Settings settings;
+
+    private final ASduType aSduType;
+    private final boolean isSequenceOfElements;
+    private final int sequenceLength;
+    private final CauseOfTransmission causeOfTransmission;
+    private final boolean test;
+    private final boolean negativeConfirm;
+    private final int originatorAddress;
+    private final int commonAddress;
+    private final int objectsOffset;
+    private final int ioaFieldLength;
+    private final Layout layout;
+
+    private ASdu aSdu;
+
+    /**
+     * Creates a view on an encoded ASDU. The array is not copied and must not be modified while the view is in use.
+     *
+     * @param data the array holding the ASDU
+     * @param offset index of the type identification octet
+     * @param length length of the ASDU in bytes
+     * @param settings the settings defining the ASDU field lengths
+     * @throws IOException if the data unit identifier is invalid or the ASDU is shorter than its objects require
+     */
+    public ASduView(byte[] data, int offset, int length, IEC60870Settings settings) throws IOException {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.settings = settings;
+        this.ioaFieldLength = settings.getIoaFieldLength();
+
+        int headerLength = 4 + (settings.getCotFieldLength() == 2 ? 1 : 0)
+                + (settings.getCommonAddressFieldLength() == 2 ? 1 : 0);
+        if (length < headerLength) {
+            throw new IOException(MessageFormat.format("ASDU too short: {0} bytes", length));
+        }
+
+        int i = offset;
+        int typeIdCode = data[i++] & 0xff;
+        aSduType = ASduType.typeFor(typeIdCode);
+        if (aSduType == null) {
+            throw new IOException(MessageFormat.format("Unknown Type Identification: {0}", typeIdCode));
+        }
+
+        int variableStructureQualifier = data[i++] & 0xff;
+        isSequenceOfElements = (variableStructureQualifier & 0x80) == 0x80;
+        sequenceLength = variableStructureQualifier & 0x7f;
+
+        int cot = data[i++] & 0xff;
+        causeOfTransmission = CauseOfTransmission.causeFor(cot & 0x3f);
+        test = (cot & 0x80) == 0x80;
+        negativeConfirm = (cot & 0x40) == 0x40;
+
+        originatorAddress = settings.getCotFieldLength() == 2 ? data[i++] & 0xff : -1;
+
+        if (settings.getCommonAddressFieldLength() == 1) {
+            commonAddress = data[i++] & 0xff;
+        }
+        else {
+            commonAddress = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8);
+            i += 2;
+        }
+
+        objectsOffset = i;
+        layout = typeIdCode < 128 ? LAYOUTS.get(aSduType) : null;
+
+        if (layout != null) {
+            int required = objectsOffset - offset + (isSequenceOfElements
+                    ? ioaFieldLength + sequenceLength * layout.elementLength
+                    : sequenceLength * (ioaFieldLength + layout.elementLength));
+            if (required > length) {
+                throw new IOException(MessageFormat.format(
+                        "ASDU of type {0} with {1} elements needs {2} bytes but has {3}", aSduType, sequenceLength,
+                        required, length));
+            }
+        }
+    }
+
+    public ASduType getTypeIdentification() {
+        return aSduType;
+    }
+
+    public boolean isSequenceOfElements() {
+        return isSequenceOfElements;
+    }
+
+    public int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    public CauseOfTransmission getCauseOfTransmission() {
+        return causeOfTransmission;
+    }
+
+    public boolean isTestFrame() {
+        return test;
+    }
+
+    public boolean isNegativeConfirm() {
+        return negativeConfirm;
+    }
+
+    public int getOriginatorAddress() {
+        return originatorAddress;
+    }
+
+    public int getCommonAddress() {
+        return commonAddress;
+    }
+
+    /**
+     * Returns the number of points that can be addressed with the typed accessors.
+     */
+    public int size() {
+        return sequenceLength;
+    }
+
+    /**
+     * Returns the information object address of the point at the given index.
+     */
+    public int ioa(int index) {
+        requireLayout();
+        checkIndex(index);
+        if (isSequenceOfElements) {
+            return readIoa(objectsOffset) + index;
+        }
+        return readIoa(objectsOffset + index * (ioaFieldLength + layout.elementLength));
+    }
+
+    /**
+     * Returns the measured value of the point at the given index. Normalized values are returned in the range
+     * [-1, 1), scaled values as their integer value.
+     *
+     * @throws UnsupportedOperationException if the ASDU type does not carry a measured value
+     */
+    public float floatValue(int index) {
+        requireLayout();
+        int i = elementOffset(index);
+        switch (layout.valueKind) {
+        case NORMALIZED:
+            return (float) (readShort(i) / 32768.0);
+        case SCALED:
+            return readShort(i);
+        case SHORT_FLOAT:
+            return Float.intBitsToFloat((data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16)
+                    | ((data[i + 3] & 0xff) << 24));
+        default:
+            throw unsupported("a measured value");
+        }
+    }
+
+    /**
+     * Returns the integer value of the point at the given index: 0 or 1 for single points, the DPI 0 to 3 for double
+     * points, the step position -64 to 63 without the transient flag, the 32 bit bitstring or the counter reading of
+     * an integrated total.
+     *
+     * @throws UnsupportedOperationException if the ASDU type does not carry an integer value
+     * @since 2.1
+     */
+    public int intValue(int index) {
+        requireLayout();
+        int i = elementOffset(index);
+        switch (layout.valueKind) {
+        case SINGLE_POINT:
+            return data[i] & 0x01;
+        case DOUBLE_POINT:
+            return data[i] & 0x03;
+        case STEP_POSITION:
+            return (byte) (data[i] << 1) >> 1;
+        case BITSTRING:
+            return (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16)
+                    | ((data[i + 3] & 0xff) << 24);
+        default:
+            throw unsupported("an integer value");
+        }
+    }
+
+    /**
+     * Returns the quality descriptor bits of the point at the given index, see the {@code QUALITY_*} constants.
+     * For single and double points the value bits of the SIQ/DIQ octet are masked out; for integrated totals only the
+     * invalid bit of the sequence notation is returned.
+     *
+     * @throws UnsupportedOperationException if the ASDU type carries no quality descriptor
+     */
+    public int quality(int index) {
+        requireLayout();
+        if (layout.qualityOffset < 0) {
+            throw unsupported("a quality descriptor");
+        }
+        return data[elementOffset(index) + layout.qualityOffset] & layout.qualityMask;
+    }
+
+    /**
+     * Returns the CP56Time2a time tag of the point at the given index as milliseconds since the epoch, interpreted
+     * like {@link IeTime56#getTimestamp()} in the {@linkplain IEC60870Settings#getTimeZone() time zone of the
+     * settings}.
+     *
+     * @throws UnsupportedOperationException if the ASDU type carries no CP56Time2a time tag
+     */
+    public long timestamp(int index) {
+        requireLayout();
+        if (layout.timeOffset < 0) {
+            throw unsupported("a CP56Time2a time tag");
+        }
+        int i = elementOffset(index) + layout.timeOffset;
+        return CP56Time2a.decode(data, i, 1970, settings.getTimeZone());
+    }
+
+    /**
+     * Decodes the complete ASDU including all information objects. The result is cached.
+     *
+     * @return the decoded ASDU
+     * @throws IOException if the information objects cannot be decoded
+     */
+    public ASdu toASdu() throws IOException {
+        if (aSdu == null) {
+            ByteBufferInputStream view = new ByteBufferInputStream();
+            view.reset(ByteBuffer.wrap(data), offset, length);
+            aSdu = ASdu.decode(new ExtendedDataInputStream(view), settings, length);
+        }
+        return aSdu;
+    }
+
+    /**
+     * Returns a copy of the encoded ASDU.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    @Override
+    public String toString() {
+        return "ASDU view Type: " + aSduType.getId() + ", " + aSduType + ", Cause of transmission: "
+                + causeOfTransmission + ", Common address: " + commonAddress + ", Elements: " + sequenceLength
+                + (isSequenceOfElements ? " (sequence)" : "");
+    }
+
+    private int elementOffset(int index) {
+        checkIndex(index);
+        if (isSequenceOfElements) {
+            return objectsOffset + ioaFieldLength + index * layout.elementLength;
+        }
+        return objectsOffset + index * (ioaFieldLength + layout.elementLength) + ioaFieldLength;
+    }
+
+    private int readIoa(int i) {
+        int ioa = data[i] & 0xff;
+        if (ioaFieldLength > 1) {
+            ioa |= (data[i + 1] & 0xff) << 8;
+        }
+        if (ioaFieldLength > 2) {
+            ioa |= (data[i + 2] & 0xff) << 16;
+        }
+        return ioa;
+    }
+
+    private short readShort(int i) {
+        return (short) ((data[i] & 0xff) | ((data[i + 1] & 0xff) << 8));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= sequenceLength) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + sequenceLength
+                    + " elements");
+        }
+    }
+
+    private void requireLayout() {
+        if (layout == null) {
+            throw unsupported("typed access");
+        }
+    }
+
+    private UnsupportedOperationException unsupported(String what) {
+        return new UnsupportedOperationException("ASDU type " + aSduType + " does not support " + what);
+    }
+
+    private static Map<ASduType, Layout> createLayouts() {
+        Map<ASduType, Layout> layouts = new EnumMap<>(ASduType.class);
+        layouts.put(ASduType.M_SP_NA_1, new Layout(1, ValueKind.SINGLE_POINT, 0, 0xf0, -1));
+        layouts.put(ASduType.M_SP_TA_1, new Layout(4, ValueKind.SINGLE_POINT, 0, 0xf0, -1));
+        layouts.put(ASduType.M_SP_TB_1, new Layout(8, ValueKind.SINGLE_POINT, 0, 0xf0, 1));
+        layouts.put(ASduType.M_DP_NA_1, new Layout(1, ValueKind.DOUBLE_POINT, 0, 0xf0, -1));
+        layouts.put(ASduType.M_DP_TA_1, new Layout(4, ValueKind.DOUBLE_POINT, 0, 0xf0, -1));
+        layouts.put(ASduType.M_DP_TB_1, new Layout(8, ValueKind.DOUBLE_POINT, 0, 0xf0, 1));
+        layouts.put(ASduType.M_ST_NA_1, new Layout(2, ValueKind.STEP_POSITION, 1, 0xff, -1));
+        layouts.put(ASduType.M_ST_TA_1, new Layout(5, ValueKind.STEP_POSITION, 1, 0xff, -1));
+        layouts.put(ASduType.M_ST_TB_1, new Layout(9, ValueKind.STEP_POSITION, 1, 0xff, 2));
+        layouts.put(ASduType.M_BO_NA_1, new Layout(5, ValueKind.BITSTRING, 4, 0xff, -1));
+        layouts.put(ASduType.M_BO_TA_1, new Layout(8, ValueKind.BITSTRING, 4, 0xff, -1));
+        layouts.put(ASduType.M_BO_TB_1, new Layout(12, ValueKind.BITSTRING, 4, 0xff, 5));
+        layouts.put(ASduType.M_ME_NA_1, new Layout(3, ValueKind.NORMALIZED, 2, 0xff, -1));
+        layouts.put(ASduType.M_ME_TA_1, new Layout(6, ValueKind.NORMALIZED, 2, 0xff, -1));
+        layouts.put(ASduType.M_ME_TD_1, new Layout(10, ValueKind.NORMALIZED, 2, 0xff, 3));
+        layouts.put(ASduType.M_ME_ND_1, new Layout(2, ValueKind.NORMALIZED, -1, 0xff, -1));
+        layouts.put(ASduType.M_ME_NB_1, new Layout(3, ValueKind.SCALED, 2, 0xff, -1));
+        layouts.put(ASduType.M_ME_TB_1, new Layout(6, ValueKind.SCALED, 2, 0xff, -1));
+        layouts.put(ASduType.M_ME_TE_1, new Layout(10, ValueKind.SCALED, 2, 0xff, 3));
+        layouts.put(ASduType.M_ME_NC_1, new Layout(5, ValueKind.SHORT_FLOAT, 4, 0xff, -1));
+        layouts.put(ASduType.M_ME_TC_1, new Layout(8, ValueKind.SHORT_FLOAT, 4, 0xff, -1));
+        layouts.put(ASduType.M_ME_TF_1, new Layout(12, ValueKind.SHORT_FLOAT, 4, 0xff, 5));
+        layouts.put(ASduType.M_IT_NA_1, new Layout(5, ValueKind.BITSTRING, 4, 0x80, -1));
+        layouts.put(ASduType.M_IT_TA_1, new Layout(8, ValueKind.BITSTRING, 4, 0x80, -1));
+        layouts.put(ASduType.M_IT_TB_1, new Layout(12, ValueKind.BITSTRING, 4, 0x80, 5));
+        return layouts;
+    }
+
+    private enum ValueKind {
+        SINGLE_POINT,
+        DOUBLE_POINT,
+        STEP_POSITION,
+        BITSTRING,
+        NORMALIZED,
+        SCALED,
+        SHORT_FLOAT
+    }
+
+    /**
+     * Byte layout of one information element combination (without IOA) of a fixed-size ASDU type.
+     */
+    private static class Layout {
+        private final int elementLength;
+        private final ValueKind valueKind;
+        private final int qualityOffset;
+        private final int qualityMask;
+        private final int timeOffset;
+
+        private Layout(int elementLength, ValueKind valueKind, int qualityOffset, int qualityMask, int timeOffset) {
+            this.elementLength = elementLength;
+            this.valueKind = valueKind;
+            this.qualityOffset = qualityOffset;
+            this.qualityMask = qualityMask;
+            this.timeOffset = timeOffset;
+        }
+    }
+}
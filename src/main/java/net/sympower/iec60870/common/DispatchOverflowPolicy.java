@@ -0,0 +1,51 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+/**
+ * What a connection does when its listener event queue is full.
+ *
+ * @see IEC60870EventDispatcher
+ * @since 2.1
+ */
+public enum DispatchOverflowPolicy {
+
+    /**
+     * The reader waits until the listener has taken an event from the queue. Nothing is lost, but the connection
+     * stops reading while it waits.
+     */
+    BLOCK,
+
+    /**
+     * The oldest event queued in the station's lane is discarded to make room for the new one. Stations whose
+     * common addresses map to the same lane share its capacity, so the discarded event may belong to another
+     * station.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The connection is closed.
+     */
+    CLOSE
+}
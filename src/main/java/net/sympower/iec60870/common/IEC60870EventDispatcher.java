@@ -0,0 +1,254 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded stage between the reader of a connection and its listener. Events are spread over a fixed number of lanes
+ * by common address; each lane has its own queue and consumer thread, so events of one station are delivered in the
+ * order they were received while a slow station does not hold up the others. Stations that map to the same lane
+ * share its queue and its capacity. What happens when a lane is full is decided by the
+ * {@link DispatchOverflowPolicy}.
+ * <p>
+ * Exceptions thrown by an event are logged and do not stop the lane.
+ *
+ * @since 2.1
+ */
+public final class IEC60870EventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870EventDispatcher.class);
+
+    private static final Runnable STOP = () -> { };
+
+    private final Lane[] lanes;
+    private final DispatchOverflowPolicy overflowPolicy;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean shutdown;
+    private volatile boolean discardQueued;
+
+    /**
+     * Creates a dispatcher and starts its consumer threads.
+     *
+     * @param threads number of lanes, each served by one consumer thread
+     * @param queueCapacity capacity of each lane's queue
+     * @param overflowPolicy what to do when a lane is full
+     * @param threadFactory factory for the consumer threads
+     */
+    public IEC60870EventDispatcher(int threads, int queueCapacity, DispatchOverflowPolicy overflowPolicy,
+            ThreadFactory threadFactory) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Dispatch threads must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.lanes = new Lane[threads];
+        for (int i = 0; i < threads; i++) {
+            lanes[i] = new Lane(queueCapacity);
+        }
+        for (Lane lane : lanes) {
+            lane.thread = threadFactory.newThread(lane);
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * Queues an event of the given station.
+     *
+     * @param commonAddress common address the event belongs to; selects the lane
+     * @param event the listener call to run
+     * @return false if the event could not be queued and the connection must be closed: the lane was full under
+     *         {@link DispatchOverflowPolicy#CLOSE}, or the reader was interrupted while waiting under
+     *         {@link DispatchOverflowPolicy#BLOCK}
+     */
+    public boolean dispatch(int commonAddress, Runnable event) {
+        if (shutdown) {
+            droppedEvents.incrementAndGet();
+            return true;
+        }
+
+        BlockingQueue<Runnable> queue = lanes[Math.floorMod(commonAddress, lanes.length)].queue;
+        if (queue.offer(event)) {
+            return true;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                do {
+                    if (queue.poll() != null) {
+                        droppedEvents.incrementAndGet();
+                    }
+                } while (!queue.offer(event));
+                return true;
+            case CLOSE:
+                droppedEvents.incrementAndGet();
+                return false;
+            case BLOCK:
+            default:
+                try {
+                    queue.put(event);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedEvents.incrementAndGet();
+                    return false;
+                }
+        }
+    }
+
+    /**
+     * Returns the number of events waiting in all lanes.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of events that were discarded because a lane was full or the dispatcher was shut down.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Stops accepting events. Events already queued are still delivered, after which the consumer threads end.
+     */
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Lane lane : lanes) {
+            // A full lane is being drained and its consumer notices the shutdown once it is empty
+            lane.queue.offer(STOP);
+        }
+    }
+
+    /**
+     * Stops accepting events and discards the events that are still queued; they are counted as dropped. An event
+     * that is being delivered is not interrupted, see {@link #awaitTermination(long, TimeUnit)}.
+     */
+    public void shutdownNow() {
+        discardQueued = true;
+        shutdown();
+        for (Lane lane : lanes) {
+            Runnable event;
+            while ((event = lane.queue.poll()) != null) {
+                if (event != STOP) {
+                    droppedEvents.incrementAndGet();
+                }
+            }
+            lane.queue.offer(STOP);
+        }
+    }
+
+    /**
+     * Waits until the consumer threads have ended after a shutdown.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return false if a consumer thread was still running when the timeout elapsed
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Lane lane : lanes) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return !isRunning();
+            }
+            lane.thread.join(remainingMillis);
+        }
+        return !isRunning();
+    }
+
+    /**
+     * Returns whether the calling thread is one of the consumer threads, i.e. whether it is delivering an event.
+     */
+    public boolean isDispatchThread() {
+        Thread current = Thread.currentThread();
+        for (Lane lane : lanes) {
+            if (lane.thread == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRunning() {
+        for (Lane lane : lanes) {
+            if (lane.thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Runnable> queue;
+        private Thread thread;
+
+        private Lane(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!(shutdown && queue.isEmpty())) {
+                    Runnable event = queue.take();
+                    if (event == STOP) {
+                        continue;
+                    }
+                    if (discardQueued) {
+                        // Queued by a reader that raced with shutdownNow()
+                        droppedEvents.incrementAndGet();
+                        continue;
+                    }
+                    try {
+                        event.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Listener failed to handle event", e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -23,6 +23,9 @@
  */
 package net.sympower.iec60870.common;
 
+import java.util.TimeZone;
+import java.util.concurrent.ThreadFactory;
+
 public class IEC60870Settings {
 
     private int messageFragmentTimeout;
@@ -35,6 +38,19 @@ public class IEC60870Settings {
     private int connectionTimeout;
     private int interFrameDelayMs;
 
+    private int baudRate;
+    private int dataBits;
+    private int stopBits;
+    private int parity;
+
+    private ThreadFactory threadFactory;
+
+    private int dispatchThreads;
+    private int dispatchQueueCapacity;
+    private DispatchOverflowPolicy dispatchOverflowPolicy;
+
+    private TimeZone timeZone;
+
     public IEC60870Settings() {
         this.messageFragmentTimeout = 3_000;
 
@@ -44,7 +60,18 @@ public class IEC60870Settings {
         this.linkAddressLength = 2;
 
         this.connectionTimeout = 6_000;
-        this.interFrameDelayMs = 250;
+        this.interFrameDelayMs = 0;
+
+        this.baudRate = 0;
+        this.dataBits = 8;
+        this.stopBits = 1; // SerialPort.ONE_STOP_BIT
+        this.parity = 0; // SerialPort.NO_PARITY
+
+        this.dispatchThreads = 0;
+        this.dispatchQueueCapacity = 1024;
+        this.dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
+
+        this.timeZone = TimeZone.getDefault();
     }
 
     public IEC60870Settings(IEC60870Settings settings) {
@@ -58,6 +85,19 @@ public class IEC60870Settings {
 
         connectionTimeout = settings.connectionTimeout;
         interFrameDelayMs = settings.interFrameDelayMs;
+
+        baudRate = settings.baudRate;
+        dataBits = settings.dataBits;
+        stopBits = settings.stopBits;
+        parity = settings.parity;
+
+        threadFactory = settings.threadFactory;
+
+        dispatchThreads = settings.dispatchThreads;
+        dispatchQueueCapacity = settings.dispatchQueueCapacity;
+        dispatchOverflowPolicy = settings.dispatchOverflowPolicy;
+
+        timeZone = settings.timeZone;
     }
 
     public int getMessageFragmentTimeout() {
@@ -108,6 +148,9 @@ public class IEC60870Settings {
         this.linkAddressLength = linkAddressLength;
     }
 
+    /**
+     * Returns the delay added to the minimum idle time between IEC-101 frames.
+     */
     public int getInterFrameDelayMs() {
         return interFrameDelayMs;
     }
@@ -119,4 +162,109 @@ public class IEC60870Settings {
         this.interFrameDelayMs = interFrameDelayMs;
     }
 
+    /**
+     * Returns the baud rate of an IEC-101 serial line, from which the time a frame occupies the line and the minimum
+     * idle time between frames are derived, or 0 if it is unknown.
+     */
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    public void setBaudRate(int baudRate) {
+        if (baudRate < 0) {
+            throw new IllegalArgumentException("Baud rate must be non-negative");
+        }
+        this.baudRate = baudRate;
+    }
+
+    public int getDataBits() {
+        return dataBits;
+    }
+
+    public void setDataBits(int dataBits) {
+        this.dataBits = dataBits;
+    }
+
+    /**
+     * Returns the number of stop bits as a jSerialComm {@code SerialPort} constant.
+     */
+    public int getStopBits() {
+        return stopBits;
+    }
+
+    public void setStopBits(int stopBits) {
+        this.stopBits = stopBits;
+    }
+
+    /**
+     * Returns the parity as a jSerialComm {@code SerialPort} constant.
+     */
+    public int getParity() {
+        return parity;
+    }
+
+    public void setParity(int parity) {
+        this.parity = parity;
+    }
+
+    /**
+     * Returns the factory for the reader, listener and polling threads of a connection, or null to use platform
+     * daemon threads.
+     */
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Returns the number of threads delivering received ASDUs to the listener, or 0 to deliver them on the reader
+     * thread.
+     */
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    public void setDispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public int getDispatchQueueCapacity() {
+        return dispatchQueueCapacity;
+    }
+
+    public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+    }
+
+    public DispatchOverflowPolicy getDispatchOverflowPolicy() {
+        return dispatchOverflowPolicy;
+    }
+
+    public void setDispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+    }
+
+    /**
+     * Returns the time zone in which {@link ASduView} reads CP56Time2a time tags. Defaults to the default time zone of
+     * the JVM when the settings were created, so that it is not looked up again for every time tag.
+     */
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        if (timeZone == null) {
+            throw new IllegalArgumentException("Time zone must not be null");
+        }
+        this.timeZone = (TimeZone) timeZone.clone();
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.api;
+
+import net.sympower.iec60870.common.ASduView;
+
+/**
+ * Event listener that receives ASDUs as {@link ASduView}s instead of fully decoded {@link
+ * net.sympower.iec60870.common.ASdu}s. Connections that support views call {@link #onAsduViewReceived(ASduView)}
+ * in place of {@link #onAsduReceived(net.sympower.iec60870.common.ASdu)}; the others keep decoding eagerly and call
+ * {@code onAsduReceived}.
+ * <p>
+ * Connections never reuse a view, so a listener may keep it or hand it to another thread.
+ *
+ * @since 2.1
+ */
+public interface IEC60870AsduViewListener extends IEC60870EventListener {
+
+    /**
+     * Called when an ASDU is received from the remote station.
+     *
+     * @param view view on the received ASDU
+     */
+    void onAsduViewReceived(ASduView view);
+}
@@ -24,7 +24,10 @@
 package net.sympower.iec60870.common.api;
 
 import net.sympower.iec60870.iec104.api.Iec104ClientBuilder;
+import net.sympower.iec60870.iec101.api.Iec101BalancedBuilder;
 import net.sympower.iec60870.iec101.api.Iec101ClientBuilder;
+import net.sympower.iec60870.iec101.api.Iec101MultiDropBuilder;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 
 public class IEC60870ClientBuilder {
 
@@ -35,4 +38,24 @@ public class IEC60870ClientBuilder {
     public Iec101ClientBuilder iec101(String portName) {
         return new Iec101ClientBuilder(portName);
     }
+
+    public Iec101ClientBuilder iec101(Iec101Transport transport) {
+        return new Iec101ClientBuilder(transport);
+    }
+
+    public Iec101MultiDropBuilder iec101MultiDrop(String portName) {
+        return new Iec101MultiDropBuilder(portName);
+    }
+
+    public Iec101MultiDropBuilder iec101MultiDrop(Iec101Transport transport) {
+        return new Iec101MultiDropBuilder(transport);
+    }
+
+    public Iec101BalancedBuilder iec101Balanced(String portName) {
+        return new Iec101BalancedBuilder(portName);
+    }
+
+    public Iec101BalancedBuilder iec101Balanced(Iec101Transport transport) {
+        return new Iec101BalancedBuilder(transport);
+    }
 }
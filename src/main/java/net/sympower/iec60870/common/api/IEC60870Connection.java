@@ -24,9 +24,12 @@
 package net.sympower.iec60870.common.api;
 
 import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduView;
 import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870EventDispatcher;
 import net.sympower.iec60870.common.IEC60870Protocol;
 import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
 import net.sympower.iec60870.common.elements.IeBinaryStateInformation;
 import net.sympower.iec60870.common.elements.IeDoubleCommand;
 import net.sympower.iec60870.common.elements.IeNormalizedValue;
@@ -40,20 +43,31 @@ import net.sympower.iec60870.common.elements.IeShortFloat;
 import net.sympower.iec60870.common.elements.IeSingleCommand;
 import net.sympower.iec60870.common.elements.IeTestSequenceCounter;
 import net.sympower.iec60870.common.elements.IeTime56;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class IEC60870Connection {
 
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870Connection.class);
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = IEC60870Threads.daemonThreadFactory(
+            "IEC60870-Connection-");
+
     protected final DataInputStream inputStream;
     protected final DataOutputStream outputStream;
     protected final IEC60870Settings settings;
     protected final ExecutorService executor;
+    protected final IEC60870EventDispatcher dispatcher;
     protected final AtomicBoolean closed = new AtomicBoolean(false);
     protected final AtomicBoolean dataTransferStarted = new AtomicBoolean(false);
     
@@ -64,14 +78,74 @@ public abstract class IEC60870Connection {
         this.inputStream = inputStream;
         this.outputStream = outputStream;
         this.settings = settings;
-        this.executor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r);
-            t.setDaemon(true);
-            return t;
-        });
+        this.executor = Executors.newSingleThreadExecutor(threadFactory());
+        this.dispatcher = settings.getDispatchThreads() > 0
+                ? new IEC60870EventDispatcher(settings.getDispatchThreads(), settings.getDispatchQueueCapacity(),
+                        settings.getDispatchOverflowPolicy(), threadFactory())
+                : null;
+    }
+
+    /**
+     * Returns the factory for threads owned by this connection: the one configured in the settings, or a factory for
+     * platform daemon threads.
+     */
+    protected ThreadFactory threadFactory() {
+        ThreadFactory threadFactory = settings.getThreadFactory();
+        return threadFactory != null ? threadFactory : DEFAULT_THREAD_FACTORY;
+    }
+
+    /**
+     * Delivers a received ASDU to the listener, either directly on the calling reader thread or through the
+     * dispatch queue if dispatch threads are configured.
+     */
+    protected void deliverAsdu(ASdu asdu) {
+        IEC60870EventListener listener = eventListener;
+        if (listener == null) {
+            return;
+        }
+        if (dispatcher == null) {
+            listener.onAsduReceived(asdu);
+        }
+        else if (!dispatcher.dispatch(asdu.getCommonAddress(), () -> listener.onAsduReceived(asdu))) {
+            onDispatchOverflow();
+        }
+    }
+
+    /**
+     * Delivers a received ASDU view to a listener that accepts views, like {@link #deliverAsdu(ASdu)}.
+     */
+    protected void deliverAsduView(IEC60870AsduViewListener listener, ASduView view) {
+        if (dispatcher == null) {
+            listener.onAsduViewReceived(view);
+        }
+        else if (!dispatcher.dispatch(view.getCommonAddress(), () -> listener.onAsduViewReceived(view))) {
+            onDispatchOverflow();
+        }
+    }
+
+    /**
+     * Called when a received ASDU could not be queued for the listener, see
+     * {@link net.sympower.iec60870.common.DispatchOverflowPolicy#CLOSE}. Closes the connection.
+     */
+    protected void onDispatchOverflow() {
+        close();
+    }
+
+    /**
+     * Returns the number of received ASDUs waiting to be delivered to the listener. Always 0 if ASDUs are delivered
+     * on the reader thread.
+     */
+    public int getDispatchQueueDepth() {
+        return dispatcher != null ? dispatcher.getQueueDepth() : 0;
+    }
+
+    /**
+     * Returns the number of received ASDUs that were discarded because the dispatch queue was full.
+     */
+    public long getDroppedAsduCount() {
+        return dispatcher != null ? dispatcher.getDroppedEvents() : 0;
     }
 
-    
     public abstract void startDataTransfer(IEC60870EventListener listener) throws IOException;
 
     
@@ -85,6 +159,7 @@ public abstract class IEC60870Connection {
         
         dataTransferStarted.set(false);
         executor.shutdown();
+        shutdownDispatcher();
         
         try {
             performClose();
@@ -92,6 +167,7 @@ public abstract class IEC60870Connection {
             // Log but don't throw from close()
         }
         
+        awaitDispatcher();
         if (eventListener != null) {
             eventListener.onConnectionLost(null);
         }
@@ -102,10 +178,42 @@ public abstract class IEC60870Connection {
         return closed.get();
     }
 
+    /**
+     * Returns whether data transfer is currently started, i.e. whether ASDUs can be sent on this connection.
+     */
+    public boolean isDataTransferStarted() {
+        return dataTransferStarted.get() && !closed.get();
+    }
+
     
     public abstract void send(ASdu asdu) throws IOException;
 
-    
+    /**
+     * Sends an ASDU without blocking the caller. The returned future completes when the ASDU has been delivered as
+     * far as the protocol can confirm it, or exceptionally if it could not be sent.
+     *
+     * <p>This default implementation sends synchronously. Protocols with an outbound queue override it.</p>
+     *
+     * @param asdu the ASDU to send
+     * @return a future that completes once the ASDU has been delivered
+     */
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        try {
+            send(asdu);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns whether ASDUs queued with {@link #sendAsync(ASdu)} are sent in the order they were queued. A connection
+     * that sends class 1 data ahead of class 2 data returns false.
+     */
+    public boolean isSentInQueueOrder() {
+        return true;
+    }
+
     public void sendConfirmation(ASdu asdu) throws IOException {
         send(IEC60870Protocol.createConfirmation(asdu, asdu.getOriginatorAddress()));
     }
@@ -114,6 +222,33 @@ public abstract class IEC60870Connection {
         send(IEC60870Protocol.createTermination(asdu, asdu.getOriginatorAddress()));
     }
 
+    /**
+     * Discards the received ASDUs that are still waiting for the listener; they are counted as dropped.
+     */
+    protected void shutdownDispatcher() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the listener to finish the ASDU it is handling, if any, so that no ASDU reaches it after
+     * {@link IEC60870EventListener#onConnectionLost(IOException)}. Call after {@link #shutdownDispatcher()}. Does not
+     * wait when called by the listener itself.
+     */
+    protected void awaitDispatcher() {
+        if (dispatcher == null || dispatcher.isDispatchThread()) {
+            return;
+        }
+        try {
+            if (!dispatcher.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Listener still handling an ASDU 5 seconds after the connection was closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     protected abstract void performClose() throws IOException;
 
     protected abstract void readerTask();
@@ -25,6 +25,7 @@ package net.sympower.iec60870.common.api;
 
 import net.sympower.iec60870.iec104.api.Iec104ServerBuilder;
 import net.sympower.iec60870.iec101.api.Iec101ServerBuilder;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 
 public class IEC60870ServerBuilder {
 
@@ -35,4 +36,8 @@ public class IEC60870ServerBuilder {
     public Iec101ServerBuilder iec101(String portName) { // TODO
         return new Iec101ServerBuilder(portName);
     }
+
+    public Iec101ServerBuilder iec101(Iec101Transport transport) {
+        return new Iec101ServerBuilder(transport);
+    }
 }
@@ -0,0 +1,317 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.elements;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Encoder and decoder of the seven octet binary time CP56Time2a that works on byte arrays in place.
+ * <p>
+ * Dates are converted arithmetically in the Gregorian calendar. The UTC offset and daylight saving flag of each time
+ * zone are looked up once per hour and cached, so times are converted without allocating any objects. The results
+ * are the same as those of {@link Calendar} based conversion: encoding uses the total offset of the time zone and its
+ * daylight saving flag, decoding applies the standard offset at the local time and one hour if the SU bit is set.
+ * Times outside the years 1600 to 9999 are converted with a {@link GregorianCalendar}.
+ *
+ * @since 2.1
+ */
+public final class CP56Time2a {
+
+    /**
+     * Length of an encoded CP56Time2a in bytes.
+     */
+    public static final int LENGTH = 7;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final long MIN_TIMESTAMP = daysFromCivil(1600, 1, 2) * MILLIS_PER_DAY;
+    private static final long MAX_TIMESTAMP = daysFromCivil(9999, 12, 30) * MILLIS_PER_DAY;
+
+    private static final int MAX_CACHED_ZONES = 32;
+    private static final Map<TimeZone, ZoneCache> zoneCaches = new ConcurrentHashMap<>();
+
+    private CP56Time2a() {
+    }
+
+    /**
+     * Encodes a timestamp into a buffer.
+     *
+     * @param timestamp the time in milliseconds since the epoch
+     * @param timeZone the time zone of the encoded local time
+     * @param invalid whether the time is marked as invalid (IV bit)
+     * @param buffer the buffer to write to
+     * @param offset the index of the first octet
+     * @return the number of bytes written, always {@link #LENGTH}
+     */
+    public static int encode(long timestamp, TimeZone timeZone, boolean invalid, byte[] buffer, int offset) {
+        if (timestamp < MIN_TIMESTAMP || timestamp > MAX_TIMESTAMP) {
+            return encodeWithCalendar(timestamp, timeZone, invalid, buffer, offset);
+        }
+
+        long entry = zoneCache(timeZone).offsetAt(timestamp);
+        if (entry == ZoneCache.EMPTY) {
+            return encodeWithCalendar(timestamp, timeZone, invalid, buffer, offset);
+        }
+        long local = timestamp + offsetOf(entry);
+        long days = Math.floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+        long date = civilFromDays(days);
+        int year = yearOf(date);
+        int month = monthOf(date);
+        int dayOfMonth = dayOfMonthOf(date);
+        // 1970-01-01 was a Thursday, CP56Time2a counts Monday as 1
+        int dayOfWeek = (int) Math.floorMod(days + 3, 7L) + 1;
+
+        int millisOfMinute = millisOfDay % (int) MILLIS_PER_MINUTE;
+        int minute = (millisOfDay / (int) MILLIS_PER_MINUTE) % 60;
+        int hour = millisOfDay / (int) MILLIS_PER_HOUR;
+
+        buffer[offset] = (byte) millisOfMinute;
+        buffer[offset + 1] = (byte) (millisOfMinute >> 8);
+        buffer[offset + 2] = (byte) (invalid ? minute | 0x80 : minute);
+        buffer[offset + 3] = (byte) (isDaylightTime(entry) ? hour | 0x80 : hour);
+        buffer[offset + 4] = (byte) (dayOfMonth + (dayOfWeek << 5));
+        buffer[offset + 5] = (byte) month;
+        buffer[offset + 6] = (byte) (year % 100);
+        return LENGTH;
+    }
+
+    /**
+     * Decodes a CP56Time2a from a buffer. The local time is interpreted in the given time zone, in daylight saving
+     * time if the SU bit is set; the IV bit is ignored. Out of range fields are carried over like in a lenient
+     * {@link Calendar}.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the index of the first octet
+     * @param startOfCentury the earliest possible year, see {@link IeTime56#getTimestamp(int, TimeZone)}
+     * @param timeZone the time zone of the encoded local time
+     * @return the time in milliseconds since the epoch
+     */
+    public static long decode(byte[] buffer, int offset, int startOfCentury, TimeZone timeZone) {
+        int century = startOfCentury / 100 * 100;
+        if (buffer[offset + 6] < (startOfCentury % 100)) {
+            century += 100;
+        }
+        int millis = (buffer[offset] & 0xff) | ((buffer[offset + 1] & 0xff) << 8);
+        int minute = buffer[offset + 2] & 0x3f;
+        int hour = buffer[offset + 3] & 0x1f;
+        boolean summerTime = (buffer[offset + 3] & 0x80) == 0x80;
+        int dayOfMonth = buffer[offset + 4] & 0x1f;
+        int monthIndex = (buffer[offset + 5] & 0x0f) - 1;
+        int year = (buffer[offset + 6] & 0x7f) + century + Math.floorDiv(monthIndex, 12);
+        int month = Math.floorMod(monthIndex, 12) + 1;
+
+        if (year < 1600 || year > 9999) {
+            return decodeWithCalendar(year, month, dayOfMonth, hour, minute, millis, summerTime, timeZone);
+        }
+
+        long wallTime = (daysFromCivil(year, month, 1) + dayOfMonth - 1) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE + millis;
+        return wallTime - zoneCache(timeZone).standardOffsetAtWallTime(wallTime) - (summerTime ? MILLIS_PER_HOUR : 0);
+    }
+
+    /**
+     * Converts days since the epoch to a date packed as year, month and day of month, see
+     * <a href="http://howardhinnant.github.io/date_algorithms.html">chrono-compatible date algorithms</a>.
+     */
+    private static long civilFromDays(long days) {
+        long shifted = days + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        int dayOfEra = (int) (shifted - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | dayOfMonth;
+    }
+
+    private static int yearOf(long date) {
+        return (int) (date >> 9);
+    }
+
+    private static int monthOf(long date) {
+        return (int) (date >> 5) & 0x0f;
+    }
+
+    private static int dayOfMonthOf(long date) {
+        return (int) date & 0x1f;
+    }
+
+    private static long daysFromCivil(long year, int month, int dayOfMonth) {
+        long shiftedYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = (int) (shiftedYear - era * 400);
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static ZoneCache zoneCache(TimeZone timeZone) {
+        ZoneCache cache = zoneCaches.get(timeZone);
+        if (cache == null) {
+            if (zoneCaches.size() >= MAX_CACHED_ZONES) {
+                zoneCaches.clear();
+            }
+            // Time zones are mutable, the cache keeps its own copy
+            TimeZone copy = (TimeZone) timeZone.clone();
+            cache = zoneCaches.computeIfAbsent(copy, ZoneCache::new);
+        }
+        return cache;
+    }
+
+    private static int encodeWithCalendar(long timestamp, TimeZone timeZone, boolean invalid, byte[] buffer,
+            int offset) {
+        Calendar calendar = new GregorianCalendar(timeZone);
+        calendar.setTimeInMillis(timestamp);
+
+        int millisOfMinute = calendar.get(Calendar.MILLISECOND) + 1000 * calendar.get(Calendar.SECOND);
+        int minute = calendar.get(Calendar.MINUTE);
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+
+        buffer[offset] = (byte) millisOfMinute;
+        buffer[offset + 1] = (byte) (millisOfMinute >> 8);
+        buffer[offset + 2] = (byte) (invalid ? minute | 0x80 : minute);
+        buffer[offset + 3] = (byte) (timeZone.inDaylightTime(calendar.getTime()) ? hour | 0x80 : hour);
+        buffer[offset + 4] = (byte) (calendar.get(Calendar.DAY_OF_MONTH)
+                + ((((calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7) + 1) << 5));
+        buffer[offset + 5] = (byte) (calendar.get(Calendar.MONTH) + 1);
+        buffer[offset + 6] = (byte) (calendar.get(Calendar.YEAR) % 100);
+        return LENGTH;
+    }
+
+    private static long decodeWithCalendar(int year, int month, int dayOfMonth, int hour, int minute, int millis,
+            boolean summerTime, TimeZone timeZone) {
+        Calendar calendar = new GregorianCalendar(timeZone);
+        calendar.set(Calendar.DST_OFFSET, summerTime ? (int) MILLIS_PER_HOUR : 0);
+        calendar.set(year, month - 1, dayOfMonth, hour, minute, millis / 1000);
+        calendar.set(Calendar.MILLISECOND, millis % 1000);
+        return calendar.getTimeInMillis();
+    }
+
+    private static int offsetOf(long entry) {
+        return (int) ((entry & 0x7ffff) - 0x40000) * 1000;
+    }
+
+    private static boolean isDaylightTime(long entry) {
+        return (entry & 0x80000) != 0;
+    }
+
+    /**
+     * Offsets of one time zone for recently converted hours. An entry packs the hour since the epoch, the daylight
+     * saving flag and the offset in seconds into one long, so it is read and written atomically. Hours in which the
+     * offsets change are not cached.
+     */
+    private static final class ZoneCache {
+
+        private static final int SLOTS = 64;
+        private static final long EMPTY = Long.MIN_VALUE;
+        private static final int MAX_OFFSET_SECONDS = 0x3ffff;
+
+        private final TimeZone timeZone;
+        private final AtomicLongArray utcHours = new AtomicLongArray(SLOTS);
+        private final AtomicLongArray wallHours = new AtomicLongArray(SLOTS);
+
+        ZoneCache(TimeZone timeZone) {
+            this.timeZone = timeZone;
+            for (int i = 0; i < SLOTS; i++) {
+                utcHours.lazySet(i, EMPTY);
+                wallHours.lazySet(i, EMPTY);
+            }
+        }
+
+        /**
+         * Returns the entry with the total UTC offset and the daylight saving flag at a time, or {@link #EMPTY} if the
+         * offsets change within its hour.
+         */
+        long offsetAt(long timestamp) {
+            long hour = Math.floorDiv(timestamp, MILLIS_PER_HOUR);
+            int slot = (int) hour & (SLOTS - 1);
+            long entry = utcHours.get(slot);
+            if (entry >> 20 == hour) {
+                return entry;
+            }
+
+            long start = hour * MILLIS_PER_HOUR;
+            long end = start + MILLIS_PER_HOUR - 1;
+            int offset = timeZone.getOffset(start);
+            boolean daylightTime = timeZone.inDaylightTime(new Date(start));
+            if (offset == timeZone.getOffset(end) && daylightTime == timeZone.inDaylightTime(new Date(end))
+                    && isCacheable(offset)) {
+                entry = entry(hour, offset, daylightTime);
+                utcHours.set(slot, entry);
+                return entry;
+            }
+            return EMPTY;
+        }
+
+        /**
+         * Returns the standard UTC offset a {@link Calendar} applies to a local time.
+         */
+        int standardOffsetAtWallTime(long wallTime) {
+            long hour = Math.floorDiv(wallTime, MILLIS_PER_HOUR);
+            int slot = (int) hour & (SLOTS - 1);
+            long entry = wallHours.get(slot);
+            if (entry >> 20 == hour) {
+                return offsetOf(entry);
+            }
+
+            long start = hour * MILLIS_PER_HOUR;
+            int offset = standardOffsetWithCalendar(start);
+            if (offset == standardOffsetWithCalendar(start + MILLIS_PER_HOUR - 1) && isCacheable(offset)) {
+                wallHours.set(slot, entry(hour, offset, false));
+                return offset;
+            }
+            return standardOffsetWithCalendar(wallTime);
+        }
+
+        private int standardOffsetWithCalendar(long wallTime) {
+            long date = civilFromDays(Math.floorDiv(wallTime, MILLIS_PER_DAY));
+            int millisOfDay = (int) Math.floorMod(wallTime, MILLIS_PER_DAY);
+            Calendar calendar = new GregorianCalendar(timeZone);
+            calendar.set(Calendar.DST_OFFSET, 0);
+            calendar.set(yearOf(date), monthOf(date) - 1, dayOfMonthOf(date), millisOfDay / (int) MILLIS_PER_HOUR,
+                    millisOfDay / (int) MILLIS_PER_MINUTE % 60, millisOfDay / 1000 % 60);
+            calendar.set(Calendar.MILLISECOND, millisOfDay % 1000);
+            return (int) (wallTime - calendar.getTimeInMillis());
+        }
+
+        private static boolean isCacheable(int offset) {
+            return offset % 1000 == 0 && Math.abs(offset / 1000) <= MAX_OFFSET_SECONDS;
+        }
+
+        private static long entry(long hour, int offset, boolean daylightTime) {
+            return hour << 20 | (daylightTime ? 0x80000 : 0) | (offset / 1000 + 0x40000);
+        }
+    }
+}
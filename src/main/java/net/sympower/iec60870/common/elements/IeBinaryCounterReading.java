@@ -24,8 +24,6 @@
 package net.sympower.iec60870.common.elements;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -39,8 +37,7 @@ public class IeBinaryCounterReading extends InformationElement {
 
     private final int counterReading;
     private final int sequenceNumber;
-
-    private final Set<Flag> flags;
+    private final int flagBits;
 
     public enum Flag {
         CARRY(0x20),
@@ -73,11 +70,30 @@ public class IeBinaryCounterReading extends InformationElement {
     public IeBinaryCounterReading(int counterReading, int sequenceNumber, Set<Flag> flags) {
         this.counterReading = counterReading;
         this.sequenceNumber = sequenceNumber;
-        this.flags = flags;
+        int bits = 0;
+        for (Flag flag : flags) {
+            bits |= flag.mask;
+        }
+        this.flagBits = bits;
     }
 
     public IeBinaryCounterReading(int counterReading, int sequenceNumber) {
-        this(counterReading, sequenceNumber, EnumSet.noneOf(Flag.class));
+        this(counterReading, sequenceNumber, 0);
+    }
+
+    /**
+     * Creates a binary counter reading from the flag bits as encoded in the last octet, without building a set of
+     * flags.
+     *
+     * @param counterReading the counter reading
+     * @param sequenceNumber the sequence number, 0 to 31
+     * @param flagBits a combination of the masks 0x20 (carry), 0x40 (counter adjusted) and 0x80 (invalid)
+     * @since 2.1
+     */
+    public IeBinaryCounterReading(int counterReading, int sequenceNumber, int flagBits) {
+        this.counterReading = counterReading;
+        this.sequenceNumber = sequenceNumber;
+        this.flagBits = flagBits & 0xe0;
     }
 
     public IeBinaryCounterReading(int counterReading, int sequenceNumber, Flag firstFlag, Flag... flag) {
@@ -90,31 +106,20 @@ public class IeBinaryCounterReading extends InformationElement {
 
         byte b0 = is.readByte();
 
-        int sequenceNumber = b0 & 0x1f;
-
-        Set<Flag> flags = Flag.flagsFor(b0);
-        return new IeBinaryCounterReading(counterReading, sequenceNumber, flags);
+        return new IeBinaryCounterReading(counterReading, b0 & 0x1f, b0);
 
     }
 
     @Override
     int encode(byte[] buffer, int i) {
 
-        ByteBuffer buf = ByteBuffer.wrap(buffer, i, buffer.length - i);
-        buf.order(ByteOrder.LITTLE_ENDIAN);
-        buf.putInt(counterReading).put(seq());
+        buffer[i++] = (byte) counterReading;
+        buffer[i++] = (byte) (counterReading >> 8);
+        buffer[i++] = (byte) (counterReading >> 16);
+        buffer[i++] = (byte) (counterReading >> 24);
+        buffer[i] = (byte) ((sequenceNumber & 0x1f) | flagBits);
 
-        return buf.position() - i;
-
-    }
-
-    private byte seq() {
-        byte v = (byte) sequenceNumber;
-        for (Flag flag : flags) {
-            v |= flag.mask;
-        }
-
-        return v;
+        return 5;
     }
 
     public int getCounterReading() {
@@ -126,11 +131,21 @@ public class IeBinaryCounterReading extends InformationElement {
     }
 
     public Set<Flag> getFlags() {
-        return flags;
+        return Flag.flagsFor((byte) flagBits);
+    }
+
+    /**
+     * Returns the flags as encoded in the last octet, a combination of the masks 0x20 (carry), 0x40 (counter
+     * adjusted) and 0x80 (invalid).
+     *
+     * @since 2.1
+     */
+    public int getFlagBits() {
+        return flagBits;
     }
 
     @Override
     public String toString() {
-        return "Binary counter reading: " + counterReading + ", seq num: " + sequenceNumber + ", flags: " + flags;
+        return "Binary counter reading: " + counterReading + ", seq num: " + sequenceNumber + ", flags: " + getFlags();
     }
 }
@@ -25,10 +25,7 @@ package net.sympower.iec60870.common.elements;
 
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.TimeZone;
 
 /**
@@ -39,7 +36,7 @@ import java.util.TimeZone;
  */
 public class IeTime56 extends InformationElement {
 
-    private static final int LENGTH = 7;
+    private static final int LENGTH = CP56Time2a.LENGTH;
     private final byte[] value;
     private final TimeZone timeZone;
 
@@ -54,40 +51,9 @@ public class IeTime56 extends InformationElement {
      *            true if the time shall be marked as invalid
      */
     public IeTime56(long timestamp, TimeZone timeZone, boolean invalid) {
-        Calendar calendar = Calendar.getInstance(timeZone);
         this.timeZone = timeZone;
-        calendar.setTimeInMillis(timestamp);
-
-        short ms = (short) (calendar.get(Calendar.MILLISECOND) + 1000 * calendar.get(Calendar.SECOND));
-
-        byte day = (byte) (calendar.get(Calendar.DAY_OF_MONTH)
-                + ((((calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7) + 1) << 5));
-
-        this.value = ByteBuffer.allocate(7)
-                .order(ByteOrder.LITTLE_ENDIAN)
-                .putShort(ms)
-                .put(minuteFor(invalid, calendar))
-                .put(hourOfTheDay(calendar))
-                .put(day)
-                .put((byte) (calendar.get(Calendar.MONTH) + 1))
-                .put((byte) (calendar.get(Calendar.YEAR) % 100))
-                .array();
-    }
-
-    private static byte hourOfTheDay(Calendar calendar) {
-        int hod = calendar.get(Calendar.HOUR_OF_DAY);
-        if (calendar.getTimeZone().inDaylightTime(calendar.getTime())) {
-            hod |= 0x80;
-        }
-        return (byte) hod;
-    }
-
-    private static byte minuteFor(boolean invalid, Calendar calendar) {
-        int min = calendar.get(Calendar.MINUTE);
-        if (invalid) {
-            min |= 0x80;
-        }
-        return (byte) min;
+        this.value = new byte[LENGTH];
+        CP56Time2a.encode(timestamp, timeZone, invalid, value, 0);
     }
 
     /**
@@ -140,18 +106,7 @@ public class IeTime56 extends InformationElement {
      * @return the timestamp in ms equivalent to this Time56 instance
      */
     public long getTimestamp(int startOfCentury, TimeZone timeZone) {
-
-        int century = startOfCentury / 100 * 100;
-        if (value[6] < (startOfCentury % 100)) {
-            century += 100;
-        }
-
-        Calendar calendar = Calendar.getInstance(timeZone);
-        calendar.set(Calendar.DST_OFFSET, isSummerTime() ? 3600000 : 0);
-        calendar.set(getYear() + century, getMonth() - 1, getDayOfMonth(), getHour(), getMinute(), getSecond());
-        calendar.set(Calendar.MILLISECOND, getMillisecond());
-
-        return calendar.getTimeInMillis();
+        return CP56Time2a.decode(value, 0, startOfCentury, timeZone);
     }
 
     /**
@@ -0,0 +1,100 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.IEC60870Settings;
+
+/**
+ * Packs points into as few ASDUs as possible. Points are described by plan entries, longs combining a type ordinal,
+ * the information object address and a point index, that sort by type and then by address.
+ */
+final class AsduPacker {
+
+    private static final int MAX_OBJECTS_PER_ASDU = 127;
+
+    private static final int TYPE_SHIFT = 55;
+    private static final int ADDRESS_SHIFT = 31;
+    private static final long INDEX_MASK = (1L << ADDRESS_SHIFT) - 1;
+
+    private final int headerLength;
+    private final int addressLength;
+
+    AsduPacker(IEC60870Settings settings) {
+        this.headerLength = 2 + settings.getCotFieldLength() + settings.getCommonAddressFieldLength();
+        this.addressLength = settings.getIoaFieldLength();
+    }
+
+    static long entry(int type, int informationObjectAddress, int index) {
+        return ((long) type << TYPE_SHIFT) | ((long) informationObjectAddress << ADDRESS_SHIFT) | index;
+    }
+
+    static int typeOf(long entry) {
+        return (int) (entry >>> TYPE_SHIFT);
+    }
+
+    static int addressOf(long entry) {
+        return (int) ((entry >>> ADDRESS_SHIFT) & 0xffffff);
+    }
+
+    static int indexOf(long entry) {
+        return (int) (entry & INDEX_MASK);
+    }
+
+    /**
+     * Returns how many objects with elements of the given length fit into one ASDU with an address per object.
+     */
+    int maxObjects(int elementLength) {
+        return Math.min(MAX_OBJECTS_PER_ASDU, (IEC60870ProcessImage.MAX_ASDU_LENGTH - headerLength)
+                / (addressLength + elementLength));
+    }
+
+    /**
+     * Returns how many elements of the given length fit into one sequence ASDU (SQ=1), which carries only the first
+     * information object address.
+     */
+    int maxSequence(int elementLength) {
+        return Math.min(MAX_OBJECTS_PER_ASDU, (IEC60870ProcessImage.MAX_ASDU_LENGTH - headerLength - addressLength)
+                / elementLength);
+    }
+
+    /**
+     * Returns the size of the next ASDU for the sorted entries from {@code position} on: positive for a sequence
+     * ASDU of consecutive addresses, negative for an ASDU with one address per object. Taking whichever holds more
+     * points at each step gives the fewest ASDUs for the sorted order, because fewer remaining points never need
+     * more ASDUs.
+     *
+     * @param end the end of the entries of the same type
+     */
+    int next(long[] plan, int position, int end, int elementLength) {
+        int remaining = end - position;
+        int maxSequence = Math.min(remaining, maxSequence(elementLength));
+        int first = addressOf(plan[position]);
+        int run = 1;
+        while (run < maxSequence && addressOf(plan[position + run]) == first + run) {
+            run++;
+        }
+        int objects = Math.min(remaining, maxObjects(elementLength));
+        return run > 1 && run >= objects ? run : -objects;
+    }
+}
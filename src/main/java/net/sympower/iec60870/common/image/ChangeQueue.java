@@ -0,0 +1,75 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-producer, single-consumer ring of point indices. The ring never overflows as long as each point is queued
+ * at most once until it has been polled, which the process image ensures with a per-point pending flag.
+ */
+final class ChangeQueue {
+
+    private static final int EMPTY = -1;
+
+    private final AtomicIntegerArray slots;
+    private final AtomicLong tail = new AtomicLong();
+    private final int mask;
+
+    /** Only accessed by the consumer. */
+    private long head;
+
+    ChangeQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1);
+        slots = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            slots.lazySet(i, EMPTY);
+        }
+        mask = size - 1;
+    }
+
+    void offer(int index) {
+        slots.set((int) tail.getAndIncrement() & mask, index);
+    }
+
+    /**
+     * Returns the next queued point index, or -1 if the queue is empty. A slot that has been claimed but not yet
+     * written reads as empty; its producer signals the consumer after writing it.
+     */
+    int poll() {
+        int slot = (int) head & mask;
+        int index = slots.get(slot);
+        if (index == EMPTY) {
+            return EMPTY;
+        }
+        slots.set(slot, EMPTY);
+        head++;
+        return index;
+    }
+
+    boolean isEmpty() {
+        return slots.get((int) head & mask) == EMPTY;
+    }
+}
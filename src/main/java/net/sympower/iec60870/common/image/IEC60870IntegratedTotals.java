@@ -0,0 +1,660 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeQualifierOfCounterInterrogation;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Integrated totals of a station: running counters that are frozen, reset and read by counter interrogation
+ * commands ({@code C_CI_NA_1}) and reported as {@code M_IT_NA_1} or {@code M_IT_TB_1}.
+ *
+ * <p>Counters are registered up front with {@link #addCounter} and kept in primitive arrays, with the counters of
+ * each common address listed in an index array of their own. {@link #add(int, long)} is lock-free and may be called
+ * from any number of threads. A freeze is atomic over all addressed counters without pausing them: it starts a new
+ * epoch, and a counter updated for the first time in an epoch saves its previous total first, so the freeze reads
+ * each counter's total at the moment the epoch changed while updates carry on.</p>
+ *
+ * <p>The qualifier of a counter interrogation selects the counters (RQT: group 1 to 4, or 5 for all) and the action
+ * (FRZ): 0 reads the frozen values, 1 freezes, 2 freezes and resets the running totals, 3 resets them. Reads are
+ * answered with ACTIVATION_CON, the frozen values in packed ASDUs and ACTIVATION_TERMINATION; the other actions with
+ * ACTIVATION_CON and ACTIVATION_TERMINATION. Every freeze advances the sequence number of the frozen counters. The
+ * carry flag is set if the 32 bit reading wrapped since the previous freeze, the adjusted flag if the counter was
+ * {@linkplain #set(int, long) set} since.</p>
+ *
+ * <p>An IEC 101 secondary connection queues the confirmation and termination as class 1 data and the counter values
+ * as class 2 data; the values are queued once the confirmation has been polled, and the termination once the last
+ * values have been polled.</p>
+ *
+ * @since 2.1
+ */
+public class IEC60870IntegratedTotals implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870IntegratedTotals.class);
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = IEC60870Threads.daemonThreadFactory(
+            "IEC60870-Counters-");
+
+    /** Request qualifier (RQT) for all counters. */
+    public static final int GENERAL_REQUEST = 5;
+
+    private static final int FREEZE_READ = 0;
+    private static final int FREEZE = 1;
+    private static final int FREEZE_AND_RESET = 2;
+    private static final int RESET = 3;
+
+    private static final int BROADCAST_ADDRESS = 0xffff;
+    private static final int COUNTER_LENGTH = 5;
+
+    private static final int STRIDE = 4;
+    private static final int SEQUENCE = 0;
+    private static final int TOTAL = 1;
+    private static final int SAVED_TOTAL = 2;
+    private static final int EPOCH = 3;
+
+    private static final int ADJUSTED = 0x40;
+    private static final int INVALID = 0x80;
+    private static final int CARRY = 0x20;
+
+    private final int capacity;
+    private final int maxInFlight;
+    private final AsduPacker packer;
+    private final PointIndex counterIndex;
+    private final int[] commonAddresses;
+    private final int[] informationObjectAddresses;
+    private final byte[] groups;
+    private final boolean[] timeTagged;
+    private final AtomicLongArray counters;
+    private final AtomicIntegerArray status;
+    private volatile int size;
+    private volatile long epoch;
+
+    /** Guards the frozen values and the station lists, and serialises freezes. */
+    private final ReentrantLock freezeLock = new ReentrantLock();
+    private final Map<Integer, Station> stations = new TreeMap<>();
+    private final int[] frozenReadings;
+    private final byte[] frozenSequenceAndFlags;
+    private final long[] frozenTotals;
+    private final long[] frozenTimes;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates integrated totals for up to {@code capacity} counters, using the default IEC 60870-5-104 field lengths.
+     */
+    public IEC60870IntegratedTotals(int capacity) {
+        this(capacity, new IEC60870Settings(), 32);
+    }
+
+    /**
+     * Creates integrated totals.
+     *
+     * @param capacity the maximum number of counters
+     * @param settings the settings of the connections answered; the field lengths determine how many counters fit
+     *            into an ASDU, and the thread factory, if set, creates the thread answering commands
+     * @param maxInFlight the maximum number of ASDUs per read that are queued on the connection and not yet
+     *            acknowledged
+     */
+    public IEC60870IntegratedTotals(int capacity, IEC60870Settings settings, int maxInFlight) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight ASDUs must be at least 1");
+        }
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.packer = new AsduPacker(settings);
+        this.counterIndex = new PointIndex(capacity);
+        this.commonAddresses = new int[capacity];
+        this.informationObjectAddresses = new int[capacity];
+        this.groups = new byte[capacity];
+        this.timeTagged = new boolean[capacity];
+        this.counters = new AtomicLongArray(capacity * STRIDE);
+        this.status = new AtomicIntegerArray(capacity);
+        this.frozenReadings = new int[capacity];
+        this.frozenSequenceAndFlags = new byte[capacity];
+        this.frozenTotals = new long[capacity];
+        this.frozenTimes = new long[capacity];
+
+        ThreadFactory threadFactory = settings.getThreadFactory();
+        this.executor = Executors.newSingleThreadExecutor(
+                threadFactory != null ? threadFactory : DEFAULT_THREAD_FACTORY);
+    }
+
+    /**
+     * Registers a counter without time tag that belongs to no counter group.
+     *
+     * @return the counter index
+     * @see #addCounter(int, int, int, boolean)
+     */
+    public int addCounter(int commonAddress, int informationObjectAddress) {
+        return addCounter(commonAddress, informationObjectAddress, 0, false);
+    }
+
+    /**
+     * Registers a counter. Counters are numbered in registration order, starting at 0.
+     *
+     * @param commonAddress the common address of the station, 0 to 65535
+     * @param informationObjectAddress the information object address, 0 to 16777215
+     * @param group the counter group 1 to 4, or 0 if the counter is only addressed by general requests
+     * @param timeTagged whether frozen values are reported as {@code M_IT_TB_1} with the time of the freeze
+     * @return the counter index
+     * @throws IllegalArgumentException if the counter already exists or an argument is out of range
+     * @throws IllegalStateException if the capacity is exhausted
+     */
+    public int addCounter(int commonAddress, int informationObjectAddress, int group, boolean timeTagged) {
+        if (commonAddress < 0 || commonAddress > 0xffff) {
+            throw new IllegalArgumentException("Common address must be in the range 0..65535");
+        }
+        if (informationObjectAddress < 0 || informationObjectAddress > 0xffffff) {
+            throw new IllegalArgumentException("Information object address must be in the range 0..16777215");
+        }
+        if (group < 0 || group > 4) {
+            throw new IllegalArgumentException("Counter group must be in the range 0..4");
+        }
+        freezeLock.lock();
+        try {
+            long key = PointIndex.key(commonAddress, informationObjectAddress);
+            if (counterIndex.get(key) >= 0) {
+                throw new IllegalArgumentException(
+                        "Counter already exists: CA=" + commonAddress + ", IOA=" + informationObjectAddress);
+            }
+            int index = size;
+            if (index == capacity) {
+                throw new IllegalStateException("Integrated totals are full (capacity=" + capacity + ")");
+            }
+
+            commonAddresses[index] = commonAddress;
+            informationObjectAddresses[index] = informationObjectAddress;
+            groups[index] = (byte) group;
+            this.timeTagged[index] = timeTagged;
+            counters.set(index * STRIDE + EPOCH, epoch);
+            stations.computeIfAbsent(commonAddress, address -> new Station()).add(index);
+
+            counterIndex.put(key, index);
+            size = index + 1;
+            return index;
+        } finally {
+            freezeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the index of a counter, or -1 if the counter is not registered.
+     */
+    public int indexOf(int commonAddress, int informationObjectAddress) {
+        return counterIndex.get(PointIndex.key(commonAddress, informationObjectAddress));
+    }
+
+    /**
+     * Adds to the running total of a counter. This method does not block on freezes and may be called from any
+     * number of threads.
+     *
+     * @param index the counter index
+     * @param delta the amount to add
+     */
+    public void add(int index, long delta) {
+        checkIndex(index);
+        int base = index * STRIDE;
+        long sequence = lockCounter(base);
+        long total = counters.get(base + TOTAL);
+        saveForFreeze(base, total);
+        counters.lazySet(base + TOTAL, total + delta);
+        counters.lazySet(base + SEQUENCE, sequence + 1);
+    }
+
+    /**
+     * Sets the running total of a counter, for instance after replacing a meter. The next frozen value of the counter
+     * is flagged as adjusted.
+     */
+    public void set(int index, long total) {
+        checkIndex(index);
+        int base = index * STRIDE;
+        long sequence = lockCounter(base);
+        saveForFreeze(base, counters.get(base + TOTAL));
+        counters.lazySet(base + TOTAL, total);
+        status.accumulateAndGet(index, ADJUSTED, (flags, flag) -> flags | flag);
+        counters.lazySet(base + SEQUENCE, sequence + 1);
+    }
+
+    /**
+     * Marks the values of a counter as invalid or valid again, from its next freeze on.
+     */
+    public void setInvalid(int index, boolean invalid) {
+        checkIndex(index);
+        if (invalid) {
+            status.accumulateAndGet(index, INVALID, (flags, flag) -> flags | flag);
+        }
+        else {
+            status.accumulateAndGet(index, ~INVALID, (flags, mask) -> flags & mask);
+        }
+    }
+
+    /**
+     * Returns the running total of a counter.
+     */
+    public long getValue(int index) {
+        checkIndex(index);
+        return counters.get(index * STRIDE + TOTAL);
+    }
+
+    /**
+     * Returns the reading of a counter at its last freeze.
+     */
+    public int getFrozenValue(int index) {
+        checkIndex(index);
+        freezeLock.lock();
+        try {
+            return frozenReadings[index];
+        } finally {
+            freezeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last freeze of a counter, 0 to 31.
+     */
+    public int getSequenceNumber(int index) {
+        checkIndex(index);
+        freezeLock.lock();
+        try {
+            return frozenSequenceAndFlags[index] & 0x1f;
+        } finally {
+            freezeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of registered counters.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Freezes the counters of a station, or of all stations for the broadcast address, atomically.
+     *
+     * @param commonAddress the common address, or 65535 for all stations
+     * @param request the counter group 1 to 4, or {@link #GENERAL_REQUEST} for all counters
+     * @param reset whether the running totals restart from 0 at the freeze
+     */
+    public void freeze(int commonAddress, int request, boolean reset) {
+        checkRequest(request);
+        freezeLock.lock();
+        try {
+            freezeCounters(stationsFor(commonAddress), request, reset);
+        } finally {
+            freezeLock.unlock();
+        }
+    }
+
+    /**
+     * Resets the running totals of the counters of a station, or of all stations for the broadcast address, without
+     * freezing them.
+     *
+     * @param commonAddress the common address, or 65535 for all stations
+     * @param request the counter group 1 to 4, or {@link #GENERAL_REQUEST} for all counters
+     */
+    public void reset(int commonAddress, int request) {
+        checkRequest(request);
+        freezeLock.lock();
+        try {
+            for (Station station : stationsFor(commonAddress)) {
+                for (int i = 0; i < station.count; i++) {
+                    int index = station.members[i];
+                    if (isRequested(index, request)) {
+                        int base = index * STRIDE;
+                        long sequence = lockCounter(base);
+                        saveForFreeze(base, counters.get(base + TOTAL));
+                        counters.lazySet(base + TOTAL, 0);
+                        counters.lazySet(base + SEQUENCE, sequence + 1);
+                        frozenTotals[index] = 0;
+                    }
+                }
+            }
+        } finally {
+            freezeLock.unlock();
+        }
+    }
+
+    /**
+     * Handles an ASDU received on a connection if it is a counter interrogation command. The command is executed and
+     * answered on the thread of the integrated totals; this method does not block.
+     *
+     * @param connection the connection the ASDU was received on, which the answer is sent to
+     * @param asdu the received ASDU
+     * @return whether the ASDU was a counter interrogation command
+     */
+    public boolean handle(IEC60870Connection connection, ASdu asdu) {
+        if (asdu.getTypeIdentification() != ASduType.C_CI_NA_1) {
+            return false;
+        }
+        try {
+            executor.execute(() -> execute(connection, asdu));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Integrated totals are closed, ignoring counter interrogation");
+        }
+        return true;
+    }
+
+    /**
+     * Stops the thread answering counter interrogations.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void execute(IEC60870Connection connection, ASdu request) {
+        IeQualifierOfCounterInterrogation qualifier = qualifierOf(request);
+        int commonAddress = request.getCommonAddress();
+
+        if (request.getCauseOfTransmission() != CauseOfTransmission.ACTIVATION) {
+            reply(connection, request, commonAddress, CauseOfTransmission.UNKNOWN_CAUSE_OF_TRANSMISSION, true);
+            return;
+        }
+        if (qualifier == null || qualifier.getRequest() < 1 || qualifier.getRequest() > GENERAL_REQUEST) {
+            reply(connection, request, commonAddress, CauseOfTransmission.ACTIVATION_CON, true);
+            return;
+        }
+
+        CounterResponse response;
+        freezeLock.lock();
+        try {
+            Station[] addressed = stationsFor(commonAddress);
+            if (addressed.length == 0) {
+                reply(connection, request, commonAddress, CauseOfTransmission.UNKNOWN_COMMON_ADDRESS_OF_ASDU, true);
+                return;
+            }
+            switch (qualifier.getFreeze()) {
+            case FREEZE:
+            case FREEZE_AND_RESET:
+                freezeCounters(addressed, qualifier.getRequest(), qualifier.getFreeze() == FREEZE_AND_RESET);
+                break;
+            case RESET:
+                reset(commonAddress, qualifier.getRequest());
+                break;
+            default:
+                break;
+            }
+            response = new CounterResponse(connection, request, qualifier, addressed);
+        } finally {
+            freezeLock.unlock();
+        }
+        response.pump();
+    }
+
+    private void freezeCounters(Station[] addressed, int request, boolean reset) {
+        // Every update from here on saves the total it overwrites, so the totals read below are those of this moment
+        long cut = ++epoch;
+        long now = System.currentTimeMillis();
+        for (Station station : addressed) {
+            for (int i = 0; i < station.count; i++) {
+                int index = station.members[i];
+                if (!isRequested(index, request)) {
+                    continue;
+                }
+                int base = index * STRIDE;
+                long sequence = lockCounter(base);
+                long current = counters.get(base + TOTAL);
+                long total = counters.get(base + EPOCH) == cut ? counters.get(base + SAVED_TOTAL) : current;
+                if (reset) {
+                    // Keeps what was added after the freeze
+                    counters.lazySet(base + TOTAL, current - total);
+                }
+                counters.lazySet(base + SEQUENCE, sequence + 1);
+
+                int flags = status.getAndAccumulate(index, ~ADJUSTED, (value, mask) -> value & mask);
+                if (wraps(frozenTotals[index]) != wraps(total)) {
+                    flags |= CARRY;
+                }
+                int sequenceNumber = (frozenSequenceAndFlags[index] + 1) & 0x1f;
+                frozenReadings[index] = (int) total;
+                frozenSequenceAndFlags[index] = (byte) (sequenceNumber | (flags & (CARRY | ADJUSTED | INVALID)));
+                frozenTotals[index] = reset ? 0 : total;
+                frozenTimes[index] = now;
+            }
+        }
+    }
+
+    /**
+     * Returns how often a total has wrapped around the 32 bit range of a counter reading.
+     */
+    private static long wraps(long total) {
+        return Math.floorDiv(total + 0x80000000L, 0x100000000L);
+    }
+
+    private void saveForFreeze(int base, long total) {
+        long current = epoch;
+        if (counters.get(base + EPOCH) != current) {
+            counters.lazySet(base + SAVED_TOTAL, total);
+            counters.lazySet(base + EPOCH, current);
+        }
+    }
+
+    private long lockCounter(int base) {
+        while (true) {
+            long sequence = counters.get(base + SEQUENCE);
+            if ((sequence & 1) == 0 && counters.compareAndSet(base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean isRequested(int index, int request) {
+        return request == GENERAL_REQUEST || groups[index] == request;
+    }
+
+    private Station[] stationsFor(int commonAddress) {
+        if (commonAddress == BROADCAST_ADDRESS) {
+            return stations.values().toArray(new Station[0]);
+        }
+        Station station = stations.get(commonAddress);
+        return station != null ? new Station[] { station } : new Station[0];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown counter index: " + index);
+        }
+    }
+
+    private static void checkRequest(int request) {
+        if (request < 1 || request > GENERAL_REQUEST) {
+            throw new IllegalArgumentException("Request must be a counter group 1..4 or 5 for all counters");
+        }
+    }
+
+    private void reply(IEC60870Connection connection, ASdu request, int commonAddress, CauseOfTransmission cot,
+            boolean negative) {
+        connection.sendAsync(createReply(request, commonAddress, cot, negative)).whenComplete((result, e) -> {
+            if (e != null) {
+                logger.debug("Failed to answer counter interrogation: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static ASdu createReply(ASdu request, int commonAddress, CauseOfTransmission cot, boolean negative) {
+        IeQualifierOfCounterInterrogation qualifier = qualifierOf(request);
+        if (qualifier == null) {
+            qualifier = new IeQualifierOfCounterInterrogation(0, 0);
+        }
+        return new ASdu(ASduType.C_CI_NA_1, false, cot, request.isTestFrame(), negative, originatorOf(request),
+                commonAddress, new InformationObject(0, qualifier));
+    }
+
+    private static IeQualifierOfCounterInterrogation qualifierOf(ASdu request) {
+        InformationObject[] objects = request.getInformationObjects();
+        if (objects == null || objects.length == 0) {
+            return null;
+        }
+        return (IeQualifierOfCounterInterrogation) objects[0].getInformationElements()[0][0];
+    }
+
+    private static int originatorOf(ASdu request) {
+        Integer originatorAddress = request.getOriginatorAddress();
+        return originatorAddress != null ? originatorAddress : 0;
+    }
+
+    /**
+     * The counters of one common address.
+     */
+    private static final class Station {
+
+        private int[] members = new int[16];
+        private int count;
+
+        void add(int index) {
+            if (count == members.length) {
+                members = Arrays.copyOf(members, count * 2);
+            }
+            members[count++] = index;
+        }
+    }
+
+    /**
+     * Answers a counter interrogation station by station, with the frozen values if the command reads them.
+     */
+    private final class CounterResponse extends ResponseStream {
+
+        private final ASdu request;
+        private final int counterRequest;
+        private final boolean read;
+        private final CauseOfTransmission cot;
+        private final Station[] addressed;
+
+        private int station;
+        private long[] plan;
+        private int position = -1;
+
+        CounterResponse(IEC60870Connection connection, ASdu request, IeQualifierOfCounterInterrogation qualifier,
+                Station[] addressed) {
+            super(connection, maxInFlight, executor, freezeLock);
+            this.request = request;
+            this.counterRequest = qualifier.getRequest();
+            this.read = qualifier.getFreeze() == FREEZE_READ;
+            this.cot = CauseOfTransmission.causeFor(counterRequest == GENERAL_REQUEST ? 37 : 37 + counterRequest);
+            this.addressed = addressed;
+        }
+
+        @Override
+        ASdu next() {
+            if (station == addressed.length) {
+                return null;
+            }
+            int commonAddress = commonAddresses[addressed[station].members[0]];
+            if (position < 0) {
+                plan = read ? plan(addressed[station]) : new long[0];
+                position = 0;
+                return createReply(request, commonAddress, CauseOfTransmission.ACTIVATION_CON, false);
+            }
+            if (position == plan.length) {
+                position = -1;
+                station++;
+                return createReply(request, commonAddress, CauseOfTransmission.ACTIVATION_TERMINATION, false);
+            }
+
+            int type = AsduPacker.typeOf(plan[position]);
+            int end = position + 1;
+            while (end < plan.length && AsduPacker.typeOf(plan[end]) == type) {
+                end++;
+            }
+            boolean withTimeTag = type == 1;
+            ASduType asduType = withTimeTag ? ASduType.M_IT_TB_1 : ASduType.M_IT_NA_1;
+            int size = packer.next(plan, position, end, withTimeTag ? COUNTER_LENGTH + 7 : COUNTER_LENGTH);
+
+            if (size > 0) {
+                InformationElement[][] elements = new InformationElement[size][];
+                for (int i = 0; i < size; i++) {
+                    elements[i] = createElements(AsduPacker.indexOf(plan[position + i]), withTimeTag);
+                }
+                int first = AsduPacker.addressOf(plan[position]);
+                position += size;
+                return new ASdu(asduType, true, cot, request.isTestFrame(), false, originatorOf(request),
+                        commonAddress, new InformationObject(first, elements));
+            }
+            InformationObject[] objects = new InformationObject[-size];
+            for (int i = 0; i < objects.length; i++) {
+                long entry = plan[position + i];
+                objects[i] = new InformationObject(AsduPacker.addressOf(entry),
+                        createElements(AsduPacker.indexOf(entry), withTimeTag));
+            }
+            position += objects.length;
+            return new ASdu(asduType, false, cot, request.isTestFrame(), false, originatorOf(request),
+                    commonAddress, objects);
+        }
+
+        @Override
+        void onFinished() {
+        }
+
+        private long[] plan(Station station) {
+            long[] entries = new long[station.count];
+            int count = 0;
+            for (int i = 0; i < station.count; i++) {
+                int index = station.members[i];
+                if (isRequested(index, counterRequest)) {
+                    entries[count++] = AsduPacker.entry(timeTagged[index] ? 1 : 0, informationObjectAddresses[index],
+                            index);
+                }
+            }
+            Arrays.sort(entries, 0, count);
+            return Arrays.copyOf(entries, count);
+        }
+
+        private InformationElement[] createElements(int index, boolean withTimeTag) {
+            int sequenceAndFlags = frozenSequenceAndFlags[index] & 0xff;
+            IeBinaryCounterReading reading = new IeBinaryCounterReading(frozenReadings[index],
+                    sequenceAndFlags & 0x1f, sequenceAndFlags);
+            if (withTimeTag) {
+                return new InformationElement[] { reading, new IeTime56(frozenTimes[index]) };
+            }
+            return new InformationElement[] { reading };
+        }
+    }
+}
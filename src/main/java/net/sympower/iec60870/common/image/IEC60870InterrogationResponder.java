@@ -0,0 +1,335 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Answers station and group interrogations ({@code C_IC_NA_1}) from an {@link IEC60870ProcessImage}.
+ *
+ * <p>An interrogation is confirmed with ACTIVATION_CON, answered with the current value of every point of the
+ * addressed station and group, and closed with ACTIVATION_TERMINATION. Points are sent without time tag, sorted by
+ * type and information object address: runs of consecutive addresses go into sequence ASDUs (SQ=1), which carry the
+ * address only once, and the remaining points into ASDUs with one address per object, each filled up to
+ * {@link IEC60870ProcessImage#MAX_ASDU_LENGTH}. Interrogations of the broadcast address are answered station by
+ * station.</p>
+ *
+ * <p>ASDUs are queued with {@link IEC60870Connection#sendAsync(ASdu)}, at most a configurable number at a time per
+ * interrogation, and the next ones once earlier ones are acknowledged, so a large interrogation follows the k window
+ * of an IEC 104 connection without filling its send queue. Values are read when their ASDU is queued, under the same
+ * lock as spontaneous changes, so a spontaneous change is never overtaken by an older interrogated value. An
+ * interrogation is cancelled by a DEACTIVATION request, when a send fails or when the connection stops data
+ * transfer.</p>
+ *
+ * <p>An IEC 101 secondary connection queues the confirmation and termination as class 1 data and the interrogated
+ * values as class 2 data. The values are then queued only once the confirmation has been polled, and the termination
+ * once the last values have been polled. Spontaneous changes are class 1 data and may reach the primary station
+ * before interrogated values that were already queued.</p>
+ *
+ * <pre>{@code
+ * IEC60870InterrogationResponder responder = new IEC60870InterrogationResponder(image);
+ *
+ * public void onAsduReceived(ASdu asdu) {
+ *     if (responder.handle(connection, asdu)) {
+ *         return;
+ *     }
+ *     // other commands
+ * }
+ * }</pre>
+ *
+ * @since 2.1
+ */
+public class IEC60870InterrogationResponder implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870InterrogationResponder.class);
+
+    private static final int STATION_INTERROGATION = 20;
+    private static final int LAST_GROUP_INTERROGATION = 36;
+    private static final int BROADCAST_ADDRESS = 0xffff;
+
+    private final IEC60870ProcessImage image;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final List<Interrogation> active = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a responder that keeps up to 32 ASDUs per interrogation queued on the connection.
+     */
+    public IEC60870InterrogationResponder(IEC60870ProcessImage image) {
+        this(image, 32);
+    }
+
+    /**
+     * Creates a responder.
+     *
+     * @param image the process image to answer from
+     * @param maxInFlight the maximum number of ASDUs per interrogation that are queued on the connection and not yet
+     *            acknowledged; at least the k window of the connection to keep it full
+     */
+    public IEC60870InterrogationResponder(IEC60870ProcessImage image, int maxInFlight) {
+        if (image == null) {
+            throw new IllegalArgumentException("Process image must not be null");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight ASDUs must be at least 1");
+        }
+        this.image = image;
+        this.maxInFlight = maxInFlight;
+        this.executor = Executors.newSingleThreadExecutor(image.getThreadFactory());
+    }
+
+    /**
+     * Handles an ASDU received on a connection if it is an interrogation command. The interrogation is answered on
+     * the responder's thread; this method does not block.
+     *
+     * @param connection the connection the ASDU was received on, which the answer is sent to
+     * @param asdu the received ASDU
+     * @return whether the ASDU was an interrogation command
+     */
+    public boolean handle(IEC60870Connection connection, ASdu asdu) {
+        if (asdu.getTypeIdentification() != ASduType.C_IC_NA_1) {
+            return false;
+        }
+        try {
+            executor.execute(() -> start(connection, asdu));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Interrogation responder is closed, ignoring interrogation");
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of interrogations currently being answered.
+     */
+    public int getActiveInterrogations() {
+        return active.size();
+    }
+
+    /**
+     * Cancels all running interrogations and stops the responder thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        active.clear();
+    }
+
+    private void start(IEC60870Connection connection, ASdu request) {
+        int qualifier = qualifierOf(request);
+        int commonAddress = request.getCommonAddress();
+
+        if (request.getCauseOfTransmission() == CauseOfTransmission.DEACTIVATION) {
+            boolean cancelled = false;
+            for (Interrogation interrogation : active) {
+                if (interrogation.matches(connection, commonAddress, qualifier)) {
+                    interrogation.finish();
+                    cancelled = true;
+                }
+            }
+            reply(connection, request, commonAddress, CauseOfTransmission.DEACTIVATION_CON, !cancelled);
+            return;
+        }
+        if (request.getCauseOfTransmission() != CauseOfTransmission.ACTIVATION) {
+            reply(connection, request, commonAddress, CauseOfTransmission.UNKNOWN_CAUSE_OF_TRANSMISSION, true);
+            return;
+        }
+        if (qualifier < STATION_INTERROGATION || qualifier > LAST_GROUP_INTERROGATION) {
+            reply(connection, request, commonAddress, CauseOfTransmission.ACTIVATION_CON, true);
+            return;
+        }
+
+        int[] stations = commonAddress == BROADCAST_ADDRESS ? stations() : stations(commonAddress);
+        if (stations.length == 0) {
+            reply(connection, request, commonAddress, CauseOfTransmission.UNKNOWN_COMMON_ADDRESS_OF_ASDU, true);
+            return;
+        }
+
+        Interrogation interrogation = new Interrogation(connection, request, qualifier, stations);
+        active.add(interrogation);
+        interrogation.pump();
+    }
+
+    private void reply(IEC60870Connection connection, ASdu request, int commonAddress, CauseOfTransmission cot,
+            boolean negative) {
+        connection.sendAsync(createReply(request, commonAddress, cot, negative, qualifierOf(request)))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        logger.debug("Failed to answer interrogation: {}", e.getMessage());
+                    }
+                });
+    }
+
+    private static ASdu createReply(ASdu request, int commonAddress, CauseOfTransmission cot, boolean negative,
+            int qualifier) {
+        return new ASdu(ASduType.C_IC_NA_1, false, cot, request.isTestFrame(), negative, originatorOf(request),
+                commonAddress, new InformationObject(0, new IeQualifierOfInterrogation(qualifier)));
+    }
+
+    private static int qualifierOf(ASdu request) {
+        InformationObject[] objects = request.getInformationObjects();
+        if (objects == null || objects.length == 0) {
+            return -1;
+        }
+        return ((IeQualifierOfInterrogation) objects[0].getInformationElements()[0][0]).getValue();
+    }
+
+    private static int originatorOf(ASdu request) {
+        Integer originatorAddress = request.getOriginatorAddress();
+        return originatorAddress != null ? originatorAddress : 0;
+    }
+
+    /**
+     * Returns the distinct common addresses of the process image in ascending order.
+     */
+    private int[] stations() {
+        int size = image.size();
+        int[] addresses = new int[size];
+        for (int i = 0; i < size; i++) {
+            addresses[i] = image.getCommonAddress(i);
+        }
+        return Arrays.stream(addresses).distinct().sorted().toArray();
+    }
+
+    private int[] stations(int commonAddress) {
+        int size = image.size();
+        for (int i = 0; i < size; i++) {
+            if (image.getCommonAddress(i) == commonAddress) {
+                return new int[] { commonAddress };
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Returns the points of a station and group as plan entries in sending order.
+     */
+    private long[] plan(int commonAddress, int qualifier) {
+        int groupBit = qualifier == STATION_INTERROGATION ? 0 : 1 << (qualifier - STATION_INTERROGATION - 1);
+        int size = image.size();
+        long[] entries = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (image.getCommonAddress(i) == commonAddress && (groupBit == 0 || (image.groupMask(i) & groupBit) != 0)) {
+                entries[count++] = AsduPacker.entry(image.getPointType(i).ordinal(),
+                        image.getInformationObjectAddress(i), i);
+            }
+        }
+        Arrays.sort(entries, 0, count);
+        return Arrays.copyOf(entries, count);
+    }
+
+    private final class Interrogation extends ResponseStream {
+
+        private final ASdu request;
+        private final int qualifier;
+        private final CauseOfTransmission cot;
+        private final int[] stations;
+
+        private int station;
+        private long[] plan;
+        private int position = -1;
+
+        Interrogation(IEC60870Connection connection, ASdu request, int qualifier, int[] stations) {
+            super(connection, maxInFlight, executor, image.publishLock);
+            this.request = request;
+            this.qualifier = qualifier;
+            this.cot = CauseOfTransmission.causeFor(qualifier);
+            this.stations = stations;
+        }
+
+        boolean matches(IEC60870Connection connection, int commonAddress, int qualifier) {
+            return this.connection == connection && this.qualifier == qualifier
+                    && (commonAddress == request.getCommonAddress() || commonAddress == BROADCAST_ADDRESS);
+        }
+
+        @Override
+        ASdu next() {
+            if (station == stations.length) {
+                return null;
+            }
+            if (position < 0) {
+                plan = plan(stations[station], qualifier);
+                position = 0;
+                return createReply(request, stations[station], CauseOfTransmission.ACTIVATION_CON, false, qualifier);
+            }
+            if (position == plan.length) {
+                position = -1;
+                return createReply(request, stations[station++], CauseOfTransmission.ACTIVATION_TERMINATION, false,
+                        qualifier);
+            }
+
+            int type = AsduPacker.typeOf(plan[position]);
+            int end = position + 1;
+            while (end < plan.length && AsduPacker.typeOf(plan[end]) == type) {
+                end++;
+            }
+            IEC60870PointType pointType = IEC60870PointType.values()[type];
+            int size = image.getPacker().next(plan, position, end, pointType.getElementLength(false));
+
+            if (size > 0) {
+                InformationElement[][] elements = new InformationElement[size][];
+                for (int i = 0; i < size; i++) {
+                    elements[i] = image.createElements(AsduPacker.indexOf(plan[position + i]), false);
+                }
+                ASdu asdu = createData(pointType, true,
+                        new InformationObject(AsduPacker.addressOf(plan[position]), elements));
+                position += size;
+                return asdu;
+            }
+            InformationObject[] objects = new InformationObject[-size];
+            for (int i = 0; i < objects.length; i++) {
+                long entry = plan[position + i];
+                objects[i] = new InformationObject(AsduPacker.addressOf(entry),
+                        image.createElements(AsduPacker.indexOf(entry), false));
+            }
+            position += objects.length;
+            return createData(pointType, false, objects);
+        }
+
+        @Override
+        void onFinished() {
+            active.remove(this);
+        }
+
+        private ASdu createData(IEC60870PointType pointType, boolean sequence, InformationObject... objects) {
+            return new ASdu(pointType.getAsduType(false), sequence, cot, request.isTestFrame(), false,
+                    originatorOf(request), stations[station], objects);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.ASduView;
+import net.sympower.iec60870.common.api.IEC60870AsduViewListener;
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeBinaryStateInformation;
+import net.sympower.iec60870.common.elements.IeDoublePointWithQuality;
+import net.sympower.iec60870.common.elements.IeNormalizedValue;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.IeValueWithTransientState;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Current values of the monitored points of the stations a client is connected to. Attach the cache to a connection
+ * as its event listener, or call it from one, and it stores the latest value, quality and timestamp of every point
+ * reported by the monitoring ASDUs with fixed element layout: single and double points, step positions, bitstrings,
+ * measured values and integrated totals.
+ *
+ * <p>Values are kept in primitive arrays as {@code double}: 0 or 1 for single points, the DPI 0 to 3 for double
+ * points, the step position, the bitstring or counter reading as a signed 32 bit value, and the measured value
+ * (normalized values in the range [-1, 1)). The quality holds the bits of the {@code ASduView.QUALITY_*} constants.
+ * The timestamp is the CP56Time2a time tag of the point, or the time the ASDU was received if it has none.
+ * Connections that deliver {@link ASduView}s are read without decoding any information element.</p>
+ *
+ * <p>Points are added when they are first received and keep their index. Reads never block the receiving thread:
+ * every point is guarded by a sequence lock, {@link #read(int, PointValue)} returns a consistent value, quality and
+ * timestamp, and the single-field getters return the latest field. {@linkplain #addListener Listeners} are notified
+ * on the receiving thread when the value or quality of a point in their address range changes.</p>
+ *
+ * <p>The cache keeps the last values when a connection is lost; the quality of the points reported again after a
+ * general interrogation tells whether they are still topical.</p>
+ *
+ * @since 2.1
+ */
+public class IEC60870PointCache implements IEC60870AsduViewListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870PointCache.class);
+
+    private static final int STRIDE = 4;
+    private static final int SEQUENCE = 0;
+    private static final int VALUE = 1;
+    private static final int TIMESTAMP = 2;
+    private static final int TYPE_AND_QUALITY = 3;
+
+    private static final int QUALITY_OVERFLOW = 0x01;
+    private static final int QUALITY_BLOCKED = 0x10;
+    private static final int QUALITY_SUBSTITUTED = 0x20;
+    private static final int QUALITY_NOT_TOPICAL = 0x40;
+    private static final int QUALITY_INVALID = 0x80;
+
+    private static final ASduType[] TYPES = new ASduType[256];
+
+    static {
+        for (ASduType type : ASduType.values()) {
+            TYPES[type.getId()] = type;
+        }
+    }
+
+    /**
+     * Receives the changes of the points in the address range it was added for.
+     */
+    @FunctionalInterface
+    public interface PointListener {
+
+        /**
+         * Called on the receiving thread after the value or quality of a point changed, or a point was received for
+         * the first time.
+         *
+         * @param index the index of the point in the cache
+         */
+        void onPointChanged(int index);
+    }
+
+    /**
+     * Holder for a consistent read of a point. One instance can be reused for any number of reads.
+     */
+    public static final class PointValue {
+
+        private double value;
+        private int quality;
+        private long timestamp;
+        private ASduType type;
+
+        public double getValue() {
+            return value;
+        }
+
+        public int getQuality() {
+            return quality;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Returns the type of the ASDU that last reported the point.
+         */
+        public ASduType getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return "Value: " + value + ", quality: 0x" + Integer.toHexString(quality) + ", timestamp: " + timestamp
+                    + ", type: " + type;
+        }
+    }
+
+    private final int capacity;
+    private final PointIndex pointIndex;
+    private final int[] commonAddresses;
+    private final int[] informationObjectAddresses;
+    private final AtomicLongArray points;
+    private volatile int size;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile Registration[] registrations = new Registration[0];
+
+    /**
+     * Creates a cache for up to {@code capacity} points. Points received once the cache is full are not stored and
+     * counted by {@link #getDroppedCount()}.
+     */
+    public IEC60870PointCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.pointIndex = new PointIndex(capacity);
+        this.commonAddresses = new int[capacity];
+        this.informationObjectAddresses = new int[capacity];
+        this.points = new AtomicLongArray(capacity * STRIDE);
+    }
+
+    @Override
+    public void onAsduViewReceived(ASduView view) {
+        ASduType type = view.getTypeIdentification();
+        if (view.isNegativeConfirm() || !isCached(type)) {
+            return;
+        }
+        boolean measured = isMeasuredValue(type);
+        boolean timeTagged = hasTimeTag(type);
+        boolean withQuality = type != ASduType.M_ME_ND_1;
+        long receivedAt = timeTagged ? 0 : System.currentTimeMillis();
+        int commonAddress = view.getCommonAddress();
+
+        for (int i = 0; i < view.size(); i++) {
+            double value = measured ? view.floatValue(i) : view.intValue(i);
+            int quality = withQuality ? view.quality(i) : 0;
+            long timestamp = timeTagged ? view.timestamp(i) : receivedAt;
+            store(commonAddress, view.ioa(i), type, value, quality, timestamp);
+        }
+    }
+
+    @Override
+    public void onAsduReceived(ASdu asdu) {
+        ASduType type = asdu.getTypeIdentification();
+        if (asdu.isNegativeConfirm() || !isCached(type)) {
+            return;
+        }
+        long receivedAt = System.currentTimeMillis();
+        int commonAddress = asdu.getCommonAddress();
+
+        for (InformationObject object : asdu.getInformationObjects()) {
+            InformationElement[][] elements = object.getInformationElements();
+            for (int i = 0; i < elements.length; i++) {
+                int address = object.getInformationObjectAddress() + (asdu.isSequenceOfElements() ? i : 0);
+                storeElements(commonAddress, address, type, elements[i], receivedAt);
+            }
+        }
+    }
+
+    @Override
+    public void onConnectionReady() {
+    }
+
+    @Override
+    public void onConnectionLost(IOException cause) {
+    }
+
+    /**
+     * Returns the index of a point, or -1 if it has not been received yet.
+     */
+    public int indexOf(int commonAddress, int informationObjectAddress) {
+        return pointIndex.get(PointIndex.key(commonAddress, informationObjectAddress));
+    }
+
+    /**
+     * Reads the value, quality, timestamp and type of a point as stored by one update.
+     *
+     * @param index the point index
+     * @param into the holder to fill
+     * @return the holder
+     */
+    public PointValue read(int index, PointValue into) {
+        checkIndex(index);
+        int base = index * STRIDE;
+        long sequence;
+        long valueBits;
+        long timestamp;
+        long typeAndQuality;
+        do {
+            sequence = points.get(base + SEQUENCE);
+            while ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                sequence = points.get(base + SEQUENCE);
+            }
+            valueBits = points.get(base + VALUE);
+            timestamp = points.get(base + TIMESTAMP);
+            typeAndQuality = points.get(base + TYPE_AND_QUALITY);
+        } while (points.get(base + SEQUENCE) != sequence);
+
+        into.value = Double.longBitsToDouble(valueBits);
+        into.quality = (int) typeAndQuality & 0xff;
+        into.timestamp = timestamp;
+        into.type = TYPES[(int) (typeAndQuality >> 8) & 0xff];
+        return into;
+    }
+
+    /**
+     * Returns the current value of a point.
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return Double.longBitsToDouble(points.get(index * STRIDE + VALUE));
+    }
+
+    /**
+     * Returns the current quality bits of a point.
+     */
+    public int getQuality(int index) {
+        checkIndex(index);
+        return (int) points.get(index * STRIDE + TYPE_AND_QUALITY) & 0xff;
+    }
+
+    /**
+     * Returns the timestamp of the current value of a point in milliseconds since the epoch.
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return points.get(index * STRIDE + TIMESTAMP);
+    }
+
+    public int getCommonAddress(int index) {
+        checkIndex(index);
+        return commonAddresses[index];
+    }
+
+    public int getInformationObjectAddress(int index) {
+        checkIndex(index);
+        return informationObjectAddresses[index];
+    }
+
+    /**
+     * Returns the number of points in the cache.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of point updates that were not stored because the cache was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Adds a listener for the changes of the points of a station within an address range.
+     *
+     * @param commonAddress the common address of the station
+     * @param firstAddress the first information object address of the range
+     * @param lastAddress the last information object address of the range, inclusive
+     * @param listener the listener
+     */
+    public synchronized void addListener(int commonAddress, int firstAddress, int lastAddress,
+            PointListener listener) {
+        if (firstAddress > lastAddress) {
+            throw new IllegalArgumentException("First address must not be greater than the last address");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        Registration[] current = registrations;
+        Registration[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Registration(commonAddress, firstAddress, lastAddress, listener);
+        registrations = updated;
+    }
+
+    /**
+     * Removes all registrations of a listener.
+     */
+    public synchronized void removeListener(PointListener listener) {
+        registrations = Arrays.stream(registrations)
+                .filter(registration -> registration.listener != listener)
+                .toArray(Registration[]::new);
+    }
+
+    private void storeElements(int commonAddress, int address, ASduType type, InformationElement[] elements,
+            long receivedAt) {
+        double value = 0;
+        int quality = 0;
+        long timestamp = receivedAt;
+        for (InformationElement element : elements) {
+            if (element instanceof IeSinglePointWithQuality) {
+                IeSinglePointWithQuality point = (IeSinglePointWithQuality) element;
+                value = point.isOn() ? 1 : 0;
+                quality = qualityOf(false, point.isBlocked(), point.isSubstituted(), point.isNotTopical(),
+                        point.isInvalid());
+            }
+            else if (element instanceof IeDoublePointWithQuality) {
+                IeDoublePointWithQuality point = (IeDoublePointWithQuality) element;
+                value = point.getDoublePointInformation().ordinal();
+                quality = qualityOf(false, point.isBlocked(), point.isSubstituted(), point.isNotTopical(),
+                        point.isInvalid());
+            }
+            else if (element instanceof IeQuality) {
+                IeQuality descriptor = (IeQuality) element;
+                quality = qualityOf(descriptor.isOverflow(), descriptor.isBlocked(), descriptor.isSubstituted(),
+                        descriptor.isNotTopical(), descriptor.isInvalid());
+            }
+            else if (element instanceof IeValueWithTransientState) {
+                value = ((IeValueWithTransientState) element).getValue();
+            }
+            else if (element instanceof IeBinaryStateInformation) {
+                value = ((IeBinaryStateInformation) element).getValue();
+            }
+            else if (element instanceof IeScaledValue) {
+                value = ((IeScaledValue) element).getUnnormalizedValue();
+            }
+            else if (element instanceof IeNormalizedValue) {
+                value = ((IeNormalizedValue) element).getNormalizedValue();
+            }
+            else if (element instanceof IeShortFloat) {
+                value = ((IeShortFloat) element).getValue();
+            }
+            else if (element instanceof IeBinaryCounterReading) {
+                IeBinaryCounterReading reading = (IeBinaryCounterReading) element;
+                value = reading.getCounterReading();
+                quality = reading.getFlagBits() & QUALITY_INVALID;
+            }
+            else if (element instanceof IeTime56) {
+                timestamp = ((IeTime56) element).getTimestamp();
+            }
+        }
+        store(commonAddress, address, type, value, quality, timestamp);
+    }
+
+    private void store(int commonAddress, int address, ASduType type, double value, int quality, long timestamp) {
+        int index = pointIndex.get(PointIndex.key(commonAddress, address));
+        boolean added = false;
+        if (index < 0) {
+            index = addPoint(commonAddress, address);
+            if (index < 0) {
+                return;
+            }
+            added = true;
+        }
+
+        int base = index * STRIDE;
+        long sequence = lockPoint(base);
+        long valueBits = Double.doubleToRawLongBits(value);
+        long previousValueBits = points.get(base + VALUE);
+        long previousTypeAndQuality = points.get(base + TYPE_AND_QUALITY);
+        points.lazySet(base + VALUE, valueBits);
+        points.lazySet(base + TIMESTAMP, timestamp);
+        points.lazySet(base + TYPE_AND_QUALITY, (long) type.getId() << 8 | quality);
+        points.set(base + SEQUENCE, sequence + 1);
+
+        boolean changed = added || valueBits != previousValueBits || quality != ((int) previousTypeAndQuality & 0xff);
+        if (changed) {
+            notifyListeners(commonAddress, address, index);
+        }
+    }
+
+    private synchronized int addPoint(int commonAddress, int address) {
+        long key = PointIndex.key(commonAddress, address);
+        int index = pointIndex.get(key);
+        if (index >= 0) {
+            return index;
+        }
+        index = size;
+        if (index == capacity) {
+            if (droppedCount.getAndIncrement() == 0) {
+                logger.warn("Point cache is full (capacity={}), dropping new points", capacity);
+            }
+            return -1;
+        }
+        commonAddresses[index] = commonAddress;
+        informationObjectAddresses[index] = address;
+        // Published before the key, so a reader that finds the key also finds the index in range
+        size = index + 1;
+        pointIndex.put(key, index);
+        return index;
+    }
+
+    private void notifyListeners(int commonAddress, int address, int index) {
+        for (Registration registration : registrations) {
+            if (registration.commonAddress == commonAddress && address >= registration.firstAddress
+                    && address <= registration.lastAddress) {
+                try {
+                    registration.listener.onPointChanged(index);
+                } catch (RuntimeException e) {
+                    logger.warn("Point listener failed", e);
+                }
+            }
+        }
+    }
+
+    private long lockPoint(int base) {
+        while (true) {
+            long sequence = points.get(base + SEQUENCE);
+            if ((sequence & 1) == 0 && points.compareAndSet(base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown point index: " + index);
+        }
+    }
+
+    private static int qualityOf(boolean overflow, boolean blocked, boolean substituted, boolean notTopical,
+            boolean invalid) {
+        return (overflow ? QUALITY_OVERFLOW : 0) | (blocked ? QUALITY_BLOCKED : 0)
+                | (substituted ? QUALITY_SUBSTITUTED : 0) | (notTopical ? QUALITY_NOT_TOPICAL : 0)
+                | (invalid ? QUALITY_INVALID : 0);
+    }
+
+    private static boolean isCached(ASduType type) {
+        switch (type) {
+        case M_SP_NA_1:
+        case M_SP_TA_1:
+        case M_SP_TB_1:
+        case M_DP_NA_1:
+        case M_DP_TA_1:
+        case M_DP_TB_1:
+        case M_ST_NA_1:
+        case M_ST_TA_1:
+        case M_ST_TB_1:
+        case M_BO_NA_1:
+        case M_BO_TA_1:
+        case M_BO_TB_1:
+        case M_IT_NA_1:
+        case M_IT_TA_1:
+        case M_IT_TB_1:
+            return true;
+        default:
+            return isMeasuredValue(type);
+        }
+    }
+
+    private static boolean isMeasuredValue(ASduType type) {
+        switch (type) {
+        case M_ME_NA_1:
+        case M_ME_TA_1:
+        case M_ME_TD_1:
+        case M_ME_ND_1:
+        case M_ME_NB_1:
+        case M_ME_TB_1:
+        case M_ME_TE_1:
+        case M_ME_NC_1:
+        case M_ME_TC_1:
+        case M_ME_TF_1:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean hasTimeTag(ASduType type) {
+        switch (type) {
+        case M_SP_TB_1:
+        case M_DP_TB_1:
+        case M_ST_TB_1:
+        case M_BO_TB_1:
+        case M_ME_TD_1:
+        case M_ME_TE_1:
+        case M_ME_TF_1:
+        case M_IT_TB_1:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static final class Registration {
+
+        private final int commonAddress;
+        private final int firstAddress;
+        private final int lastAddress;
+        private final PointListener listener;
+
+        Registration(int commonAddress, int firstAddress, int lastAddress, PointListener listener) {
+            this.commonAddress = commonAddress;
+            this.firstAddress = firstAddress;
+            this.lastAddress = lastAddress;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.elements.IeBinaryStateInformation;
+import net.sympower.iec60870.common.elements.IeDoublePointWithQuality;
+import net.sympower.iec60870.common.elements.IeNormalizedValue;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.InformationElement;
+
+/**
+ * Monitoring point types held by an {@link IEC60870ProcessImage}. Each type maps to the ASDU type used without and
+ * with a CP56Time2a time tag. Values are stored as doubles: 0 or 1 for single points, the
+ * {@link IeDoublePointWithQuality.DoublePointInformation} ordinal for double points, -1 to 1 for normalized values,
+ * -32768 to 32767 for scaled values and the 32 bits for bitstrings.
+ *
+ * @since 2.1
+ */
+public enum IEC60870PointType {
+
+    SINGLE_POINT(ASduType.M_SP_NA_1, ASduType.M_SP_TB_1, 1),
+    DOUBLE_POINT(ASduType.M_DP_NA_1, ASduType.M_DP_TB_1, 1),
+    NORMALIZED_VALUE(ASduType.M_ME_NA_1, ASduType.M_ME_TD_1, 3),
+    SCALED_VALUE(ASduType.M_ME_NB_1, ASduType.M_ME_TE_1, 3),
+    SHORT_FLOAT(ASduType.M_ME_NC_1, ASduType.M_ME_TF_1, 5),
+    BITSTRING(ASduType.M_BO_NA_1, ASduType.M_BO_TB_1, 5);
+
+    private static final int TIME_TAG_LENGTH = 7;
+
+    private final ASduType type;
+    private final ASduType timeTaggedType;
+    private final int elementLength;
+
+    IEC60870PointType(ASduType type, ASduType timeTaggedType, int elementLength) {
+        this.type = type;
+        this.timeTaggedType = timeTaggedType;
+        this.elementLength = elementLength;
+    }
+
+    /**
+     * Returns the ASDU type carrying points of this type.
+     *
+     * @param timeTagged whether the points carry a CP56Time2a time tag
+     */
+    public ASduType getAsduType(boolean timeTagged) {
+        return timeTagged ? timeTaggedType : type;
+    }
+
+    /**
+     * Returns the encoded length of one point's information elements, without the information object address.
+     *
+     * @param timeTagged whether the points carry a CP56Time2a time tag
+     */
+    public int getElementLength(boolean timeTagged) {
+        return timeTagged ? elementLength + TIME_TAG_LENGTH : elementLength;
+    }
+
+    /**
+     * Returns whether points of this type report every change regardless of the deadband.
+     */
+    boolean isDigital() {
+        return this == SINGLE_POINT || this == DOUBLE_POINT || this == BITSTRING;
+    }
+
+    InformationElement[] createElements(double value, int quality, long timestamp, boolean timeTagged) {
+        boolean blocked = (quality & IEC60870ProcessImage.QUALITY_BLOCKED) != 0;
+        boolean substituted = (quality & IEC60870ProcessImage.QUALITY_SUBSTITUTED) != 0;
+        boolean notTopical = (quality & IEC60870ProcessImage.QUALITY_NOT_TOPICAL) != 0;
+        boolean invalid = (quality & IEC60870ProcessImage.QUALITY_INVALID) != 0;
+        boolean overflow = (quality & IEC60870ProcessImage.QUALITY_OVERFLOW) != 0;
+
+        InformationElement[] elements;
+        switch (this) {
+        case SINGLE_POINT:
+            elements = new InformationElement[timeTagged ? 2 : 1];
+            elements[0] = new IeSinglePointWithQuality(value != 0, blocked, substituted, notTopical, invalid);
+            break;
+        case DOUBLE_POINT:
+            elements = new InformationElement[timeTagged ? 2 : 1];
+            elements[0] = new IeDoublePointWithQuality(
+                    IeDoublePointWithQuality.DoublePointInformation.values()[(int) value & 0x03], blocked, substituted,
+                    notTopical, invalid);
+            break;
+        default:
+            elements = new InformationElement[timeTagged ? 3 : 2];
+            elements[0] = createValue(value);
+            elements[1] = new IeQuality(overflow, blocked, substituted, notTopical, invalid);
+            break;
+        }
+        if (timeTagged) {
+            elements[elements.length - 1] = new IeTime56(timestamp);
+        }
+        return elements;
+    }
+
+    private InformationElement createValue(double value) {
+        switch (this) {
+        case NORMALIZED_VALUE:
+            return new IeNormalizedValue(clamp(Math.round(value * 32768.0), -32768, 32767));
+        case SCALED_VALUE:
+            return new IeScaledValue(clamp(Math.round(value), -32768, 32767));
+        case SHORT_FLOAT:
+            return new IeShortFloat((float) value);
+        default:
+            return new IeBinaryStateInformation((int) (long) value);
+        }
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,612 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-side process image: the current value, quality and timestamp of every monitored point of a station,
+ * addressed by common address and information object address.
+ *
+ * <p>Points are registered up front with {@link #addPoint} and stored in primitive arrays indexed by the returned
+ * point index, so a million points take a few tens of megabytes and no objects per point. Updates are lock-free:
+ * each point carries a sequence number that writers of the same point briefly contend on and readers use to see a
+ * consistent value, quality and timestamp. {@link #update(int, double, int, long)} by point index avoids even the
+ * address lookup.</p>
+ *
+ * <p>An update is reported when its quality differs from the stored quality or when its value moved further than
+ * the point's deadband from the last reported value; digital points report every change. Reported points are
+ * queued for a publisher thread, which packs them into SPONTANEOUS ASDUs per common address and type and sends them
+ * with {@link IEC60870Connection#sendAsync(ASdu)} to every {@linkplain #addConnection(IEC60870Connection) attached
+ * connection} with data transfer started. A point that changes again before the publisher reaches it is sent once,
+ * with its latest value. An IEC 101 secondary connection queues the spontaneous ASDUs as class 1 data for the polls of
+ * the primary station.</p>
+ *
+ * <pre>{@code
+ * IEC60870ProcessImage image = new IEC60870ProcessImage(1_000_000);
+ * int index = image.addPoint(1, 4001, IEC60870PointType.SHORT_FLOAT, true, 0.5);
+ * server.start(connection -> {
+ *     connection.startDataTransfer(listener);
+ *     image.addConnection(connection);
+ * });
+ * image.update(index, 230.4, IEC60870ProcessImage.QUALITY_GOOD, System.currentTimeMillis());
+ * }</pre>
+ *
+ * @since 2.1
+ */
+public class IEC60870ProcessImage implements AutoCloseable {
+
+    /** Quality without any flag set. */
+    public static final int QUALITY_GOOD = 0x00;
+    /** Quality flag OV: the value is beyond a predefined range (measured values and bitstrings only). */
+    public static final int QUALITY_OVERFLOW = 0x01;
+    /** Quality flag BL: the value is blocked for transmission. */
+    public static final int QUALITY_BLOCKED = 0x10;
+    /** Quality flag SB: the value was substituted by an operator or an automatic source. */
+    public static final int QUALITY_SUBSTITUTED = 0x20;
+    /** Quality flag NT: the most recent update of the value failed. */
+    public static final int QUALITY_NOT_TOPICAL = 0x40;
+    /** Quality flag IV: the value is invalid. Points start out invalid until their first update. */
+    public static final int QUALITY_INVALID = 0x80;
+
+    /**
+     * Largest ASDU sent by the process image: the 253 byte APDU of IEC 60870-5-104 minus its four control octets,
+     * which also fits into an IEC 60870-5-101 frame.
+     */
+    public static final int MAX_ASDU_LENGTH = 249;
+
+    private static final Logger logger = LoggerFactory.getLogger(IEC60870ProcessImage.class);
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = IEC60870Threads.daemonThreadFactory(
+            "IEC60870-ProcessImage-");
+
+    private static final int STRIDE = 4;
+    private static final int SEQUENCE = 0;
+    private static final int VALUE = 1;
+    private static final int REPORTED_VALUE = 2;
+    private static final int TIME_AND_QUALITY = 3;
+
+    private static final int MAX_BATCH = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacity;
+    private final IEC60870Settings settings;
+    private final AsduPacker packer;
+    private final PointIndex pointIndex;
+    private final int[] commonAddresses;
+    private final int[] informationObjectAddresses;
+    private final IEC60870PointType[] types;
+    private final boolean[] timeTagged;
+    private final double[] deadbands;
+    private final AtomicIntegerArray groups;
+    private final AtomicLongArray points;
+    private final AtomicIntegerArray pending;
+    private final ChangeQueue changes;
+    private volatile int size;
+
+    private final List<IEC60870Connection> connections = new CopyOnWriteArrayList<>();
+    /**
+     * Held while point values are read into an ASDU and the ASDU is queued on the connections, so that ASDUs leave in
+     * the order their values were read, whichever thread builds them.
+     */
+    final ReentrantLock publishLock = new ReentrantLock();
+    private final ExecutorService publisher;
+    private volatile Thread publisherThread;
+    private volatile boolean publisherIdle;
+    private volatile boolean closed;
+
+    private final AtomicLong spontaneousAsdus = new AtomicLong();
+    private final AtomicLong failedSends = new AtomicLong();
+
+    /**
+     * Creates a process image for up to {@code capacity} points, using the default IEC 60870-5-104 field lengths.
+     *
+     * @param capacity the maximum number of points
+     */
+    public IEC60870ProcessImage(int capacity) {
+        this(capacity, new IEC60870Settings());
+    }
+
+    /**
+     * Creates a process image for up to {@code capacity} points.
+     *
+     * @param capacity the maximum number of points
+     * @param settings the settings of the connections the image is published to; the field lengths determine how
+     *            many points fit into an ASDU, and the thread factory, if set, creates the publisher thread
+     */
+    public IEC60870ProcessImage(int capacity, IEC60870Settings settings) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.settings = new IEC60870Settings(settings);
+        this.packer = new AsduPacker(settings);
+        this.pointIndex = new PointIndex(capacity);
+        this.commonAddresses = new int[capacity];
+        this.informationObjectAddresses = new int[capacity];
+        this.types = new IEC60870PointType[capacity];
+        this.timeTagged = new boolean[capacity];
+        this.deadbands = new double[capacity];
+        this.groups = new AtomicIntegerArray(capacity);
+        this.points = new AtomicLongArray(capacity * STRIDE);
+        this.pending = new AtomicIntegerArray(capacity);
+        this.changes = new ChangeQueue(capacity);
+
+        this.publisher = Executors.newSingleThreadExecutor(getThreadFactory());
+        publisher.submit(this::publisherTask);
+    }
+
+    /**
+     * Registers a point without time tag that reports every change.
+     *
+     * @return the point index for {@link #update(int, double, int, long)}
+     * @see #addPoint(int, int, IEC60870PointType, boolean, double)
+     */
+    public int addPoint(int commonAddress, int informationObjectAddress, IEC60870PointType type) {
+        return addPoint(commonAddress, informationObjectAddress, type, false, 0);
+    }
+
+    /**
+     * Registers a point. Points are numbered in registration order, starting at 0.
+     *
+     * @param commonAddress the common address of the station, 0 to 65535
+     * @param informationObjectAddress the information object address, 0 to 16777215
+     * @param type the type of the point
+     * @param timeTagged whether spontaneous ASDUs carry the point's timestamp as CP56Time2a time tag
+     * @param deadband the minimum absolute change against the last reported value that is reported, 0 to report
+     *            every change; ignored for digital points
+     * @return the point index for {@link #update(int, double, int, long)}
+     * @throws IllegalArgumentException if the point already exists or an argument is out of range
+     * @throws IllegalStateException if the image is full
+     */
+    public synchronized int addPoint(int commonAddress, int informationObjectAddress, IEC60870PointType type,
+            boolean timeTagged, double deadband) {
+        if (commonAddress < 0 || commonAddress > 0xffff) {
+            throw new IllegalArgumentException("Common address must be in the range 0..65535");
+        }
+        if (informationObjectAddress < 0 || informationObjectAddress > 0xffffff) {
+            throw new IllegalArgumentException("Information object address must be in the range 0..16777215");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Point type must not be null");
+        }
+        if (!(deadband >= 0)) {
+            throw new IllegalArgumentException("Deadband must not be negative");
+        }
+        long key = PointIndex.key(commonAddress, informationObjectAddress);
+        if (pointIndex.get(key) >= 0) {
+            throw new IllegalArgumentException(
+                    "Point already exists: CA=" + commonAddress + ", IOA=" + informationObjectAddress);
+        }
+        int index = size;
+        if (index == capacity) {
+            throw new IllegalStateException("Process image is full (capacity=" + capacity + ")");
+        }
+
+        commonAddresses[index] = commonAddress;
+        informationObjectAddresses[index] = informationObjectAddress;
+        types[index] = type;
+        this.timeTagged[index] = timeTagged;
+        deadbands[index] = deadband;
+        points.set(index * STRIDE + TIME_AND_QUALITY, QUALITY_INVALID);
+
+        pointIndex.put(key, index);
+        size = index + 1;
+        return index;
+    }
+
+    /**
+     * Returns the index of a point, or -1 if the point is not registered.
+     */
+    public int indexOf(int commonAddress, int informationObjectAddress) {
+        return pointIndex.get(PointIndex.key(commonAddress, informationObjectAddress));
+    }
+
+    /**
+     * Updates a point addressed by common address and information object address.
+     *
+     * @return whether the update is reported to the attached connections
+     * @throws IllegalArgumentException if the point is not registered
+     * @see #update(int, double, int, long)
+     */
+    public boolean update(int commonAddress, int informationObjectAddress, double value, int quality,
+            long timestamp) {
+        int index = indexOf(commonAddress, informationObjectAddress);
+        if (index < 0) {
+            throw new IllegalArgumentException(
+                    "Unknown point: CA=" + commonAddress + ", IOA=" + informationObjectAddress);
+        }
+        return update(index, value, quality, timestamp);
+    }
+
+    /**
+     * Updates a point. The new value, quality and timestamp are always stored; the update is reported if the
+     * quality changed or the value moved beyond the deadband. This method does not block and may be called from any
+     * number of threads.
+     *
+     * @param index the point index returned by {@link #addPoint}
+     * @param value the new value, see {@link IEC60870PointType} for its range per type
+     * @param quality the quality flags, a combination of the {@code QUALITY_*} constants
+     * @param timestamp the time of the value in milliseconds since the epoch
+     * @return whether the update is reported to the attached connections
+     * @throws IllegalArgumentException if no point has the index
+     */
+    public boolean update(int index, double value, int quality, long timestamp) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown point index: " + index);
+        }
+        int base = index * STRIDE;
+        long sequence = lockPoint(base);
+
+        int previousQuality = (int) points.get(base + TIME_AND_QUALITY) & 0xff;
+        double reportedValue = Double.longBitsToDouble(points.get(base + REPORTED_VALUE));
+        boolean report = previousQuality != (quality & 0xff) || exceedsDeadband(index, value, reportedValue);
+
+        points.lazySet(base + VALUE, Double.doubleToRawLongBits(value));
+        points.lazySet(base + TIME_AND_QUALITY, (timestamp << 8) | (quality & 0xff));
+        if (report) {
+            points.lazySet(base + REPORTED_VALUE, Double.doubleToRawLongBits(value));
+        }
+        points.lazySet(base + SEQUENCE, sequence + 1);
+
+        if (report) {
+            queueChange(index);
+        }
+        return report;
+    }
+
+    /**
+     * Returns the current value of a point.
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return Double.longBitsToDouble(points.get(index * STRIDE + VALUE));
+    }
+
+    /**
+     * Returns the current quality flags of a point.
+     */
+    public int getQuality(int index) {
+        checkIndex(index);
+        return (int) points.get(index * STRIDE + TIME_AND_QUALITY) & 0xff;
+    }
+
+    /**
+     * Returns the timestamp of the current value of a point in milliseconds since the epoch, 0 before the first
+     * update.
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return points.get(index * STRIDE + TIME_AND_QUALITY) >> 8;
+    }
+
+    public int getCommonAddress(int index) {
+        checkIndex(index);
+        return commonAddresses[index];
+    }
+
+    public int getInformationObjectAddress(int index) {
+        checkIndex(index);
+        return informationObjectAddresses[index];
+    }
+
+    public IEC60870PointType getPointType(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    public boolean isTimeTagged(int index) {
+        checkIndex(index);
+        return timeTagged[index];
+    }
+
+    /**
+     * Adds a point to one of the interrogation groups 1 to 16. Every point belongs to the station interrogation; a
+     * point may belong to several groups.
+     *
+     * @param index the point index
+     * @param group the group number, 1 to 16
+     */
+    public void addToGroup(int index, int group) {
+        checkIndex(index);
+        if (group < 1 || group > 16) {
+            throw new IllegalArgumentException("Group must be in the range 1..16");
+        }
+        groups.accumulateAndGet(index, 1 << (group - 1), (mask, bit) -> mask | bit);
+    }
+
+    /**
+     * Returns whether a point belongs to an interrogation group.
+     *
+     * @param index the point index
+     * @param group the group number, 1 to 16
+     */
+    public boolean isInGroup(int index, int group) {
+        checkIndex(index);
+        return group >= 1 && group <= 16 && (groups.get(index) & (1 << (group - 1))) != 0;
+    }
+
+    /**
+     * Returns the number of registered points.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Attaches a connection that receives spontaneous ASDUs whenever its data transfer is started. Closed
+     * connections are detached automatically.
+     */
+    public void addConnection(IEC60870Connection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Connection must not be null");
+        }
+        connections.add(connection);
+    }
+
+    public void removeConnection(IEC60870Connection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Returns the number of spontaneous ASDUs sent, counting each ASDU once regardless of the number of connections.
+     */
+    public long getSpontaneousAsduCount() {
+        return spontaneousAsdus.get();
+    }
+
+    /**
+     * Returns the number of spontaneous ASDUs a connection failed to send, for instance because its send queue was
+     * full. The affected client misses these changes until its next interrogation.
+     */
+    public long getFailedSendCount() {
+        return failedSends.get();
+    }
+
+    /**
+     * Stops the publisher thread. Changes that were not yet published are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = publisherThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        publisher.shutdown();
+    }
+
+    ThreadFactory getThreadFactory() {
+        ThreadFactory threadFactory = settings.getThreadFactory();
+        return threadFactory != null ? threadFactory : DEFAULT_THREAD_FACTORY;
+    }
+
+    int groupMask(int index) {
+        return groups.get(index);
+    }
+
+    InformationObject createInformationObject(int index) {
+        return new InformationObject(informationObjectAddresses[index], createElements(index, timeTagged[index]));
+    }
+
+    /**
+     * Reads a consistent value, quality and timestamp of a point into its information elements.
+     */
+    InformationElement[] createElements(int index, boolean withTimeTag) {
+        int base = index * STRIDE;
+        long sequence;
+        long valueBits;
+        long timeAndQuality;
+        do {
+            sequence = points.get(base + SEQUENCE);
+            while ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                sequence = points.get(base + SEQUENCE);
+            }
+            valueBits = points.get(base + VALUE);
+            timeAndQuality = points.get(base + TIME_AND_QUALITY);
+        } while (points.get(base + SEQUENCE) != sequence);
+
+        return types[index].createElements(Double.longBitsToDouble(valueBits), (int) timeAndQuality & 0xff,
+                timeAndQuality >> 8, withTimeTag);
+    }
+
+    AsduPacker getPacker() {
+        return packer;
+    }
+
+    /**
+     * Returns how many points of a type fit into one ASDU with the configured field lengths.
+     */
+    int maxObjectsPerAsdu(IEC60870PointType type, boolean timeTagged) {
+        return packer.maxObjects(type.getElementLength(timeTagged));
+    }
+
+    /**
+     * Returns how many points of a type with consecutive addresses fit into one sequence ASDU.
+     */
+    int maxElementsPerSequenceAsdu(IEC60870PointType type, boolean timeTagged) {
+        return packer.maxSequence(type.getElementLength(timeTagged));
+    }
+
+    private long lockPoint(int base) {
+        while (true) {
+            long sequence = points.get(base + SEQUENCE);
+            if ((sequence & 1) == 0 && points.compareAndSet(base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean exceedsDeadband(int index, double value, double reportedValue) {
+        double deadband = deadbands[index];
+        if (deadband == 0 || types[index].isDigital()) {
+            return Double.doubleToLongBits(value) != Double.doubleToLongBits(reportedValue);
+        }
+        return !(Math.abs(value - reportedValue) <= deadband);
+    }
+
+    private void queueChange(int index) {
+        if (pending.get(index) != 0 || !pending.compareAndSet(index, 0, 1)) {
+            return;
+        }
+        changes.offer(index);
+        if (publisherIdle) {
+            Thread thread = publisherThread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown point index: " + index);
+        }
+    }
+
+    private void publisherTask() {
+        publisherThread = Thread.currentThread();
+        int[] batch = new int[Math.min(MAX_BATCH, capacity)];
+        long[] order = new long[batch.length];
+
+        while (!closed) {
+            int count = 0;
+            int index;
+            while (count < batch.length && (index = changes.poll()) >= 0) {
+                // Cleared before the value is read, so a concurrent update queues the point again
+                pending.set(index, 0);
+                batch[count++] = index;
+            }
+
+            if (count == 0) {
+                publisherIdle = true;
+                if (changes.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                publisherIdle = false;
+                continue;
+            }
+
+            try {
+                publish(batch, order, count);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish process image changes", e);
+            }
+        }
+    }
+
+    private void publish(int[] batch, long[] order, int count) {
+        if (!hasActiveConnection()) {
+            return;
+        }
+
+        // Group the changes by common address and ASDU type, keeping their order within a group
+        for (int i = 0; i < count; i++) {
+            int index = batch[i];
+            long group = ((long) commonAddresses[index] << 8) | (types[index].ordinal() << 1)
+                    | (timeTagged[index] ? 1 : 0);
+            order[i] = (group << 32) | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        int start = 0;
+        while (start < count) {
+            int first = batch[(int) order[start]];
+            long group = order[start] >>> 32;
+            int limit = Math.min(count, start + maxObjectsPerAsdu(types[first], timeTagged[first]));
+            int end = start + 1;
+            while (end < limit && order[end] >>> 32 == group) {
+                end++;
+            }
+
+            publishLock.lock();
+            try {
+                InformationObject[] objects = new InformationObject[end - start];
+                for (int i = start; i < end; i++) {
+                    objects[i - start] = createInformationObject(batch[(int) order[i]]);
+                }
+                send(new ASdu(types[first].getAsduType(timeTagged[first]), false, CauseOfTransmission.SPONTANEOUS,
+                        false, false, 0, commonAddresses[first], objects));
+            } finally {
+                publishLock.unlock();
+            }
+            start = end;
+        }
+    }
+
+    private boolean hasActiveConnection() {
+        boolean active = false;
+        for (IEC60870Connection connection : connections) {
+            if (connection.isClosed()) {
+                connections.remove(connection);
+            }
+            else if (connection.isDataTransferStarted()) {
+                active = true;
+            }
+        }
+        return active;
+    }
+
+    private void send(ASdu asdu) {
+        for (IEC60870Connection connection : connections) {
+            if (!connection.isDataTransferStarted()) {
+                continue;
+            }
+            connection.sendAsync(asdu).whenComplete((result, e) -> {
+                if (e != null) {
+                    failedSends.incrementAndGet();
+                    logger.debug("Failed to send spontaneous ASDU: {}", e.getMessage());
+                }
+            });
+        }
+        spontaneousAsdus.incrementAndGet();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open addressing hash table from (common address, information object address) to point index. Insertions must be
+ * serialised by the caller; lookups are lock-free and see every insertion that completed before them.
+ */
+final class PointIndex {
+
+    private static final long EMPTY = -1L;
+
+    private final AtomicLongArray keys;
+    private final int[] indices;
+    private final int mask;
+    private final int shift;
+
+    PointIndex(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        keys = new AtomicLongArray(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            keys.lazySet(i, EMPTY);
+        }
+        indices = new int[tableSize];
+        mask = tableSize - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+    }
+
+    static long key(int commonAddress, int informationObjectAddress) {
+        return ((long) commonAddress << 24) | informationObjectAddress;
+    }
+
+    /**
+     * Returns the point index for the key, or -1 if the key is unknown.
+     */
+    int get(long key) {
+        int slot = slot(key);
+        while (true) {
+            long current = keys.get(slot);
+            if (current == key) {
+                return indices[slot];
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds a key that is not yet present. The table must have room, which holds as long as no more keys are added
+     * than the capacity it was created with.
+     */
+    void put(long key, int index) {
+        int slot = slot(key);
+        while (keys.get(slot) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        indices[slot] = index;
+        // The volatile key write publishes the index to lock-free readers
+        keys.set(slot, key);
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A response of several ASDUs to one command, queued on a connection a few at a time. The next ASDUs are queued as
+ * earlier ones complete, which for IEC 104 means as the client acknowledges them, so a long response follows the
+ * k window. All methods must be called on the given single-threaded executor.
+ *
+ * <p>If a lock is given, each ASDU is created and queued while holding it, so that ASDUs created by other threads
+ * under the same lock are queued in the order their contents were read.</p>
+ *
+ * <p>On a connection that does not send in queue order, such as an IEC 101 secondary station that serves the
+ * confirmation and termination as class 1 data and the values as class 2 data, an ASDU whose cause of transmission
+ * differs from that of the previous one is queued only after all earlier ASDUs of the response have completed. The
+ * confirmation thus arrives before the values and the termination after them.</p>
+ */
+abstract class ResponseStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseStream.class);
+
+    final IEC60870Connection connection;
+    private final int maxInFlight;
+    private final Executor executor;
+    private final Lock lock;
+    private final boolean inQueueOrder;
+
+    private int inFlight;
+    private boolean finished;
+    private CauseOfTransmission lastCause;
+    private ASdu held;
+
+    ResponseStream(IEC60870Connection connection, int maxInFlight, Executor executor, Lock lock) {
+        this.connection = connection;
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+        this.lock = lock;
+        this.inQueueOrder = connection.isSentInQueueOrder();
+    }
+
+    /**
+     * Returns the next ASDU of the response, or null once the response is complete.
+     */
+    abstract ASdu next();
+
+    /**
+     * Called once when the response is complete or cancelled.
+     */
+    abstract void onFinished();
+
+    final void pump() {
+        while (!finished && inFlight < maxInFlight) {
+            if (!connection.isDataTransferStarted()) {
+                logger.debug("Response cancelled, data transfer stopped");
+                finish();
+                return;
+            }
+            if (held != null) {
+                if (inFlight > 0) {
+                    return;
+                }
+                ASdu asdu = held;
+                held = null;
+                send(asdu);
+                continue;
+            }
+            if (lock != null) {
+                lock.lock();
+            }
+            try {
+                ASdu asdu = next();
+                if (asdu == null) {
+                    finish();
+                    return;
+                }
+                if (!inQueueOrder && inFlight > 0 && asdu.getCauseOfTransmission() != lastCause) {
+                    // Sent once the earlier ASDUs have completed, so that it cannot overtake them
+                    held = asdu;
+                    return;
+                }
+                send(asdu);
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    final void finish() {
+        if (!finished) {
+            finished = true;
+            onFinished();
+        }
+    }
+
+    private void send(ASdu asdu) {
+        inFlight++;
+        lastCause = asdu.getCauseOfTransmission();
+        connection.sendAsync(asdu).whenCompleteAsync((result, e) -> {
+            inFlight--;
+            if (e != null) {
+                if (!finished) {
+                    logger.debug("Response cancelled, send failed: {}", e.getMessage());
+                    finish();
+                }
+                return;
+            }
+            pump();
+        }, executor);
+    }
+}
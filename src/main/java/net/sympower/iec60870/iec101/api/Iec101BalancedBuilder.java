@@ -0,0 +1,254 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.api;
+
+import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.iec101.connection.Iec101BalancedConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.transport.Iec101SerialTransport;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Builds a {@link Iec101BalancedConnection} on a serial port. Both stations of a balanced link use this builder; one
+ * of them must be configured with {@code controllingStation(false)}.
+ *
+ * @since 2.1
+ */
+public class Iec101BalancedBuilder {
+
+    private static final String THREAD_NAME_PREFIX = "IEC101-Balanced-";
+
+    private final String portName;
+    private final Iec101Transport transport;
+
+    private int baudRate = 9600;
+    private int dataBits = 8;
+    private int stopBits = SerialPort.ONE_STOP_BIT;
+    private int parity = SerialPort.NO_PARITY;
+
+    private int linkAddress = 1;
+    private int linkAddressLength = 2;
+    private int cotFieldLength = 2;
+    private int ioaFieldLength = 3;
+    private boolean controllingStation = true;
+
+    private int maxRetries = 3;
+    private long ackTimeoutMs = 1000;
+    private long linkRetryIntervalMs = 5000;
+    private int interFrameDelayMs = 0;
+
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
+
+    public Iec101BalancedBuilder(String portName) {
+        this.portName = portName;
+        this.transport = null;
+    }
+
+    /**
+     * Creates a builder for a connection on the given transport instead of a serial port. The serial port settings
+     * then only determine how frames are paced.
+     */
+    public Iec101BalancedBuilder(Iec101Transport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Transport must not be null");
+        }
+        this.portName = null;
+        this.transport = transport;
+    }
+
+    public Iec101BalancedBuilder baudRate(int baudRate) {
+        this.baudRate = baudRate;
+        return this;
+    }
+
+    public Iec101BalancedBuilder dataBits(int dataBits) {
+        this.dataBits = dataBits;
+        return this;
+    }
+
+    public Iec101BalancedBuilder stopBits(int stopBits) {
+        this.stopBits = stopBits;
+        return this;
+    }
+
+    public Iec101BalancedBuilder parity(int parity) {
+        this.parity = parity;
+        return this;
+    }
+
+    public Iec101BalancedBuilder linkAddress(int linkAddress) {
+        this.linkAddress = linkAddress;
+        return this;
+    }
+
+    public Iec101BalancedBuilder linkAddressLength(int linkAddressLength) {
+        if (linkAddressLength < 1 || linkAddressLength > 2) {
+            throw new IllegalArgumentException("Link address length must be 1 or 2 bytes");
+        }
+        this.linkAddressLength = linkAddressLength;
+        return this;
+    }
+
+    public Iec101BalancedBuilder cotFieldLength(int length) {
+        if (length != 1 && length != 2) {
+            throw new IllegalArgumentException("COT field length must be 1 or 2");
+        }
+        this.cotFieldLength = length;
+        return this;
+    }
+
+    public Iec101BalancedBuilder ioaFieldLength(int length) {
+        if (length < 1 || length > 3) {
+            throw new IllegalArgumentException("IOA field length must be 1, 2, or 3");
+        }
+        this.ioaFieldLength = length;
+        return this;
+    }
+
+    /**
+     * Sets whether this is the controlling station, whose frames carry DIR=1. Defaults to true.
+     */
+    public Iec101BalancedBuilder controllingStation(boolean controllingStation) {
+        this.controllingStation = controllingStation;
+        return this;
+    }
+
+    public Iec101BalancedBuilder maxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must be non-negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public Iec101BalancedBuilder ackTimeoutMs(long ackTimeoutMs) {
+        if (ackTimeoutMs <= 0) {
+            throw new IllegalArgumentException("ACK timeout must be positive");
+        }
+        this.ackTimeoutMs = ackTimeoutMs;
+        return this;
+    }
+
+    public Iec101BalancedBuilder linkRetryIntervalMs(long linkRetryIntervalMs) {
+        if (linkRetryIntervalMs <= 0) {
+            throw new IllegalArgumentException("Link retry interval must be positive");
+        }
+        this.linkRetryIntervalMs = linkRetryIntervalMs;
+        return this;
+    }
+
+    public Iec101BalancedBuilder interFrameDelayMs(int interFrameDelayMs) {
+        if (interFrameDelayMs < 0) {
+            throw new IllegalArgumentException("Inter-frame delay must be non-negative");
+        }
+        this.interFrameDelayMs = interFrameDelayMs;
+        return this;
+    }
+
+    public Iec101BalancedBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public Iec101BalancedBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
+
+    public Iec101BalancedBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    public Iec101BalancedBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    public Iec101BalancedBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
+    public Iec101BalancedConnection build() throws IOException {
+        return new Iec101BalancedConnection(
+            openTransport(),
+            createConnectionSettings(),
+            linkAddress,
+            controllingStation,
+            createLinkSettings());
+    }
+
+    private Iec101Transport openTransport() throws IOException {
+        return transport != null
+            ? transport
+            : Iec101SerialTransport.open(portName, baudRate, dataBits, stopBits, parity);
+    }
+
+    private IEC60870Settings createConnectionSettings() {
+        IEC60870Settings settings = new IEC60870Settings();
+        settings.setCotFieldLength(cotFieldLength);
+        settings.setIoaFieldLength(ioaFieldLength);
+        settings.setLinkAddressLength(linkAddressLength);
+        settings.setInterFrameDelayMs(interFrameDelayMs);
+        settings.setBaudRate(baudRate);
+        settings.setDataBits(dataBits);
+        settings.setStopBits(stopBits);
+        settings.setParity(parity);
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
+        return settings;
+    }
+
+    private Iec101ClientSettings createLinkSettings() {
+        Iec101ClientSettings linkSettings = new Iec101ClientSettings();
+        linkSettings.setMaxRetries(maxRetries);
+        linkSettings.setAckTimeoutMs(ackTimeoutMs);
+        linkSettings.setLinkRetryIntervalMs(linkRetryIntervalMs);
+        return linkSettings;
+    }
+}
@@ -24,17 +24,25 @@
 package net.sympower.iec60870.iec101.api;
 
 import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
 import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
 import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
 import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101PollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.transport.Iec101SerialTransport;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 public class Iec101ClientBuilder {
 
+    private static final String THREAD_NAME_PREFIX = "IEC101-Client-";
+
     private final String portName;
+    private final Iec101Transport transport;
     
     private int baudRate = 9600;
     private int dataBits = 8;
@@ -56,9 +64,28 @@ public class Iec101ClientBuilder {
     private int interFrameDelayMs = 0;
     
     private long pollingIntervalMs = 1000;
+    private int sendQueueCapacity = 1000;
+    private Iec101PollScheduler pollScheduler;
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
 
     public Iec101ClientBuilder(String portName) {
         this.portName = portName;
+        this.transport = null;
+    }
+
+    /**
+     * Creates a builder for a connection on the given transport instead of a serial port. The serial port settings
+     * then only determine how frames are paced.
+     */
+    public Iec101ClientBuilder(Iec101Transport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Transport must not be null");
+        }
+        this.portName = null;
+        this.transport = transport;
     }
 
     public Iec101ClientBuilder baudRate(int baudRate) {
@@ -168,34 +195,73 @@ public class Iec101ClientBuilder {
         return this;
     }
 
+    public Iec101ClientBuilder sendQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Send queue capacity must be at least 1");
+        }
+        this.sendQueueCapacity = capacity;
+        return this;
+    }
+
+    public Iec101ClientBuilder pollScheduler(Iec101PollScheduler pollScheduler) {
+        if (pollScheduler == null) {
+            throw new IllegalArgumentException("Poll scheduler must not be null");
+        }
+        this.pollScheduler = pollScheduler;
+        return this;
+    }
+
+    public Iec101ClientBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public Iec101ClientBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
+
+    public Iec101ClientBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    public Iec101ClientBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    public Iec101ClientBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
 
     public Iec101ClientConnection build() throws IOException {
-        SerialPort serialPort = openSerialPort();
         IEC60870Settings settings = createConnectionSettings();
         Iec101ClientSettings clientSettings = createClientSettings();
         
-        return createConnection(serialPort, settings, clientSettings);
+        return createConnection(openTransport(), settings, clientSettings);
     }
     
-    private SerialPort openSerialPort() throws IOException {
-        SerialPort serialPort = SerialPort.getCommPort(portName);
-        configureSerialPort(serialPort);
-        
-        if (!serialPort.openPort()) {
-            throw new IOException("Failed to open serial port: " + portName);
-        }
-        
-        return serialPort;
+    private Iec101Transport openTransport() throws IOException {
+        return transport != null
+            ? transport
+            : Iec101SerialTransport.open(portName, baudRate, dataBits, stopBits, parity);
     }
-    
-    private void configureSerialPort(SerialPort serialPort) {
-        serialPort.setBaudRate(baudRate);
-        serialPort.setNumDataBits(dataBits);
-        serialPort.setNumStopBits(stopBits);
-        serialPort.setParity(parity);
-        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 300000, 0); // 5 minutes
-    }
-    
+
     private IEC60870Settings createConnectionSettings() {
         IEC60870Settings settings = new IEC60870Settings();
         settings.setMessageFragmentTimeout(messageFragmentTimeout);
@@ -203,6 +269,14 @@ public class Iec101ClientBuilder {
         settings.setIoaFieldLength(ioaFieldLength);
         settings.setLinkAddressLength(linkAddressLength);
         settings.setInterFrameDelayMs(interFrameDelayMs);
+        settings.setBaudRate(baudRate);
+        settings.setDataBits(dataBits);
+        settings.setStopBits(stopBits);
+        settings.setParity(parity);
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
         return settings;
     }
     
@@ -213,15 +287,16 @@ public class Iec101ClientBuilder {
         clientSettings.setInitializationTimeoutMs(initializationTimeoutMs);
         clientSettings.setHandshakePollIntervalMs(handshakePollIntervalMs);
         clientSettings.setPollingIntervalMs(pollingIntervalMs);
+        clientSettings.setSendQueueCapacity(sendQueueCapacity);
         return clientSettings;
     }
     
-    private Iec101ClientConnection createConnection(SerialPort serialPort, IEC60870Settings settings, Iec101ClientSettings clientSettings) {
+    private Iec101ClientConnection createConnection(Iec101Transport transport, IEC60870Settings settings, Iec101ClientSettings clientSettings) {
         return new Iec101ClientConnection(
-            new DataInputStream(serialPort.getInputStream()),
-            new DataOutputStream(serialPort.getOutputStream()),
+            transport,
             settings, 
             linkAddress,
-            clientSettings);
+            clientSettings,
+            pollScheduler != null ? pollScheduler : new Iec101RoundRobinPollScheduler());
     }
 }
@@ -0,0 +1,276 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.api;
+
+import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101MultiDropPrimary;
+import net.sympower.iec60870.iec101.connection.Iec101PollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.transport.Iec101SerialTransport;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+
+public class Iec101MultiDropBuilder {
+
+    private static final String THREAD_NAME_PREFIX = "IEC101-MultiDrop-";
+
+    private final String portName;
+    private final Iec101Transport transport;
+    private final Set<Integer> linkAddresses = new LinkedHashSet<>();
+
+    private int baudRate = 9600;
+    private int dataBits = 8;
+    private int stopBits = SerialPort.ONE_STOP_BIT;
+    private int parity = SerialPort.NO_PARITY;
+
+    private int linkAddressLength = 2;
+    private int cotFieldLength = 2;
+    private int ioaFieldLength = 3;
+
+    private int maxRetries = 3;
+    private long responseTimeoutMs = 1000;
+    private long linkRetryIntervalMs = 5000;
+    private long pollingIntervalMs = 100;
+    private int interFrameDelayMs = 0;
+
+    private Iec101PollScheduler pollScheduler;
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
+
+    public Iec101MultiDropBuilder(String portName) {
+        this.portName = portName;
+        this.transport = null;
+    }
+
+    /**
+     * Creates a builder for a connection on the given transport instead of a serial port. The serial port settings
+     * then only determine how frames are paced.
+     */
+    public Iec101MultiDropBuilder(Iec101Transport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Transport must not be null");
+        }
+        this.portName = null;
+        this.transport = transport;
+    }
+
+    public Iec101MultiDropBuilder baudRate(int baudRate) {
+        this.baudRate = baudRate;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder dataBits(int dataBits) {
+        this.dataBits = dataBits;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder stopBits(int stopBits) {
+        this.stopBits = stopBits;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder parity(int parity) {
+        this.parity = parity;
+        return this;
+    }
+
+    /**
+     * Adds a secondary station to the line. Its connection is available from
+     * {@link Iec101MultiDropPrimary#getLink(int)} once the primary is built.
+     */
+    public Iec101MultiDropBuilder linkAddress(int linkAddress) {
+        if (!linkAddresses.add(linkAddress)) {
+            throw new IllegalArgumentException("Link address " + linkAddress + " was already added");
+        }
+        return this;
+    }
+
+    public Iec101MultiDropBuilder linkAddressLength(int linkAddressLength) {
+        if (linkAddressLength < 1 || linkAddressLength > 2) {
+            throw new IllegalArgumentException("Link address length must be 1 or 2 bytes");
+        }
+        this.linkAddressLength = linkAddressLength;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder cotFieldLength(int length) {
+        if (length != 1 && length != 2) {
+            throw new IllegalArgumentException("COT field length must be 1 or 2");
+        }
+        this.cotFieldLength = length;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder ioaFieldLength(int length) {
+        if (length < 1 || length > 3) {
+            throw new IllegalArgumentException("IOA field length must be 1, 2, or 3");
+        }
+        this.ioaFieldLength = length;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder maxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must be non-negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder responseTimeoutMs(long responseTimeoutMs) {
+        if (responseTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Response timeout must be positive");
+        }
+        this.responseTimeoutMs = responseTimeoutMs;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder linkRetryIntervalMs(long linkRetryIntervalMs) {
+        if (linkRetryIntervalMs <= 0) {
+            throw new IllegalArgumentException("Link retry interval must be positive");
+        }
+        this.linkRetryIntervalMs = linkRetryIntervalMs;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder pollingIntervalMs(long pollingIntervalMs) {
+        if (pollingIntervalMs <= 0) {
+            throw new IllegalArgumentException("Polling interval must be positive");
+        }
+        this.pollingIntervalMs = pollingIntervalMs;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder interFrameDelayMs(int interFrameDelayMs) {
+        if (interFrameDelayMs < 0) {
+            throw new IllegalArgumentException("Inter-frame delay must be non-negative");
+        }
+        this.interFrameDelayMs = interFrameDelayMs;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder pollScheduler(Iec101PollScheduler pollScheduler) {
+        if (pollScheduler == null) {
+            throw new IllegalArgumentException("Poll scheduler must not be null");
+        }
+        this.pollScheduler = pollScheduler;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
+
+    public Iec101MultiDropBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    public Iec101MultiDropBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
+    public Iec101MultiDropPrimary build() throws IOException {
+        if (linkAddresses.isEmpty()) {
+            throw new IllegalArgumentException("At least one link address must be added");
+        }
+
+        Iec101MultiDropPrimary primary = new Iec101MultiDropPrimary(
+            openTransport(),
+            createConnectionSettings(),
+            createClientSettings(),
+            pollScheduler != null ? pollScheduler : new Iec101RoundRobinPollScheduler());
+
+        for (int linkAddress : linkAddresses) {
+            primary.addLink(linkAddress);
+        }
+        return primary;
+    }
+
+    private Iec101Transport openTransport() throws IOException {
+        return transport != null
+            ? transport
+            : Iec101SerialTransport.open(portName, baudRate, dataBits, stopBits, parity);
+    }
+
+    private IEC60870Settings createConnectionSettings() {
+        IEC60870Settings settings = new IEC60870Settings();
+        settings.setCotFieldLength(cotFieldLength);
+        settings.setIoaFieldLength(ioaFieldLength);
+        settings.setLinkAddressLength(linkAddressLength);
+        settings.setInterFrameDelayMs(interFrameDelayMs);
+        settings.setBaudRate(baudRate);
+        settings.setDataBits(dataBits);
+        settings.setStopBits(stopBits);
+        settings.setParity(parity);
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
+        return settings;
+    }
+
+    private Iec101ClientSettings createClientSettings() {
+        Iec101ClientSettings clientSettings = new Iec101ClientSettings();
+        clientSettings.setMaxRetries(maxRetries);
+        clientSettings.setAckTimeoutMs(responseTimeoutMs);
+        clientSettings.setLinkRetryIntervalMs(linkRetryIntervalMs);
+        clientSettings.setPollingIntervalMs(pollingIntervalMs);
+        return clientSettings;
+    }
+}
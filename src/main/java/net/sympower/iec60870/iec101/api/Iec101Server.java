@@ -23,18 +23,17 @@
  */
 package net.sympower.iec60870.iec101.api;
 
-import com.fazecast.jSerialComm.SerialPort;
 import net.sympower.iec60870.common.IEC60870Settings;
 import net.sympower.iec60870.common.api.IEC60870Server;
 import net.sympower.iec60870.common.api.IEC60870ServerListener;
 import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
 import net.sympower.iec60870.iec101.connection.Iec101ServerSettings;
+import net.sympower.iec60870.iec101.transport.Iec101SerialTransport;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Iec101Server implements IEC60870Server {
@@ -42,14 +41,23 @@ public class Iec101Server implements IEC60870Server {
     private static final Logger logger = LoggerFactory.getLogger(Iec101Server.class);
     
     private final Iec101ServerSettings settings;
+    private final Iec101Transport providedTransport;
     private final AtomicBoolean running = new AtomicBoolean(false);
     
-    private SerialPort serialPort;
+    private Iec101Transport transport;
     private Iec101ServerConnection activeConnection;
     private volatile IEC60870ServerListener serverListener;
 
     public Iec101Server(Iec101ServerSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Creates a server on the given transport instead of the serial port named in the settings.
+     */
+    public Iec101Server(Iec101ServerSettings settings, Iec101Transport transport) {
         this.settings = settings;
+        this.providedTransport = transport;
     }
 
     @Override
@@ -60,36 +68,27 @@ public class Iec101Server implements IEC60870Server {
 
         this.serverListener = listener;
         
-        openSerialPort();
+        openTransport();
         createServerConnection();
         notifyConnectionAccepted();
     }
     
-    private void openSerialPort() throws IOException {
-        logger.info("Opening serial port: {}", settings.getPortName());
-        serialPort = SerialPort.getCommPort(settings.getPortName());
-        configureSerialPort();
-        
-        if (!serialPort.openPort()) {
-            throw new IOException("Failed to open serial port: " + settings.getPortName());
+    private void openTransport() throws IOException {
+        if (providedTransport != null) {
+            transport = providedTransport;
+            return;
         }
+        logger.info("Opening serial port: {}", settings.getPortName());
+        transport = Iec101SerialTransport.open(settings.getPortName(), settings.getBaudRate(), settings.getDataBits(),
+            settings.getStopBits(), settings.getParity());
         logger.info("Serial port opened successfully: {}", settings.getPortName());
     }
     
-    private void configureSerialPort() {
-        serialPort.setBaudRate(settings.getBaudRate());
-        serialPort.setNumDataBits(settings.getDataBits());
-        serialPort.setNumStopBits(settings.getStopBits());
-        serialPort.setParity(settings.getParity());
-        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 300000, 0); // 5 minutes
-    }
-    
     private void createServerConnection() {
         IEC60870Settings connectionSettings = createConnectionSettings();
         
         activeConnection = new Iec101ServerConnection(
-            new DataInputStream(serialPort.getInputStream()),
-            new DataOutputStream(serialPort.getOutputStream()),
+            transport,
             connectionSettings,
             settings.getLinkAddress()
         );
@@ -102,6 +101,15 @@ public class Iec101Server implements IEC60870Server {
         connectionSettings.setMessageFragmentTimeout(settings.getMessageFragmentTimeout());
         connectionSettings.setCotFieldLength(settings.getCotFieldLength());
         connectionSettings.setIoaFieldLength(settings.getIoaFieldLength());
+        connectionSettings.setInterFrameDelayMs(settings.getInterFrameDelayMs());
+        connectionSettings.setBaudRate(settings.getBaudRate());
+        connectionSettings.setDataBits(settings.getDataBits());
+        connectionSettings.setStopBits(settings.getStopBits());
+        connectionSettings.setParity(settings.getParity());
+        connectionSettings.setThreadFactory(settings.getThreadFactory());
+        connectionSettings.setDispatchThreads(settings.getDispatchThreads());
+        connectionSettings.setDispatchQueueCapacity(settings.getDispatchQueueCapacity());
+        connectionSettings.setDispatchOverflowPolicy(settings.getDispatchOverflowPolicy());
         return connectionSettings;
     }
     
@@ -122,9 +130,9 @@ public class Iec101Server implements IEC60870Server {
             activeConnection = null;
         }
 
-        if (serialPort != null && serialPort.isOpen()) {
-            serialPort.closePort();
-            serialPort = null;
+        if (transport != null) {
+            transport.close();
+            transport = null;
         }
     }
 
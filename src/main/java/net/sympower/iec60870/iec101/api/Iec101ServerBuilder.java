@@ -23,13 +23,20 @@
  */
 package net.sympower.iec60870.iec101.api;
 
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Threads;
 import net.sympower.iec60870.iec101.connection.Iec101ServerSettings;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 public class Iec101ServerBuilder {
 
+    private static final String THREAD_NAME_PREFIX = "IEC101-Server-";
+
     private final String portName;
+    private final Iec101Transport transport;
     
     private int baudRate = 9600;
     private int dataBits = 8;
@@ -40,9 +47,26 @@ public class Iec101ServerBuilder {
     private int linkAddress = 1;
     private int cotFieldLength = 2;
     private int ioaFieldLength = 3;
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
 
     public Iec101ServerBuilder(String portName) {
         this.portName = portName;
+        this.transport = null;
+    }
+
+    /**
+     * Creates a builder for a server on the given transport instead of a serial port. The serial port settings then
+     * only determine how frames are paced.
+     */
+    public Iec101ServerBuilder(Iec101Transport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("Transport must not be null");
+        }
+        this.portName = null;
+        this.transport = transport;
     }
 
     public Iec101ServerBuilder baudRate(int baudRate) {
@@ -91,9 +115,46 @@ public class Iec101ServerBuilder {
         return this;
     }
 
+    public Iec101ServerBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public Iec101ServerBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
+
+    public Iec101ServerBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    public Iec101ServerBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    public Iec101ServerBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
     public Iec101Server build() throws IOException {
         Iec101ServerSettings settings = createServerSettings();
-        return new Iec101Server(settings);
+        return new Iec101Server(settings, transport);
     }
     
     private Iec101ServerSettings createServerSettings() {
@@ -116,6 +177,10 @@ public class Iec101ServerBuilder {
         settings.setCotFieldLength(cotFieldLength);
         settings.setIoaFieldLength(ioaFieldLength);
         settings.setLinkAddress(linkAddress);
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
     }
 
 }
@@ -0,0 +1,172 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Poll scheduler that spends the line on the stations that have data.
+ * <ul>
+ * <li>A station with the ACD bit set is polled for class 1 data immediately, back-to-back until ACD clears.</li>
+ * <li>A station that answered the last poll with user data is polled again immediately.</li>
+ * <li>A station that answered with no data (or not at all) is backed off exponentially, from the initial backoff
+ * up to the maximum backoff, and polled again immediately once it returns data.</li>
+ * <li>A station with the DFC bit set is polled at least every initial backoff, so that queued user data, which the
+ * primary holds back while DFC is set, is sent soon after DFC clears.</li>
+ * </ul>
+ * Stations that are due at the same time are served round-robin.
+ *
+ * @since 2.1
+ */
+public class Iec101AdaptivePollScheduler implements Iec101PollScheduler {
+
+    public static final long DEFAULT_INITIAL_BACKOFF_MS = 10;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 1000;
+
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Integer, LinkState> linkStates = new HashMap<>();
+
+    private int nextIndex;
+    private long nextDueNanos;
+
+    public Iec101AdaptivePollScheduler() {
+        this(DEFAULT_INITIAL_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS);
+    }
+
+    /**
+     * @param initialBackoffMs delay before re-polling a station after its first poll without data
+     * @param maxBackoffMs upper bound of the delay, reached by doubling after every further poll without data
+     */
+    public Iec101AdaptivePollScheduler(long initialBackoffMs, long maxBackoffMs) {
+        this(initialBackoffMs, maxBackoffMs, System::nanoTime);
+    }
+
+    Iec101AdaptivePollScheduler(long initialBackoffMs, long maxBackoffMs, LongSupplier nanoClock) {
+        if (initialBackoffMs <= 0) {
+            throw new IllegalArgumentException("Initial backoff must be positive");
+        }
+        if (maxBackoffMs < initialBackoffMs) {
+            throw new IllegalArgumentException("Maximum backoff must not be less than the initial backoff");
+        }
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMs);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Iec101Poll nextPoll(List<? extends Iec101PolledLink> links) {
+        int size = links.size();
+        if (size == 0) {
+            return null;
+        }
+
+        for (int i = 0; i < size; i++) {
+            int index = (nextIndex + i) % size;
+            Iec101PolledLink link = links.get(index);
+            if (link.isAccessDemand()) {
+                return pollAt(index, size, Iec101Poll.class1(link.getLinkAddress()));
+            }
+        }
+
+        long now = nanoClock.getAsLong();
+        long earliestDue = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = (nextIndex + i) % size;
+            Iec101PolledLink link = links.get(index);
+            long due = dueNanos(link, now);
+            if (due - now <= 0) {
+                return pollAt(index, size, Iec101Poll.class2(link.getLinkAddress()));
+            }
+            earliestDue = Math.min(earliestDue, due - now);
+        }
+
+        nextDueNanos = now + earliestDue;
+        return null;
+    }
+
+    @Override
+    public void onPollCompleted(Iec101Poll poll, Iec101PollResult result) {
+        LinkState state = stateOf(poll.getLinkAddress());
+        long now = nanoClock.getAsLong();
+        state.lastPollNanos = now;
+        if (result == Iec101PollResult.USER_DATA) {
+            state.backoffNanos = 0;
+        } else {
+            state.backoffNanos = state.backoffNanos == 0
+                    ? initialBackoffNanos
+                    : Math.min(state.backoffNanos * 2, maxBackoffNanos);
+        }
+        state.nextPollNanos = now + state.backoffNanos;
+    }
+
+    /**
+     * Idles until the next station's backoff expires, but no longer than the polling interval.
+     */
+    @Override
+    public long idleDelayMs(long pollingIntervalMs) {
+        long remainingNanos = nextDueNanos - nanoClock.getAsLong();
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+        return Math.max(1, Math.min(pollingIntervalMs, remainingMs));
+    }
+
+    /**
+     * Returns the current backoff of a station in milliseconds, 0 if it is polled back-to-back.
+     */
+    long getBackoffMs(int linkAddress) {
+        LinkState state = linkStates.get(linkAddress);
+        return state == null ? 0 : TimeUnit.NANOSECONDS.toMillis(state.backoffNanos);
+    }
+
+    private Iec101Poll pollAt(int index, int size, Iec101Poll poll) {
+        nextIndex = (index + 1) % size;
+        return poll;
+    }
+
+    private long dueNanos(Iec101PolledLink link, long nowNanos) {
+        LinkState state = linkStates.get(link.getLinkAddress());
+        if (state == null) {
+            return nowNanos;
+        }
+        if (link.isDataFlowControl()) {
+            return Math.min(state.nextPollNanos, state.lastPollNanos + initialBackoffNanos);
+        }
+        return state.nextPollNanos;
+    }
+
+    private LinkState stateOf(int linkAddress) {
+        return linkStates.computeIfAbsent(linkAddress, address -> new LinkState());
+    }
+
+    private static class LinkState {
+        private long nextPollNanos;
+        private long lastPollNanos;
+        private long backoffNanos;
+    }
+}
@@ -0,0 +1,591 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101SingleCharFrame;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Connection in balanced transmission mode, where both stations on a point-to-point line are combined stations: each
+ * sends its own data as primary station, with its own frame count bit and retries, and confirms the frames of the
+ * other station as secondary station. Spontaneous data is therefore sent as soon as it occurs instead of waiting for
+ * the next poll. Balanced mode needs a full-duplex line; both stations use this class, and exactly one of them is
+ * configured as the controlling station, which sets the direction bit in its frames.
+ * <p>
+ * The reader answers the remote station's frames as soon as they arrive, also while a confirmed send of this station
+ * is waiting for its acknowledgement, so both directions transmit concurrently. Sends are queued and transmitted one
+ * confirmed frame at a time by a separate link thread. ASDUs sent from a listener callback are queued without waiting
+ * for their confirmation, because the thread delivering them is needed to receive it.
+ * <p>
+ * {@link IEC60870EventListener#onConnectionReady()} is called every time this station has reset the remote link. If
+ * the remote station stops confirming frames, pending sends fail and the link is reset again after the link retry
+ * interval.
+ *
+ * @since 2.1
+ */
+public class Iec101BalancedConnection extends IEC60870Connection {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec101BalancedConnection.class);
+
+    private static final boolean PRIMARY_STATION = true;
+    private static final boolean SECONDARY_STATION = false;
+    private static final boolean ACD_CLEAR = false;
+    private static final boolean DFC_CLEAR = false;
+    private static final int MAX_FRAME_SIZE = 261;
+
+    private final int linkAddress;
+    private final boolean direction;
+    private final Iec101ClientSettings linkSettings;
+    private final Iec101Transport transport;
+    private final Iec101LineTiming lineTiming;
+    private final Iec101FrameReader frameReader;
+    private final ExecutorService linkExecutor;
+    private final BlockingQueue<PendingSend> sendQueue;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    // Primary link state, only updated by the link thread
+    private boolean frameCountBit;
+    private volatile boolean linkActive;
+    private volatile boolean remoteDataFlowControl;
+    private volatile PendingResponse pendingResponse;
+
+    // Secondary link state, only used by the reader thread
+    private boolean remoteLinkReset;
+    private boolean expectedFrameCountBit;
+    private volatile boolean dataFlowControl;
+
+    private volatile Thread readerThread;
+    private volatile Thread linkThread;
+
+    private static class PendingSend {
+        final ASdu asdu;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingSend(ASdu asdu) {
+            this.asdu = asdu;
+        }
+    }
+
+    private static class PendingResponse {
+        final Predicate<Iec101Frame> accepts;
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile Iec101Frame response;
+
+        PendingResponse(Predicate<Iec101Frame> accepts) {
+            this.accepts = accepts;
+        }
+    }
+
+    /**
+     * @param controllingStation whether this is the controlling station, whose frames carry DIR=1
+     * @param linkSettings the retries, acknowledgement timeout and link retry interval of this station's sends
+     */
+    public Iec101BalancedConnection(DataInputStream inputStream, DataOutputStream outputStream,
+            IEC60870Settings settings, int linkAddress, boolean controllingStation, Iec101ClientSettings linkSettings) {
+        this(inputStream, outputStream, null, settings, linkAddress, controllingStation, linkSettings);
+    }
+
+    /**
+     * Creates a connection on a transport, which is closed together with the connection.
+     */
+    public Iec101BalancedConnection(Iec101Transport transport, IEC60870Settings settings, int linkAddress,
+            boolean controllingStation, Iec101ClientSettings linkSettings) {
+        this(new DataInputStream(transport.getInputStream()), new DataOutputStream(transport.getOutputStream()),
+                transport, settings, linkAddress, controllingStation, linkSettings);
+    }
+
+    private Iec101BalancedConnection(DataInputStream inputStream, DataOutputStream outputStream,
+            Iec101Transport transport, IEC60870Settings settings, int linkAddress, boolean controllingStation,
+            Iec101ClientSettings linkSettings) {
+        super(inputStream, outputStream, settings);
+        this.transport = transport;
+        this.linkAddress = linkAddress;
+        this.direction = controllingStation;
+        this.linkSettings = linkSettings;
+        this.lineTiming = new Iec101LineTiming(settings);
+        this.frameReader = new Iec101FrameReader(inputStream, settings);
+        this.linkExecutor = Executors.newSingleThreadExecutor(threadFactory());
+        this.sendQueue = new LinkedBlockingQueue<>(linkSettings.getSendQueueCapacity());
+    }
+
+    @Override
+    public void startDataTransfer(IEC60870EventListener listener) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Connection is closed");
+        }
+
+        this.eventListener = listener;
+        dataTransferStarted.set(true);
+        if (!started.getAndSet(true)) {
+            executor.submit(this::readerTask);
+            linkExecutor.submit(this::linkTask);
+        }
+    }
+
+    @Override
+    public void stopDataTransfer() {
+        dataTransferStarted.set(false);
+    }
+
+    @Override
+    public void send(ASdu asdu) throws IOException {
+        CompletableFuture<Void> future = sendAsync(asdu);
+        Thread currentThread = Thread.currentThread();
+        if (currentThread == readerThread || currentThread == linkThread) {
+            // Waiting here would keep the acknowledgement from being received or the ASDU from being sent
+            future.whenComplete((ignored, e) -> {
+                if (e != null) {
+                    logger.info("ASDU sent from a listener callback was not confirmed: {}", e.getMessage());
+                }
+            });
+            return;
+        }
+
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the remote station to confirm the ASDU", e);
+        }
+    }
+
+    /**
+     * Queues the ASDU for sending. The future completes once the remote station has confirmed it, or exceptionally
+     * if the station rejected it or did not respond, or if {@link Iec101ClientSettings#getSendQueueCapacity()} ASDUs
+     * are already waiting.
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IOException("Connection is closed"));
+        }
+        if (!dataTransferStarted.get()) {
+            return CompletableFuture.failedFuture(new IOException("Data transfer not started"));
+        }
+        if (!linkActive) {
+            return CompletableFuture.failedFuture(new IOException("Link layer not active"));
+        }
+
+        PendingSend pendingSend = new PendingSend(asdu);
+        if (!sendQueue.offer(pendingSend)) {
+            return CompletableFuture.failedFuture(new IOException(
+                    "Send queue is full (capacity=" + linkSettings.getSendQueueCapacity() + ")"));
+        }
+        if (closed.get()) {
+            failQueuedSends(new IOException("Connection is closed"));
+        }
+        return pendingSend.future;
+    }
+
+    /**
+     * Returns whether this station has reset the remote link, which is when it can send.
+     */
+    public boolean isLinkActive() {
+        return linkActive;
+    }
+
+    public int getLinkAddress() {
+        return linkAddress;
+    }
+
+    /**
+     * Sets the DFC bit in the responses to the remote station, asking it not to send more user data until the bit is
+     * cleared again.
+     */
+    public void setDataFlowControl(boolean dataFlowControl) {
+        this.dataFlowControl = dataFlowControl;
+    }
+
+    /**
+     * Returns the number of received bytes that were discarded as line noise while resynchronising on the next frame.
+     */
+    public long getDroppedBytes() {
+        return frameReader.getDroppedBytes();
+    }
+
+    /**
+     * Returns the number of received frames that were rejected as corrupted or incomplete.
+     */
+    public long getBadFrames() {
+        return frameReader.getBadFrames();
+    }
+
+    @Override
+    protected void performClose() {
+        linkActive = false;
+        interrupt(readerThread);
+        linkExecutor.shutdownNow();
+        failQueuedSends(new IOException("Connection is closed"));
+
+        PendingResponse response = pendingResponse;
+        if (response != null) {
+            response.latch.countDown();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    @Override
+    protected void readerTask() {
+        readerThread = Thread.currentThread();
+        while (!closed.get()) {
+            try {
+                // Full duplex: receiving does not delay sending, so the line timing only paces this station's frames
+                Iec101Frame frame = frameReader.read();
+                if (closed.get()) {
+                    // Read from bytes that were already buffered, which does not notice the interrupt from close()
+                    break;
+                }
+                handleFrame(frame);
+            } catch (InterruptedIOException e) {
+                // Read timeout on an idle line or interrupted by close(); the loop re-checks whether to stop
+                logger.trace("IEC-101 balanced read interrupted: {}", e.getMessage());
+            } catch (Exception e) {
+                onConnectionError(e instanceof IOException ? (IOException) e : new IOException(e));
+                break;
+            }
+        }
+    }
+
+    private void handleFrame(Iec101Frame frame) throws IOException {
+        switch (frame.getFrameType()) {
+            case SINGLE_CHARACTER:
+                completePendingResponse(frame);
+                break;
+            case FIXED_LENGTH:
+                Iec101FixedFrame fixedFrame = (Iec101FixedFrame) frame;
+                if (isForThisLink(fixedFrame.getLinkAddress())) {
+                    if (fixedFrame.getPrm()) {
+                        handlePrimaryFrame(fixedFrame.getFunctionCode(), fixedFrame.getFcv(), fixedFrame.getFcb(),
+                                null);
+                    } else {
+                        remoteDataFlowControl = fixedFrame.getDfc();
+                        completePendingResponse(frame);
+                    }
+                }
+                break;
+            case VARIABLE_LENGTH:
+                Iec101VariableFrame variableFrame = (Iec101VariableFrame) frame;
+                if (isForThisLink(variableFrame.getLinkAddress()) && variableFrame.getPrm()) {
+                    handlePrimaryFrame(variableFrame.getFunctionCode(), variableFrame.getFcv(),
+                            variableFrame.getFcb(), variableFrame.getAsdu());
+                }
+                break;
+        }
+    }
+
+    private boolean isForThisLink(int address) {
+        if (address != linkAddress) {
+            logger.debug("Ignoring frame for link address {}", address);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Answers a frame of the remote station's primary link. A confirmed frame with the same frame count bit as the
+     * previous one is a repetition after a lost acknowledgement: it is acknowledged again but not delivered twice.
+     */
+    private void handlePrimaryFrame(FunctionCode functionCode, boolean fcv, boolean fcb, ASdu asdu)
+            throws IOException {
+        switch (functionCode) {
+            case RESET_REMOTE_LINK:
+                remoteLinkReset = true;
+                expectedFrameCountBit = true;
+                sendResponse(FunctionCode.USER_DATA_RESPONSE);
+                break;
+            case RESET_USER_PROCESS:
+                sendResponse(FunctionCode.USER_DATA_RESPONSE);
+                break;
+            case TEST_FUNCTION_LINK:
+            case USER_DATA_CONFIRMED:
+                if (fcv && remoteLinkReset && fcb != expectedFrameCountBit) {
+                    logger.debug("Repeated frame with FCB={}, acknowledging it again", fcb);
+                } else {
+                    expectedFrameCountBit = !fcb;
+                    deliverIfStarted(asdu);
+                }
+                sendResponse(FunctionCode.USER_DATA_RESPONSE);
+                break;
+            case USER_DATA_NO_REPLY:
+                deliverIfStarted(asdu);
+                break;
+            case REQUEST_LINK_STATUS:
+                sendResponse(FunctionCode.STATUS_LINK);
+                break;
+            default:
+                logger.debug("Function {} is not used in balanced mode", functionCode);
+                sendResponse(FunctionCode.NACK_NOT_IMPLEMENTED);
+                break;
+        }
+    }
+
+    private void deliverIfStarted(ASdu asdu) {
+        if (asdu != null && dataTransferStarted.get()) {
+            deliverAsdu(asdu);
+        }
+    }
+
+    private void sendResponse(FunctionCode functionCode) throws IOException {
+        write(new Iec101FixedFrame(linkAddress, functionCode, SECONDARY_STATION, false, false, ACD_CLEAR,
+                dataFlowControl, direction));
+    }
+
+    private void completePendingResponse(Iec101Frame frame) {
+        PendingResponse response = pendingResponse;
+        if (response != null && response.accepts.test(frame)) {
+            response.response = frame;
+            response.latch.countDown();
+        } else {
+            logger.debug("Ignoring unexpected {} response", frame.getFrameType());
+        }
+    }
+
+    private void linkTask() {
+        linkThread = Thread.currentThread();
+        PendingSend current = null;
+        try {
+            while (!closed.get()) {
+                if (!linkActive) {
+                    if (!resetRemoteLink()) {
+                        logger.info("Remote station does not respond, resetting the link again in {} ms",
+                                linkSettings.getLinkRetryIntervalMs());
+                        Thread.sleep(linkSettings.getLinkRetryIntervalMs());
+                    }
+                    continue;
+                }
+
+                current = sendQueue.take();
+                transmit(current);
+                current = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            onConnectionError(e);
+        } finally {
+            if (current != null) {
+                current.future.completeExceptionally(new IOException("Connection is closed"));
+            }
+        }
+    }
+
+    private boolean resetRemoteLink() throws IOException, InterruptedException {
+        if (transact(fixedFrame(FunctionCode.REQUEST_LINK_STATUS, false, false),
+                frame -> isFixedResponse(frame, FunctionCode.STATUS_LINK)) == null) {
+            return false;
+        }
+        Iec101Frame response = transact(fixedFrame(FunctionCode.RESET_REMOTE_LINK, false, false),
+                Iec101BalancedConnection::isAcknowledgement);
+        if (!isPositive(response)) {
+            return false;
+        }
+
+        // The first frame with a valid frame count after a reset of the remote link carries FCB=1
+        frameCountBit = true;
+        remoteDataFlowControl = false;
+        linkActive = true;
+        logger.info("IEC-101 balanced link {} reset", linkAddress);
+
+        IEC60870EventListener listener = eventListener;
+        if (listener != null) {
+            listener.onConnectionReady();
+        }
+        return true;
+    }
+
+    private void transmit(PendingSend pendingSend) throws IOException, InterruptedException {
+        if (!awaitRemoteDataFlowControlCleared()) {
+            pendingSend.future.completeExceptionally(new IOException("Remote station is not accepting user data"));
+            return;
+        }
+
+        byte[] request = encode(new Iec101VariableFrame(linkAddress, FunctionCode.USER_DATA_CONFIRMED,
+                PRIMARY_STATION, true, frameCountBit, ACD_CLEAR, DFC_CLEAR, direction, pendingSend.asdu));
+        Iec101Frame response = transact(request, Iec101BalancedConnection::isAcknowledgement);
+        if (response == null) {
+            onLinkLost();
+            pendingSend.future.completeExceptionally(new IOException("No acknowledgement after "
+                    + linkSettings.getMaxRetries() + " retries"));
+            return;
+        }
+
+        frameCountBit = !frameCountBit;
+        if (isPositive(response)) {
+            pendingSend.future.complete(null);
+        } else {
+            pendingSend.future.completeExceptionally(new IOException("Remote station rejected the ASDU"));
+        }
+    }
+
+    /**
+     * Requests the link status until the remote station clears DFC, waiting an acknowledgement timeout between
+     * requests.
+     */
+    private boolean awaitRemoteDataFlowControlCleared() throws IOException, InterruptedException {
+        for (int attempt = 0; remoteDataFlowControl && attempt <= linkSettings.getMaxRetries(); attempt++) {
+            Thread.sleep(linkSettings.getAckTimeoutMs());
+            transact(fixedFrame(FunctionCode.REQUEST_LINK_STATUS, false, false),
+                    frame -> isFixedResponse(frame, FunctionCode.STATUS_LINK));
+        }
+        return !remoteDataFlowControl;
+    }
+
+    /**
+     * Sends a request and waits for the remote station's response, repeating the request unchanged when no response
+     * arrives in time.
+     *
+     * @return the response, or {@code null} if the station did not respond to any attempt
+     */
+    private Iec101Frame transact(byte[] request, Predicate<Iec101Frame> isResponse)
+            throws IOException, InterruptedException {
+        try {
+            for (int attempt = 0; attempt <= linkSettings.getMaxRetries() && !closed.get(); attempt++) {
+                if (attempt > 0) {
+                    logger.debug("No response from the remote station, retrying (attempt {})", attempt);
+                }
+                PendingResponse response = new PendingResponse(isResponse);
+                pendingResponse = response;
+                write(request);
+                if (response.latch.await(linkSettings.getAckTimeoutMs(), TimeUnit.MILLISECONDS)
+                        && response.response != null) {
+                    return response.response;
+                }
+            }
+            return null;
+        } finally {
+            pendingResponse = null;
+        }
+    }
+
+    private void onLinkLost() {
+        linkActive = false;
+        failQueuedSends(new IOException("Link layer not active"));
+    }
+
+    private void failQueuedSends(IOException cause) {
+        PendingSend pendingSend;
+        while ((pendingSend = sendQueue.poll()) != null) {
+            pendingSend.future.completeExceptionally(cause);
+        }
+    }
+
+    private void onConnectionError(IOException e) {
+        if (!closed.get()) {
+            logger.info("IEC-101 balanced connection lost: {}", e.getMessage());
+            close();
+            IEC60870EventListener listener = eventListener;
+            if (listener != null) {
+                listener.onConnectionLost(e);
+            }
+        }
+    }
+
+    private static boolean isFixedResponse(Iec101Frame frame, FunctionCode functionCode) {
+        return frame instanceof Iec101FixedFrame && ((Iec101FixedFrame) frame).getFunctionCode() == functionCode;
+    }
+
+    private static boolean isAcknowledgement(Iec101Frame frame) {
+        if (frame instanceof Iec101SingleCharFrame) {
+            return true;
+        }
+        if (!(frame instanceof Iec101FixedFrame)) {
+            return false;
+        }
+        switch (((Iec101FixedFrame) frame).getFunctionCode()) {
+            case USER_DATA_RESPONSE:
+            case NACK_MESSAGE:
+            case NACK_NOT_FUNCTIONING:
+            case NACK_NOT_IMPLEMENTED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isPositive(Iec101Frame response) {
+        if (response instanceof Iec101SingleCharFrame) {
+            return ((Iec101SingleCharFrame) response).isAck();
+        }
+        return response instanceof Iec101FixedFrame
+                && ((Iec101FixedFrame) response).getFunctionCode() == FunctionCode.USER_DATA_RESPONSE;
+    }
+
+    private byte[] fixedFrame(FunctionCode functionCode, boolean fcv, boolean fcb) {
+        return encode(new Iec101FixedFrame(linkAddress, functionCode, PRIMARY_STATION, fcv, fcb, ACD_CLEAR,
+                DFC_CLEAR, direction));
+    }
+
+    private void write(Iec101Frame frame) throws IOException {
+        write(encode(frame));
+    }
+
+    private void write(byte[] frameData) throws IOException {
+        lineTiming.write(outputStream, frameData);
+    }
+
+    private byte[] encode(Iec101Frame frame) {
+        byte[] buffer = new byte[MAX_FRAME_SIZE];
+        int length = frame.encode(buffer, settings);
+        byte[] frameData = new byte[length];
+        System.arraycopy(buffer, 0, frameData, 0, length);
+        return frameData;
+    }
+
+    private static void interrupt(Thread thread) {
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+}
@@ -30,27 +30,47 @@ import net.sympower.iec60870.common.api.IEC60870EventListener;
 import net.sympower.iec60870.iec101.frame.BitUtils;
 import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
 import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
 import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
 import net.sympower.iec60870.iec101.frame.Iec101SingleCharFrame;
 import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
 
-public class Iec101ClientConnection extends IEC60870Connection {
+/**
+ * Primary station of an unbalanced IEC-101 link to a single secondary station.
+ * <p>
+ * One link thread owns the line once the link has been initialized. It sends the queued user data, toggling the frame
+ * count bit (FCB) and repeating a frame unchanged when the station does not acknowledge it, and polls the station for
+ * class 1 and class 2 data as the {@link Iec101PollScheduler} decides. Between two confirmed user-data frames the
+ * scheduler gets a chance to poll, so the responses to commands are fetched while a backlog of user data is drained.
+ * User data stays queued while the station signals data flow control (DFC); callers of {@link #sendAsync(ASdu)} never
+ * wait for the line.
+ */
+public class Iec101ClientConnection extends IEC60870Connection implements Iec101PolledLink {
 
     private static final Logger logger = LoggerFactory.getLogger(Iec101ClientConnection.class);
     
@@ -65,19 +85,44 @@ public class Iec101ClientConnection extends IEC60870Connection {
 
     private final int linkAddress;
     private final Iec101ClientSettings clientSettings;
-    private final ScheduledExecutorService pollingExecutor = Executors.newSingleThreadScheduledExecutor();
-    private final AtomicBoolean pollClass1Next = new AtomicBoolean(true);
+    private final ExecutorService linkExecutor;
+    private final Iec101PollScheduler pollScheduler;
+    private final Iec101LineMonitor lineMonitor = new Iec101LineMonitor();
+    private final Iec101LineTiming lineTiming;
+    private final Iec101FrameReader frameReader;
+    private final Iec101Transport transport;
     private final AtomicBoolean acdDetected = new AtomicBoolean(false); // ACD (Access Demand) bit state
+    private volatile boolean dataFlowControl; // DFC (Data Flow Control) bit state
+    private volatile PendingPoll pendingPoll;
+    private final Object workLock = new Object();
+    private boolean wakeUpRequested; // guarded by workLock
+    private final BlockingQueue<PendingSend> sendQueue;
     
     private final AtomicBoolean linkLayerActive = new AtomicBoolean(false);
     private final Map<Integer, Boolean> fcbPerLink = new ConcurrentHashMap<>();
     private final Map<Integer, FrameWithAckState> pendingFrames = new ConcurrentHashMap<>();
-    private final ReentrantLock sendLock = new ReentrantLock();
+    private final ReentrantLock sendLock = new ReentrantLock(); // keeps a link reset off the line during a transaction
     
+    private volatile Thread readerThread;
+    private volatile Thread linkThread;
     private volatile boolean linkStatusReceived = false;
     private volatile boolean resetConfirmationReceived = false;
     private final Object handshakeLock = new Object();
     
+    private static class PendingSend {
+        final ASdu asdu;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingSend(ASdu asdu) {
+            this.asdu = asdu;
+        }
+    }
+
+    private static class PendingPoll {
+        final CountDownLatch responseLatch = new CountDownLatch(1);
+        volatile Iec101PollResult result = Iec101PollResult.NO_RESPONSE;
+    }
+
     private static class FrameWithAckState {
         final byte[] frameData;
         final CountDownLatch ackLatch;
@@ -95,9 +140,36 @@ public class Iec101ClientConnection extends IEC60870Connection {
 
     public Iec101ClientConnection(DataInputStream inputStream, DataOutputStream outputStream,
         IEC60870Settings settings, int linkAddress, Iec101ClientSettings clientSettings) {
+        this(inputStream, outputStream, settings, linkAddress, clientSettings, new Iec101RoundRobinPollScheduler());
+    }
+
+    public Iec101ClientConnection(DataInputStream inputStream, DataOutputStream outputStream,
+        IEC60870Settings settings, int linkAddress, Iec101ClientSettings clientSettings,
+        Iec101PollScheduler pollScheduler) {
+        this(inputStream, outputStream, null, settings, linkAddress, clientSettings, pollScheduler);
+    }
+
+    /**
+     * Creates a connection on a transport, which is closed together with the connection.
+     */
+    public Iec101ClientConnection(Iec101Transport transport, IEC60870Settings settings, int linkAddress,
+        Iec101ClientSettings clientSettings, Iec101PollScheduler pollScheduler) {
+        this(new DataInputStream(transport.getInputStream()), new DataOutputStream(transport.getOutputStream()),
+            transport, settings, linkAddress, clientSettings, pollScheduler);
+    }
+
+    private Iec101ClientConnection(DataInputStream inputStream, DataOutputStream outputStream,
+        Iec101Transport transport, IEC60870Settings settings, int linkAddress, Iec101ClientSettings clientSettings,
+        Iec101PollScheduler pollScheduler) {
         super(inputStream, outputStream, settings);
+        this.transport = transport;
         this.linkAddress = linkAddress;
         this.clientSettings = clientSettings;
+        this.pollScheduler = pollScheduler;
+        this.frameReader = new Iec101FrameReader(lineMonitor.countReceived(inputStream), settings);
+        this.lineTiming = new Iec101LineTiming(settings);
+        this.sendQueue = new LinkedBlockingQueue<>(clientSettings.getSendQueueCapacity());
+        this.linkExecutor = Executors.newSingleThreadExecutor(threadFactory());
     }
 
     @Override
@@ -119,44 +191,90 @@ public class Iec101ClientConnection extends IEC60870Connection {
             return;
         }
         
-        sendResetRemoteLink();
-        linkLayerActive.set(false);
         dataTransferStarted.set(false);
+        wakeUpLink();
+        sendLock.lock();
+        try {
+            sendResetRemoteLink();
+        } finally {
+            sendLock.unlock();
+        }
+        linkLayerActive.set(false);
+        failQueuedSends(new IOException("Data transfer stopped"));
+    }
+
+    /**
+     * Queues the ASDU and waits until the station has acknowledged it, at most
+     * {@link Iec101ClientSettings#getSendTimeoutMs()}. An ASDU that is still queued when the wait times out is not
+     * sent anymore.
+     * <p>
+     * On the reader thread, which calls the listener unless dispatch threads are configured, the ASDU is only queued:
+     * waiting there would keep the acknowledgement from being received. Failures are then only logged; use
+     * {@link #sendAsync(ASdu)} to observe them.
+     *
+     * @throws IllegalStateException if called on the link thread, for example from a poll scheduler, which would
+     *             wait for itself to send the ASDU
+     */
+    @Override
+    public void send(ASdu asdu) throws IOException {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread == linkThread) {
+            throw new IllegalStateException("Blocking send on the link thread, use sendAsync instead");
+        }
+        CompletableFuture<Void> future = sendAsync(asdu);
+        if (currentThread == readerThread) {
+            // Waiting here would keep the acknowledgement from being received
+            future.whenComplete((ignored, e) -> {
+                if (e != null) {
+                    logger.info("ASDU sent from a listener callback was not confirmed: {}", e.getMessage());
+                }
+            });
+            return;
+        }
+
+        try {
+            future.get(clientSettings.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new IOException("Station did not confirm the ASDU within " + clientSettings.getSendTimeoutMs()
+                + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the station to confirm the ASDU", e);
+        }
     }
 
+    /**
+     * Queues the ASDU for the link thread. The future completes once the station has acknowledged the frame, or
+     * exceptionally if the station rejected it, did not respond to any retry or the send queue is full. ASDUs to the
+     * broadcast address complete as soon as they have been written.
+     */
     @Override
-    public void send(ASdu asdu) throws IOException {
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
         if (closed.get()) {
-            throw new IOException("Connection is closed");
+            return CompletableFuture.failedFuture(new IOException("Connection is closed"));
         }
-        
         if (!dataTransferStarted.get()) {
-            throw new IOException("Data transfer not started");
+            return CompletableFuture.failedFuture(new IOException("Data transfer not started"));
         }
-        
         if (!linkLayerActive.get()) {
-            throw new IOException("Link layer not active");
+            return CompletableFuture.failedFuture(new IOException("Link layer not active"));
         }
-        
-        sendLock.lock();
-        try {
-            boolean currentFcb = fcbPerLink.getOrDefault(linkAddress, false);
-            boolean isBroadcast = isBroadcastAddress(linkAddress);
-            
-            Iec101VariableFrame frame = createVariableFrame(asdu, currentFcb, isBroadcast);
-            
-            if (frame.getFunctionCode() == FunctionCode.USER_DATA_CONFIRMED) {
-                if (sendVariableFrameWithRetries(frame, currentFcb)) {
-                    fcbPerLink.put(linkAddress, !currentFcb);
-                } else {
-                    throw new IOException("Failed to send frame after " + clientSettings.getMaxRetries() + " retries");
-                }
-            } else {
-                sendVariableFrame(frame);
-            }
-        } finally {
-            sendLock.unlock();
+
+        PendingSend pendingSend = new PendingSend(asdu);
+        if (!sendQueue.offer(pendingSend)) {
+            return CompletableFuture.failedFuture(new IOException(
+                "Send queue is full (capacity=" + clientSettings.getSendQueueCapacity() + ")"));
         }
+        if (closed.get()) {
+            failQueuedSends(new IOException("Connection is closed"));
+        }
+        wakeUpLink();
+        return pendingSend.future;
     }
 
     @Override
@@ -170,16 +288,22 @@ public class Iec101ClientConnection extends IEC60870Connection {
         linkLayerActive.set(false);
         
         releasePendingFrames();
+        failQueuedSends(new IOException("Connection is closed"));
         executor.shutdown();
+        interruptReader();
+        shutdownDispatcher();
         
-        pollingExecutor.shutdown();
-        try {
-            if (!pollingExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                pollingExecutor.shutdownNow();
+        wakeUpLink();
+        linkExecutor.shutdown();
+        if (Thread.currentThread() != linkThread) {
+            try {
+                if (!linkExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    linkExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                linkExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
-        } catch (InterruptedException e) {
-            pollingExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
         
         try {
@@ -188,14 +312,46 @@ public class Iec101ClientConnection extends IEC60870Connection {
             // Ignore close exceptions
         }
         
+        awaitDispatcher();
         if (eventListener != null) {
             eventListener.onConnectionLost(null);
         }
     }
 
+    @Override
+    public int getLinkAddress() {
+        return linkAddress;
+    }
+
+    @Override
+    public boolean isAccessDemand() {
+        return acdDetected.get();
+    }
+
+    @Override
+    public boolean isDataFlowControl() {
+        return dataFlowControl;
+    }
+
+    /**
+     * Returns the number of ASDUs queued by {@link #sendAsync(ASdu)} that the link thread has not started sending yet.
+     */
+    public int getSendQueueSize() {
+        return sendQueue.size();
+    }
+
+    /**
+     * Returns the polls per second and line utilisation achieved since the connection was created.
+     */
+    public Iec101LineStatistics getLineStatistics() {
+        return lineMonitor.snapshot(frameReader);
+    }
+
     @Override
     protected void performClose() throws IOException {
-        // Protocol-specific cleanup if needed
+        if (transport != null) {
+            transport.close();
+        }
     }
 
     private void performInitialization() throws IOException {
@@ -219,7 +375,7 @@ public class Iec101ClientConnection extends IEC60870Connection {
                 eventListener.onConnectionReady();
             }
             
-            startPeriodicPolling();
+            startLink();
             
             logger.info("IEC-101 client connection established successfully");
             
@@ -290,15 +446,16 @@ public class Iec101ClientConnection extends IEC60870Connection {
 
     @Override
     protected void readerTask() {
+        readerThread = Thread.currentThread();
         while (!closed.get()) {
             try {
-                if (inputStream.available() > 0) {
-                    Iec101Frame frame = Iec101Frame.decode(inputStream, settings);
-                    handleFrame(frame);
-                } else {
-                    // Small sleep to avoid busy waiting
-                    Thread.sleep(10);
-                }
+                // Blocks until the next frame has arrived, so the reader wakes as soon as its first byte is received
+                Iec101Frame frame = frameReader.read();
+                lineTiming.onFrameReceived();
+                handleFrame(frame);
+            } catch (InterruptedIOException e) {
+                // Read timeout on an idle line or interrupted by close(); the loop re-checks whether to stop
+                logger.trace("IEC-101 client read interrupted: {}", e.getMessage());
             } catch (Exception e) {
                 if (!closed.get()) {
                     logger.info("IEC-101 client connection lost: {}", e.getMessage());
@@ -312,6 +469,16 @@ public class Iec101ClientConnection extends IEC60870Connection {
         }
     }
 
+    /**
+     * Wakes a reader that is blocked on the input stream, unless close() is being called by the reader itself.
+     */
+    private void interruptReader() {
+        Thread reader = readerThread;
+        if (reader != null && reader != Thread.currentThread()) {
+            reader.interrupt();
+        }
+    }
+
     private void handleFrame(Iec101Frame frame) {
         logger.debug("Received {} frame", frame.getFrameType());
 
@@ -333,24 +500,23 @@ public class Iec101ClientConnection extends IEC60870Connection {
             
         if (frame.isAck()) {
             handleAcknowledgment(true);
+            // A single character acknowledgment may also answer a poll when the station has no data
+            completePoll(Iec101PollResult.NO_DATA);
         } else if (frame.isNack()) {
             handleAcknowledgment(false);
         }
     }
 
     private void handleFixedFrame(Iec101FixedFrame frame) {
-        boolean acdBit = frame.getAcd();
-        acdDetected.set(acdBit);
-        
-        if (acdBit) {
-            logger.debug("ACD bit set: Class 1 data available - triggering immediate polling");
-            triggerClass1PriorityPolling();
-        }
+        updateLinkState(frame.getAcd(), frame.getDfc());
         
         switch (frame.getFunctionCode()) {
+            case RESP_NACK_NO_DATA:
+                completePoll(Iec101PollResult.NO_DATA);
+                notifyHandshakeEvent(() -> linkStatusReceived = true);
+                break;
             case STATUS_LINK:
             case STATUS_LINK_ACCESS_DEMAND:
-            case RESP_NACK_NO_DATA:
                 notifyHandshakeEvent(() -> linkStatusReceived = true);
                 break;
             case RESET_REMOTE_LINK:
@@ -362,14 +528,30 @@ public class Iec101ClientConnection extends IEC60870Connection {
     }
 
     private void handleVariableFrame(Iec101VariableFrame frame) {
-        if (frame.getAsdu() != null && eventListener != null) {
-            eventListener.onAsduReceived(frame.getAsdu());
+        updateLinkState(frame.getAcd(), frame.getDfc());
+        if (frame.getAsdu() != null) {
+            deliverAsdu(frame.getAsdu());
+        }
+        completePoll(Iec101PollResult.USER_DATA);
+    }
+
+    private void updateLinkState(boolean acd, boolean dfc) {
+        acdDetected.set(acd);
+        boolean dataFlowControlCleared = dataFlowControl && !dfc;
+        dataFlowControl = dfc;
+
+        if ((acd && pendingPoll == null) || dataFlowControlCleared) {
+            logger.debug("Link state changed (ACD={}, DFC={}), waking up the link thread", acd, dfc);
+            wakeUpLink();
         }
     }
 
     private void handleAcknowledgment(boolean positive) {
         if (positive && !linkLayerActive.get()) {
+            // Confirms the link reset. Once notified, the link thread may already be waiting for the acknowledgement
+            // of its first frame, which this one must not complete
             notifyHandshakeEvent(() -> resetConfirmationReceived = true);
+            return;
         }
         
         FrameWithAckState frameState = pendingFrames.get(linkAddress);
@@ -422,21 +604,8 @@ public class Iec101ClientConnection extends IEC60870Connection {
     }
 
     private void sendRawFrame(byte[] frameData) throws IOException {
-        synchronized (outputStream) {
-            outputStream.write(frameData);
-            outputStream.flush();
-            
-            try {
-                applyInterFrameDelay();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IOException("Inter-frame delay interrupted", e);
-            }
-        }
-    }
-
-    private void applyInterFrameDelay() throws InterruptedException {
-        Thread.sleep(settings.getInterFrameDelayMs());
+        lineTiming.write(outputStream, frameData);
+        lineMonitor.onFrameSent(frameData.length);
     }
 
     private boolean sendVariableFrameWithRetries(Iec101VariableFrame frame, boolean fcbValue) throws IOException {
@@ -447,6 +616,7 @@ public class Iec101ClientConnection extends IEC60870Connection {
     private boolean sendRawFrameWithRetries(byte[] frameData, boolean fcbValue) throws IOException {
         FrameWithAckState frameState = new FrameWithAckState(frameData, fcbValue);
         pendingFrames.put(linkAddress, frameState);
+        long startNanos = System.nanoTime();
         
         try {
             while (frameState.retryCount.get() <= clientSettings.getMaxRetries()) {
@@ -466,6 +636,7 @@ public class Iec101ClientConnection extends IEC60870Connection {
             return false;
         } finally {
             pendingFrames.remove(linkAddress);
+            lineMonitor.onTransactionCompleted(startNanos);
         }
     }
 
@@ -523,51 +694,149 @@ public class Iec101ClientConnection extends IEC60870Connection {
         }
     }
     
-    private void startPeriodicPolling() {
-        logger.debug("Starting alternating periodic polling every {}ms", clientSettings.getPollingIntervalMs());
-        
-        pollingExecutor.scheduleWithFixedDelay(() -> {
-            if (!dataTransferStarted.get() || closed.get()) {
-                return;
-            }
-            
-            try {
-                // If ACD bit is set, prioritize Class 1 data polling
-                if (acdDetected.get()) {
-                    logger.debug("ACD priority polling: requesting Class 1 data (ACD=true)");
-                    sendRequestClass1Data();
-                } else {
-                    boolean requestClass1 = pollClass1Next.getAndSet(!pollClass1Next.get());
-                    
-                    if (requestClass1) {
-                        logger.debug("Normal periodic polling: requesting Class 1 data");
-                        sendRequestClass1Data();
-                    } else {
-                        logger.debug("Normal periodic polling: requesting Class 2 data");
-                        sendRequestClass2Data();
+    private void startLink() {
+        logger.debug("Starting the link thread with {}", pollScheduler.getClass().getSimpleName());
+        linkExecutor.execute(this::linkTask);
+    }
+
+    /**
+     * Drives the line. Queued user data goes first unless the station signals DFC; once the scheduler's idle delay
+     * has passed or the station signals ACD, a poll is sent between two user-data frames.
+     */
+    private void linkTask() {
+        linkThread = Thread.currentThread();
+        List<Iec101PolledLink> polledLinks = Collections.singletonList(this);
+        // The first poll follows the link reset after one polling interval, or as soon as the station signals ACD
+        long pollDueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(clientSettings.getPollingIntervalMs());
+        boolean pollTurn = false;
+        try {
+            while (dataTransferStarted.get() && !closed.get()) {
+                try {
+                    boolean pollDue = acdDetected.get() || System.nanoTime() - pollDueNanos >= 0;
+                    if (!(pollTurn && pollDue) && !dataFlowControl) {
+                        PendingSend pendingSend = sendQueue.poll();
+                        if (pendingSend != null) {
+                            // A send that timed out while queued has been cancelled and is skipped
+                            if (!pendingSend.future.isDone()) {
+                                transmit(pendingSend);
+                                pollTurn = true;
+                            }
+                            continue;
+                        }
                     }
+                    pollTurn = false;
+
+                    if (!pollDue) {
+                        waitForLinkWork(millisUntil(pollDueNanos));
+                        continue;
+                    }
+                    Iec101Poll poll = pollScheduler.nextPoll(polledLinks);
+                    if (poll == null) {
+                        long idleDelayMs = pollScheduler.idleDelayMs(clientSettings.getPollingIntervalMs());
+                        pollDueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleDelayMs);
+                        continue;
+                    }
+                    Iec101PollResult result = sendPoll(poll);
+                    lineMonitor.onPollCompleted(result);
+                    pollScheduler.onPollCompleted(poll, result);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logger.debug("Error during polling: {}", e.getMessage());
+                    waitForLinkWork(clientSettings.getPollingIntervalMs());
                 }
-            } catch (Exception e) {
-                logger.debug("Error during periodic polling: {}", e.getMessage());
             }
-        }, 
-        clientSettings.getPollingIntervalMs(),
-        clientSettings.getPollingIntervalMs(),
-        TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
-    
-    private void triggerClass1PriorityPolling() {
-        if (!dataTransferStarted.get() || closed.get()) {
-            return;
+
+    private static long millisUntil(long deadlineNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime() + 999_999));
+    }
+
+    /**
+     * Sends one queued ASDU and completes its future with the outcome. A confirmed frame is repeated with the same FCB
+     * until the station acknowledges it or the retries are used up; the FCB only toggles after an acknowledgement.
+     */
+    private void transmit(PendingSend pendingSend) {
+        sendLock.lock();
+        try {
+            boolean currentFcb = fcbPerLink.getOrDefault(linkAddress, false);
+            Iec101VariableFrame frame = createVariableFrame(pendingSend.asdu, currentFcb, isBroadcastAddress(linkAddress));
+
+            if (frame.getFunctionCode() != FunctionCode.USER_DATA_CONFIRMED) {
+                sendVariableFrame(frame);
+                pendingSend.future.complete(null);
+            } else if (sendVariableFrameWithRetries(frame, currentFcb)) {
+                fcbPerLink.put(linkAddress, !currentFcb);
+                pendingSend.future.complete(null);
+            } else if (closed.get()) {
+                pendingSend.future.completeExceptionally(new IOException("Connection is closed"));
+            } else {
+                pendingSend.future.completeExceptionally(
+                    new IOException("Failed to send frame after " + clientSettings.getMaxRetries() + " retries"));
+            }
+        } catch (IOException e) {
+            pendingSend.future.completeExceptionally(e);
+        } finally {
+            sendLock.unlock();
         }
-        
-        pollingExecutor.submit(() -> {
-            try {
-                logger.debug("ACD immediate polling: requesting Class 1 data");
+    }
+
+    /**
+     * Sends a poll and waits for the station's response. No other frame is sent meanwhile, so that the response can
+     * be attributed to the poll.
+     */
+    private Iec101PollResult sendPoll(Iec101Poll poll) throws IOException, InterruptedException {
+        sendLock.lock();
+        PendingPoll currentPoll = new PendingPoll();
+        long startNanos = System.nanoTime();
+        try {
+            pendingPoll = currentPoll;
+            logger.debug("Polling: {}", poll);
+            if (poll.isClass1()) {
                 sendRequestClass1Data();
-            } catch (Exception e) {
-                logger.debug("Error during ACD priority polling: {}", e.getMessage());
+            } else {
+                sendRequestClass2Data();
+            }
+            currentPoll.responseLatch.await(clientSettings.getAckTimeoutMs(), TimeUnit.MILLISECONDS);
+            return currentPoll.result;
+        } finally {
+            pendingPoll = null;
+            lineMonitor.onTransactionCompleted(startNanos);
+            sendLock.unlock();
+        }
+    }
+
+    private void completePoll(Iec101PollResult result) {
+        PendingPoll currentPoll = pendingPoll;
+        if (currentPoll != null) {
+            currentPoll.result = result;
+            currentPoll.responseLatch.countDown();
+        }
+    }
+
+    private void failQueuedSends(IOException cause) {
+        PendingSend pendingSend;
+        while ((pendingSend = sendQueue.poll()) != null) {
+            pendingSend.future.completeExceptionally(cause);
+        }
+    }
+
+    private void waitForLinkWork(long timeoutMs) throws InterruptedException {
+        synchronized (workLock) {
+            if (!wakeUpRequested && !closed.get()) {
+                workLock.wait(timeoutMs);
             }
-        });
+            wakeUpRequested = false;
+        }
+    }
+
+    private void wakeUpLink() {
+        synchronized (workLock) {
+            wakeUpRequested = true;
+            workLock.notifyAll();
+        }
     }
 }
@@ -32,6 +32,9 @@ public class Iec101ClientSettings extends IEC60870Settings {
     private long initializationTimeoutMs = 5000;
     private long handshakePollIntervalMs = 1000;
     private long pollingIntervalMs = 1000;
+    private long linkRetryIntervalMs = 5000;
+    private int sendQueueCapacity = 1000; // Max ASDUs waiting for the link thread
+    private long sendTimeoutMs = 10000; // Max time send() waits for the station to confirm an ASDU
 
     public Iec101ClientSettings() {
         super();
@@ -77,4 +80,35 @@ public class Iec101ClientSettings extends IEC60870Settings {
     public void setPollingIntervalMs(long pollingIntervalMs) {
         this.pollingIntervalMs = pollingIntervalMs;
     }
+
+    public long getLinkRetryIntervalMs() {
+        return linkRetryIntervalMs;
+    }
+
+    public void setLinkRetryIntervalMs(long linkRetryIntervalMs) {
+        this.linkRetryIntervalMs = linkRetryIntervalMs;
+    }
+
+    public int getSendQueueCapacity() {
+        return sendQueueCapacity;
+    }
+
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.sendQueueCapacity = sendQueueCapacity;
+    }
+
+    /**
+     * Returns how long a blocking send waits for the station to confirm an ASDU, including the time it is queued or
+     * held back by data flow control.
+     */
+    public long getSendTimeoutMs() {
+        return sendTimeoutMs;
+    }
+
+    public void setSendTimeoutMs(long sendTimeoutMs) {
+        if (sendTimeoutMs < 1) {
+            throw new IllegalArgumentException("Send timeout must be at least 1 ms");
+        }
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
 }
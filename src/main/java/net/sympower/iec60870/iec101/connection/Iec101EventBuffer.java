@@ -0,0 +1,348 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.InformationObject;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outbound class 1 and class 2 data of a secondary station, drained one ASDU per poll with as many information
+ * objects packed into it as the frame allows.
+ * <p>
+ * Class 1 is strictly ordered: a poll returns the oldest ASDU, merged with directly following ASDUs of the same
+ * type, cause and common address.
+ * <p>
+ * Class 2 holds only the latest value per (common address, IOA) for measured values and status information without
+ * time tag. A newer value replaces the pending one in place, or moves to the end of the buffer if its cause of
+ * transmission changed. A poll returns the oldest value packed with every compatible value queued before the next
+ * ASDU that cannot be coalesced (for example an activation termination), so that the relative order of such ASDUs and
+ * the values around them is kept.
+ * <p>
+ * An ASDU may be queued with a future that completes once all of its information objects were handed to the poll
+ * that sends them. A value replaced by a newer value of the same point counts as delivered, as the newer value is
+ * sent in its place.
+ */
+class Iec101EventBuffer {
+
+    private static final int MAX_VARIABLE_FRAME_LENGTH = 255;
+    private static final int MAX_INFORMATION_OBJECTS = 127;
+
+    private static final Set<ASduType> COALESCED_TYPES = EnumSet.of(
+            ASduType.M_SP_NA_1, ASduType.M_DP_NA_1, ASduType.M_ST_NA_1, ASduType.M_BO_NA_1, ASduType.M_ME_NA_1,
+            ASduType.M_ME_NB_1, ASduType.M_ME_NC_1, ASduType.M_PS_NA_1, ASduType.M_ME_ND_1);
+
+    private final IEC60870Settings settings;
+    private final int maxAsduLength;
+    private final int asduHeaderLength;
+    private final byte[] scratch = new byte[MAX_VARIABLE_FRAME_LENGTH];
+    private final ArrayDeque<Entry> class1 = new ArrayDeque<>();
+    private final LinkedHashMap<Object, Entry> class2 = new LinkedHashMap<>();
+
+    Iec101EventBuffer(IEC60870Settings settings) {
+        this.settings = settings;
+        this.maxAsduLength = MAX_VARIABLE_FRAME_LENGTH - 1 - settings.getLinkAddressLength();
+        this.asduHeaderLength = 2 + settings.getCotFieldLength() + settings.getCommonAddressFieldLength();
+    }
+
+    synchronized void addClass1(ASdu asdu) {
+        addClass1(asdu, null);
+    }
+
+    /**
+     * Queues class 1 data.
+     *
+     * @param asdu the ASDU to queue
+     * @param delivered completed when the ASDU is polled, or null
+     */
+    synchronized void addClass1(ASdu asdu, CompletableFuture<Void> delivered) {
+        class1.add(new Entry(asdu, null, 0, delivered == null ? null : new Delivery(delivered, 1)));
+    }
+
+    synchronized void addClass2(ASdu asdu) {
+        addClass2(asdu, null);
+    }
+
+    /**
+     * Queues class 2 data.
+     *
+     * @param asdu the ASDU to queue
+     * @param delivered completed when every information object of the ASDU is polled or replaced by a newer value,
+     *            or null
+     */
+    synchronized void addClass2(ASdu asdu, CompletableFuture<Void> delivered) {
+        if (!isPackable(asdu) || !COALESCED_TYPES.contains(asdu.getTypeIdentification())) {
+            class2.put(new Object(), new Entry(asdu, null, 0, delivered == null ? null : new Delivery(delivered, 1)));
+            return;
+        }
+
+        InformationObject[] informationObjects = asdu.getInformationObjects();
+        Delivery delivery = delivered == null ? null : new Delivery(delivered, informationObjects.length);
+        for (InformationObject informationObject : informationObjects) {
+            PointKey key = new PointKey(asdu.getCommonAddress(), informationObject.getInformationObjectAddress());
+            Entry entry = new Entry(asdu, informationObject, encodedLength(informationObject), delivery);
+            Entry pending = class2.get(key);
+            if (pending != null && !pending.isCompatibleWith(entry)) {
+                class2.remove(key);
+            }
+            class2.put(key, entry);
+            if (pending != null) {
+                pending.complete(null);
+            }
+        }
+    }
+
+    synchronized boolean hasClass1() {
+        return !class1.isEmpty();
+    }
+
+    synchronized boolean hasClass2() {
+        return !class2.isEmpty();
+    }
+
+    /**
+     * Returns the number of pending class 2 ASDUs and coalesced values.
+     */
+    synchronized int class2Size() {
+        return class2.size();
+    }
+
+    synchronized ASdu pollClass1() {
+        return pollClass1(null);
+    }
+
+    /**
+     * Returns the next class 1 response, or null if there is no class 1 data.
+     *
+     * @param delivered receives the futures of the ASDUs that are now fully contained in polled responses, or null
+     */
+    synchronized ASdu pollClass1(List<CompletableFuture<Void>> delivered) {
+        Entry firstEntry = class1.poll();
+        if (firstEntry == null) {
+            return null;
+        }
+        firstEntry.complete(delivered);
+        ASdu first = firstEntry.asdu;
+        if (!isPackable(first)) {
+            return first;
+        }
+
+        List<InformationObject> informationObjects = new ArrayList<>();
+        int length = asduHeaderLength;
+        for (InformationObject informationObject : first.getInformationObjects()) {
+            informationObjects.add(informationObject);
+            length += encodedLength(informationObject);
+        }
+
+        Entry nextEntry;
+        while ((nextEntry = class1.peek()) != null && isPackable(nextEntry.asdu)
+                && haveSameHeader(first, nextEntry.asdu)) {
+            ASdu next = nextEntry.asdu;
+            int nextLength = 0;
+            for (InformationObject informationObject : next.getInformationObjects()) {
+                nextLength += encodedLength(informationObject);
+            }
+            if (length + nextLength > maxAsduLength
+                    || informationObjects.size() + next.getInformationObjects().length > MAX_INFORMATION_OBJECTS) {
+                break;
+            }
+            class1.poll();
+            nextEntry.complete(delivered);
+            length += nextLength;
+            informationObjects.addAll(List.of(next.getInformationObjects()));
+        }
+
+        return informationObjects.size() == first.getInformationObjects().length
+                ? first
+                : withInformationObjects(first, informationObjects);
+    }
+
+    synchronized ASdu pollClass2() {
+        return pollClass2(null);
+    }
+
+    /**
+     * Returns the next class 2 response, or null if there is no class 2 data.
+     *
+     * @param delivered receives the futures of the ASDUs that are now fully contained in polled responses, or null
+     */
+    synchronized ASdu pollClass2(List<CompletableFuture<Void>> delivered) {
+        Iterator<Entry> iterator = class2.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Entry first = iterator.next();
+        iterator.remove();
+        first.complete(delivered);
+        if (first.informationObject == null) {
+            return first.asdu;
+        }
+
+        List<InformationObject> informationObjects = new ArrayList<>();
+        informationObjects.add(first.informationObject);
+        int length = asduHeaderLength + first.length;
+        while (iterator.hasNext() && informationObjects.size() < MAX_INFORMATION_OBJECTS) {
+            Entry next = iterator.next();
+            if (next.informationObject == null) {
+                break;
+            }
+            if (next.isCompatibleWith(first) && length + next.length <= maxAsduLength) {
+                iterator.remove();
+                next.complete(delivered);
+                informationObjects.add(next.informationObject);
+                length += next.length;
+            }
+        }
+        return withInformationObjects(first.asdu, informationObjects);
+    }
+
+    /**
+     * Discards all queued data and fails the futures of the discarded ASDUs.
+     */
+    synchronized void failAll(IOException cause) {
+        for (Entry entry : class1) {
+            entry.fail(cause);
+        }
+        for (Entry entry : class2.values()) {
+            entry.fail(cause);
+        }
+        class1.clear();
+        class2.clear();
+    }
+
+    private int encodedLength(InformationObject informationObject) {
+        return informationObject.encode(scratch, 0, settings.getIoaFieldLength());
+    }
+
+    private static boolean isPackable(ASdu asdu) {
+        return !asdu.isSequenceOfElements() && asdu.getInformationObjects() != null
+                && asdu.getTypeIdentification().getId() < ASduType.C_SC_NA_1.getId();
+    }
+
+    private static boolean haveSameHeader(ASdu a, ASdu b) {
+        return a.getTypeIdentification() == b.getTypeIdentification()
+                && a.getCauseOfTransmission() == b.getCauseOfTransmission()
+                && a.getCommonAddress() == b.getCommonAddress()
+                && a.isTestFrame() == b.isTestFrame()
+                && a.isNegativeConfirm() == b.isNegativeConfirm()
+                && Objects.equals(a.getOriginatorAddress(), b.getOriginatorAddress());
+    }
+
+    private static ASdu withInformationObjects(ASdu header, List<InformationObject> informationObjects) {
+        return new ASdu(header.getTypeIdentification(), false, header.getCauseOfTransmission(), header.isTestFrame(),
+                header.isNegativeConfirm(), header.getOriginatorAddress(), header.getCommonAddress(),
+                informationObjects.toArray(new InformationObject[0]));
+    }
+
+    private static class Entry {
+        private final ASdu asdu;
+        private final InformationObject informationObject;
+        private final int length;
+        private final Delivery delivery;
+
+        private Entry(ASdu asdu, InformationObject informationObject, int length, Delivery delivery) {
+            this.asdu = asdu;
+            this.informationObject = informationObject;
+            this.length = length;
+            this.delivery = delivery;
+        }
+
+        private boolean isCompatibleWith(Entry other) {
+            return informationObject != null && other.informationObject != null && haveSameHeader(asdu, other.asdu);
+        }
+
+        /**
+         * Counts this entry as delivered. The future of its ASDU is added to the given list once all entries of the
+         * ASDU are delivered, or completed at once if there is no list.
+         */
+        private void complete(List<CompletableFuture<Void>> delivered) {
+            if (delivery != null && --delivery.remaining == 0) {
+                if (delivered != null) {
+                    delivered.add(delivery.future);
+                }
+                else {
+                    delivery.future.complete(null);
+                }
+            }
+        }
+
+        private void fail(IOException cause) {
+            if (delivery != null) {
+                delivery.future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * The future of a queued ASDU and the number of its entries that are not delivered yet.
+     */
+    private static class Delivery {
+        private final CompletableFuture<Void> future;
+        private int remaining;
+
+        private Delivery(CompletableFuture<Void> future, int remaining) {
+            this.future = future;
+            this.remaining = remaining;
+        }
+    }
+
+    private static class PointKey {
+        private final int commonAddress;
+        private final int informationObjectAddress;
+
+        private PointKey(int commonAddress, int informationObjectAddress) {
+            this.commonAddress = commonAddress;
+            this.informationObjectAddress = informationObjectAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PointKey)) {
+                return false;
+            }
+            PointKey other = (PointKey) o;
+            return commonAddress == other.commonAddress && informationObjectAddress == other.informationObjectAddress;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * commonAddress + informationObjectAddress;
+        }
+    }
+}
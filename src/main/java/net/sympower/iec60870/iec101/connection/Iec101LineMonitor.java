@@ -0,0 +1,90 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the counters behind {@link Iec101LineStatistics}.
+ */
+class Iec101LineMonitor {
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong pollsWithData = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    /**
+     * Wraps the line's input stream so that every byte read from it is counted.
+     */
+    InputStream countReceived(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesReceived.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+                if (count > 0) {
+                    bytesReceived.addAndGet(count);
+                }
+                return count;
+            }
+        };
+    }
+
+    void onFrameSent(int length) {
+        bytesSent.addAndGet(length);
+    }
+
+    void onPollCompleted(Iec101PollResult result) {
+        polls.incrementAndGet();
+        if (result == Iec101PollResult.USER_DATA) {
+            pollsWithData.incrementAndGet();
+        }
+    }
+
+    void onTransactionCompleted(long startNanos) {
+        busyNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    Iec101LineStatistics snapshot(Iec101FrameReader frameReader) {
+        return new Iec101LineStatistics(System.nanoTime() - startNanos, polls.get(), pollsWithData.get(),
+                bytesSent.get(), bytesReceived.get(), busyNanos.get(), frameReader.getDroppedBytes(),
+                frameReader.getBadFrames());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the traffic on an IEC-101 line since the connection was created.
+ * <p>
+ * Line utilisation is the fraction of time the line was reserved by a transaction, from sending a request until its
+ * response arrived or the response timeout expired. On an unbalanced line nothing else can be sent in that time, so
+ * a utilisation close to 1 means the line is saturated.
+ *
+ * @since 2.1
+ */
+public final class Iec101LineStatistics {
+
+    private final long elapsedNanos;
+    private final long polls;
+    private final long pollsWithData;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long busyNanos;
+    private final long droppedBytes;
+    private final long badFrames;
+
+    Iec101LineStatistics(long elapsedNanos, long polls, long pollsWithData, long bytesSent, long bytesReceived,
+            long busyNanos, long droppedBytes, long badFrames) {
+        this.elapsedNanos = elapsedNanos;
+        this.polls = polls;
+        this.pollsWithData = pollsWithData;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.busyNanos = busyNanos;
+        this.droppedBytes = droppedBytes;
+        this.badFrames = badFrames;
+    }
+
+    public long getElapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Returns the number of class 1 and class 2 polls sent.
+     */
+    public long getPolls() {
+        return polls;
+    }
+
+    /**
+     * Returns the number of polls that were answered with user data.
+     */
+    public long getPollsWithData() {
+        return pollsWithData;
+    }
+
+    public double getPollsPerSecond() {
+        return elapsedNanos > 0 ? polls * 1e9 / elapsedNanos : 0;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Returns the number of received bytes that were discarded as line noise while resynchronising on the next frame.
+     */
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    /**
+     * Returns the number of received frames that were rejected as corrupted or incomplete.
+     */
+    public long getBadFrames() {
+        return badFrames;
+    }
+
+    /**
+     * Returns the fraction of time, between 0 and 1, the line was reserved by transactions.
+     */
+    public double getLineUtilisation() {
+        return elapsedNanos > 0 ? Math.min(1.0, (double) busyNanos / elapsedNanos) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("polls=%d (%d with data, %.1f/s), sent=%d bytes, received=%d bytes, utilisation=%.1f%%, "
+                + "dropped=%d bytes, bad frames=%d", polls, pollsWithData, getPollsPerSecond(), bytesSent,
+                bytesReceived, getLineUtilisation() * 100, droppedBytes, badFrames);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.IEC60870Settings;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces frames on a serial line. The time a frame occupies the line follows from the baud rate and the character
+ * format, and FT1.2 requires the line to stay idle for at least 33 bit times between frames in either direction.
+ * Writers wait for that point outside the line's monitor and only hold it for the write itself, so a sender waiting
+ * for the line never blocks another thread that could already transmit.
+ * <p>
+ * When no baud rate is configured, only the configured inter-frame delay is enforced.
+ */
+class Iec101LineTiming {
+
+    static final int MIN_IDLE_BITS = 33;
+
+    private final long characterNanos;
+    private final long idleGapNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong idleAtNanos;
+
+    Iec101LineTiming(IEC60870Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    Iec101LineTiming(IEC60870Settings settings, LongSupplier nanoClock) {
+        long extraDelayNanos = TimeUnit.MILLISECONDS.toNanos(settings.getInterFrameDelayMs());
+        if (settings.getBaudRate() > 0) {
+            long halfBitNanos = TimeUnit.SECONDS.toNanos(1) / (2L * settings.getBaudRate());
+            this.characterNanos = halfBitNanos * halfBitsPerCharacter(settings);
+            this.idleGapNanos = halfBitNanos * 2 * MIN_IDLE_BITS + extraDelayNanos;
+        } else {
+            this.characterNanos = 0;
+            this.idleGapNanos = extraDelayNanos;
+        }
+        this.nanoClock = nanoClock;
+        this.idleAtNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Returns the number of half bits in one character: a start bit, the data bits, the optional parity bit and the
+     * stop bits, which may be one and a half.
+     */
+    static int halfBitsPerCharacter(IEC60870Settings settings) {
+        int bits = 1 + settings.getDataBits() + (settings.getParity() == SerialPort.NO_PARITY ? 0 : 1);
+        int stopHalfBits;
+        switch (settings.getStopBits()) {
+            case SerialPort.ONE_POINT_FIVE_STOP_BITS:
+                stopHalfBits = 3;
+                break;
+            case SerialPort.TWO_STOP_BITS:
+                stopHalfBits = 4;
+                break;
+            default:
+                stopHalfBits = 2;
+                break;
+        }
+        return 2 * bits + stopHalfBits;
+    }
+
+    long getCharacterNanos() {
+        return characterNanos;
+    }
+
+    long getIdleGapNanos() {
+        return idleGapNanos;
+    }
+
+    long transmissionNanos(int frameLength) {
+        return frameLength * characterNanos;
+    }
+
+    long nanosUntilIdle() {
+        return Math.max(0, idleAtNanos.get() - nanoClock.getAsLong());
+    }
+
+    /**
+     * Records that a frame from the remote station has just been received completely, after which the line has to
+     * stay idle before this station may answer.
+     */
+    void onFrameReceived() {
+        idleAtNanos.accumulateAndGet(nanoClock.getAsLong() + idleGapNanos, Math::max);
+    }
+
+    /**
+     * Writes a frame once the line is idle. The caller must not hold the output stream's monitor.
+     */
+    void write(OutputStream outputStream, byte[] frameData) throws IOException {
+        while (true) {
+            awaitIdle();
+            synchronized (outputStream) {
+                // Another writer may have taken the line while this one was parked
+                if (nanosUntilIdle() == 0) {
+                    outputStream.write(frameData);
+                    outputStream.flush();
+                    onFrameWritten(frameData.length);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitIdle() throws InterruptedIOException {
+        long waitNanos;
+        while ((waitNanos = nanosUntilIdle()) > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the line to become idle");
+            }
+        }
+    }
+
+    private void onFrameWritten(int frameLength) {
+        idleAtNanos.accumulateAndGet(nanoClock.getAsLong() + transmissionNanos(frameLength) + idleGapNanos, Math::max);
+    }
+}
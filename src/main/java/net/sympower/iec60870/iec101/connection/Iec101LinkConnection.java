@@ -0,0 +1,234 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connection to one secondary station on a line driven by an {@link Iec101MultiDropPrimary}. It behaves like any
+ * other {@link IEC60870Connection}: ASDUs received from the station are delivered to the listener, and sent ASDUs are
+ * queued on the shared line and confirmed by the station.
+ * <p>
+ * {@link IEC60870EventListener#onConnectionReady()} is called every time the link has been reset, which happens
+ * after data transfer is started and again after the station stopped responding and came back. It is called on the
+ * primary's callback thread, and ASDUs are delivered on its reader thread. While the link is down, sends fail.
+ * Closing a link connection stops polling the station but leaves the line open.
+ *
+ * @since 2.1
+ */
+public class Iec101LinkConnection extends IEC60870Connection implements Iec101PolledLink {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec101LinkConnection.class);
+
+    private final Iec101MultiDropPrimary primary;
+    private final int linkAddress;
+
+    // Link state, only updated by the primary's line thread
+    private volatile boolean linkActive;
+    private volatile boolean accessDemand;
+    private volatile boolean dataFlowControl;
+    private boolean frameCountBit;
+    private long nextInitializationNanos;
+
+    Iec101LinkConnection(Iec101MultiDropPrimary primary, int linkAddress, IEC60870Settings settings) {
+        super(null, null, settings);
+        this.primary = primary;
+        this.linkAddress = linkAddress;
+    }
+
+    @Override
+    public void startDataTransfer(IEC60870EventListener listener) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Connection is closed");
+        }
+
+        this.eventListener = listener;
+        dataTransferStarted.set(true);
+        primary.start();
+    }
+
+    @Override
+    public void stopDataTransfer() {
+        dataTransferStarted.set(false);
+        linkActive = false;
+    }
+
+    /**
+     * Queues the ASDU on the shared line and waits until the station has confirmed it, at most
+     * {@link Iec101ClientSettings#getSendTimeoutMs()}. An ASDU that is still queued when the wait times out is not
+     * sent anymore.
+     * <p>
+     * On the primary's reader thread, which delivers ASDUs to the listener unless dispatch threads are configured,
+     * the ASDU is only queued: waiting there would keep the confirmation from being received. Failures are then only
+     * logged; use {@link #sendAsync(ASdu)} to observe them.
+     *
+     * @throws IllegalStateException if called on the line thread, for example from a poll scheduler, which would wait
+     *             for itself to send the ASDU
+     */
+    @Override
+    public void send(ASdu asdu) throws IOException {
+        if (primary.isLineThread()) {
+            throw new IllegalStateException("Blocking send on the line thread, use sendAsync instead");
+        }
+        CompletableFuture<Void> future = sendAsync(asdu);
+        if (primary.isReaderThread()) {
+            // Waiting here would keep the confirmation from being received
+            future.whenComplete((ignored, e) -> {
+                if (e != null) {
+                    logger.info("ASDU sent from a listener callback was not confirmed: {}", e.getMessage());
+                }
+            });
+            return;
+        }
+
+        long sendTimeoutMs = primary.getSendTimeoutMs();
+        try {
+            future.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new IOException("Link " + linkAddress + " did not confirm the ASDU within " + sendTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the link to confirm the ASDU", e);
+        }
+    }
+
+    /**
+     * Queues the ASDU on the shared line. The future completes once the station has confirmed it, or exceptionally
+     * if the station rejected it or did not respond.
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IOException("Connection is closed"));
+        }
+        if (!dataTransferStarted.get()) {
+            return CompletableFuture.failedFuture(new IOException("Data transfer not started"));
+        }
+        if (!linkActive) {
+            return CompletableFuture.failedFuture(new IOException("Link layer not active"));
+        }
+        return primary.enqueue(this, asdu);
+    }
+
+    @Override
+    public void close() {
+        linkActive = false;
+        super.close();
+    }
+
+    @Override
+    protected void performClose() {
+        primary.wakeUp();
+    }
+
+    @Override
+    protected void readerTask() {
+        // The line is read by the primary, which hands this connection the frames addressed to it
+    }
+
+    @Override
+    public int getLinkAddress() {
+        return linkAddress;
+    }
+
+    /**
+     * Returns whether the link has been reset and the station is being polled.
+     */
+    public boolean isLinkActive() {
+        return linkActive;
+    }
+
+    @Override
+    public boolean isAccessDemand() {
+        return accessDemand;
+    }
+
+    @Override
+    public boolean isDataFlowControl() {
+        return dataFlowControl;
+    }
+
+    boolean isPollable() {
+        return dataTransferStarted.get() && !closed.get();
+    }
+
+    boolean isInitializationDue(long nowNanos) {
+        return isPollable() && !linkActive && nowNanos - nextInitializationNanos >= 0;
+    }
+
+    long initializationDelayNanos(long nowNanos) {
+        return Math.max(0, nextInitializationNanos - nowNanos);
+    }
+
+    boolean nextFrameCountBit() {
+        return frameCountBit;
+    }
+
+    void onFrameConfirmed(boolean acd, boolean dfc) {
+        frameCountBit = !frameCountBit;
+        accessDemand = acd;
+        dataFlowControl = dfc;
+    }
+
+    void onLinkReset(boolean acd) {
+        // The first frame with a valid frame count after a reset of the remote link carries FCB=1
+        frameCountBit = true;
+        accessDemand = acd;
+        dataFlowControl = false;
+        linkActive = true;
+
+        IEC60870EventListener listener = eventListener;
+        if (listener != null) {
+            primary.callListener(listener::onConnectionReady);
+        }
+    }
+
+    void onLinkFailed(long retryAtNanos) {
+        linkActive = false;
+        accessDemand = false;
+        nextInitializationNanos = retryAtNanos;
+    }
+
+    void onAsduReceived(ASdu asdu) {
+        if (isPollable()) {
+            deliverAsdu(asdu);
+        }
+    }
+}
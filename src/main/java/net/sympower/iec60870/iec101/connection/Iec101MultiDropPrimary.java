@@ -0,0 +1,691 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+import net.sympower.iec60870.iec101.frame.BitUtils;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101SingleCharFrame;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Primary station of an unbalanced IEC-101 party line: one serial line shared by many secondary stations, each
+ * addressed by its link address.
+ * <p>
+ * The primary owns the line. A single line thread runs one transaction at a time (a request followed by the addressed
+ * station's response, retried up to the configured number of times) and keeps FCB, ACD and DFC state per station.
+ * Queued user data and polls take turns: after a user-data frame, stations that are not yet (or no longer) reset are
+ * initialized, or the {@link Iec101PollScheduler} chooses a station to poll for class 1 or class 2 data, so a steady
+ * stream of user data cannot starve the polls. User data for a station that signals data flow control (DFC) stays
+ * queued until a later response clears DFC. At most {@link Iec101ClientSettings#getSendQueueCapacity()} ASDUs are
+ * queued for all stations together.
+ * <p>
+ * Every station is represented by an {@link Iec101LinkConnection}, so listener code written for point-to-point
+ * connections works unchanged. ASDUs are delivered on the reader thread, and only from the response that answers the
+ * current request, so a response that arrives after the acknowledgement timeout is not delivered a second time when
+ * the station repeats it for the retried request. {@link IEC60870EventListener#onConnectionReady()} is called on a
+ * separate callback thread, so that listeners can send from it. The line thread starts when data transfer is started
+ * on the first link.
+ *
+ * @since 2.1
+ */
+public class Iec101MultiDropPrimary {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec101MultiDropPrimary.class);
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = IEC60870Threads.daemonThreadFactory(
+            "IEC101-MultiDrop-");
+
+    public static final boolean PRIMARY_STATION = true;
+    public static final boolean FCV_SET = true;
+    public static final boolean FCV_CLEAR = false;
+    public static final boolean FCB_CLEAR = false;
+    public static final boolean ACD_CLEAR = false;
+    public static final boolean DFC_CLEAR = false;
+
+    private static final int MAX_FRAME_SIZE = 261;
+
+    private final Iec101FrameReader frameReader;
+    private final DataOutputStream outputStream;
+    private final Iec101Transport transport;
+    private final IEC60870Settings settings;
+    private final Iec101ClientSettings clientSettings;
+    private final Iec101PollScheduler pollScheduler;
+    private final List<Iec101LinkConnection> links = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Iec101LinkConnection> linksByAddress = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingSend> sendQueue;
+    private final byte[] frameBuffer = new byte[MAX_FRAME_SIZE];
+    private final ExecutorService executor;
+    private final ExecutorService callbackExecutor;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Object workLock = new Object();
+    private final Iec101LineMonitor lineMonitor = new Iec101LineMonitor();
+    private final Iec101LineTiming lineTiming;
+
+    private volatile Thread readerThread;
+    private volatile Thread lineThread;
+    private volatile PendingResponse pendingResponse;
+    private boolean pollTurn;
+
+    public Iec101MultiDropPrimary(DataInputStream inputStream, DataOutputStream outputStream,
+            IEC60870Settings settings, Iec101ClientSettings clientSettings, Iec101PollScheduler pollScheduler) {
+        this(inputStream, outputStream, null, settings, clientSettings, pollScheduler);
+    }
+
+    /**
+     * Creates a primary on a transport, which is closed together with the primary.
+     */
+    public Iec101MultiDropPrimary(Iec101Transport transport, IEC60870Settings settings,
+            Iec101ClientSettings clientSettings, Iec101PollScheduler pollScheduler) {
+        this(new DataInputStream(transport.getInputStream()), new DataOutputStream(transport.getOutputStream()),
+                transport, settings, clientSettings, pollScheduler);
+    }
+
+    private Iec101MultiDropPrimary(DataInputStream inputStream, DataOutputStream outputStream,
+            Iec101Transport transport, IEC60870Settings settings, Iec101ClientSettings clientSettings,
+            Iec101PollScheduler pollScheduler) {
+        this.transport = transport;
+        this.frameReader = new Iec101FrameReader(lineMonitor.countReceived(inputStream), settings);
+        this.outputStream = outputStream;
+        this.settings = settings;
+        this.clientSettings = clientSettings;
+        this.pollScheduler = pollScheduler;
+        this.lineTiming = new Iec101LineTiming(settings);
+        this.sendQueue = new LinkedBlockingQueue<>(clientSettings.getSendQueueCapacity());
+        ThreadFactory threadFactory = settings.getThreadFactory() != null ? settings.getThreadFactory()
+                : DEFAULT_THREAD_FACTORY;
+        this.executor = Executors.newFixedThreadPool(2, threadFactory);
+        this.callbackExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * Adds a secondary station to the line and returns its connection.
+     *
+     * @throws IllegalArgumentException if the address is already in use or does not fit the link address field
+     */
+    public Iec101LinkConnection addLink(int linkAddress) {
+        int maxAddress = (1 << (8 * settings.getLinkAddressLength())) - 1;
+        if (linkAddress < 0 || linkAddress >= maxAddress) {
+            throw new IllegalArgumentException("Link address must be between 0 and " + (maxAddress - 1));
+        }
+        Iec101LinkConnection link = new Iec101LinkConnection(this, linkAddress, settings);
+        if (linksByAddress.putIfAbsent(linkAddress, link) != null) {
+            throw new IllegalArgumentException("Link address " + linkAddress + " is already in use");
+        }
+        links.add(link);
+        return link;
+    }
+
+    public Iec101LinkConnection getLink(int linkAddress) {
+        return linksByAddress.get(linkAddress);
+    }
+
+    public List<Iec101LinkConnection> getLinks() {
+        return Collections.unmodifiableList(links);
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Returns the polls per second and line utilisation achieved since the primary was created.
+     */
+    public Iec101LineStatistics getLineStatistics() {
+        return lineMonitor.snapshot(frameReader);
+    }
+
+    /**
+     * Closes all link connections and stops driving the line.
+     */
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+
+        logger.info("Closing IEC-101 multi-drop primary");
+        executor.shutdown();
+        callbackExecutor.shutdown();
+        interrupt(readerThread);
+        interrupt(lineThread);
+
+        failPendingSends(new IOException("Connection is closed"));
+        for (Iec101LinkConnection link : links) {
+            link.close();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    void start() {
+        if (closed.get()) {
+            return;
+        }
+        if (!started.getAndSet(true)) {
+            executor.submit(this::readerTask);
+            executor.submit(this::lineTask);
+        }
+        wakeUp();
+    }
+
+    CompletableFuture<Void> enqueue(Iec101LinkConnection link, ASdu asdu) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (closed.get()) {
+            future.completeExceptionally(new IOException("Connection is closed"));
+            return future;
+        }
+        if (!sendQueue.offer(new PendingSend(link, asdu, future))) {
+            future.completeExceptionally(new IOException(
+                    "Send queue is full (capacity=" + clientSettings.getSendQueueCapacity() + ")"));
+            return future;
+        }
+        if (closed.get()) {
+            failPendingSends(new IOException("Connection is closed"));
+        }
+        wakeUp();
+        return future;
+    }
+
+    /**
+     * Calls a listener on the callback thread. The line thread must not call listeners that may send, as a blocking
+     * send would wait for the line thread to transmit the ASDU.
+     */
+    void callListener(Runnable callback) {
+        try {
+            callbackExecutor.execute(callback);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not calling the listener of a closed multi-drop primary");
+        }
+    }
+
+    boolean isLineThread() {
+        return Thread.currentThread() == lineThread;
+    }
+
+    boolean isReaderThread() {
+        return Thread.currentThread() == readerThread;
+    }
+
+    long getSendTimeoutMs() {
+        return clientSettings.getSendTimeoutMs();
+    }
+
+    void wakeUp() {
+        synchronized (workLock) {
+            workLock.notifyAll();
+        }
+    }
+
+    private void readerTask() {
+        readerThread = Thread.currentThread();
+        while (!closed.get()) {
+            try {
+                Iec101Frame frame = frameReader.read();
+                lineTiming.onFrameReceived();
+                handleFrame(frame);
+            } catch (InterruptedIOException e) {
+                // Read timeout on an idle line or interrupted by close(); the loop re-checks whether to stop
+                logger.trace("IEC-101 multi-drop read interrupted: {}", e.getMessage());
+            } catch (Exception e) {
+                if (!closed.get()) {
+                    logger.info("IEC-101 multi-drop line lost: {}", e.getMessage());
+                    close();
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Hands the response to the current transaction and delivers its ASDU. Frames outside a transaction, from other
+     * stations and repetitions of a response that was already accepted are dropped.
+     */
+    private void handleFrame(Iec101Frame frame) {
+        PendingResponse response = pendingResponse;
+        if (response == null || !response.accept(frame)) {
+            logger.debug("Ignoring {} frame outside the current transaction", frame.getFrameType());
+            return;
+        }
+        if (frame instanceof Iec101VariableFrame) {
+            Iec101VariableFrame variableFrame = (Iec101VariableFrame) frame;
+            Iec101LinkConnection link = linksByAddress.get(variableFrame.getLinkAddress());
+            if (link != null && variableFrame.getAsdu() != null) {
+                link.onAsduReceived(variableFrame.getAsdu());
+            }
+        }
+    }
+
+    private void lineTask() {
+        lineThread = Thread.currentThread();
+        try {
+            while (!closed.get()) {
+                if (!runNextTransaction()) {
+                    waitForWork();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close()
+        } catch (IOException e) {
+            if (!closed.get()) {
+                logger.info("IEC-101 multi-drop line lost: {}", e.getMessage());
+                close();
+            }
+        } catch (RuntimeException e) {
+            logger.error("IEC-101 multi-drop line thread failed", e);
+            close();
+        }
+    }
+
+    private boolean runNextTransaction() throws IOException, InterruptedException {
+        if (!pollTurn) {
+            PendingSend pendingSend = pollSendableUserData();
+            if (pendingSend != null) {
+                sendUserData(pendingSend);
+                pollTurn = true;
+                return true;
+            }
+        }
+        pollTurn = false;
+
+        long now = System.nanoTime();
+        List<Iec101LinkConnection> activeLinks = new ArrayList<>(links.size());
+        for (Iec101LinkConnection link : links) {
+            if (link.isInitializationDue(now)) {
+                initializeLink(link);
+                return true;
+            }
+            if (link.isPollable() && link.isLinkActive()) {
+                activeLinks.add(link);
+            }
+        }
+
+        if (activeLinks.isEmpty()) {
+            return false;
+        }
+        Iec101Poll poll = pollScheduler.nextPoll(activeLinks);
+        if (poll == null) {
+            return false;
+        }
+        Iec101LinkConnection link = linksByAddress.get(poll.getLinkAddress());
+        if (link == null || !link.isLinkActive()) {
+            logger.warn("Poll scheduler returned an inactive link: {}", poll);
+            return false;
+        }
+        pollLink(link, poll);
+        return true;
+    }
+
+    private void waitForWork() throws InterruptedException {
+        synchronized (workLock) {
+            if (!hasSendableUserData()) {
+                workLock.wait(nextWakeUpMs());
+            }
+        }
+    }
+
+    private long nextWakeUpMs() {
+        long wakeUpMs = pollScheduler.idleDelayMs(clientSettings.getPollingIntervalMs());
+        long now = System.nanoTime();
+        for (Iec101LinkConnection link : links) {
+            if (link.isPollable() && !link.isLinkActive()) {
+                wakeUpMs = Math.min(wakeUpMs, Math.max(1, TimeUnit.NANOSECONDS.toMillis(link.initializationDelayNanos(now))));
+            }
+        }
+        return wakeUpMs;
+    }
+
+    private void initializeLink(Iec101LinkConnection link) throws IOException, InterruptedException {
+        logger.debug("Initializing link {}", link.getLinkAddress());
+
+        Iec101Frame status = transact(link, fixedFrame(link, FunctionCode.REQUEST_LINK_STATUS, FCV_CLEAR, FCB_CLEAR),
+                Iec101MultiDropPrimary::isLinkStatus);
+        if (status == null) {
+            onNoResponse(link);
+            return;
+        }
+
+        Iec101Frame resetConfirmation = transact(link,
+                fixedFrame(link, FunctionCode.RESET_REMOTE_LINK, FCV_CLEAR, FCB_CLEAR),
+                Iec101MultiDropPrimary::isAcknowledgment);
+        if (resetConfirmation == null) {
+            onNoResponse(link);
+            return;
+        }
+
+        logger.info("Link {} reset", link.getLinkAddress());
+        link.onLinkReset(accessDemandOf(resetConfirmation) || accessDemandOf(status));
+    }
+
+    private void pollLink(Iec101LinkConnection link, Iec101Poll poll) throws IOException, InterruptedException {
+        logger.trace("Sending {}", poll);
+
+        boolean fcb = link.nextFrameCountBit();
+        Iec101Frame response = transact(link, fixedFrame(link, poll.getFunctionCode(), FCV_SET, fcb),
+                Iec101MultiDropPrimary::isPollResponse);
+        Iec101PollResult result;
+        if (response == null) {
+            onNoResponse(link);
+            result = Iec101PollResult.NO_RESPONSE;
+        } else {
+            link.onFrameConfirmed(accessDemandOf(response), dataFlowControlOf(response));
+            result = response instanceof Iec101VariableFrame ? Iec101PollResult.USER_DATA : Iec101PollResult.NO_DATA;
+        }
+        lineMonitor.onPollCompleted(result);
+        pollScheduler.onPollCompleted(poll, result);
+    }
+
+    private void sendUserData(PendingSend pendingSend) throws IOException, InterruptedException {
+        if (pendingSend.future.isCancelled()) {
+            // The blocking send timed out while the ASDU was queued
+            return;
+        }
+        Iec101LinkConnection link = pendingSend.link;
+        if (!link.isLinkActive() || !link.isPollable()) {
+            pendingSend.future.completeExceptionally(new IOException("Link layer not active"));
+            return;
+        }
+
+        boolean fcb = link.nextFrameCountBit();
+        Iec101VariableFrame frame = new Iec101VariableFrame(link.getLinkAddress(), FunctionCode.USER_DATA_CONFIRMED,
+                PRIMARY_STATION, FCV_SET, fcb, ACD_CLEAR, DFC_CLEAR, pendingSend.asdu);
+        Iec101Frame response = transact(link, encode(frame), Iec101MultiDropPrimary::isAcknowledgment);
+        if (response == null) {
+            pendingSend.future.completeExceptionally(new IOException("No confirmation from link "
+                    + link.getLinkAddress() + " after " + clientSettings.getMaxRetries() + " retries"));
+            onNoResponse(link);
+            return;
+        }
+
+        link.onFrameConfirmed(accessDemandOf(response), dataFlowControlOf(response));
+        if (isNegative(response)) {
+            pendingSend.future.completeExceptionally(new IOException("Link " + link.getLinkAddress()
+                    + " rejected the ASDU"));
+        } else {
+            pendingSend.future.complete(null);
+        }
+    }
+
+    /**
+     * Sends a request and waits for the addressed station's response, repeating the request unchanged when no
+     * response arrives in time. Only the first response is accepted: after a retry, the station may answer both the
+     * late and the repeated request, so the line is kept for one acknowledgement timeout after the last request to let
+     * the repetition arrive and be dropped before the next transaction starts.
+     *
+     * @return the response, or {@code null} if the station did not respond to any attempt
+     */
+    private Iec101Frame transact(Iec101LinkConnection link, byte[] request, Predicate<Iec101Frame> isResponse)
+            throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        PendingResponse response = new PendingResponse(link.getLinkAddress(), isResponse);
+        pendingResponse = response;
+        try {
+            for (int attempt = 0; attempt <= clientSettings.getMaxRetries(); attempt++) {
+                if (attempt > 0) {
+                    logger.debug("No response from link {}, retrying (attempt {})", link.getLinkAddress(), attempt);
+                }
+                write(request);
+                long writtenNanos = System.nanoTime();
+                if (response.latch.await(clientSettings.getAckTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    if (attempt > 0) {
+                        awaitRepetition(writtenNanos);
+                    }
+                    return response.response;
+                }
+            }
+            return null;
+        } finally {
+            pendingResponse = null;
+            lineMonitor.onTransactionCompleted(startNanos);
+        }
+    }
+
+    private void awaitRepetition(long writtenNanos) throws InterruptedException {
+        long remainingNanos = writtenNanos + TimeUnit.MILLISECONDS.toNanos(clientSettings.getAckTimeoutMs())
+                - System.nanoTime();
+        if (remainingNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        }
+    }
+
+    private void onNoResponse(Iec101LinkConnection link) {
+        logger.info("Link {} does not respond, retrying initialization in {} ms", link.getLinkAddress(),
+                clientSettings.getLinkRetryIntervalMs());
+        link.onLinkFailed(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(clientSettings.getLinkRetryIntervalMs()));
+
+        IOException cause = new IOException("Link layer not active");
+        sendQueue.removeIf(pendingSend -> {
+            if (pendingSend.link == link) {
+                pendingSend.future.completeExceptionally(cause);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void write(byte[] frameData) throws IOException {
+        lineTiming.write(outputStream, frameData);
+        lineMonitor.onFrameSent(frameData.length);
+    }
+
+    private byte[] fixedFrame(Iec101LinkConnection link, FunctionCode functionCode, boolean fcv, boolean fcb) {
+        return encode(new Iec101FixedFrame(link.getLinkAddress(), functionCode, PRIMARY_STATION, fcv, fcb, ACD_CLEAR,
+                DFC_CLEAR));
+    }
+
+    private byte[] encode(Iec101Frame frame) {
+        int length = frame.encode(frameBuffer, settings);
+        byte[] frameData = new byte[length];
+        System.arraycopy(frameBuffer, 0, frameData, 0, length);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Encoded frame: {}", BitUtils.bytesToHex(frameData));
+        }
+        return frameData;
+    }
+
+    /**
+     * Removes the oldest queued ASDU whose station accepts user data, skipping stations with DFC set.
+     */
+    private PendingSend pollSendableUserData() {
+        Iterator<PendingSend> iterator = sendQueue.iterator();
+        while (iterator.hasNext()) {
+            PendingSend pendingSend = iterator.next();
+            if (!isHeldByDataFlowControl(pendingSend) && sendQueue.remove(pendingSend)) {
+                return pendingSend;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasSendableUserData() {
+        for (PendingSend pendingSend : sendQueue) {
+            if (!isHeldByDataFlowControl(pendingSend)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * User data for a station that is down is not held back, so that it fails instead of waiting for DFC to clear.
+     */
+    private static boolean isHeldByDataFlowControl(PendingSend pendingSend) {
+        Iec101LinkConnection link = pendingSend.link;
+        return link.isDataFlowControl() && link.isLinkActive() && link.isPollable();
+    }
+
+    private void failPendingSends(IOException cause) {
+        PendingSend pendingSend;
+        while ((pendingSend = sendQueue.poll()) != null) {
+            pendingSend.future.completeExceptionally(cause);
+        }
+    }
+
+    private static void interrupt(Thread thread) {
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Single character frames carry no address; on a line with one outstanding request they come from the station
+     * that was addressed.
+     */
+    private static boolean isFrom(Iec101Frame frame, int linkAddress) {
+        if (frame instanceof Iec101FixedFrame) {
+            Iec101FixedFrame fixedFrame = (Iec101FixedFrame) frame;
+            return !fixedFrame.getPrm() && fixedFrame.getLinkAddress() == linkAddress;
+        }
+        if (frame instanceof Iec101VariableFrame) {
+            Iec101VariableFrame variableFrame = (Iec101VariableFrame) frame;
+            return !variableFrame.getPrm() && variableFrame.getLinkAddress() == linkAddress;
+        }
+        return true;
+    }
+
+    private static boolean isLinkStatus(Iec101Frame frame) {
+        if (!(frame instanceof Iec101FixedFrame)) {
+            return false;
+        }
+        FunctionCode functionCode = ((Iec101FixedFrame) frame).getFunctionCode();
+        return functionCode == FunctionCode.STATUS_LINK || functionCode == FunctionCode.STATUS_LINK_ACCESS_DEMAND
+                || functionCode == FunctionCode.RESP_NACK_NO_DATA;
+    }
+
+    private static boolean isAcknowledgment(Iec101Frame frame) {
+        if (frame instanceof Iec101SingleCharFrame) {
+            return true;
+        }
+        if (frame instanceof Iec101FixedFrame) {
+            FunctionCode functionCode = ((Iec101FixedFrame) frame).getFunctionCode();
+            return functionCode == FunctionCode.USER_DATA_RESPONSE || functionCode == FunctionCode.NACK_MESSAGE;
+        }
+        return false;
+    }
+
+    private static boolean isNegative(Iec101Frame frame) {
+        if (frame instanceof Iec101SingleCharFrame) {
+            return ((Iec101SingleCharFrame) frame).isNack();
+        }
+        return frame instanceof Iec101FixedFrame
+                && ((Iec101FixedFrame) frame).getFunctionCode() == FunctionCode.NACK_MESSAGE;
+    }
+
+    private static boolean isPollResponse(Iec101Frame frame) {
+        if (frame instanceof Iec101VariableFrame || frame instanceof Iec101SingleCharFrame) {
+            return true;
+        }
+        return frame instanceof Iec101FixedFrame
+                && ((Iec101FixedFrame) frame).getFunctionCode() == FunctionCode.RESP_NACK_NO_DATA;
+    }
+
+    private static boolean accessDemandOf(Iec101Frame frame) {
+        if (frame instanceof Iec101FixedFrame) {
+            return ((Iec101FixedFrame) frame).getAcd();
+        }
+        if (frame instanceof Iec101VariableFrame) {
+            return ((Iec101VariableFrame) frame).getAcd();
+        }
+        return false;
+    }
+
+    private static boolean dataFlowControlOf(Iec101Frame frame) {
+        if (frame instanceof Iec101FixedFrame) {
+            return ((Iec101FixedFrame) frame).getDfc();
+        }
+        if (frame instanceof Iec101VariableFrame) {
+            return ((Iec101VariableFrame) frame).getDfc();
+        }
+        return false;
+    }
+
+    private static class PendingResponse {
+        private final int linkAddress;
+        private final Predicate<Iec101Frame> isResponse;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Iec101Frame response;
+
+        private PendingResponse(int linkAddress, Predicate<Iec101Frame> isResponse) {
+            this.linkAddress = linkAddress;
+            this.isResponse = isResponse;
+        }
+
+        /**
+         * Accepts the first response from the addressed station. Only called by the reader thread.
+         */
+        private boolean accept(Iec101Frame frame) {
+            if (response != null || !isFrom(frame, linkAddress) || !isResponse.test(frame)) {
+                return false;
+            }
+            response = frame;
+            latch.countDown();
+            return true;
+        }
+    }
+
+    private static class PendingSend {
+        private final Iec101LinkConnection link;
+        private final ASdu asdu;
+        private final CompletableFuture<Void> future;
+
+        private PendingSend(Iec101LinkConnection link, ASdu asdu, CompletableFuture<Void> future) {
+            this.link = link;
+            this.asdu = asdu;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+
+/**
+ * A request for class 1 or class 2 data that an {@link Iec101PollScheduler} asks the multi-drop primary to send to
+ * one of its secondary stations.
+ *
+ * @since 2.1
+ */
+public final class Iec101Poll {
+
+    private final int linkAddress;
+    private final FunctionCode functionCode;
+
+    private Iec101Poll(int linkAddress, FunctionCode functionCode) {
+        this.linkAddress = linkAddress;
+        this.functionCode = functionCode;
+    }
+
+    public static Iec101Poll class1(int linkAddress) {
+        return new Iec101Poll(linkAddress, FunctionCode.REQUEST_CLASS_1_DATA);
+    }
+
+    public static Iec101Poll class2(int linkAddress) {
+        return new Iec101Poll(linkAddress, FunctionCode.REQUEST_CLASS_2_DATA);
+    }
+
+    public int getLinkAddress() {
+        return linkAddress;
+    }
+
+    public FunctionCode getFunctionCode() {
+        return functionCode;
+    }
+
+    public boolean isClass1() {
+        return functionCode == FunctionCode.REQUEST_CLASS_1_DATA;
+    }
+
+    @Override
+    public String toString() {
+        return (isClass1() ? "class 1" : "class 2") + " poll of link " + linkAddress;
+    }
+}
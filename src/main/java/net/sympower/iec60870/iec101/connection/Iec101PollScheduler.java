@@ -0,0 +1,62 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import java.util.List;
+
+/**
+ * Decides which secondary station is polled next and for which class of data.
+ * <p>
+ * The scheduler is only called from the thread that drives the line, so implementations do not need to be
+ * thread-safe. Link initialization takes precedence over polls, and polls take turns with pending user data.
+ *
+ * @since 2.1
+ */
+public interface Iec101PollScheduler {
+
+    /**
+     * Chooses the next poll on the line.
+     *
+     * @param links the links whose initialization has completed, in the order they were added
+     * @return the poll to send next, or {@code null} to let the line idle for {@link #idleDelayMs(long)}
+     */
+    Iec101Poll nextPoll(List<? extends Iec101PolledLink> links);
+
+    /**
+     * Called with the outcome of every poll returned by {@link #nextPoll(List)}. The link state (ACD, DFC) has
+     * already been updated from the response.
+     */
+    default void onPollCompleted(Iec101Poll poll, Iec101PollResult result) {
+    }
+
+    /**
+     * Returns how long the line idles after {@link #nextPoll(List)} returned {@code null} before the scheduler is
+     * asked again. The line wakes up earlier if user data is queued.
+     *
+     * @param pollingIntervalMs the configured polling interval
+     */
+    default long idleDelayMs(long pollingIntervalMs) {
+        return pollingIntervalMs;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+/**
+ * The state of a link to a secondary station that an {@link Iec101PollScheduler} bases its decisions on.
+ *
+ * @since 2.1
+ */
+public interface Iec101PolledLink {
+
+    int getLinkAddress();
+
+    /**
+     * Returns whether the station's last response had the access demand (ACD) bit set, i.e. it has class 1 data.
+     */
+    boolean isAccessDemand();
+
+    /**
+     * Returns whether the station's last response had the data flow control (DFC) bit set, i.e. it cannot accept
+     * more user data at the moment.
+     */
+    boolean isDataFlowControl();
+}
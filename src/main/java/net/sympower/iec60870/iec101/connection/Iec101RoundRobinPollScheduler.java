@@ -0,0 +1,53 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import java.util.List;
+
+/**
+ * Default poll scheduler of the multi-drop primary. Stations that signal access demand (ACD) are polled for class 1
+ * data first; otherwise every station is polled for class 2 data once per cycle, after which the line idles for the
+ * polling interval before the next cycle starts.
+ *
+ * @since 2.1
+ */
+public class Iec101RoundRobinPollScheduler implements Iec101PollScheduler {
+
+    private int nextIndex;
+
+    @Override
+    public Iec101Poll nextPoll(List<? extends Iec101PolledLink> links) {
+        for (Iec101PolledLink link : links) {
+            if (link.isAccessDemand()) {
+                return Iec101Poll.class1(link.getLinkAddress());
+            }
+        }
+
+        if (nextIndex >= links.size()) {
+            nextIndex = 0;
+            return null;
+        }
+        return Iec101Poll.class2(links.get(nextIndex++).getLinkAddress());
+    }
+}
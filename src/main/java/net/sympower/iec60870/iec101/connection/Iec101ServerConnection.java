@@ -24,24 +24,31 @@
 package net.sympower.iec60870.iec101.connection;
 
 import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.CauseOfTransmission;
 import net.sympower.iec60870.common.IEC60870Settings;
 import net.sympower.iec60870.common.api.IEC60870Connection;
 import net.sympower.iec60870.common.api.IEC60870EventListener;
 import net.sympower.iec60870.iec101.frame.BitUtils;
 import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
 import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
 import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
 import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Iec101ServerConnection extends IEC60870Connection {
@@ -53,22 +60,58 @@ public class Iec101ServerConnection extends IEC60870Connection {
     public static final boolean FCB_CLEAR = false;
     public static final boolean DFC_CLEAR = false;
 
-    private static final int MAX_FRAME_SIZE = 255;
+    private static final int MAX_FRAME_SIZE = 261;
+    private static final int BROADCAST_ADDRESS = 255;
+
+    // Events and the confirmations and terminations of commands; all other data is class 2
+    private static final Set<CauseOfTransmission> CLASS_1_CAUSES = EnumSet.of(
+        CauseOfTransmission.SPONTANEOUS, CauseOfTransmission.INITIALIZED, CauseOfTransmission.ACTIVATION_CON,
+        CauseOfTransmission.DEACTIVATION_CON, CauseOfTransmission.ACTIVATION_TERMINATION,
+        CauseOfTransmission.RETURN_INFO_REMOTE, CauseOfTransmission.RETURN_INFO_LOCAL,
+        CauseOfTransmission.UNKNOWN_TYPE_ID, CauseOfTransmission.UNKNOWN_CAUSE_OF_TRANSMISSION,
+        CauseOfTransmission.UNKNOWN_COMMON_ADDRESS_OF_ASDU, CauseOfTransmission.UNKNOWN_INFORMATION_OBJECT_ADDRESS);
 
     private final int linkAddress;
+    private final Iec101Transport transport;
     private volatile Runnable connectionCloseListener;
+    private volatile Thread readerThread;
+    private volatile boolean dataFlowControl;
+    private volatile byte[] lastSentFrame;
+    private volatile byte[] lastConfirmedResponse;
     
     private final AtomicBoolean linkLayerActive = new AtomicBoolean(false);
     private final Map<Integer, Boolean> lastConfirmedFcbPerLink = new ConcurrentHashMap<>();
-    private final Queue<ASdu> pendingClass1Responses = new ConcurrentLinkedQueue<>();
-    private final Queue<ASdu> pendingClass2Responses = new ConcurrentLinkedQueue<>();
+    private final Iec101EventBuffer eventBuffer;
+    private final Iec101LineTiming lineTiming;
+    private final Iec101FrameReader frameReader;
+    // Futures of the ASDUs in the response being sent, used by the reader thread only
+    private final List<CompletableFuture<Void>> polledDeliveries = new ArrayList<>();
 
     public Iec101ServerConnection(
         DataInputStream inputStream, DataOutputStream outputStream,
         IEC60870Settings settings, int linkAddress
+    ) {
+        this(inputStream, outputStream, null, settings, linkAddress);
+    }
+
+    /**
+     * Creates a connection on a transport, which is closed together with the connection.
+     */
+    public Iec101ServerConnection(Iec101Transport transport, IEC60870Settings settings, int linkAddress) {
+        this(new DataInputStream(transport.getInputStream()), new DataOutputStream(transport.getOutputStream()),
+            transport, settings, linkAddress);
+    }
+
+    private Iec101ServerConnection(
+        DataInputStream inputStream, DataOutputStream outputStream, Iec101Transport transport,
+        IEC60870Settings settings, int linkAddress
     ) {
         super(inputStream, outputStream, settings);
+        this.transport = transport;
         this.linkAddress = linkAddress;
+        this.eventBuffer = new Iec101EventBuffer(settings);
+        this.lineTiming = new Iec101LineTiming(settings);
+        this.frameReader = new Iec101FrameReader(inputStream, settings);
     }
 
     @Override
@@ -118,6 +161,43 @@ public class Iec101ServerConnection extends IEC60870Connection {
         sendVariableFrame(frame);
     }
 
+    /**
+     * Queues an ASDU for the polls of the primary station instead of sending it unsolicited, which an unbalanced
+     * line does not allow. Spontaneous data, initialisation, and the confirmations, terminations and negative replies
+     * of commands are queued as class 1 data; periodic, background, requested, interrogated and counter data as
+     * class 2 data. The returned future completes once the response carrying the ASDU has been sent, or, for a class
+     * 2 value, once a newer value of the same point has replaced it.
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IOException("Connection is closed"));
+        }
+        if (!dataTransferStarted.get()) {
+            return CompletableFuture.failedFuture(new IOException("Data transfer not started"));
+        }
+
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        if (isClass1(asdu)) {
+            eventBuffer.addClass1(asdu, delivered);
+        } else {
+            eventBuffer.addClass2(asdu, delivered);
+        }
+        if (closed.get()) {
+            // Closed while queuing; close() may already have failed the buffered ASDUs
+            eventBuffer.failAll(new IOException("Connection is closed"));
+        }
+        return delivered;
+    }
+
+    /**
+     * Returns false: class 1 data queued with {@link #sendAsync(ASdu)} is sent ahead of class 2 data queued before.
+     */
+    @Override
+    public boolean isSentInQueueOrder() {
+        return false;
+    }
+
     @Override
     public void close() {
         if (closed.getAndSet(true)) {
@@ -128,6 +208,9 @@ public class Iec101ServerConnection extends IEC60870Connection {
         dataTransferStarted.set(false);
         linkLayerActive.set(false);
         executor.shutdown();
+        interruptReader();
+        shutdownDispatcher();
+        eventBuffer.failAll(new IOException("Connection is closed"));
         
         try {
             performClose();
@@ -135,6 +218,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
             // Ignore close exceptions
         }
         
+        awaitDispatcher();
         if (eventListener != null) {
             eventListener.onConnectionLost(null);
         }
@@ -148,22 +232,48 @@ public class Iec101ServerConnection extends IEC60870Connection {
         this.connectionCloseListener = listener;
     }
 
+    /**
+     * Sets the DFC bit reported in responses, telling the primary station to hold back further user data until it
+     * is cleared again.
+     */
+    public void setDataFlowControl(boolean dataFlowControl) {
+        this.dataFlowControl = dataFlowControl;
+    }
+
+    /**
+     * Returns the number of received bytes that were discarded as line noise while resynchronising on the next frame.
+     */
+    public long getDroppedBytes() {
+        return frameReader.getDroppedBytes();
+    }
+
+    /**
+     * Returns the number of received frames that were rejected as corrupted or incomplete.
+     */
+    public long getBadFrames() {
+        return frameReader.getBadFrames();
+    }
+
     @Override
     protected void performClose() throws IOException {
-        // Protocol-specific cleanup if needed
+        if (transport != null) {
+            transport.close();
+        }
     }
 
     @Override
     protected void readerTask() {
+        readerThread = Thread.currentThread();
         while (!closed.get()) {
             try {
-                if (inputStream.available() > 0) {
-                    Iec101Frame frame = Iec101Frame.decode(inputStream, settings);
-                    handleFrame(frame);
-                } else {
-                    // Small sleep to avoid busy waiting
-                    Thread.sleep(10);
-                }
+                // Blocks until the next frame has arrived, so the reader wakes as soon as its first byte is received
+                Iec101Frame frame = frameReader.read();
+                lineTiming.onFrameReceived();
+                handleFrame(frame);
+            }
+            catch (InterruptedIOException e) {
+                // Read timeout on an idle line or interrupted by close(); the loop re-checks whether to stop
+                logger.trace("IEC-101 server read interrupted: {}", e.getMessage());
             }
             catch (Exception e) {
                 if (!closed.get()) {
@@ -178,8 +288,24 @@ public class Iec101ServerConnection extends IEC60870Connection {
         }
     }
 
+    /**
+     * Wakes a reader that is blocked on the input stream, unless close() is being called by the reader itself.
+     */
+    private void interruptReader() {
+        Thread reader = readerThread;
+        if (reader != null && reader != Thread.currentThread()) {
+            reader.interrupt();
+        }
+    }
+
     private void handleFrame(Iec101Frame frame) {
         logger.debug("Received {} frame", frame.getFrameType());
+
+        if (!isAddressedToThisStation(frame)) {
+            // On a party line every station sees the frames addressed to the others
+            logger.trace("Ignoring frame addressed to another station");
+            return;
+        }
             
         try {
             switch (frame.getFrameType()) {
@@ -197,12 +323,28 @@ public class Iec101ServerConnection extends IEC60870Connection {
         }
     }
 
+    private boolean isAddressedToThisStation(Iec101Frame frame) {
+        int frameAddress;
+        if (frame instanceof Iec101FixedFrame) {
+            frameAddress = ((Iec101FixedFrame) frame).getLinkAddress();
+        } else if (frame instanceof Iec101VariableFrame) {
+            frameAddress = ((Iec101VariableFrame) frame).getLinkAddress();
+        } else {
+            return true;
+        }
+        int broadcastAddress = (1 << (8 * settings.getLinkAddressLength())) - 1;
+        return frameAddress == linkAddress || frameAddress == broadcastAddress || frameAddress == BROADCAST_ADDRESS;
+    }
+
     private void handleFixedFrame(Iec101FixedFrame frame) {
         logger.debug("Received {} frame from link {}", frame.getFunctionCode(), frame.getLinkAddress());
         
         // Check for duplicate frame ONLY if FCV=1 and this is from primary station
         if (frame.getFcv() && frame.getPrm() && isDuplicateFixedFrame(frame)) {
-            logger.info("Duplicate fixed frame detected - will not process");
+            // The primary repeats a request when our response was lost, so the response is repeated as it was sent;
+            // polling the event buffer again would skip the data the lost response carried
+            logger.info("Duplicate fixed frame detected - repeating last response");
+            repeatLastResponse();
             return;
         }
         
@@ -242,6 +384,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
     
     private void updateFcbAfterConfirmation(int linkAddress, boolean fcb) {
         lastConfirmedFcbPerLink.put(linkAddress, fcb);
+        lastConfirmedResponse = lastSentFrame;
         logger.debug("Updated FCB tracking for link {} to {} after sending confirmation", linkAddress, fcb);
     }
 
@@ -252,7 +395,9 @@ public class Iec101ServerConnection extends IEC60870Connection {
         
         // Check for duplicate frame ONLY if Frame count valid is set, and this is from primary station
         if (frame.getFcv() && frame.getPrm() && isDuplicateVariableFrame(frame)) {
-            logger.info("Duplicate variable frame detected - will not process");
+            // The primary repeats a frame when our acknowledgement was lost, so it is acknowledged again
+            logger.info("Duplicate variable frame detected - acknowledging without processing");
+            sendSingleCharFrame(Iec101Frame.ACK);
             return;
         }
         
@@ -282,14 +427,13 @@ public class Iec101ServerConnection extends IEC60870Connection {
     
 
     private void handleAsdu(ASdu asdu) {
-        if (eventListener != null) {
-            eventListener.onAsduReceived(asdu);
-        }
+        deliverAsdu(asdu);
     }
 
     private void handleResetRemoteLink(Iec101FixedFrame frame) {
         int remoteLinkAddress = frame.getLinkAddress();
         lastConfirmedFcbPerLink.remove(remoteLinkAddress);
+        lastConfirmedResponse = null;
         sendSingleCharFrame(Iec101Frame.ACK);
         linkLayerActive.set(true);
 
@@ -306,15 +450,17 @@ public class Iec101ServerConnection extends IEC60870Connection {
     }
     
     private void handleClass1DataRequest() {
-        ASdu pendingResponse = pendingClass1Responses.poll();
+        ASdu pendingResponse = eventBuffer.pollClass1(polledDeliveries);
         if (pendingResponse != null) {
             logger.debug("Sending Class 1 response: {} (COT: {})", 
                         pendingResponse.getTypeIdentification(),
                         pendingResponse.getCauseOfTransmission());
             try {
                 send(pendingResponse);
+                completeDeliveries(null);
             } catch (IOException e) {
                 logger.error("Failed to send Class 1 response: {}", e.getMessage());
+                completeDeliveries(e);
                 sendRespNackNoData();
             }
         } else {
@@ -323,31 +469,67 @@ public class Iec101ServerConnection extends IEC60870Connection {
     }
     
     private void handleClass2DataRequest() {
-        ASdu pendingResponse = pendingClass2Responses.poll();
+        ASdu pendingResponse = eventBuffer.pollClass2(polledDeliveries);
         if (pendingResponse != null) {
             logger.debug("Sending Class 2 response: {} (COT: {})", 
                         pendingResponse.getTypeIdentification(),
                         pendingResponse.getCauseOfTransmission());
             try {
                 send(pendingResponse);
+                completeDeliveries(null);
             } catch (IOException e) {
                 logger.error("Failed to send Class 2 response: {}", e.getMessage());
+                completeDeliveries(e);
                 sendRespNackNoData();
             }
         } else {
             sendRespNackNoData();
         }
     }
+
+    /**
+     * Completes the futures of the ASDUs carried by the response just sent, or fails them if it could not be sent.
+     */
+    private void completeDeliveries(IOException failure) {
+        if (polledDeliveries.isEmpty()) {
+            return;
+        }
+        if (failure == null && closed.get()) {
+            // The write failed and closed the connection
+            failure = new IOException("Connection is closed");
+        }
+        for (CompletableFuture<Void> delivered : polledDeliveries) {
+            if (failure == null) {
+                delivered.complete(null);
+            } else {
+                delivered.completeExceptionally(failure);
+            }
+        }
+        polledDeliveries.clear();
+    }
+
+    private static boolean isClass1(ASdu asdu) {
+        return CLASS_1_CAUSES.contains(asdu.getCauseOfTransmission());
+    }
     
+    /**
+     * Queues an ASDU for the next class 1 polls. Class 1 data is sent in order; directly following ASDUs of the same
+     * type, cause and common address are packed into one response.
+     */
     public void queueClass1Response(ASdu response) {
-        pendingClass1Responses.offer(response);
+        eventBuffer.addClass1(response);
         logger.debug("Queued Class 1 response: {} (COT: {})", 
                     response.getTypeIdentification(), 
                     response.getCauseOfTransmission());
     }
     
+    /**
+     * Queues an ASDU for the next class 2 polls. Measured values and status information without time tag are
+     * coalesced per common address and IOA, so that only the latest value of a point is sent, and packed with other
+     * pending values of the same type into as few responses as possible.
+     */
     public void queueClass2Response(ASdu response) {
-        pendingClass2Responses.offer(response);
+        eventBuffer.addClass2(response);
         logger.debug("Queued Class 2 response: {} (COT: {})", 
                     response.getTypeIdentification(), 
                     response.getCauseOfTransmission());
@@ -362,7 +544,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
             FCV_CLEAR, // FCV is not set on server frames
             FCB_CLEAR, // FCB is not set on server frames
             determineACDBit(),
-            DFC_CLEAR, // Proper Data Flow Control handling not supported
+            dataFlowControl,
             asdu
         );
     }
@@ -381,39 +563,30 @@ public class Iec101ServerConnection extends IEC60870Connection {
         return frameData;
     }
 
+    private void repeatLastResponse() {
+        byte[] response = lastConfirmedResponse;
+        if (response != null) {
+            sendRawFrame(response);
+        }
+    }
+
     private void sendRawFrame(byte[] frameData) {
-        try {
-            synchronized (outputStream) {
-                logger.debug("Sending raw frame as bytes: {}", BitUtils.bytesToHex(frameData));
-                outputStream.write(frameData);
-                outputStream.flush();
+        logger.debug("Sending raw frame as bytes: {}", BitUtils.bytesToHex(frameData));
 
-                applyInterFrameDelay();
-            }
-        } catch (IOException | InterruptedException e) {
+        lastSentFrame = frameData;
+        try {
+            lineTiming.write(outputStream, frameData);
+        } catch (IOException e) {
             close();
-            if (eventListener != null && e instanceof IOException) {
-                eventListener.onConnectionLost((IOException) e);
+            if (eventListener != null) {
+                eventListener.onConnectionLost(e);
             }
         }
     }
 
     private void sendSingleCharFrame(byte character) {
         logger.debug("Sending single character: {}", character);
-            
-        try {
-            synchronized (outputStream) {
-                outputStream.write(character);
-                outputStream.flush();
-
-                applyInterFrameDelay();
-            }
-        } catch (IOException | InterruptedException e) {
-            close();
-            if (eventListener != null) {
-                eventListener.onConnectionLost((IOException) e);
-            }
-        }
+        sendRawFrame(new byte[] { character });
     }
 
     private void sendLinkStatus() {
@@ -427,7 +600,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
             FCV_CLEAR, // FCV is not set on server frames
             FCB_CLEAR, // FCB is not set on server frames
             acdBit,
-            DFC_CLEAR // Proper Data Flow Control handling not supported
+            dataFlowControl
         );
         
         logger.debug("Sending link status with ACD={} (Class 1 data: {})", acdBit, acdBit ? "available" : "empty");
@@ -444,7 +617,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
                 FCV_CLEAR, // FCV is not set on server frames
                 FCB_CLEAR, // FCB is not set on server frames
                 acdBit,
-                DFC_CLEAR // Proper Data Flow Control handling not supported
+                dataFlowControl
         );
         
         logger.debug("Sending RESP_NACK_NO_DATA with ACD={} (Class 1 data: {})", acdBit, acdBit ? "available" : "empty");
@@ -457,10 +630,6 @@ public class Iec101ServerConnection extends IEC60870Connection {
         sendRawFrame(frameData);
     }
 
-    private void applyInterFrameDelay() throws InterruptedException {
-        Thread.sleep(settings.getInterFrameDelayMs());
-    }
-    
     private byte[] encodeFixedFrame(Iec101FixedFrame frame) {
         byte[] buffer = new byte[MAX_FRAME_SIZE];
         int length = frame.encode(buffer, settings);
@@ -470,7 +639,7 @@ public class Iec101ServerConnection extends IEC60870Connection {
     }
     
     private boolean determineACDBit() {
-        return !pendingClass1Responses.isEmpty();
+        return eventBuffer.hasClass1();
     }
 
 }
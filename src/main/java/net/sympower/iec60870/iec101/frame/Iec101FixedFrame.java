@@ -43,7 +43,7 @@ import net.sympower.iec60870.common.IEC60870Settings;
  */
 public class Iec101FixedFrame extends Iec101Frame {
 
-    private static final int RESERVED_BIT_POS = 7;
+    private static final int DIR_BIT_POS = 7;
     private static final int PRM_BIT_POS = 6;
     private static final int FCB_ACD_BIT_POS = 5;
     private static final int FCV_DFC_BIT_POS = 4;
@@ -57,9 +57,20 @@ public class Iec101FixedFrame extends Iec101Frame {
     protected final boolean fcb;   // Frame Count Bit (only in primary frames)
     protected final boolean acd;   // Access Demand (only in secondary frames)
     protected final boolean dfc;   // Data Flow Control (only in secondary frames)
+    protected final boolean dir;   // Direction (only in balanced transmission)
 
     public Iec101FixedFrame(int linkAddress, FunctionCode functionCode, boolean prm, 
                            boolean fcv, boolean fcb, boolean acd, boolean dfc) {
+        this(linkAddress, functionCode, prm, fcv, fcb, acd, dfc, false);
+    }
+
+    /**
+     * Creates a frame for balanced transmission, where the direction bit tells which of the two stations sent it.
+     *
+     * @since 2.1
+     */
+    public Iec101FixedFrame(int linkAddress, FunctionCode functionCode, boolean prm,
+                           boolean fcv, boolean fcb, boolean acd, boolean dfc, boolean dir) {
         super(FrameType.FIXED_LENGTH);
         this.linkAddress = linkAddress;
         this.functionCode = functionCode;
@@ -68,6 +79,7 @@ public class Iec101FixedFrame extends Iec101Frame {
         this.fcb = fcb;
         this.acd = acd;
         this.dfc = dfc;
+        this.dir = dir;
     }
 
     public static Iec101FixedFrame decode(InputStream inputStream, IEC60870Settings settings) throws IOException {
@@ -80,7 +92,8 @@ public class Iec101FixedFrame extends Iec101Frame {
         verifyChecksum(controlField, addressField, checksum, settings);
 
         return new Iec101FixedFrame(addressField, controlInfo.functionCode, controlInfo.prm,
-                                    controlInfo.fcv, controlInfo.fcb, controlInfo.acd, controlInfo.dfc);
+                                    controlInfo.fcv, controlInfo.fcb, controlInfo.acd, controlInfo.dfc,
+                                    controlInfo.dir);
     }
     
     private static int readControlField(InputStream inputStream) throws IOException {
@@ -128,7 +141,7 @@ public class Iec101FixedFrame extends Iec101Frame {
         ControlField info = new ControlField();
         
         // Extract all 8 bits according to IEC-101 specification using BitUtils
-        info.res = BitUtils.getBit(controlField, RESERVED_BIT_POS);  // Bit 7: Reserved - should always be 0
+        info.dir = BitUtils.getBit(controlField, DIR_BIT_POS);       // Bit 7: Direction, reserved in unbalanced mode
         info.prm = BitUtils.getBit(controlField, PRM_BIT_POS);       // Bit 6: Primary bit - determines station type
         
         // Extract shared bits 5 and 4 - interpretation depends on station type
@@ -160,7 +173,7 @@ public class Iec101FixedFrame extends Iec101Frame {
     }
     
     private static class ControlField {
-        boolean res;           // Bit 7 (0x80): Reserved bit - always 0 per IEC-101 specification
+        boolean dir;           // Bit 7 (0x80): Direction in balanced mode, reserved (0) in unbalanced mode
         boolean prm;           // Bit 6 (0x40): Primary bit - true=primary station, false=secondary station
         // Primary station only
         boolean fcb;           // Bit 5 (0x20): Frame Count Bit - used by primary stations for duplicate detection
@@ -197,7 +210,10 @@ public class Iec101FixedFrame extends Iec101Frame {
         // Start with function code in bits 0-3 (lower 4 bits)
         int controlField = functionCode.getCode();
         
-        // Bit 7: Reserved bit - always 0 (don't set it)
+        // Bit 7: Direction in balanced mode, reserved and 0 in unbalanced mode
+        if (dir) {
+            controlField = BitUtils.setBit(controlField, DIR_BIT_POS);
+        }
         // Bit 6: Primary bit - 1=primary station, 0=secondary station
         if (prm) {
             controlField = BitUtils.setBit(controlField, PRM_BIT_POS);
@@ -242,4 +258,8 @@ public class Iec101FixedFrame extends Iec101Frame {
     public boolean getDfc() {
         return dfc;
     }
+
+    public boolean getDir() {
+        return dir;
+    }
 }
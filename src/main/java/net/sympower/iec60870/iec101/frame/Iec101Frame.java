@@ -163,7 +163,7 @@ public abstract class Iec101Frame {
     }
 
     protected static boolean verifyChecksum(byte[] data, byte expectedChecksum) {
-        return calculateChecksum(data, 0, 2) == expectedChecksum;
+        return calculateChecksum(data, 0, data.length) == expectedChecksum;
     }
 
     public FrameType getFrameType() {
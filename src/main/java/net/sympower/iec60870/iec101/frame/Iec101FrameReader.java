@@ -0,0 +1,235 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.frame;
+
+import net.sympower.iec60870.common.IEC60870Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads FT1.2 frames from a line and resynchronises on the next valid frame after line noise.
+ * <p>
+ * {@link Iec101Frame#decode(InputStream, IEC60870Settings)} fails on the first unexpected byte and leaves the stream
+ * in the middle of whatever followed it. This reader instead scans for the start characters 0x10, 0x68, 0xE5 and
+ * 0xA2, and accepts a frame only once its length fields, checksum and end character are valid. A candidate that
+ * fails any of these checks is rejected, and scanning resumes at the byte after its start character, so a real frame
+ * hidden behind a corrupted start is still found. Bytes outside valid frames are discarded and counted, and the
+ * connection stays up.
+ * <p>
+ * Received bytes are kept in a buffer that is refilled in bulk, asking the stream only for bytes that are either
+ * already available or needed to complete the current frame. When the stream times out in the middle of a frame, the
+ * line has been idle for longer than FT1.2 allows within a frame: the candidate is rejected and the timeout is passed
+ * on, and the next call rescans the bytes that were buffered after its start character.
+ * <p>
+ * Instances are not thread-safe and are meant to be used by a connection's reader thread; the counters may be read
+ * from any thread.
+ *
+ * @since 2.1
+ */
+public class Iec101FrameReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec101FrameReader.class);
+
+    private static final int END_OF_STREAM = -1;
+    private static final int VARIABLE_HEADER_LENGTH = 4;  // 68 L L 68
+    private static final int VARIABLE_TRAILER_LENGTH = 2; // checksum and 16
+    private static final int MAX_VARIABLE_FRAME_LENGTH = 255;
+    private static final int BUFFER_SIZE = 2 * (VARIABLE_HEADER_LENGTH + MAX_VARIABLE_FRAME_LENGTH
+            + VARIABLE_TRAILER_LENGTH);
+
+    private final InputStream inputStream;
+    private final IEC60870Settings settings;
+    private final int fixedFrameLength;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int start;
+    private int end;
+
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private final AtomicLong badFrames = new AtomicLong();
+
+    public Iec101FrameReader(InputStream inputStream, IEC60870Settings settings) {
+        this.inputStream = inputStream;
+        this.settings = settings;
+        // 10 C A CS 16
+        this.fixedFrameLength = 4 + settings.getLinkAddressLength();
+    }
+
+    /**
+     * Blocks until the next valid frame has been received.
+     *
+     * @throws InterruptedIOException if the stream timed out or was interrupted; bytes already received are kept for
+     *                                the next call
+     * @throws IOException            if the end of the stream was reached or the stream failed
+     */
+    public Iec101Frame read() throws IOException {
+        while (true) {
+            require(1);
+            Iec101Frame frame;
+            switch (buffer[start]) {
+                case Iec101Frame.ACK:
+                case Iec101Frame.NACK:
+                    frame = new Iec101SingleCharFrame(buffer[start]);
+                    start++;
+                    return frame;
+                case Iec101Frame.START_FIXED:
+                    frame = readFixedFrame();
+                    break;
+                case Iec101Frame.START_VARIABLE:
+                    frame = readVariableFrame();
+                    break;
+                default:
+                    discard(1);
+                    continue;
+            }
+            if (frame != null) {
+                return frame;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of received bytes that were discarded because they did not belong to a valid frame.
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    /**
+     * Returns the number of frames that were rejected for an invalid length, checksum or end character, because the
+     * line went idle before they were complete, or because their content could not be decoded.
+     */
+    public long getBadFrames() {
+        return badFrames.get();
+    }
+
+    private Iec101Frame readFixedFrame() throws IOException {
+        requireFrame(fixedFrameLength);
+        int checksumPosition = start + fixedFrameLength - 2;
+        if (buffer[checksumPosition] != Iec101Frame.calculateChecksum(buffer, start + 1, fixedFrameLength - 3)
+                || buffer[checksumPosition + 1] != Iec101Frame.END_FRAME) {
+            rejectCandidate("fixed frame with invalid checksum or end character");
+            return null;
+        }
+        return decodeFrame(fixedFrameLength, true);
+    }
+
+    private Iec101Frame readVariableFrame() throws IOException {
+        requireFrame(VARIABLE_HEADER_LENGTH);
+        int length = buffer[start + 1] & 0xFF;
+        if (length != (buffer[start + 2] & 0xFF) || length < 1 + settings.getLinkAddressLength()
+                || buffer[start + 3] != Iec101Frame.START_VARIABLE) {
+            rejectCandidate("variable frame with invalid header");
+            return null;
+        }
+
+        int frameLength = VARIABLE_HEADER_LENGTH + length + VARIABLE_TRAILER_LENGTH;
+        requireFrame(frameLength);
+        int checksumPosition = start + VARIABLE_HEADER_LENGTH + length;
+        if (buffer[checksumPosition] != Iec101Frame.calculateChecksum(buffer, start + VARIABLE_HEADER_LENGTH, length)
+                || buffer[checksumPosition + 1] != Iec101Frame.END_FRAME) {
+            rejectCandidate("variable frame with invalid checksum or end character");
+            return null;
+        }
+        return decodeFrame(frameLength, false);
+    }
+
+    /**
+     * Decodes a frame whose checksum and end character are valid. A frame that cannot be decoded all the same is
+     * skipped as a whole, since its checksum shows it was received as sent.
+     */
+    private Iec101Frame decodeFrame(int frameLength, boolean fixed) {
+        ByteArrayInputStream frameInput = new ByteArrayInputStream(buffer, start + 1, frameLength - 1);
+        try {
+            Iec101Frame frame = fixed ? Iec101FixedFrame.decode(frameInput, settings)
+                    : Iec101VariableFrame.decode(frameInput, settings);
+            start += frameLength;
+            return frame;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Skipping undecodable frame of {} bytes: {}", frameLength, e.getMessage());
+            badFrames.incrementAndGet();
+            discard(frameLength);
+            return null;
+        }
+    }
+
+    private void rejectCandidate(String reason) {
+        logger.debug("Discarding {}, resynchronising", reason);
+        badFrames.incrementAndGet();
+        discard(1);
+    }
+
+    private void discard(int count) {
+        start += count;
+        droppedBytes.addAndGet(count);
+    }
+
+    /**
+     * Waits until the rest of the current frame has been received. If the stream times out first, the candidate is
+     * rejected before the timeout is passed on.
+     */
+    private void requireFrame(int count) throws IOException {
+        try {
+            require(count);
+        } catch (InterruptedIOException e) {
+            rejectCandidate("frame interrupted by an idle line");
+            throw e;
+        }
+    }
+
+    private void require(int count) throws IOException {
+        if (end - start >= count) {
+            return;
+        }
+        if (start + count > buffer.length) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        while (end - start < count) {
+            int wanted = count - (end - start);
+            if (end > start) {
+                // Within a frame, take whatever else has arrived along with the bytes still needed
+                wanted = Math.max(wanted, Math.min(inputStream.available(), buffer.length - end));
+            }
+            int read;
+            try {
+                read = inputStream.read(buffer, end, wanted);
+            } catch (InterruptedIOException e) {
+                end += Math.max(0, e.bytesTransferred);
+                throw e;
+            }
+            if (read == END_OF_STREAM) {
+                throw new IOException("Unexpected end of stream");
+            }
+            end += read;
+        }
+    }
+}
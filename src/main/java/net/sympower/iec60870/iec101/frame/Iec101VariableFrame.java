@@ -23,6 +23,8 @@
  */
 package net.sympower.iec60870.iec101.frame;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -37,7 +39,7 @@ import net.sympower.iec60870.internal.ExtendedDataInputStream;
  * <table>
  * <tr><th>Byte</th><th>Field</th><th>Size</th><th>Value/Description</th></tr>
  * <tr><td>0</td><td>Start</td><td>1 byte</td><td>Always 0x68</td></tr>
- * <tr><td>1</td><td>Length</td><td>1 byte</td><td>Number of bytes from control to checksum</td></tr>
+ * <tr><td>1</td><td>Length</td><td>1 byte</td><td>Number of bytes from control through ASDU</td></tr>
  * <tr><td>2</td><td>Length</td><td>1 byte</td><td>Repeated for error detection</td></tr>
  * <tr><td>3</td><td>Start</td><td>1 byte</td><td>Always 0x68</td></tr>
  * <tr><td>4</td><td>Control</td><td>1 byte</td><td>Control field bitfield</td></tr>
@@ -48,7 +50,8 @@ import net.sympower.iec60870.internal.ExtendedDataInputStream;
  * </table>
  * <p>
  * Variable frames are used to transmit application data (ASDUs) between primary and secondary stations.
- * The length field specifies the number of bytes from the control field to the checksum (inclusive).
+ * The length field specifies the number of bytes from the control field through the end of the ASDU, which is
+ * the data the checksum is calculated over.
  * 
  * @since 2.0
  */
@@ -60,6 +63,7 @@ public class Iec101VariableFrame extends Iec101Frame {
     private static final int END_OF_STREAM = -1;
 
     // Control field bit positions
+    private static final int DIR_BIT_POS = 7;
     private static final int PRM_BIT_POS = 6;
     private static final int FCB_ACD_BIT_POS = 5;
     private static final int FCV_DFC_BIT_POS = 4;
@@ -74,10 +78,21 @@ public class Iec101VariableFrame extends Iec101Frame {
     protected final boolean fcb;   // Frame Count Bit
     protected final boolean acd;   // Access Demand (only in secondary frames)
     protected final boolean dfc;   // Data Flow Control (only in secondary frames)
+    protected final boolean dir;   // Direction (only in balanced transmission)
     protected final ASdu asdu;     // Application Service Data Unit
 
     public Iec101VariableFrame(int linkAddress, FunctionCode functionCode, boolean prm, 
                               boolean fcv, boolean fcb, boolean acd, boolean dfc, ASdu asdu) {
+        this(linkAddress, functionCode, prm, fcv, fcb, acd, dfc, false, asdu);
+    }
+
+    /**
+     * Creates a frame for balanced transmission, where the direction bit tells which of the two stations sent it.
+     *
+     * @since 2.1
+     */
+    public Iec101VariableFrame(int linkAddress, FunctionCode functionCode, boolean prm,
+                              boolean fcv, boolean fcb, boolean acd, boolean dfc, boolean dir, ASdu asdu) {
         super(FrameType.VARIABLE_LENGTH);
         this.linkAddress = linkAddress;
         this.functionCode = functionCode;
@@ -86,28 +101,35 @@ public class Iec101VariableFrame extends Iec101Frame {
         this.fcb = fcb;
         this.acd = acd;
         this.dfc = dfc;
+        this.dir = dir;
         this.asdu = asdu;
     }
 
     public static Iec101VariableFrame decode(InputStream inputStream, IEC60870Settings settings) throws IOException {
         int frameLength = readAndValidateLengthFields(inputStream);
         readAndValidateSecondStartCharacter(inputStream);
-        
-        int controlField = readControlField(inputStream);
-        int addressField = readAddressField(inputStream, settings);
-        
+
+        // Control field, address, ASDU, checksum and end character are read in one go and decoded from the buffer
+        byte[] frame = readFrameBody(inputStream, frameLength);
+        verifyChecksum(frame, frameLength);
+        validateEndCharacter(frame[frameLength + 1]);
+
+        int controlField = frame[0] & BYTE_TO_UNSIGNED_MASK;
+        int addressLength = settings.getLinkAddressLength();
+        if (frameLength < 1 + addressLength) {
+            throw new IOException("Frame length " + frameLength + " is too short for a " + addressLength
+                + " byte link address");
+        }
+        int addressField = BitUtils.readBytes(frame, 1, addressLength);
+
         ControlFieldInfo controlInfo = readControlFieldBits(controlField);
-        
-        int asduLength = calculateAsduLength(frameLength, settings);
-        ASdu asdu = readAsduIfPresent(inputStream, settings, asduLength);
-        
-        int checksum = readChecksum(inputStream);
-        verifyChecksum(controlField, addressField, asdu, asduLength, checksum, settings);
-        
-        readAndValidateEndCharacter(inputStream);
+
+        int asduLength = frameLength - (1 + addressLength); // control + address
+        ASdu asdu = decodeAsduIfPresent(frame, 1 + addressLength, asduLength, settings);
 
         return new Iec101VariableFrame(addressField, controlInfo.functionCode, controlInfo.prm, 
-                                      controlInfo.fcv, controlInfo.fcb, controlInfo.acd, controlInfo.dfc, asdu);
+                                      controlInfo.fcv, controlInfo.fcb, controlInfo.acd, controlInfo.dfc,
+                                      controlInfo.dir, asdu);
     }
     
     private static int readAndValidateLengthFields(InputStream inputStream) throws IOException {
@@ -144,32 +166,12 @@ public class Iec101VariableFrame extends Iec101Frame {
         }
     }
     
-    private static int readControlField(InputStream inputStream) throws IOException {
-        int controlField = inputStream.read();
-        if (controlField == END_OF_STREAM) {
-            throw new IOException("Unexpected end of stream reading control field");
-        }
-        return controlField;
-    }
-    
-    private static int readAddressField(InputStream inputStream, IEC60870Settings settings) throws IOException {
-        int addressLength = settings.getLinkAddressLength();
-        byte[] addressBytes = new byte[addressLength];
-        
-        for (int i = 0; i < addressLength; i++) {
-            int byteValue = inputStream.read();
-            if (byteValue == END_OF_STREAM) {
-                throw new IOException("Unexpected end of stream reading address field");
-            }
-            addressBytes[i] = (byte) byteValue;
-        }
-        
-        return BitUtils.readBytes(addressBytes, 0, addressLength);
-    }
-    
     private static ControlFieldInfo readControlFieldBits(int controlField) {
         ControlFieldInfo info = new ControlFieldInfo();
         
+        // Extract bit 7: direction in balanced mode, reserved in unbalanced mode
+        info.dir = BitUtils.getBit(controlField, DIR_BIT_POS);
+
         // Extract bit 6: PRM bit determines primary vs secondary station
         info.prm = BitUtils.getBit(controlField, PRM_BIT_POS);
         
@@ -199,82 +201,59 @@ public class Iec101VariableFrame extends Iec101Frame {
         return info;
     }
     
-    private static int calculateAsduLength(int frameLength, IEC60870Settings settings) {
-        // ASDU length = total length - control - address - checksum
-        int addressLength = settings.getLinkAddressLength();
-        return frameLength - (1 + addressLength + 1); // control + address + checksum
-    }
-    
-    private static ASdu readAsduIfPresent(InputStream inputStream, IEC60870Settings settings, int asduLength) throws IOException {
-        if (asduLength > 0) {
-            ExtendedDataInputStream extendedIs = new ExtendedDataInputStream(inputStream);
-            return ASdu.decode(extendedIs, settings, asduLength);
-        }
-        return null;
-    }
-    
-    private static int readChecksum(InputStream inputStream) throws IOException {
-        int checksum = inputStream.read();
-        if (checksum == END_OF_STREAM) {
-            throw new IOException("Unexpected end of stream reading checksum");
-        }
-        return checksum;
-    }
-    
-    private static void verifyChecksum(int controlField, int addressField, ASdu asdu, int asduLength, 
-                                      int actualChecksum, IEC60870Settings settings) throws IOException {
-        // Reconstruct the frame data to verify checksum
-        int addressLength = settings.getLinkAddressLength();
-        byte[] frameData = new byte[1 + addressLength + asduLength];
-        frameData[0] = (byte) controlField;
-        BitUtils.writeBytes(frameData, 1, addressField, addressLength);
-        
-        if (asdu != null && asduLength > 0) {
-            // Re-encode ASDU to get raw bytes for checksum
-            // Allocate extra space to handle potential encoding length mismatch
-            byte[] asduBytes = new byte[asduLength + 10];
-            try {
-                int actualEncodedLength = asdu.encode(asduBytes, 0, settings);
-                
-                if (actualEncodedLength != asduLength) {
-                    
-                    // Create new frameData with actual ASDU length for accurate checksum
-                    byte[] newFrameData = new byte[1 + addressLength + actualEncodedLength];
-                    newFrameData[0] = (byte) controlField;
-                    BitUtils.writeBytes(newFrameData, 1, addressField, addressLength);
-                    System.arraycopy(asduBytes, 0, newFrameData, 1 + addressLength, actualEncodedLength);
-                    frameData = newFrameData;
-                } else {
-                    // Use declared length as normal
-                    System.arraycopy(asduBytes, 0, frameData, 1 + addressLength, asduLength);
-                }
-            } catch (Exception e) {
-                throw e;
+    private static byte[] readFrameBody(InputStream inputStream, int frameLength) throws IOException {
+        byte[] frame = new byte[frameLength + 2]; // + checksum + end character
+        int position = 0;
+        while (position < frame.length) {
+            int read = inputStream.read(frame, position, frame.length - position);
+            if (read == END_OF_STREAM) {
+                throw new IOException("Unexpected end of stream after " + position + " of " + frame.length
+                    + " frame bytes");
             }
+            position += read;
         }
-        
-        
-        byte expectedChecksum = calculateChecksum(frameData, 0, frameData.length);
-        if ((byte) actualChecksum != expectedChecksum) {
+        return frame;
+    }
+
+    private static void verifyChecksum(byte[] frame, int frameLength) throws IOException {
+        byte expectedChecksum = calculateChecksum(frame, 0, frameLength);
+        byte actualChecksum = frame[frameLength];
+        if (actualChecksum != expectedChecksum) {
             throw new IOException("Checksum verification failed. Expected: 0x" +
                 Integer.toHexString(expectedChecksum & BYTE_TO_UNSIGNED_MASK) + ", got: 0x" + 
                 Integer.toHexString(actualChecksum & BYTE_TO_UNSIGNED_MASK));
         }
     }
-    
-    private static void readAndValidateEndCharacter(InputStream inputStream) throws IOException {
-        int endChar = inputStream.read();
-        if (endChar == END_OF_STREAM) {
-            throw new IOException("Unexpected end of stream reading end character");
-        }
+
+    private static void validateEndCharacter(byte endChar) throws IOException {
         if (endChar != END_FRAME) {
             // Convert signed byte to unsigned int for hex display
             throw new IOException("Frame doesn't end with 0x16: 0x" + 
                 Integer.toHexString(endChar & BYTE_TO_UNSIGNED_MASK));
         }
     }
-    
+
+    private static ASdu decodeAsduIfPresent(byte[] frame, int offset, int asduLength, IEC60870Settings settings)
+            throws IOException {
+        if (asduLength == 0) {
+            return null;
+        }
+
+        ByteArrayInputStream asduInput = new ByteArrayInputStream(frame, offset, asduLength);
+        ASdu asdu;
+        try {
+            asdu = ASdu.decode(new ExtendedDataInputStream(asduInput), settings, asduLength);
+        } catch (EOFException e) {
+            throw new IOException("ASDU is longer than the " + asduLength + " bytes announced by the frame length", e);
+        }
+        if (asduInput.available() > 0) {
+            throw new IOException("ASDU is " + asduInput.available() + " bytes shorter than announced by the frame length");
+        }
+        return asdu;
+    }
+
     private static class ControlFieldInfo {
+        boolean dir;
         boolean prm;
         boolean fcb;
         boolean fcv;
@@ -327,7 +306,8 @@ public class Iec101VariableFrame extends Iec101Frame {
 
     private int getControlField() {
         int controlField = functionCode.getCode();
-        // Bit 7: Reserved and must always be 0 - don't set it
+        // Bit 7: Direction in balanced mode, reserved and 0 in unbalanced mode
+        if (dir) controlField = BitUtils.setBit(controlField, DIR_BIT_POS);
         // Bit 6: PRM bit determines primary vs secondary station
         if (prm) {
             controlField = BitUtils.setBit(controlField, PRM_BIT_POS); // PRM=1 when primary transmits
@@ -374,6 +354,10 @@ public class Iec101VariableFrame extends Iec101Frame {
         return dfc;
     }
 
+    public boolean getDir() {
+        return dir;
+    }
+
     public ASdu getAsdu() {
         return asdu;
     }
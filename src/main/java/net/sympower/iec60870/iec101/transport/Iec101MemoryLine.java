@@ -0,0 +1,476 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory line between IEC-101 stations, so that connections can be tested and load-tested without hardware.
+ * Connect the primary station to {@link #getClientEnd()} and the secondary stations to {@link #getServerEnd(int)}.
+ * With several secondaries the line behaves like a party line: every secondary receives everything the primary
+ * sends, and whatever any secondary sends reaches the primary.
+ * <p>
+ * Given a baud rate, the line emulates its speed: written bytes are buffered like in a UART, and each becomes
+ * readable only once it would have been transmitted, one 11 bit FT1.2 character (8E1) after the other. On a
+ * full-duplex line each direction has its own wires, on a half-duplex line both directions share them. The line
+ * counts frames that were written before its wires had been idle for the minimum FT1.2 idle time of 33 bit times.
+ * <p>
+ * Given a bit error rate, every data bit is flipped with that probability, independent of all other bits. A
+ * character with a corrupted start, parity or stop bit would be discarded by a real UART, so only data bits are
+ * corrupted. The corrupted bytes are then caught by the frame checksum, like on a noisy line.
+ * <p>
+ * Reads block until bytes have arrived, wake as soon as they do and can be interrupted. Closing any end hangs up the
+ * line: pending and later reads on all ends return -1, and writes fail.
+ *
+ * @since 2.1
+ */
+public class Iec101MemoryLine {
+
+    public static final int BITS_PER_CHARACTER = 11;
+
+    private static final int MIN_IDLE_BITS = 33;
+    private static final int DATA_BITS = 8;
+    private static final int CAPACITY = 4096;
+
+    private final long characterNanos;
+    private final long idleGapNanos;
+    private final double bitErrorRate;
+    private final AtomicLong transmittedBytes = new AtomicLong();
+    private final AtomicLong corruptedBytes = new AtomicLong();
+    private final AtomicLong idleGapViolations = new AtomicLong();
+    private final AtomicLong readCalls = new AtomicLong();
+    private final Receiver clientReceiver;
+    private final Receiver[] serverReceivers;
+    private final Wires clientToServers;
+    private final Wires serversToClient;
+    private final Iec101Transport clientEnd;
+    private final Iec101Transport[] serverEnds;
+
+    /**
+     * Creates a full-duplex line to one secondary, without speed limit or bit errors.
+     */
+    public Iec101MemoryLine() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a full-duplex line to one secondary with the given speed and bit error rate.
+     *
+     * @param baudRate the emulated baud rate, or 0 for a line without speed limit
+     * @param bitErrorRate the probability that a data bit is flipped, between 0 and 1
+     */
+    public Iec101MemoryLine(int baudRate, double bitErrorRate) {
+        this(baudRate, bitErrorRate, System.nanoTime());
+    }
+
+    /**
+     * Creates a full-duplex line to one secondary whose bit errors are reproducible: with the same seed and the same
+     * bytes written in each direction, the same bits are flipped.
+     */
+    public Iec101MemoryLine(int baudRate, double bitErrorRate, long seed) {
+        this(1, baudRate, true, bitErrorRate, seed);
+    }
+
+    /**
+     * Creates a line to the given number of secondaries without bit errors.
+     *
+     * @param servers the number of secondary stations on the line
+     * @param baudRate the emulated baud rate, or 0 for a line without speed limit
+     * @param fullDuplex whether each direction has its own wires
+     */
+    public Iec101MemoryLine(int servers, int baudRate, boolean fullDuplex) {
+        this(servers, baudRate, fullDuplex, 0, 0);
+    }
+
+    /**
+     * Creates a line.
+     *
+     * @param servers the number of secondary stations on the line
+     * @param baudRate the emulated baud rate, or 0 for a line without speed limit
+     * @param fullDuplex whether each direction has its own wires
+     * @param bitErrorRate the probability that a data bit is flipped, between 0 and 1
+     * @param seed the seed of the bit errors
+     */
+    public Iec101MemoryLine(int servers, int baudRate, boolean fullDuplex, double bitErrorRate, long seed) {
+        if (servers < 1) {
+            throw new IllegalArgumentException("A line needs at least one server");
+        }
+        if (baudRate < 0) {
+            throw new IllegalArgumentException("Baud rate must be non-negative");
+        }
+        if (!(bitErrorRate >= 0 && bitErrorRate <= 1)) {
+            throw new IllegalArgumentException("Bit error rate must be between 0 and 1");
+        }
+        this.characterNanos = baudRate > 0 ? TimeUnit.SECONDS.toNanos(1) * BITS_PER_CHARACTER / baudRate : 0;
+        this.idleGapNanos = baudRate > 0 ? TimeUnit.SECONDS.toNanos(1) * MIN_IDLE_BITS / baudRate : 0;
+        this.bitErrorRate = bitErrorRate;
+
+        this.clientReceiver = new Receiver();
+        this.serverReceivers = new Receiver[servers];
+        for (int i = 0; i < servers; i++) {
+            serverReceivers[i] = new Receiver();
+        }
+        Medium clientToServersMedium = new Medium();
+        Medium serversToClientMedium = fullDuplex ? new Medium() : clientToServersMedium;
+        this.clientToServers = new Wires(clientToServersMedium, new Random(seed), serverReceivers);
+        this.serversToClient = new Wires(serversToClientMedium, new Random(~seed), clientReceiver);
+
+        this.clientEnd = new End(clientReceiver, clientToServers);
+        this.serverEnds = new Iec101Transport[servers];
+        for (int i = 0; i < servers; i++) {
+            serverEnds[i] = new End(serverReceivers[i], serversToClient);
+        }
+    }
+
+    public Iec101Transport getClientEnd() {
+        return clientEnd;
+    }
+
+    public Iec101Transport getServerEnd() {
+        return getServerEnd(0);
+    }
+
+    public Iec101Transport getServerEnd(int server) {
+        return serverEnds[server];
+    }
+
+    /**
+     * Returns the number of bytes written to the line in both directions.
+     */
+    public long getTransmittedBytes() {
+        return transmittedBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes in which at least one bit was flipped.
+     */
+    public long getCorruptedBytes() {
+        return corruptedBytes.get();
+    }
+
+    /**
+     * Returns the number of frames written before the wires had been idle for 33 bit times. Always 0 without a baud
+     * rate.
+     */
+    public long getIdleGapViolations() {
+        return idleGapViolations.get();
+    }
+
+    /**
+     * Returns when the wires will have transmitted every frame written so far, as a {@link System#nanoTime()} value
+     * on the emulated clock of the line. This lets a test measure the throughput the line achieved, independent of
+     * when the receivers got around to reading. Returns {@link Long#MIN_VALUE} before the first frame and without
+     * a baud rate.
+     */
+    public long getIdleAtNanos() {
+        return Math.max(clientToServers.medium.getIdleAtNanos(), serversToClient.medium.getIdleAtNanos());
+    }
+
+    /**
+     * Returns the number of read and available calls made on all ends, which reveals readers that poll the line
+     * instead of blocking on it.
+     */
+    public long getReadCalls() {
+        return readCalls.get();
+    }
+
+    /**
+     * Hangs up the line.
+     */
+    public void close() {
+        clientReceiver.close();
+        for (Receiver receiver : serverReceivers) {
+            receiver.close();
+        }
+    }
+
+    private class End implements Iec101Transport {
+
+        private final InputStream input;
+        private final OutputStream output;
+
+        private End(Receiver receiver, Wires wires) {
+            this.input = receiver.input;
+            this.output = wires.output;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return input;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return output;
+        }
+
+        @Override
+        public void close() {
+            Iec101MemoryLine.this.close();
+        }
+    }
+
+    /**
+     * The wires that carry frames, which on a half-duplex line are shared by both directions.
+     */
+    private class Medium {
+
+        private long idleAtNanos = Long.MIN_VALUE;
+
+        /**
+         * Occupies the wires with a frame and returns when its transmission starts, which is after the frame currently
+         * being transmitted.
+         */
+        private synchronized long transmit(int length) {
+            long now = System.nanoTime();
+            if (characterNanos == 0) {
+                return now;
+            }
+            if (idleAtNanos != Long.MIN_VALUE && now - idleAtNanos < idleGapNanos) {
+                idleGapViolations.incrementAndGet();
+            }
+            long startNanos = idleAtNanos == Long.MIN_VALUE || now - idleAtNanos > 0 ? now : idleAtNanos;
+            idleAtNanos = startNanos + length * characterNanos;
+            return startNanos;
+        }
+
+        private synchronized long getIdleAtNanos() {
+            return idleAtNanos;
+        }
+    }
+
+    /**
+     * One direction of the line: the sender's end of the wires and the bit errors on them.
+     */
+    private class Wires {
+
+        private final Medium medium;
+        private final Random random;
+        private final Receiver[] receivers;
+        private final OutputStream output = new WiresOutputStream();
+        private byte[] transmitted = new byte[0];
+        private long bitsUntilError;
+
+        private Wires(Medium medium, Random random, Receiver... receivers) {
+            this.medium = medium;
+            this.random = random;
+            this.receivers = receivers;
+            this.bitsUntilError = nextErrorDistance();
+        }
+
+        private synchronized void write(byte[] source, int offset, int length) throws IOException {
+            if (transmitted.length < length) {
+                transmitted = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                transmitted[i] = corrupt(source[offset + i]);
+            }
+            long startNanos = medium.transmit(length);
+            for (Receiver receiver : receivers) {
+                receiver.write(transmitted, length, startNanos);
+            }
+            transmittedBytes.addAndGet(length);
+        }
+
+        /**
+         * Flips the data bits that the error process hits. The distance to the next error is drawn from the
+         * geometric distribution, so a clean line costs one comparison per byte.
+         */
+        private byte corrupt(byte value) {
+            int bits = value;
+            int bit = 0;
+            while (bitsUntilError < DATA_BITS - bit) {
+                bit += (int) bitsUntilError;
+                bits ^= 1 << bit;
+                bit++;
+                bitsUntilError = nextErrorDistance();
+            }
+            bitsUntilError -= DATA_BITS - bit;
+            if (bits != value) {
+                corruptedBytes.incrementAndGet();
+            }
+            return (byte) bits;
+        }
+
+        /**
+         * Returns the number of correct bits before the next flipped one.
+         */
+        private long nextErrorDistance() {
+            if (bitErrorRate == 0) {
+                return Long.MAX_VALUE;
+            }
+            if (bitErrorRate == 1) {
+                return 0;
+            }
+            return (long) (Math.log(1 - random.nextDouble()) / Math.log1p(-bitErrorRate));
+        }
+
+        private class WiresOutputStream extends OutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] source, int offset, int length) throws IOException {
+                Wires.this.write(source, offset, length);
+            }
+        }
+    }
+
+    /**
+     * The UART buffer of one station.
+     */
+    private class Receiver {
+
+        private final byte[] buffer = new byte[CAPACITY];
+        private final long[] arrivalNanos = new long[CAPACITY];
+        private final InputStream input = new ReceiverInputStream();
+        private int readPosition;
+        private int count;
+        private boolean closed;
+
+        private int read(byte[] target, int offset, int length) throws IOException {
+            readCalls.incrementAndGet();
+            if (length == 0) {
+                return 0;
+            }
+            long waitNanos;
+            while ((waitNanos = awaitBytes()) > 0) {
+                // Parked outside the monitor, as timed waits on it are rounded up to whole milliseconds
+                LockSupport.parkNanos(this, waitNanos);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Read interrupted");
+                }
+            }
+            return take(target, offset, length);
+        }
+
+        /**
+         * Waits until bytes are buffered and returns how long it takes until the first of them has been transmitted.
+         */
+        private synchronized long awaitBytes() throws InterruptedIOException {
+            try {
+                while (count == 0 && !closed) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Read interrupted");
+            }
+            return closed ? 0 : Math.max(0, arrivalNanos[readPosition] - System.nanoTime());
+        }
+
+        private synchronized int take(byte[] target, int offset, int length) {
+            if (closed) {
+                return -1;
+            }
+            int read = Math.min(length, arrived());
+            for (int i = 0; i < read; i++) {
+                target[offset + i] = buffer[(readPosition + i) % CAPACITY];
+            }
+            readPosition = (readPosition + read) % CAPACITY;
+            count -= read;
+            notifyAll();
+            return read;
+        }
+
+        private synchronized void write(byte[] source, int length, long startNanos) throws IOException {
+            long transmittedNanos = startNanos;
+            for (int i = 0; i < length; i++) {
+                try {
+                    while (count == CAPACITY && !closed) {
+                        notifyAll();
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Write interrupted");
+                }
+                if (closed) {
+                    throw new IOException("Line closed");
+                }
+                transmittedNanos += characterNanos;
+                int position = (readPosition + count) % CAPACITY;
+                buffer[position] = source[i];
+                arrivalNanos[position] = transmittedNanos;
+                count++;
+            }
+            notifyAll();
+        }
+
+        private synchronized int available() {
+            readCalls.incrementAndGet();
+            return closed ? 0 : arrived();
+        }
+
+        /**
+         * Returns the number of buffered bytes that have been transmitted completely.
+         */
+        private int arrived() {
+            if (characterNanos == 0) {
+                return count;
+            }
+            long now = System.nanoTime();
+            int arrived = 0;
+            while (arrived < count && arrivalNanos[(readPosition + arrived) % CAPACITY] - now <= 0) {
+                arrived++;
+            }
+            return arrived;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        private class ReceiverInputStream extends InputStream {
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return Receiver.this.read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] target, int offset, int length) throws IOException {
+                return Receiver.this.read(target, offset, length);
+            }
+
+            @Override
+            public int available() {
+                return Receiver.this.available();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.transport;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Transport on a local serial port through jSerialComm.
+ *
+ * @since 2.1
+ */
+public class Iec101SerialTransport implements Iec101Transport {
+
+    // Bounds how long the connection's blocking reader takes to notice that it was closed; received bytes are
+    // returned immediately regardless
+    private static final int SERIAL_READ_TIMEOUT_MS = 1000;
+
+    private final SerialPort serialPort;
+
+    private Iec101SerialTransport(SerialPort serialPort) {
+        this.serialPort = serialPort;
+    }
+
+    /**
+     * Opens a serial port.
+     *
+     * @param portName the system name of the port, e.g. {@code /dev/ttyUSB0} or {@code COM3}
+     * @param stopBits one of the {@code SerialPort.*_STOP_BIT*} constants
+     * @param parity one of the {@code SerialPort.*_PARITY} constants
+     * @throws IOException if the port cannot be opened
+     */
+    public static Iec101SerialTransport open(String portName, int baudRate, int dataBits, int stopBits, int parity)
+            throws IOException {
+        SerialPort serialPort = SerialPort.getCommPort(portName);
+        serialPort.setBaudRate(baudRate);
+        serialPort.setNumDataBits(dataBits);
+        serialPort.setNumStopBits(stopBits);
+        serialPort.setParity(parity);
+        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, SERIAL_READ_TIMEOUT_MS, 0);
+
+        if (!serialPort.openPort()) {
+            throw new IOException("Failed to open serial port: " + portName);
+        }
+        return new Iec101SerialTransport(serialPort);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return serialPort.getInputStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return serialPort.getOutputStream();
+    }
+
+    @Override
+    public void close() {
+        if (serialPort.isOpen()) {
+            serialPort.closePort();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return serialPort.getSystemPortName();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Transport on a raw TCP connection that carries the serial byte stream, as offered by terminal servers and
+ * serial-to-Ethernet converters ("serial over IP"). The frames are not changed in any way, unlike with IEC-104.
+ * <p>
+ * The connection still paces frames from the baud rate configured for it, which should therefore be the baud rate
+ * of the serial line behind the terminal server.
+ *
+ * @since 2.1
+ */
+public class Iec101TcpTransport implements Iec101Transport {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec101TcpTransport.class);
+
+    // Bounds how long the connection's blocking reader takes to notice that it was closed; received bytes are
+    // returned immediately regardless
+    private static final int SOCKET_READ_TIMEOUT_MS = 1000;
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+
+    /**
+     * Wraps a connected socket, for example one accepted from a terminal server that connects to this station.
+     */
+    public Iec101TcpTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        // Connections write each frame with a single call, so without Nagle every frame leaves in one segment
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(SOCKET_READ_TIMEOUT_MS);
+        this.inputStream = socket.getInputStream();
+        this.outputStream = socket.getOutputStream();
+    }
+
+    /**
+     * Connects to a terminal server port.
+     *
+     * @throws IOException if the connection cannot be established within the timeout
+     */
+    public static Iec101TcpTransport connect(String host, int port, int connectTimeoutMs) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            return new Iec101TcpTransport(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close connection to {}: {}", this, e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+}
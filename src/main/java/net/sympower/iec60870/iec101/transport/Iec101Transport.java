@@ -0,0 +1,52 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.transport;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The byte channel an IEC-101 connection runs on: a serial port, a TCP connection to a terminal server or an
+ * in-memory line.
+ * <p>
+ * Reads on the input stream must block until bytes have been received. They may time out or be interrupted with an
+ * {@link java.io.InterruptedIOException}, after which the connection retries, and must end with -1 or an
+ * {@link java.io.IOException} once the channel has been closed. The connection that a transport is passed to owns it and
+ * closes it when the connection is closed.
+ *
+ * @since 2.1
+ */
+public interface Iec101Transport extends Closeable {
+
+    InputStream getInputStream();
+
+    OutputStream getOutputStream();
+
+    /**
+     * Closes the channel and unblocks pending reads. Errors while closing are logged, not thrown.
+     */
+    @Override
+    void close();
+}
@@ -26,9 +26,11 @@ package net.sympower.iec60870.iec104.apdu;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 
 import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduView;
 import net.sympower.iec60870.common.IEC60870Settings;
 import net.sympower.iec60870.internal.ExtendedDataInputStream;
 
@@ -50,10 +52,18 @@ public class APdu {
      * The maximum length of APDU for both directions is 253. APDU max = 255 minus start and length octet.
      */
     private static final int MAX_APDU_LENGTH = 253;
+    /**
+     * Size of a buffer that can hold any encoded APDU including start and length octet.
+     */
+    public static final int MAX_FRAME_LENGTH = MAX_APDU_LENGTH + 2;
+    /**
+     * Size of an encoded S-format or U-format APDU including start and length octet.
+     */
+    public static final int CONTROL_FRAME_LENGTH = CONTROL_FIELDS_LENGTH + 2;
     /**
      * START flag of an APDU.
      */
-    private static final byte START_FLAG = 0x68;
+    static final byte START_FLAG = 0x68;
 
     public enum ApciType {
         /**
@@ -115,12 +125,18 @@ public class APdu {
     private final int receiveSeqNum;
     private final ApciType apciType;
     private final ASdu aSdu;
+    private final ASduView aSduView;
 
     public APdu(int sendSeqNum, int receiveSeqNum, ApciType apciType, ASdu aSdu) {
+        this(sendSeqNum, receiveSeqNum, apciType, aSdu, null);
+    }
+
+    private APdu(int sendSeqNum, int receiveSeqNum, ApciType apciType, ASdu aSdu, ASduView aSduView) {
         this.sendSeqNum = sendSeqNum;
         this.receiveSeqNum = receiveSeqNum;
         this.apciType = apciType;
         this.aSdu = aSdu;
+        this.aSduView = aSduView;
     }
 
     @SuppressWarnings("resource")
@@ -153,19 +169,66 @@ public class APdu {
 
     }
 
+    /**
+     * Decodes a complete APDU held in memory. The control fields are read directly from the buffer; the ASDU is
+     * read through {@code asduStream}, which the caller has already positioned on the ASDU bytes of the frame. If
+     * {@code asduView} is set, the ASDU of an I-frame is not decoded but copied into an {@link ASduView} instead.
+     *
+     * @param frame the buffer holding the frame
+     * @param start absolute index of the start octet
+     * @param length the APDU length from the length octet
+     * @param asduStream stream positioned on the ASDU of the frame
+     * @param settings the settings defining the ASDU field lengths
+     * @param asduView whether to return the ASDU as a view
+     * @return the decoded APDU
+     * @throws IOException if the ASDU cannot be decoded
+     */
+    static APdu decode(ByteBuffer frame, int start, int length, ExtendedDataInputStream asduStream,
+            IEC60870Settings settings, boolean asduView) throws IOException {
+        byte controlField1 = frame.get(start + 2);
+        byte controlField2 = frame.get(start + 3);
+        byte controlField3 = frame.get(start + 4);
+        byte controlField4 = frame.get(start + 5);
+
+        ApciType apciType = ApciType.apciTypeFor(controlField1);
+        switch (apciType) {
+        case I_FORMAT:
+            int sendSeqNum = seqNumFrom(controlField1, controlField2);
+            int receiveSeqNum = seqNumFrom(controlField3, controlField4);
+
+            int aSduLength = length - CONTROL_FIELDS_LENGTH;
+
+            if (asduView) {
+                byte[] aSduBytes = new byte[aSduLength];
+                asduStream.readFully(aSduBytes);
+                return new APdu(sendSeqNum, receiveSeqNum, apciType, null,
+                        new ASduView(aSduBytes, 0, aSduLength, settings));
+            }
+            return new APdu(sendSeqNum, receiveSeqNum, apciType, ASdu.decode(asduStream, settings, aSduLength));
+        case S_FORMAT:
+            return new APdu(0, seqNumFrom(controlField3, controlField4), apciType, null);
+
+        default:
+            return new APdu(0, 0, apciType, null);
+        }
+    }
+
     private static int seqNumFrom(byte b1, byte b2) {
         return ((b1 & 0xfe) >> 1) + ((b2 & 0xff) << 7);
     }
 
     private static int readApduLength(DataInputStream is) throws IOException {
         int length = is.readUnsignedByte();
+        checkApduLength(length);
+        return length;
+    }
 
+    static void checkApduLength(int length) throws IOException {
         if (length < MIN_APDU_LENGTH || length > MAX_APDU_LENGTH) {
             String msg = MessageFormat
                     .format("APDU has an invalid length must be between 4 and 253.\nReceived length was: {0}.", length);
             throw new IOException(msg);
         }
-        return length;
     }
 
     private static byte[] readControlFields(DataInputStream is) throws IOException {
@@ -181,11 +244,7 @@ public class APdu {
         int length = CONTROL_FIELDS_LENGTH;
 
         if (apciType == ApciType.I_FORMAT) {
-            buffer[2] = (byte) (sendSeqNum << 1);
-            buffer[3] = (byte) (sendSeqNum >> 7);
-            writeReceiveSeqNumTo(buffer);
-
-            length += aSdu.encode(buffer, 6, settings);
+            return encodeIFormat(buffer, sendSeqNum, receiveSeqNum, aSdu, settings);
         }
         else if (apciType == ApciType.STARTDT_ACT) {
             buffer[2] = 0x07;
@@ -204,9 +263,7 @@ public class APdu {
             setV3To5zero(buffer);
         }
         else if (apciType == ApciType.S_FORMAT) {
-            buffer[2] = 0x01;
-            buffer[3] = 0x00;
-            writeReceiveSeqNumTo(buffer);
+            return encodeSFormat(buffer, receiveSeqNum);
         }
 
         buffer[1] = (byte) length;
@@ -215,13 +272,54 @@ public class APdu {
 
     }
 
+    /**
+     * Encodes an I-format APDU straight into the given buffer without creating an {@code APdu} instance. Used on the
+     * send path so that a connection can reuse one buffer for all I-frames.
+     *
+     * @param buffer the target buffer, at least {@link #MAX_FRAME_LENGTH} bytes long
+     * @param sendSeqNum the send sequence number N(S)
+     * @param receiveSeqNum the receive sequence number N(R)
+     * @param aSdu the ASDU to transmit
+     * @param settings the settings defining the ASDU field lengths
+     * @return the number of bytes written, including start and length octet
+     */
+    public static int encodeIFormat(byte[] buffer, int sendSeqNum, int receiveSeqNum, ASdu aSdu,
+            IEC60870Settings settings) {
+        buffer[0] = START_FLAG;
+        buffer[2] = (byte) (sendSeqNum << 1);
+        buffer[3] = (byte) (sendSeqNum >> 7);
+        writeReceiveSeqNumTo(buffer, receiveSeqNum);
+
+        int length = CONTROL_FIELDS_LENGTH + aSdu.encode(buffer, 6, settings);
+        buffer[1] = (byte) length;
+
+        return length + 2;
+    }
+
+    /**
+     * Encodes an S-format APDU straight into the given buffer without creating an {@code APdu} instance.
+     *
+     * @param buffer the target buffer, at least {@link #CONTROL_FRAME_LENGTH} bytes long
+     * @param receiveSeqNum the receive sequence number N(R) to acknowledge
+     * @return the number of bytes written, including start and length octet
+     */
+    public static int encodeSFormat(byte[] buffer, int receiveSeqNum) {
+        buffer[0] = START_FLAG;
+        buffer[1] = CONTROL_FIELDS_LENGTH;
+        buffer[2] = 0x01;
+        buffer[3] = 0x00;
+        writeReceiveSeqNumTo(buffer, receiveSeqNum);
+
+        return CONTROL_FRAME_LENGTH;
+    }
+
     private static void setV3To5zero(byte[] buffer) {
         buffer[3] = 0x00;
         buffer[4] = 0x00;
         buffer[5] = 0x00;
     }
 
-    private void writeReceiveSeqNumTo(byte[] buffer) {
+    private static void writeReceiveSeqNumTo(byte[] buffer, int receiveSeqNum) {
         buffer[4] = (byte) (receiveSeqNum << 1);
         buffer[5] = (byte) (receiveSeqNum >> 7);
     }
@@ -242,4 +340,12 @@ public class APdu {
         return aSdu;
     }
 
+    /**
+     * Returns the ASDU of an I-frame decoded as a view, or null if the ASDU was decoded eagerly (see
+     * {@link APduDecoder#setDecodeAsduViews(boolean)}).
+     */
+    public ASduView getASduView() {
+        return aSduView;
+    }
+
 }
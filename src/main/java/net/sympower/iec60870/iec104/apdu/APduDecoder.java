@@ -0,0 +1,165 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.apdu;
+
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.internal.ByteBufferInputStream;
+import net.sympower.iec60870.internal.ExtendedDataInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Framing decoder for a stream of IEC 60870-5-104 APDUs. Bytes are read from the socket in large chunks into a
+ * receive buffer, complete APDUs are sliced out using the length octet and their ASDUs are decoded from a view on
+ * that buffer. Frames split across reads are kept until the remaining bytes arrive, and several frames received in
+ * one read are returned one after the other without touching the socket again.
+ * <p>
+ * A decoder holds state of a single connection and is not thread-safe.
+ *
+ * @since 2.1
+ */
+public class APduDecoder {
+
+    /**
+     * Default size of the receive buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final IEC60870Settings settings;
+    private final ByteBuffer buffer;
+    private final ByteBufferInputStream asduInput = new ByteBufferInputStream();
+    private final ExtendedDataInputStream asduStream = new ExtendedDataInputStream(asduInput);
+    private volatile boolean decodeAsduViews;
+
+    public APduDecoder(IEC60870Settings settings) {
+        this(settings, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param settings the settings defining the ASDU field lengths
+     * @param bufferSize size of the receive buffer, at least {@link APdu#MAX_FRAME_LENGTH}
+     */
+    public APduDecoder(IEC60870Settings settings, int bufferSize) {
+        if (bufferSize < APdu.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Buffer must hold at least one APDU (" + APdu.MAX_FRAME_LENGTH
+                    + " bytes)");
+        }
+        this.settings = settings;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Returns the next APDU, reading from the stream only when the buffer does not hold a complete frame. Blocks
+     * until a complete APDU has been received.
+     *
+     * @param inputStream the stream to read from
+     * @return the next APDU
+     * @throws EOFException if the stream ends
+     * @throws IOException if the stream cannot be read or the frame is invalid
+     */
+    public APdu read(InputStream inputStream) throws IOException {
+        APdu apdu;
+        while ((apdu = next()) == null) {
+            buffer.compact();
+            try {
+                int read = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        buffer.remaining());
+                if (read < 0) {
+                    throw new EOFException("Connection closed by remote station");
+                }
+                buffer.position(buffer.position() + read);
+            } finally {
+                buffer.flip();
+            }
+        }
+        return apdu;
+    }
+
+    /**
+     * Reads whatever the channel has available into the receive buffer. Complete APDUs can then be taken with
+     * {@link #next()}.
+     *
+     * @param channel the channel to read from
+     * @return the number of bytes read, or -1 at end of stream
+     * @throws IOException if the channel cannot be read
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        buffer.compact();
+        try {
+            return channel.read(buffer);
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Decodes the next APDU from the bytes already buffered.
+     *
+     * @return the next APDU, or null if the buffer does not hold a complete frame
+     * @throws IOException if the buffered frame is invalid
+     */
+    public APdu next() throws IOException {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+
+        int start = buffer.position();
+        if (buffer.get(start) != APdu.START_FLAG) {
+            throw new IOException("Message does not start with START flag (0x68). Broken connection.");
+        }
+
+        int length = buffer.get(start + 1) & 0xff;
+        APdu.checkApduLength(length);
+        if (buffer.remaining() < length + 2) {
+            return null;
+        }
+
+        buffer.position(start + length + 2);
+        asduInput.reset(buffer, start + APdu.CONTROL_FRAME_LENGTH, length + 2 - APdu.CONTROL_FRAME_LENGTH);
+        return APdu.decode(buffer, start, length, asduStream, settings, decodeAsduViews);
+    }
+
+    /**
+     * Selects how the ASDUs of I-frames are decoded. If enabled, {@link APdu#getASdu()} returns null and the ASDU is
+     * available through {@link APdu#getASduView()} instead, which skips building information objects. Disabled by
+     * default.
+     *
+     * @param decodeAsduViews whether to decode ASDUs as views
+     */
+    public void setDecodeAsduViews(boolean decodeAsduViews) {
+        this.decodeAsduViews = decodeAsduViews;
+    }
+
+    /**
+     * Returns the number of received bytes that have not been decoded yet.
+     */
+    public int getBufferedBytes() {
+        return buffer.remaining();
+    }
+}
@@ -23,17 +23,24 @@
  */
 package net.sympower.iec60870.iec104.api;
 
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.iec104.apdu.APdu;
 import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
 import net.sympower.iec60870.iec104.connection.Iec104ClientSettings;
 import net.sympower.iec60870.iec104.connection.Iec104Settings;
+import net.sympower.iec60870.internal.HashedWheelTimer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
 
 
 public class Iec104ClientBuilder {
 
+    private static final String THREAD_NAME_PREFIX = "IEC104-Client-";
+
     private final String hostname;
     private final int port;
     
@@ -47,6 +54,10 @@ public class Iec104ClientBuilder {
     
     private int localPort = 0;
     private String localAddress = null;
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
 
     public Iec104ClientBuilder(String hostname, int port) {
         this.hostname = hostname;
@@ -109,6 +120,73 @@ public class Iec104ClientBuilder {
         return this;
     }
 
+    public Iec104ClientBuilder sendQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Send queue capacity must be at least 1");
+        }
+        this.iec104Settings.setSendQueueCapacity(capacity);
+        return this;
+    }
+
+    public Iec104ClientBuilder writeCoalescing(int maxDelayMs, int maxBytes) {
+        if (maxDelayMs < 0) {
+            throw new IllegalArgumentException("Coalescing delay must not be negative");
+        }
+        if (maxBytes < APdu.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Coalescing buffer must hold at least one APDU ("
+                    + APdu.MAX_FRAME_LENGTH + " bytes)");
+        }
+        this.iec104Settings.setWriteCoalescing(true);
+        this.iec104Settings.setCoalescingMaxDelay(maxDelayMs);
+        this.iec104Settings.setCoalescingMaxBytes(maxBytes);
+        return this;
+    }
+
+    public Iec104ClientBuilder timer(HashedWheelTimer timer) {
+        if (timer == null) {
+            throw new IllegalArgumentException("Timer must not be null");
+        }
+        this.iec104Settings.setTimer(timer);
+        return this;
+    }
+
+    public Iec104ClientBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public Iec104ClientBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
+
+    public Iec104ClientBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    public Iec104ClientBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    public Iec104ClientBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
     public Iec104ClientBuilder localPort(int port) {
         this.localPort = port;
         return this;
@@ -121,6 +199,8 @@ public class Iec104ClientBuilder {
 
     public Iec104ClientConnection build() throws IOException {
         Socket socket = new Socket();
+        // APDUs are small and answered by the peer; batching is left to write coalescing
+        socket.setTcpNoDelay(true);
 
         InetSocketAddress localAddr = localAddress != null ? 
             new InetSocketAddress(localAddress, localPort) : 
@@ -143,6 +223,15 @@ public class Iec104ClientBuilder {
         settings.setMaxIdleTime(iec104Settings.getMaxIdleTime());
         settings.setMaxUnconfirmedIPdusReceived(iec104Settings.getMaxUnconfirmedIPdusReceived());
         settings.setMaxNumOfOutstandingIPdus(iec104Settings.getMaxNumOfOutstandingIPdus());
+        settings.setSendQueueCapacity(iec104Settings.getSendQueueCapacity());
+        settings.setWriteCoalescing(iec104Settings.isWriteCoalescing());
+        settings.setCoalescingMaxDelay(iec104Settings.getCoalescingMaxDelay());
+        settings.setCoalescingMaxBytes(iec104Settings.getCoalescingMaxBytes());
+        settings.setTimer(iec104Settings.getTimer());
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
         
         return new Iec104ClientConnection(socket, settings);
     }
@@ -23,8 +23,11 @@
  */
 package net.sympower.iec60870.iec104.api;
 
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Threads;
 import net.sympower.iec60870.common.api.IEC60870Server;
 import net.sympower.iec60870.common.api.IEC60870ServerListener;
+import net.sympower.iec60870.iec104.connection.Iec104EventLoop;
 import net.sympower.iec60870.iec104.connection.Iec104ServerConnection;
 import net.sympower.iec60870.iec104.connection.Iec104ServerSettings;
 import org.slf4j.Logger;
@@ -35,9 +38,12 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,13 +55,27 @@ public class Iec104Server implements IEC60870Server {
     private final Iec104ServerSettings settings;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicInteger connectionCount = new AtomicInteger(0);
+    private final AtomicInteger connectionIdSequence = new AtomicInteger(0);
     private final ConcurrentHashMap<Integer, Iec104ServerConnection> activeConnections = new ConcurrentHashMap<>();
     
     private ServerSocket serverSocket;
     private ExecutorService serverExecutor;
+    private ServerSocketChannel serverChannel;
+    private Iec104EventLoop[] eventLoops;
+    private final AtomicInteger nextEventLoop = new AtomicInteger(0);
     private volatile IEC60870ServerListener serverListener;
 
+    /**
+     * Creates a server with the given settings.
+     *
+     * @throws IllegalArgumentException if the settings select the non-blocking mode with dispatch threads and
+     *         {@link DispatchOverflowPolicy#BLOCK}, which would stall the event loop whenever a dispatch queue is full
+     */
     public Iec104Server(Iec104ServerSettings settings) {
+        if (settings.isNonBlocking() && settings.getDispatchThreads() > 0
+                && settings.getDispatchOverflowPolicy() == DispatchOverflowPolicy.BLOCK) {
+            throw new IllegalArgumentException("Dispatch overflow policy BLOCK is not supported in non-blocking mode");
+        }
         this.settings = settings;
     }
 
@@ -66,6 +86,11 @@ public class Iec104Server implements IEC60870Server {
         }
 
         this.serverListener = listener;
+
+        if (settings.isNonBlocking()) {
+            startNonBlocking();
+            return;
+        }
         
         serverSocket = new ServerSocket();
         if (settings.getBindAddress() != null) {
@@ -76,11 +101,9 @@ public class Iec104Server implements IEC60870Server {
         
         serverSocket.setSoTimeout(1000);
         
-        serverExecutor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r);
-            t.setDaemon(true);
-            return t;
-        });
+        ThreadFactory threadFactory = settings.getThreadFactory();
+        serverExecutor = Executors.newSingleThreadExecutor(threadFactory != null ? threadFactory
+                : IEC60870Threads.daemonThreadFactory("IEC104-Server-"));
         
         serverExecutor.submit(this::serverLoop);
     }
@@ -107,6 +130,8 @@ public class Iec104Server implements IEC60870Server {
         if (serverExecutor != null) {
             serverExecutor.shutdown();
         }
+
+        stopNonBlocking();
     }
 
     @Override
@@ -114,6 +139,9 @@ public class Iec104Server implements IEC60870Server {
         if (serverSocket != null) {
             return serverSocket.getLocalPort();
         }
+        if (serverChannel != null) {
+            return serverChannel.socket().getLocalPort();
+        }
         return settings.getPort();
     }
 
@@ -144,36 +172,118 @@ public class Iec104Server implements IEC60870Server {
         }
 
         try {
-            Iec104ServerSettings connectionSettings = new Iec104ServerSettings();
-            connectionSettings.setMessageFragmentTimeout(settings.getMessageFragmentTimeout());
-            connectionSettings.setCotFieldLength(settings.getCotFieldLength());
-            connectionSettings.setIoaFieldLength(settings.getIoaFieldLength());
-            connectionSettings.setMaxTimeNoAckReceived(settings.getMaxTimeNoAckReceived());
-            connectionSettings.setMaxTimeNoAckSent(settings.getMaxTimeNoAckSent());
-            connectionSettings.setMaxIdleTime(settings.getMaxIdleTime());
-            connectionSettings.setMaxUnconfirmedIPdusReceived(settings.getMaxUnconfirmedIPdusReceived());
-            connectionSettings.setMaxNumOfOutstandingIPdus(settings.getMaxNumOfOutstandingIPdus());
-
-            Iec104ServerConnection connection = new Iec104ServerConnection(clientSocket, connectionSettings);
-            
-            int connectionId = connectionCount.incrementAndGet();
-            activeConnections.put(connectionId, connection);
-            
-            connection.setConnectionCloseListener(() -> {
-                activeConnections.remove(connectionId);
-                connectionCount.decrementAndGet();
-            });
-
-            if (serverListener != null) {
-                serverListener.onConnectionAccepted(connection);
+            clientSocket.setTcpNoDelay(true);
+            registerConnection(new Iec104ServerConnection(clientSocket, createConnectionSettings()));
+        } catch (IOException e) {
+            try {
+                clientSocket.close();
+            } catch (IOException closeException) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * Starts the non-blocking mode. Every connection is served by one of the event-loop threads, which reads and
+     * writes its frames and runs its t1, t2 and t3 expiries. Without dispatch threads the server and connection
+     * listeners are called on that event-loop thread as well, so they must not block: a listener that waits stalls
+     * every connection on the loop. Listeners that block must be given dispatch threads, with an overflow policy
+     * that does not wait for a full queue.
+     */
+    private void startNonBlocking() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        if (settings.getBindAddress() != null) {
+            serverChannel.bind(new InetSocketAddress(settings.getBindAddress(), settings.getPort()));
+        } else {
+            serverChannel.bind(new InetSocketAddress(settings.getPort()));
+        }
+
+        ThreadFactory threadFactory = settings.getThreadFactory() != null
+                ? settings.getThreadFactory()
+                : IEC60870Threads.daemonThreadFactory("IEC104-EventLoop-");
+        eventLoops = new Iec104EventLoop[settings.getEventLoopThreads()];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new Iec104EventLoop("IEC104-EventLoop-" + i, threadFactory);
+            eventLoops[i].start();
+        }
+
+        eventLoops[0].acceptOn(serverChannel, this::handleNewChannel);
+    }
+
+    private void stopNonBlocking() {
+        if (serverChannel != null && serverChannel.isOpen()) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                // Ignore
             }
+        }
+
+        if (eventLoops != null) {
+            for (Iec104EventLoop eventLoop : eventLoops) {
+                eventLoop.stop();
+            }
+        }
+    }
 
+    private void handleNewChannel(SocketChannel channel) {
+        if (connectionCount.get() >= settings.getMaxConnections()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            return;
+        }
+
+        Iec104EventLoop eventLoop = eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)];
+        try {
+            channel.socket().setTcpNoDelay(true);
+            registerConnection(new Iec104ServerConnection(channel, eventLoop, createConnectionSettings()));
         } catch (IOException e) {
             try {
-                clientSocket.close();
+                channel.close();
             } catch (IOException closeException) {
                 // Ignore
             }
         }
     }
+
+    private Iec104ServerSettings createConnectionSettings() {
+        Iec104ServerSettings connectionSettings = new Iec104ServerSettings();
+        connectionSettings.setMessageFragmentTimeout(settings.getMessageFragmentTimeout());
+        connectionSettings.setCotFieldLength(settings.getCotFieldLength());
+        connectionSettings.setIoaFieldLength(settings.getIoaFieldLength());
+        connectionSettings.setMaxTimeNoAckReceived(settings.getMaxTimeNoAckReceived());
+        connectionSettings.setMaxTimeNoAckSent(settings.getMaxTimeNoAckSent());
+        connectionSettings.setMaxIdleTime(settings.getMaxIdleTime());
+        connectionSettings.setMaxUnconfirmedIPdusReceived(settings.getMaxUnconfirmedIPdusReceived());
+        connectionSettings.setMaxNumOfOutstandingIPdus(settings.getMaxNumOfOutstandingIPdus());
+        connectionSettings.setSendQueueCapacity(settings.getSendQueueCapacity());
+        connectionSettings.setWriteCoalescing(settings.isWriteCoalescing());
+        connectionSettings.setCoalescingMaxDelay(settings.getCoalescingMaxDelay());
+        connectionSettings.setCoalescingMaxBytes(settings.getCoalescingMaxBytes());
+        connectionSettings.setTimer(settings.getTimer());
+        connectionSettings.setThreadFactory(settings.getThreadFactory());
+        connectionSettings.setDispatchThreads(settings.getDispatchThreads());
+        connectionSettings.setDispatchQueueCapacity(settings.getDispatchQueueCapacity());
+        connectionSettings.setDispatchOverflowPolicy(settings.getDispatchOverflowPolicy());
+        connectionSettings.setTimeZone(settings.getTimeZone());
+        return connectionSettings;
+    }
+
+    private void registerConnection(Iec104ServerConnection connection) {
+        int connectionId = connectionIdSequence.incrementAndGet();
+        connectionCount.incrementAndGet();
+        activeConnections.put(connectionId, connection);
+
+        connection.setConnectionCloseListener(() -> {
+            activeConnections.remove(connectionId);
+            connectionCount.decrementAndGet();
+        });
+
+        if (serverListener != null) {
+            serverListener.onConnectionAccepted(connection);
+        }
+    }
 }
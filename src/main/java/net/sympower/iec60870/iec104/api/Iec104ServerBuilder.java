@@ -23,13 +23,20 @@
  */
 package net.sympower.iec60870.iec104.api;
 
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.IEC60870Threads;
+import net.sympower.iec60870.iec104.apdu.APdu;
 import net.sympower.iec60870.iec104.connection.Iec104ServerSettings;
 import net.sympower.iec60870.iec104.connection.Iec104Settings;
+import net.sympower.iec60870.internal.HashedWheelTimer;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 public class Iec104ServerBuilder {
 
+    private static final String THREAD_NAME_PREFIX = "IEC104-Server-";
+
     private final int port;
     private int maxConnections = 100;
     private String bindAddress = null; // null = bind to all interfaces
@@ -37,6 +44,12 @@ public class Iec104ServerBuilder {
     private int messageFragmentTimeout = 5000;
     private int cotFieldLength = 2;
     private int ioaFieldLength = 3;
+    private boolean nonBlocking = false;
+    private int eventLoopThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private ThreadFactory threadFactory;
+    private int dispatchThreads = 0;
+    private int dispatchQueueCapacity = 1024;
+    private DispatchOverflowPolicy dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
     
     private final Iec104Settings iec104Settings = new Iec104Settings();
 
@@ -136,7 +149,166 @@ public class Iec104ServerBuilder {
         return this;
     }
 
+    /**
+     * Sets how many ASDUs {@code sendAsync} may queue while the k window is full.
+     *
+     * @param capacity maximum queued ASDUs per connection (default: 1000)
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder sendQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Send queue capacity must be at least 1");
+        }
+        this.iec104Settings.setSendQueueCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * Enables write coalescing. Outbound APDUs are gathered in a per-connection buffer and written to the socket
+     * together once the send queue drains, the k window fills, {@code maxBytes} are buffered or the oldest buffered
+     * APDU has waited {@code maxDelayMs}. Control frames are never delayed.
+     *
+     * @param maxDelayMs maximum time an APDU may wait in the buffer (default: 5)
+     * @param maxBytes number of buffered bytes that forces a write (default: 8192)
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder writeCoalescing(int maxDelayMs, int maxBytes) {
+        if (maxDelayMs < 0) {
+            throw new IllegalArgumentException("Coalescing delay must not be negative");
+        }
+        if (maxBytes < APdu.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Coalescing buffer must hold at least one APDU ("
+                    + APdu.MAX_FRAME_LENGTH + " bytes)");
+        }
+        this.iec104Settings.setWriteCoalescing(true);
+        this.iec104Settings.setCoalescingMaxDelay(maxDelayMs);
+        this.iec104Settings.setCoalescingMaxBytes(maxBytes);
+        return this;
+    }
+
+    /**
+     * Sets the timer serving the protocol timeouts of all connections. By default the process-wide
+     * {@link HashedWheelTimer#shared()} timer is used. A timer passed here is not stopped by the server.
+     *
+     * @param timer the timer to use
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder timer(HashedWheelTimer timer) {
+        if (timer == null) {
+            throw new IllegalArgumentException("Timer must not be null");
+        }
+        this.iec104Settings.setTimer(timer);
+        return this;
+    }
+
+    /**
+     * Sets the factory for the reader threads of the connections, which also deliver the listener callbacks, and
+     * for the event-loop threads in non-blocking mode. By default platform daemon threads are used.
+     *
+     * @param threadFactory the thread factory
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder threadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null");
+        }
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    /**
+     * Runs connection readers and listener callbacks on virtual threads if the JVM supports them (Java 21 or
+     * later), and on platform daemon threads otherwise. See {@link IEC60870Threads#isVirtualThreadSupported()}.
+     *
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder virtualThreads() {
+        this.threadFactory = IEC60870Threads.virtualThreadFactoryIfSupported(THREAD_NAME_PREFIX);
+        return this;
+    }
 
+    /**
+     * Delivers received ASDUs to the listener from the given number of threads instead of the reader thread, so a
+     * slow listener does not stop the connection from reading and acknowledging. ASDUs are assigned to the threads by
+     * common address, which keeps the order per station. 0, the default, delivers on the reader thread.
+     *
+     * @param dispatchThreads number of dispatch threads per connection
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder dispatchThreads(int dispatchThreads) {
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("Dispatch threads must be non-negative");
+        }
+        this.dispatchThreads = dispatchThreads;
+        return this;
+    }
+
+    /**
+     * Sets how many received ASDUs each dispatch thread may have queued. Default is 1024.
+     *
+     * @param dispatchQueueCapacity the queue capacity per dispatch thread
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder dispatchQueueCapacity(int dispatchQueueCapacity) {
+        if (dispatchQueueCapacity < 1) {
+            throw new IllegalArgumentException("Dispatch queue capacity must be at least 1");
+        }
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets what happens when a dispatch queue is full. Default is {@link DispatchOverflowPolicy#BLOCK}.
+     *
+     * @param dispatchOverflowPolicy the overflow policy
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder dispatchOverflowPolicy(DispatchOverflowPolicy dispatchOverflowPolicy) {
+        if (dispatchOverflowPolicy == null) {
+            throw new IllegalArgumentException("Dispatch overflow policy must not be null");
+        }
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+        return this;
+    }
+
+    /**
+     * Serves all connections from a small pool of NIO event-loop threads instead of using a reader thread per
+     * connection. Recommended for servers that handle hundreds or thousands of stations.
+     * <p>
+     * Without {@link #dispatchThreads(int) dispatch threads} the listener is called on the event-loop thread, so a
+     * listener that blocks stalls every connection on that loop. With dispatch threads the overflow policy must be
+     * {@link DispatchOverflowPolicy#DROP_OLDEST} or {@link DispatchOverflowPolicy#CLOSE}; {@link #build()} rejects
+     * {@link DispatchOverflowPolicy#BLOCK}, which would wait for a full queue on the event-loop thread.
+     *
+     * @param nonBlocking true to enable the non-blocking mode (default: false)
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder nonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+        return this;
+    }
+
+    /**
+     * Sets the number of event-loop threads used in non-blocking mode.
+     *
+     * @param threads number of threads (default: number of processors, at most 4)
+     * @return this builder for method chaining
+     */
+    public Iec104ServerBuilder eventLoopThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Event loop threads must be at least 1");
+        }
+        this.eventLoopThreads = threads;
+        return this;
+    }
+
+
+    /**
+     * Creates the server.
+     *
+     * @throws IllegalArgumentException if the non-blocking mode is combined with dispatch threads and
+     *         {@link DispatchOverflowPolicy#BLOCK}
+     */
     public Iec104Server build() throws IOException {
         Iec104ServerSettings settings = new Iec104ServerSettings();
         settings.setPort(port);
@@ -146,12 +318,23 @@ public class Iec104ServerBuilder {
         settings.setMessageFragmentTimeout(messageFragmentTimeout);
         settings.setCotFieldLength(cotFieldLength);
         settings.setIoaFieldLength(ioaFieldLength);
+        settings.setNonBlocking(nonBlocking);
+        settings.setEventLoopThreads(eventLoopThreads);
         
         settings.setMaxTimeNoAckReceived(iec104Settings.getMaxTimeNoAckReceived());
         settings.setMaxTimeNoAckSent(iec104Settings.getMaxTimeNoAckSent());
         settings.setMaxIdleTime(iec104Settings.getMaxIdleTime());
         settings.setMaxUnconfirmedIPdusReceived(iec104Settings.getMaxUnconfirmedIPdusReceived());
         settings.setMaxNumOfOutstandingIPdus(iec104Settings.getMaxNumOfOutstandingIPdus());
+        settings.setSendQueueCapacity(iec104Settings.getSendQueueCapacity());
+        settings.setWriteCoalescing(iec104Settings.isWriteCoalescing());
+        settings.setCoalescingMaxDelay(iec104Settings.getCoalescingMaxDelay());
+        settings.setCoalescingMaxBytes(iec104Settings.getCoalescingMaxBytes());
+        settings.setTimer(iec104Settings.getTimer());
+        settings.setThreadFactory(threadFactory);
+        settings.setDispatchThreads(dispatchThreads);
+        settings.setDispatchQueueCapacity(dispatchQueueCapacity);
+        settings.setDispatchOverflowPolicy(dispatchOverflowPolicy);
 
         return new Iec104Server(settings);
     }
@@ -0,0 +1,183 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.iec104.apdu.APdu;
+import net.sympower.iec60870.iec104.apdu.APduDecoder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Non-blocking socket transport of a server connection. Reads are performed by the owning {@link Iec104EventLoop},
+ * which feeds the received bytes to an {@link APduDecoder} and hands every complete APDU to the connection.
+ * Writes are attempted directly from the calling thread; whatever the socket does not accept immediately is queued
+ * and flushed by the event loop once the channel becomes writable again.
+ */
+class Iec104ChannelTransport implements Iec104EventLoop.SelectionHandler {
+
+    private final SocketChannel channel;
+    private final Iec104EventLoop eventLoop;
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private final OutputStream outputStream = new ChannelOutputStream();
+
+    private Iec104ServerConnection connection;
+    private APduDecoder decoder;
+    private SelectionKey key;
+    private boolean writeInterest;
+
+    Iec104ChannelTransport(SocketChannel channel, Iec104EventLoop eventLoop) throws IOException {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        channel.configureBlocking(false);
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    boolean inEventLoop() {
+        return eventLoop.inEventLoop();
+    }
+
+    void execute(Runnable task) {
+        eventLoop.execute(task);
+    }
+
+    void start(Iec104ServerConnection connection, IEC60870Settings settings, boolean decodeAsduViews) {
+        this.connection = connection;
+        this.decoder = new APduDecoder(settings);
+        decoder.setDecodeAsduViews(decodeAsduViews);
+        eventLoop.execute(() -> {
+            SelectionKey registeredKey = eventLoop.register(channel, SelectionKey.OP_READ, this);
+            synchronized (outbound) {
+                key = registeredKey;
+                if (key != null && !outbound.isEmpty()) {
+                    writeInterest = true;
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void handle(SelectionKey selectedKey) {
+        try {
+            if (selectedKey.isValid() && selectedKey.isWritable()) {
+                flushOutbound();
+            }
+            if (selectedKey.isValid() && selectedKey.isReadable()) {
+                read();
+            }
+        } catch (IOException e) {
+            connection.onTransportError(e);
+        } catch (RuntimeException e) {
+            connection.onTransportError(new IOException("Connection error", e));
+        }
+    }
+
+    private void read() throws IOException {
+        if (decoder.readFrom(channel) < 0) {
+            throw new EOFException("Connection closed by remote station");
+        }
+
+        APdu apdu;
+        while ((apdu = decoder.next()) != null) {
+            connection.handleApdu(apdu);
+        }
+    }
+
+    private void write(byte[] buffer, int offset, int length) throws IOException {
+        synchronized (outbound) {
+            if (!channel.isOpen()) {
+                throw new ClosedChannelException();
+            }
+
+            if (outbound.isEmpty()) {
+                ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+                channel.write(data);
+                if (!data.hasRemaining()) {
+                    return;
+                }
+                offset = data.position();
+                length = data.remaining();
+            }
+
+            outbound.add(ByteBuffer.wrap(Arrays.copyOfRange(buffer, offset, offset + length)));
+            if (!writeInterest && key != null) {
+                writeInterest = true;
+                eventLoop.execute(this::enableWriteInterest);
+            }
+        }
+    }
+
+    private void enableWriteInterest() {
+        synchronized (outbound) {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void flushOutbound() throws IOException {
+        synchronized (outbound) {
+            ByteBuffer head;
+            while ((head = outbound.peek()) != null) {
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    return;
+                }
+                outbound.poll();
+            }
+            writeInterest = false;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            Iec104ChannelTransport.this.write(buffer, offset, length);
+        }
+    }
+}
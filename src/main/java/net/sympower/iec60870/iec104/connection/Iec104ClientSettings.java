@@ -24,6 +24,7 @@
 package net.sympower.iec60870.iec104.connection;
 
 import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.internal.HashedWheelTimer;
 
 public class Iec104ClientSettings extends IEC60870Settings {
     
@@ -91,6 +92,46 @@ public class Iec104ClientSettings extends IEC60870Settings {
     public void setMaxNumOfOutstandingIPdus(int maxNumOfOutstandingIPdus) {
         this.iec104Settings.setMaxNumOfOutstandingIPdus(maxNumOfOutstandingIPdus);
     }
+
+    public int getSendQueueCapacity() {
+        return iec104Settings.getSendQueueCapacity();
+    }
+
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.iec104Settings.setSendQueueCapacity(sendQueueCapacity);
+    }
+
+    public boolean isWriteCoalescing() {
+        return iec104Settings.isWriteCoalescing();
+    }
+
+    public void setWriteCoalescing(boolean writeCoalescing) {
+        this.iec104Settings.setWriteCoalescing(writeCoalescing);
+    }
+
+    public int getCoalescingMaxDelay() {
+        return iec104Settings.getCoalescingMaxDelay();
+    }
+
+    public void setCoalescingMaxDelay(int coalescingMaxDelay) {
+        this.iec104Settings.setCoalescingMaxDelay(coalescingMaxDelay);
+    }
+
+    public int getCoalescingMaxBytes() {
+        return iec104Settings.getCoalescingMaxBytes();
+    }
+
+    public void setCoalescingMaxBytes(int coalescingMaxBytes) {
+        this.iec104Settings.setCoalescingMaxBytes(coalescingMaxBytes);
+    }
+
+    public HashedWheelTimer getTimer() {
+        return iec104Settings.getTimer();
+    }
+
+    public void setTimer(HashedWheelTimer timer) {
+        this.iec104Settings.setTimer(timer);
+    }
     
     public Iec104Settings getIec104Settings() {
         return iec104Settings;
@@ -0,0 +1,173 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.internal.HashedWheelTimer;
+import net.sympower.iec60870.internal.TimeoutTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Output stream that gathers outbound APDUs in one contiguous buffer so that a burst of frames leaves the socket in
+ * a single write. {@link #flush()} writes the buffer immediately and is used for control frames and whenever the
+ * sender knows no further frames follow. {@link #flushLater()} only guarantees that buffered bytes are written
+ * within the configured delay, or as soon as the byte threshold is reached.
+ */
+class Iec104CoalescingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final int maxDelay;
+
+    private HashedWheelTimer timer;
+    private Executor executor;
+    private volatile Consumer<IOException> errorHandler;
+    private TimeoutTask flushTask;
+    private int count;
+
+    Iec104CoalescingOutputStream(OutputStream out, int maxBytes, int maxDelay) {
+        this.out = out;
+        this.buffer = new byte[maxBytes];
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Wraps the given stream if write coalescing is enabled in the settings.
+     */
+    static OutputStream wrap(OutputStream out, Iec104Settings settings) {
+        if (!settings.isWriteCoalescing()) {
+            return out;
+        }
+        return new Iec104CoalescingOutputStream(out, settings.getCoalescingMaxBytes(),
+                settings.getCoalescingMaxDelay());
+    }
+
+    /**
+     * Sets the timer that triggers delayed flushes, the executor that performs them and the handler notified when a
+     * delayed flush fails.
+     */
+    synchronized void start(HashedWheelTimer timer, Executor executor, Consumer<IOException> errorHandler) {
+        this.timer = timer;
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (count == buffer.length) {
+            writeBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] data, int offset, int length) throws IOException {
+        if (length > buffer.length - count) {
+            writeBuffer();
+        }
+        if (length > buffer.length) {
+            out.write(data, offset, length);
+            return;
+        }
+        System.arraycopy(data, offset, buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * Requests a flush that may be deferred by up to the configured delay so that further frames can join the same
+     * write. The buffer is written at once if the byte threshold has been reached or no delay is configured.
+     */
+    synchronized void flushLater() throws IOException {
+        if (count >= buffer.length || maxDelay == 0 || timer == null) {
+            flush();
+            return;
+        }
+        if (flushTask == null && count > 0) {
+            flushTask = new TimeoutTask(maxDelay) {
+                @Override
+                protected void execute() {
+                    TimeoutTask task = this;
+                    try {
+                        executor.execute(() -> flushDeferred(task));
+                    } catch (RejectedExecutionException e) {
+                        // The connection has been closed
+                    }
+                }
+            };
+            timer.addTimerTask(flushTask);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        cancelFlushTask();
+        writeBuffer();
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        cancelFlushTask();
+        count = 0;
+        out.close();
+    }
+
+    private void flushDeferred(TimeoutTask task) {
+        IOException failure;
+        synchronized (this) {
+            if (flushTask != task) {
+                return;
+            }
+            try {
+                flush();
+                return;
+            } catch (IOException e) {
+                count = 0;
+                failure = e;
+            }
+        }
+        if (errorHandler != null) {
+            errorHandler.accept(failure);
+        }
+    }
+
+    private void cancelFlushTask() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if (count > 0) {
+            int length = count;
+            count = 0;
+            out.write(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * A single-threaded selector loop that performs the socket I/O and APDU framing for any number of
+ * non-blocking IEC-104 server connections. A server running in non-blocking mode owns a small, fixed pool
+ * of these loops and spreads accepted connections over them, so the number of threads no longer grows with
+ * the number of connected stations.
+ * <p>
+ * Received ASDUs are handed to the listener on the loop thread unless dispatch threads are configured. A listener
+ * that blocks, or a full dispatch queue under {@link net.sympower.iec60870.common.DispatchOverflowPolicy#BLOCK},
+ * therefore stalls every connection served by the same loop: none of them is read, acknowledged or timed out until
+ * the callback returns. Servers whose listeners may block should configure dispatch threads with a non-blocking
+ * overflow policy.
+ *
+ * @since 2.1
+ */
+public class Iec104EventLoop implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Iec104EventLoop.class);
+
+    private final String name;
+    private final ThreadFactory threadFactory;
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    /**
+     * Creates a loop that is not yet running.
+     *
+     * @param name name of the loop, used in log messages
+     * @param threadFactory factory for the loop thread
+     * @throws IOException if the selector cannot be opened
+     */
+    public Iec104EventLoop(String name, ThreadFactory threadFactory) throws IOException {
+        this.name = name;
+        this.threadFactory = threadFactory;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Starts the loop on a thread of the thread factory.
+     */
+    public void start() {
+        Thread t = threadFactory.newThread(this);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * Stops the loop and closes its selector. Channels registered with this loop are not closed.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Runs the given task on the loop thread.
+     *
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Registers a listening channel with this loop. Every accepted channel is handed to the given handler on the
+     * loop thread.
+     *
+     * @param serverChannel the bound server channel
+     * @param acceptHandler receives accepted channels
+     * @throws IOException if the channel cannot be switched to non-blocking mode
+     */
+    public void acceptOn(ServerSocketChannel serverChannel, Consumer<SocketChannel> acceptHandler)
+            throws IOException {
+        serverChannel.configureBlocking(false);
+        execute(() -> register(serverChannel, SelectionKey.OP_ACCEPT, key -> {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                acceptHandler.accept(channel);
+            }
+        }));
+    }
+
+    SelectionKey register(SelectableChannel channel, int interestOps, SelectionHandler handler) {
+        try {
+            return channel.register(selector, interestOps, handler);
+        } catch (ClosedChannelException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                runPendingTasks();
+                processSelectedKeys();
+            } catch (IOException e) {
+                logger.error("Event loop {} failed: {}", name, e.getMessage(), e);
+                break;
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warn("Event loop task failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+
+            SelectionHandler handler = (SelectionHandler) key.attachment();
+            try {
+                handler.handle(key);
+            } catch (CancelledKeyException e) {
+                // Channel was closed while its events were being handled
+            } catch (IOException e) {
+                logger.debug("I/O error on {}: {}", key.channel(), e.getMessage());
+                key.cancel();
+            }
+        }
+    }
+
+    /**
+     * Callback invoked on the loop thread when a registered channel is ready.
+     */
+    interface SelectionHandler {
+        void handle(SelectionKey key) throws IOException;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.ASdu;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded outbound queue behind {@code send} and {@code sendAsync}. ASDUs wait here until the k window has room, are then moved to
+ * the in-flight list together with the send sequence number of their I-frame and complete once the remote station
+ * acknowledges that sequence number.
+ */
+class Iec104SendQueue {
+
+    private static final int SEQUENCE_NUMBER_MODULO = 32768;
+
+    private final int capacity;
+    private final ArrayDeque<PendingSend> waiting = new ArrayDeque<>();
+    private final ArrayDeque<PendingSend> inFlight = new ArrayDeque<>();
+
+    Iec104SendQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    CompletableFuture<Void> enqueue(ASdu asdu) {
+        return enqueue(asdu, null);
+    }
+
+    /**
+     * Queues an ASDU like {@link #enqueue(ASdu)} and additionally completes {@code written} once its I-frame has
+     * been written, or exceptionally if it never is. An ASDU whose returned future completes before it is sent, for
+     * example because the caller gave up waiting, is skipped.
+     */
+    synchronized CompletableFuture<Void> enqueue(ASdu asdu, CompletableFuture<Void> written) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (waiting.size() >= capacity) {
+            IOException cause = new IOException("Send queue is full (capacity=" + capacity + ")");
+            future.completeExceptionally(cause);
+            if (written != null) {
+                written.completeExceptionally(cause);
+            }
+            return future;
+        }
+        waiting.add(new PendingSend(asdu, future, written));
+        return future;
+    }
+
+    synchronized boolean hasWaiting() {
+        return !waiting.isEmpty();
+    }
+
+    synchronized int size() {
+        return waiting.size();
+    }
+
+    /**
+     * Sends the ASDU at the head of the queue. Must be called while holding the connection's send lock so that
+     * {@code sendSeqNum} is the sequence number the I-frame will carry.
+     */
+    void sendNext(int sendSeqNum, IFrameSender sender) throws IOException {
+        PendingSend next;
+        synchronized (this) {
+            do {
+                next = waiting.poll();
+                if (next == null) {
+                    return;
+                }
+            } while (next.future.isDone());
+            next.sendSeqNum = sendSeqNum;
+            inFlight.add(next);
+        }
+
+        try {
+            sender.send(next.asdu);
+        } catch (IOException e) {
+            synchronized (this) {
+                inFlight.remove(next);
+            }
+            next.fail(e);
+            throw e;
+        }
+        if (next.written != null) {
+            next.written.complete(null);
+        }
+    }
+
+    /**
+     * Completes the futures of all in-flight I-frames covered by an acknowledgment.
+     *
+     * @param oldestUnacknowledged send sequence number of the oldest I-frame that was unacknowledged before
+     * @param acknowledgedFrames number of I-frames the acknowledgment confirms
+     */
+    void acknowledge(int oldestUnacknowledged, int acknowledgedFrames) {
+        PendingSend acknowledged;
+        while ((acknowledged = pollAcknowledged(oldestUnacknowledged, acknowledgedFrames)) != null) {
+            acknowledged.future.complete(null);
+        }
+    }
+
+    private synchronized PendingSend pollAcknowledged(int oldestUnacknowledged, int acknowledgedFrames) {
+        PendingSend head = inFlight.peek();
+        if (head == null) {
+            return null;
+        }
+        int offset = Math.floorMod(head.sendSeqNum - oldestUnacknowledged, SEQUENCE_NUMBER_MODULO);
+        return offset < acknowledgedFrames ? inFlight.poll() : null;
+    }
+
+    void failAll(IOException cause) {
+        PendingSend pending;
+        while ((pending = pollAny()) != null) {
+            pending.fail(cause);
+        }
+    }
+
+    /**
+     * Fails the futures of the I-frames that were sent but not acknowledged. Used when the sequence numbers are
+     * reset, after which an acknowledgment can no longer be matched to these frames. ASDUs that are still waiting
+     * are kept and sent with the new sequence numbers.
+     */
+    void failInFlight(IOException cause) {
+        PendingSend pending;
+        while ((pending = pollInFlight()) != null) {
+            pending.fail(cause);
+        }
+    }
+
+    private synchronized PendingSend pollAny() {
+        PendingSend pending = inFlight.poll();
+        return pending != null ? pending : waiting.poll();
+    }
+
+    private synchronized PendingSend pollInFlight() {
+        return inFlight.poll();
+    }
+
+    interface IFrameSender {
+        void send(ASdu asdu) throws IOException;
+    }
+
+    private static class PendingSend {
+        private final ASdu asdu;
+        private final CompletableFuture<Void> future;
+        private final CompletableFuture<Void> written;
+        private int sendSeqNum;
+
+        private PendingSend(ASdu asdu, CompletableFuture<Void> future, CompletableFuture<Void> written) {
+            this.asdu = asdu;
+            this.future = future;
+            this.written = written;
+        }
+
+        private void fail(IOException cause) {
+            future.completeExceptionally(cause);
+            if (written != null) {
+                written.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -26,18 +26,30 @@ package net.sympower.iec60870.iec104.connection;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870AsduViewListener;
 import net.sympower.iec60870.common.api.IEC60870EventListener;
 import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduView;
 import net.sympower.iec60870.common.IEC60870Settings;
 import net.sympower.iec60870.common.IEC60870Protocol;
-import net.sympower.iec60870.iec101.frame.BitUtils;
 import net.sympower.iec60870.iec104.apdu.APdu;
-import net.sympower.iec60870.internal.TimeoutManager;
+import net.sympower.iec60870.iec104.apdu.APduDecoder;
+import net.sympower.iec60870.internal.HashedWheelTimer;
+import net.sympower.iec60870.internal.SerialExecutor;
 import net.sympower.iec60870.internal.TimeoutTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,43 +64,94 @@ public class Iec104ServerConnection extends IEC60870Connection {
     private static final byte[] STOPDT_CON = { 0x68, 0x04, 0x23, 0x00, 0x00, 0x00 };
 
     private final Socket socket;
-    private final TimeoutManager timeoutManager;
+    private final Iec104ChannelTransport channelTransport;
+    private final HashedWheelTimer timer;
     private volatile Runnable connectionCloseListener;
     private final Iec104Settings iec104Settings;
+    private final Iec104SendQueue sendQueue;
+    private final Iec104CoalescingOutputStream coalescingStream;
+    private final APduDecoder apduDecoder;
+    private final Iec104SendQueue.IFrameSender iFrameSender = this::sendIFrame;
+    private final byte[] iFrameBuffer = new byte[APdu.MAX_FRAME_LENGTH];
+    private final byte[] sFrameBuffer = new byte[APdu.CONTROL_FRAME_LENGTH];
     
     private final AtomicInteger sendSeqNum = new AtomicInteger(0);
     private final AtomicInteger receiveSeqNum = new AtomicInteger(0);
     private final ReentrantLock sendLock = new ReentrantLock();
     
-    private volatile TimeoutTask testFrameTimeoutTask;
+    private final Executor timeoutExecutor;
+    private final TimeoutTask testFrameTimeoutTask;
     private volatile TimeoutTask testFrameConfirmationTimeoutTask;
     private volatile boolean awaitingTestFrameConfirmation = false;
     
     private final AtomicInteger unacknowledgedIFrames = new AtomicInteger(0);
+    private volatile int oldestUnacknowledgedSeqNum = 0;
     private final AtomicInteger unacknowledgedReceivedIFrames = new AtomicInteger(0);
     private volatile TimeoutTask t1TimeoutTask;
     private volatile TimeoutTask t2TimeoutTask;
     
     private volatile long lastMessageTime = System.currentTimeMillis();
+    private volatile long lastReceivedNanos = System.nanoTime();
+    private volatile Thread readerThread;
 
     public Iec104ServerConnection(Socket socket, IEC60870Settings settings) throws IOException {
-        super(
-            new DataInputStream(socket.getInputStream()),
-            new DataOutputStream(socket.getOutputStream()),
-            settings
-        );
+        this(socket, null, socket.getInputStream(),
+                Iec104CoalescingOutputStream.wrap(socket.getOutputStream(), iec104SettingsFrom(settings)), settings);
+    }
+
+    /**
+     * Creates a connection whose socket I/O and APDU framing are driven by the given event loop instead of a
+     * dedicated reader thread.
+     *
+     * @param channel the accepted socket channel
+     * @param eventLoop the event loop serving the channel
+     * @param settings the connection settings
+     * @throws IOException if the channel cannot be switched to non-blocking mode
+     */
+    public Iec104ServerConnection(SocketChannel channel, Iec104EventLoop eventLoop, IEC60870Settings settings)
+            throws IOException {
+        this(new Iec104ChannelTransport(channel, eventLoop), settings);
+    }
+
+    private Iec104ServerConnection(Iec104ChannelTransport channelTransport, IEC60870Settings settings) {
+        this(channelTransport.getChannel().socket(), channelTransport, InputStream.nullInputStream(),
+                Iec104CoalescingOutputStream.wrap(channelTransport.getOutputStream(), iec104SettingsFrom(settings)),
+                settings);
+    }
+
+    private Iec104ServerConnection(Socket socket, Iec104ChannelTransport channelTransport, InputStream inputStream,
+            OutputStream outputStream, IEC60870Settings settings) {
+        super(new DataInputStream(inputStream), new DataOutputStream(outputStream), settings);
         this.socket = socket;
-        this.timeoutManager = new TimeoutManager();
-        
+        this.channelTransport = channelTransport;
+        this.iec104Settings = iec104SettingsFrom(settings);
+        this.timer = iec104Settings.getTimer();
+        this.sendQueue = new Iec104SendQueue(iec104Settings.getSendQueueCapacity());
+        this.apduDecoder = channelTransport == null ? new APduDecoder(settings) : null;
+        this.coalescingStream = outputStream instanceof Iec104CoalescingOutputStream
+                ? (Iec104CoalescingOutputStream) outputStream : null;
+        this.timeoutExecutor = channelTransport != null
+                ? channelTransport::execute : timer.newExpiryExecutor();
+        this.testFrameTimeoutTask = new TimeoutTask(iec104Settings.getMaxIdleTime()) {
+            @Override
+            protected void execute() {
+                runOnConnection(Iec104ServerConnection.this::handleIdleTimeout);
+            }
+        };
+        if (coalescingStream != null) {
+            coalescingStream.start(timer, timeoutExecutor, this::onTransportError);
+        }
+    }
+
+    Socket getSocket() {
+        return socket;
+    }
+
+    private static Iec104Settings iec104SettingsFrom(IEC60870Settings settings) {
         if (settings instanceof Iec104ServerSettings) {
-            this.iec104Settings = ((Iec104ServerSettings) settings).getIec104Settings();
-        } else {
-            this.iec104Settings = new Iec104Settings();
+            return ((Iec104ServerSettings) settings).getIec104Settings();
         }
-        
-        Thread timeoutThread = new Thread(timeoutManager, "IEC104-Server-TimeoutManager");
-        timeoutThread.setDaemon(true);
-        timeoutThread.start();
+        return new Iec104Settings();
     }
 
     public void setConnectionCloseListener(Runnable listener) {
@@ -102,8 +165,14 @@ public class Iec104ServerConnection extends IEC60870Connection {
         }
         
         this.eventListener = listener;
+        boolean decodeAsduViews = listener instanceof IEC60870AsduViewListener;
         
-        executor.submit(this::readerTask);
+        if (channelTransport != null) {
+            channelTransport.start(this, settings, decodeAsduViews);
+        } else {
+            apduDecoder.setDecodeAsduViews(decodeAsduViews);
+            executor.submit(this::readerTask);
+        }
         
         if (listener != null) {
             listener.onConnectionReady();
@@ -121,6 +190,17 @@ public class Iec104ServerConnection extends IEC60870Connection {
         cancelTestFrameConfirmationTimeout();
     }
 
+    /**
+     * Sends an ASDU through the send queue, behind the ASDUs queued earlier by {@link #sendAsync(ASdu)}, and waits
+     * until its I-frame has been written. While the k window is full this waits for the remote station's
+     * acknowledgment, at most t1. Called on the thread that reads this connection, for example from a listener
+     * callback, it only waits if the I-frame can be written straight away: the acknowledgment it would wait for is
+     * read by that same thread.
+     *
+     * @param asdu the ASDU to send
+     * @throws IOException if the connection is closed, the send queue is full or the I-frame was not written
+     *         within t1
+     */
     @Override
     public void send(ASdu asdu) throws IOException {
         if (closed.get()) {
@@ -131,35 +211,139 @@ public class Iec104ServerConnection extends IEC60870Connection {
             throw new IOException("Data transfer not started - waiting for STARTDT_ACT from client");
         }
         
-        if (unacknowledgedIFrames.get() >= iec104Settings.getMaxNumOfOutstandingIPdus()) {
-            throw new IOException("Too many unacknowledged I-frames (k=" + 
-                iec104Settings.getMaxNumOfOutstandingIPdus() + ")");
+        sendLock.lock();
+        try {
+            // Nothing to overtake and room in the window: write directly, without tracking a future
+            if (!sendQueue.hasWaiting()
+                    && unacknowledgedIFrames.get() < iec104Settings.getMaxNumOfOutstandingIPdus()) {
+                sendIFrame(asdu);
+                return;
+            }
+        } finally {
+            sendLock.unlock();
         }
         
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        CompletableFuture<Void> acknowledged = sendQueue.enqueue(asdu, written);
+        drainSendQueue();
+        if (written.isDone() || !isReaderThread()) {
+            awaitWritten(written, acknowledged);
+        }
+    }
+
+    /**
+     * Queues an ASDU for transmission. The ASDU is sent as soon as the k window has room, and the returned future
+     * completes when the remote station acknowledges the I-frame that carried it. If the bounded send queue is full,
+     * the future fails immediately, so callers can throttle on outstanding futures instead of catching k-window
+     * exceptions. Futures are completed on the reader thread; dependent actions should not block.
+     *
+     * @param asdu the ASDU to send
+     * @return a future that completes when the I-frame is acknowledged
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IOException("Connection is closed"));
+        }
+
+        if (!dataTransferStarted.get()) {
+            return CompletableFuture.failedFuture(new IOException("Data transfer not started"));
+        }
+
+        CompletableFuture<Void> future = sendQueue.enqueue(asdu);
+        drainSendQueue();
+        return future;
+    }
+
+    /**
+     * Returns the number of ASDUs waiting in the send queue for the k window to open.
+     *
+     * @return the current send queue depth
+     */
+    public int getSendQueueSize() {
+        return sendQueue.size();
+    }
+
+    private void drainSendQueue() {
         sendLock.lock();
         try {
-            int currentSendSeq = sendSeqNum.get();
-            int currentReceiveSeq = receiveSeqNum.get();
-            
-            APdu apdu = new APdu(currentSendSeq, currentReceiveSeq, APdu.ApciType.I_FORMAT, asdu);
-            byte[] buffer = new byte[255];
-            int length = apdu.encode(buffer, settings);
-            
-            synchronized (outputStream) {
-                outputStream.write(buffer, 0, length);
-                outputStream.flush();
+            while (!closed.get() && sendQueue.hasWaiting()
+                    && unacknowledgedIFrames.get() < iec104Settings.getMaxNumOfOutstandingIPdus()) {
+                sendQueue.sendNext(sendSeqNum.get(), iFrameSender);
             }
-            
-            sendSeqNum.set((currentSendSeq + 1) % 32768);
-            unacknowledgedIFrames.incrementAndGet();
-            scheduleAcknowledgmentTimeout();
-            updateLastMessageTime();
-            
+            if (coalescingStream != null) {
+                synchronized (outputStream) {
+                    outputStream.flush();
+                }
+            }
+        } catch (IOException e) {
+            close();
         } finally {
             sendLock.unlock();
         }
     }
 
+    private void awaitWritten(CompletableFuture<Void> written, CompletableFuture<Void> acknowledged)
+            throws IOException {
+        int t1 = iec104Settings.getMaxTimeNoAckReceived();
+        try {
+            written.get(t1, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            abandonSend(written, acknowledged, new IOException("I-frame not sent within t1 (" + t1 + " ms)"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonSend(written, acknowledged, new IOException("Interrupted while waiting to send", e));
+        }
+    }
+
+    /**
+     * Gives up on a queued ASDU and throws the cause, unless its I-frame has been written in the meantime.
+     */
+    private void abandonSend(CompletableFuture<Void> written, CompletableFuture<Void> acknowledged, IOException cause)
+            throws IOException {
+        sendLock.lock();
+        try {
+            // Under the send lock the I-frame is either written already or skipped once it is dequeued
+            if (!written.isDone()) {
+                acknowledged.completeExceptionally(cause);
+                written.completeExceptionally(cause);
+                throw cause;
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private boolean isReaderThread() {
+        return channelTransport != null ? channelTransport.inEventLoop() : Thread.currentThread() == readerThread;
+    }
+
+    private void sendIFrame(ASdu asdu) throws IOException {
+        int currentSendSeq = sendSeqNum.get();
+        int currentReceiveSeq = receiveSeqNum.get();
+        
+        int length = APdu.encodeIFormat(iFrameBuffer, currentSendSeq, currentReceiveSeq, asdu, settings);
+        
+        boolean windowFull = unacknowledgedIFrames.get() + 1 >= iec104Settings.getMaxNumOfOutstandingIPdus();
+        // Count the frame before writing it: the acknowledgment may be processed before write() returns
+        sendSeqNum.set((currentSendSeq + 1) % 32768);
+        unacknowledgedIFrames.incrementAndGet();
+        synchronized (outputStream) {
+            outputStream.write(iFrameBuffer, 0, length);
+            if (coalescingStream != null && !windowFull) {
+                coalescingStream.flushLater();
+            } else {
+                outputStream.flush();
+            }
+        }
+        
+        scheduleAcknowledgmentTimeout();
+        updateLastMessageTime();
+    }
+
     @Override
     public void sendConfirmation(ASdu originalAsdu) throws IOException {
         if (closed.get()) {
@@ -178,8 +362,12 @@ public class Iec104ServerConnection extends IEC60870Connection {
         
         dataTransferStarted.set(false);
         cancelAllTimeouts();
-        timeoutManager.cancel();
         executor.shutdown();
+        if (timeoutExecutor instanceof SerialExecutor) {
+            ((SerialExecutor) timeoutExecutor).shutdown();
+        }
+        shutdownDispatcher();
+        sendQueue.failAll(new IOException("Connection is closed"));
         
         try {
             performClose();
@@ -187,6 +375,7 @@ public class Iec104ServerConnection extends IEC60870Connection {
             // Ignore close exceptions
         }
         
+        awaitDispatcher();
         if (eventListener != null) {
             eventListener.onConnectionLost(null);
         }
@@ -205,34 +394,40 @@ public class Iec104ServerConnection extends IEC60870Connection {
 
     @Override
     protected void readerTask() {
+        readerThread = Thread.currentThread();
         try {
             while (!closed.get()) {
-                // APdu.decode will block until data is available
-                APdu apdu = APdu.decode(inputStream, settings);
+                // Blocks until a complete APDU has been received
+                APdu apdu = apduDecoder.read(inputStream);
                 if (apdu != null) {
                     handleApdu(apdu);
                 }
             }
         } catch (IOException e) {
-            if (!closed.get()) {
-                close();
-                if (eventListener != null) {
-                    eventListener.onConnectionLost(e);
-                }
-            }
+            onTransportError(e);
         } catch (Exception e) {
-            if (!closed.get()) {
-                close();
-                if (eventListener != null) {
-                    eventListener.onConnectionLost(new IOException("Connection error", e));
-                }
+            onTransportError(new IOException("Connection error", e));
+        }
+    }
+
+    @Override
+    protected void onDispatchOverflow() {
+        onTransportError(new IOException("Listener event queue is full"));
+    }
+
+    void onTransportError(IOException e) {
+        if (!closed.get()) {
+            close();
+            if (eventListener != null) {
+                eventListener.onConnectionLost(e);
             }
         }
     }
     
-    private void handleApdu(APdu apdu) {
+    void handleApdu(APdu apdu) {
         updateLastMessageTime();
-        cancelTestFrameTimeout();
+        // Only the time is recorded per frame; the t3 task itself is moved when it fires
+        lastReceivedNanos = System.nanoTime();
         
         switch (apdu.getApciType()) {
             case I_FORMAT:
@@ -250,10 +445,6 @@ public class Iec104ServerConnection extends IEC60870Connection {
                 handleUFormat(apdu);
                 break;
         }
-        
-        if (dataTransferStarted.get() && !awaitingTestFrameConfirmation) {
-            scheduleTestFrameTimeout();
-        }
     }
     
     private void handleIFormat(APdu apdu) {
@@ -275,9 +466,12 @@ public class Iec104ServerConnection extends IEC60870Connection {
             scheduleSupervisoryFrame();
         }
         
-        ASdu asdu = apdu.getASdu();
-        if (asdu != null && eventListener != null) {
-            eventListener.onAsduReceived(asdu);
+        ASduView view = apdu.getASduView();
+        if (view != null && eventListener instanceof IEC60870AsduViewListener) {
+            deliverAsduView((IEC60870AsduViewListener) eventListener, view);
+        }
+        else if (apdu.getASdu() != null) {
+            deliverAsdu(apdu.getASdu());
         }
     }
     
@@ -306,18 +500,21 @@ public class Iec104ServerConnection extends IEC60870Connection {
                     break;
                     
                 case STARTDT_ACT:
+                    // Started before confirming, so that both sides may send as soon as the client sees the confirmation
+                    boolean restarted = !dataTransferStarted.get();
+                    if (restarted) {
+                        resetSequenceNumbers();
+                        dataTransferStarted.set(true);
+                        scheduleTestFrameTimeout();
+                    }
+                    
                     synchronized (outputStream) {
                         outputStream.write(STARTDT_CON);
                         outputStream.flush();
                     }
                     
-                    if (!dataTransferStarted.get()) {
-                        dataTransferStarted.set(true);
-                        sendSeqNum.set(0);
-                        receiveSeqNum.set(0);
-                        scheduleTestFrameTimeout();
-                        unacknowledgedIFrames.set(0);
-                        unacknowledgedReceivedIFrames.set(0);
+                    if (restarted && sendQueue.hasWaiting()) {
+                        drainSendQueue();
                     }
                     break;
                     
@@ -340,22 +537,25 @@ public class Iec104ServerConnection extends IEC60870Connection {
         }
     }
 
-
     private void scheduleAcknowledgmentTimeout() {
         if (t1TimeoutTask == null) {
             TimeoutTask task = new TimeoutTask(iec104Settings.getMaxTimeNoAckReceived()) {
                 @Override
                 protected void execute() {
-                    handleAcknowledgmentTimeout();
+                    TimeoutTask expired = this;
+                    runOnConnection(() -> handleAcknowledgmentTimeout(expired));
                 }
             };
             t1TimeoutTask = task;
-            timeoutManager.addTimerTask(task);
+            timer.addTimerTask(task);
         }
     }
     
-    private void handleAcknowledgmentTimeout() {
-        close();
+    private void handleAcknowledgmentTimeout(TimeoutTask expired) {
+        // The acknowledgment may have arrived while the expiry was handed over
+        if (t1TimeoutTask == expired) {
+            close();
+        }
     }
     
     private void scheduleSupervisoryFrame() {
@@ -363,11 +563,19 @@ public class Iec104ServerConnection extends IEC60870Connection {
             TimeoutTask task = new TimeoutTask(iec104Settings.getMaxTimeNoAckSent()) {
                 @Override
                 protected void execute() {
-                    sendSupervisoryFrame();
+                    TimeoutTask expired = this;
+                    runOnConnection(() -> handleSupervisoryTimeout(expired));
                 }
             };
             t2TimeoutTask = task;
-            timeoutManager.addTimerTask(task);
+            timer.addTimerTask(task);
+        }
+    }
+    
+    private void handleSupervisoryTimeout(TimeoutTask expired) {
+        // An S-frame sent at the w threshold while the expiry was handed over already covers the received frames
+        if (t2TimeoutTask == expired) {
+            sendSupervisoryFrame();
         }
     }
     
@@ -376,18 +584,17 @@ public class Iec104ServerConnection extends IEC60870Connection {
             return;
         }
         
+        // Reset before reading receiveSeqNum: an I-frame received from here on either is covered by this S-frame
+        // or schedules a new t2
+        t2TimeoutTask = null;
+        unacknowledgedReceivedIFrames.set(0);
         try {
-            APdu sFormatApdu = new APdu(0, receiveSeqNum.get(), APdu.ApciType.S_FORMAT, null);
-            byte[] buffer = new byte[255];
-            int length = sFormatApdu.encode(buffer, settings);
-            
             synchronized (outputStream) {
-                outputStream.write(buffer, 0, length);
+                int length = APdu.encodeSFormat(sFrameBuffer, receiveSeqNum.get());
+                outputStream.write(sFrameBuffer, 0, length);
                 outputStream.flush();
             }
             
-            unacknowledgedReceivedIFrames.set(0);
-            t2TimeoutTask = null;
             updateLastMessageTime();
             
         } catch (IOException e) {
@@ -404,17 +611,27 @@ public class Iec104ServerConnection extends IEC60870Connection {
     }
     
     private void scheduleTestFrameTimeout() {
-        if (testFrameTimeoutTask != null) {
-            testFrameTimeoutTask.cancel();
+        lastReceivedNanos = System.nanoTime();
+        timer.addTimerTask(testFrameTimeoutTask);
+    }
+    
+    private void handleIdleTimeout() {
+        if (closed.get() || !dataTransferStarted.get()) {
+            return;
         }
         
-        testFrameTimeoutTask = new TimeoutTask(iec104Settings.getMaxIdleTime()) {
-            @Override
-            protected void execute() {
-                sendTestFrame();
-            }
-        };
-        timeoutManager.addTimerTask(testFrameTimeoutTask);
+        int t3 = iec104Settings.getMaxIdleTime();
+        long remaining = t3 - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastReceivedNanos);
+        if (remaining > 0) {
+            // Frames arrived since the task was scheduled; t3 counts from the last of them
+            timer.addTimerTask(testFrameTimeoutTask, remaining);
+            return;
+        }
+        
+        if (!awaitingTestFrameConfirmation) {
+            sendTestFrame();
+        }
+        timer.addTimerTask(testFrameTimeoutTask);
     }
     
     private void sendTestFrame() {
@@ -433,10 +650,11 @@ public class Iec104ServerConnection extends IEC60870Connection {
             testFrameConfirmationTimeoutTask = new TimeoutTask(iec104Settings.getMaxTimeNoAckReceived()) {
                 @Override
                 protected void execute() {
-                    handleTestFrameConfirmationTimeout();
+                    TimeoutTask expired = this;
+                    runOnConnection(() -> handleTestFrameConfirmationTimeout(expired));
                 }
             };
-            timeoutManager.addTimerTask(testFrameConfirmationTimeoutTask);
+            timer.addTimerTask(testFrameConfirmationTimeoutTask);
             updateLastMessageTime();
             
         } catch (IOException e) {
@@ -444,21 +662,60 @@ public class Iec104ServerConnection extends IEC60870Connection {
         }
     }
     
-    private void handleTestFrameConfirmationTimeout() {
-        close();
+    private void handleTestFrameConfirmationTimeout(TimeoutTask expired) {
+        if (testFrameConfirmationTimeoutTask == expired) {
+            close();
+        }
+    }
+    
+    /**
+     * Runs the work of an expired timeout on this connection's event loop or timeout executor. Timeout tasks must not
+     * write or call listeners on the timer thread, which serves the timeouts of all connections.
+     */
+    private void runOnConnection(Runnable work) {
+        try {
+            timeoutExecutor.execute(work);
+        } catch (RejectedExecutionException e) {
+            // The connection has been closed
+        }
     }
     
+    /**
+     * Starts counting I-frames from 0 again, as required after STARTDT. The futures of I-frames still waiting for
+     * an acknowledgment fail, since that acknowledgment can no longer be told apart from one for the new frames.
+     */
+    private void resetSequenceNumbers() {
+        sendLock.lock();
+        try {
+            sendQueue.failInFlight(new IOException("Sequence numbers were reset by STARTDT"));
+            cancelAcknowledgmentTimeouts();
+            sendSeqNum.set(0);
+            receiveSeqNum.set(0);
+            unacknowledgedIFrames.set(0);
+            oldestUnacknowledgedSeqNum = 0;
+            unacknowledgedReceivedIFrames.set(0);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
     private void updateAcknowledgment(int ackSeq) {
-        int currentUnacknowledged = unacknowledgedIFrames.get();
-        int acknowledgedFrames = (ackSeq - (sendSeqNum.get() - currentUnacknowledged) + 32768) % 32768;
+        int oldestUnacknowledged = oldestUnacknowledgedSeqNum;
+        int acknowledgedFrames = Math.floorMod(ackSeq - oldestUnacknowledged, 32768);
         
-        if (acknowledgedFrames > 0 && acknowledgedFrames <= currentUnacknowledged) {
+        if (acknowledgedFrames > 0 && acknowledgedFrames <= unacknowledgedIFrames.get()) {
+            oldestUnacknowledgedSeqNum = ackSeq;
             int newUnacknowledged = unacknowledgedIFrames.addAndGet(-acknowledgedFrames);
             
             if (newUnacknowledged == 0 && t1TimeoutTask != null) {
                 t1TimeoutTask.cancel();
                 t1TimeoutTask = null;
             }
+
+            sendQueue.acknowledge(oldestUnacknowledged, acknowledgedFrames);
+            if (sendQueue.hasWaiting()) {
+                drainSendQueue();
+            }
         }
     }
     
@@ -474,10 +731,7 @@ public class Iec104ServerConnection extends IEC60870Connection {
     }
     
     private void cancelTestFrameTimeout() {
-        if (testFrameTimeoutTask != null) {
-            testFrameTimeoutTask.cancel();
-            testFrameTimeoutTask = null;
-        }
+        testFrameTimeoutTask.cancel();
     }
     
     private void cancelTestFrameConfirmationTimeout() {
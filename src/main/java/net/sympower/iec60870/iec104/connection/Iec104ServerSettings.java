@@ -24,6 +24,7 @@
 package net.sympower.iec60870.iec104.connection;
 
 import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.internal.HashedWheelTimer;
 
 /**
  * Settings for TCP server configuration.
@@ -35,6 +36,8 @@ public class Iec104ServerSettings extends IEC60870Settings {
     private int port = 2404;
     private int maxConnections = 100;
     private String bindAddress = null;
+    private boolean nonBlocking = false;
+    private int eventLoopThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
     
     // IEC 60870-5-104 Specific Settings
     private final Iec104Settings iec104Settings = new Iec104Settings();
@@ -67,6 +70,22 @@ public class Iec104ServerSettings extends IEC60870Settings {
         this.bindAddress = bindAddress;
     }
 
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public void setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public void setEventLoopThreads(int eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
     // IEC 60870-5-104 Specific Parameter Delegation
 
     public int getMaxTimeNoAckReceived() {
@@ -109,6 +128,46 @@ public class Iec104ServerSettings extends IEC60870Settings {
         this.iec104Settings.setMaxNumOfOutstandingIPdus(maxNumOfOutstandingIPdus);
     }
 
+    public int getSendQueueCapacity() {
+        return iec104Settings.getSendQueueCapacity();
+    }
+
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.iec104Settings.setSendQueueCapacity(sendQueueCapacity);
+    }
+
+    public boolean isWriteCoalescing() {
+        return iec104Settings.isWriteCoalescing();
+    }
+
+    public void setWriteCoalescing(boolean writeCoalescing) {
+        this.iec104Settings.setWriteCoalescing(writeCoalescing);
+    }
+
+    public int getCoalescingMaxDelay() {
+        return iec104Settings.getCoalescingMaxDelay();
+    }
+
+    public void setCoalescingMaxDelay(int coalescingMaxDelay) {
+        this.iec104Settings.setCoalescingMaxDelay(coalescingMaxDelay);
+    }
+
+    public int getCoalescingMaxBytes() {
+        return iec104Settings.getCoalescingMaxBytes();
+    }
+
+    public void setCoalescingMaxBytes(int coalescingMaxBytes) {
+        this.iec104Settings.setCoalescingMaxBytes(coalescingMaxBytes);
+    }
+
+    public HashedWheelTimer getTimer() {
+        return iec104Settings.getTimer();
+    }
+
+    public void setTimer(HashedWheelTimer timer) {
+        this.iec104Settings.setTimer(timer);
+    }
+
     
     /**
      * Gets the IEC-104 specific settings object.
@@ -23,6 +23,8 @@
  */
 package net.sympower.iec60870.iec104.connection;
 
+import net.sympower.iec60870.internal.HashedWheelTimer;
+
 /**
  * IEC 60870-5-104 specific protocol settings including timeout and flow control parameters.
  * These settings are specific to TCP/IP communication and not applicable to IEC 60870-5-101.
@@ -39,6 +41,17 @@ public class Iec104Settings {
     // IEC 60870-5-104 Flow Control Parameters  
     private int maxUnconfirmedIPdusReceived; // w: Max unconfirmed I-PDUs received (default 8)
     private int maxNumOfOutstandingIPdus;    // k: Max outstanding I-PDUs sent (default 12)
+
+    // Outbound queue used by sendAsync while the k window is full
+    private int sendQueueCapacity;           // Max ASDUs waiting for the k window (default 1000)
+
+    // Opt-in coalescing of outbound APDUs into fewer socket writes
+    private boolean writeCoalescing;         // Disabled by default
+    private int coalescingMaxDelay;          // Max time an APDU may wait in the write buffer (default 5ms)
+    private int coalescingMaxBytes;          // Buffered bytes that force a write (default 8192)
+
+    // Timer serving the t1/t2/t3 and coalescing timeouts
+    private HashedWheelTimer timer;          // Process-wide shared timer by default
     
 
     /**
@@ -50,6 +63,11 @@ public class Iec104Settings {
         this.maxIdleTime = 20000;
         this.maxUnconfirmedIPdusReceived = 8;
         this.maxNumOfOutstandingIPdus = 12;
+        this.sendQueueCapacity = 1000;
+        this.writeCoalescing = false;
+        this.coalescingMaxDelay = 5;
+        this.coalescingMaxBytes = 8192;
+        this.timer = HashedWheelTimer.shared();
     }
 
     /**
@@ -61,6 +79,11 @@ public class Iec104Settings {
         this.maxIdleTime = serverSettings.getMaxIdleTime();
         this.maxUnconfirmedIPdusReceived = serverSettings.getMaxUnconfirmedIPdusReceived();
         this.maxNumOfOutstandingIPdus = serverSettings.getMaxNumOfOutstandingIPdus();
+        this.sendQueueCapacity = serverSettings.getSendQueueCapacity();
+        this.writeCoalescing = serverSettings.isWriteCoalescing();
+        this.coalescingMaxDelay = serverSettings.getCoalescingMaxDelay();
+        this.coalescingMaxBytes = serverSettings.getCoalescingMaxBytes();
+        this.timer = serverSettings.getTimer();
     }
 
     /**
@@ -72,6 +95,11 @@ public class Iec104Settings {
         this.maxIdleTime = clientSettings.getMaxIdleTime();
         this.maxUnconfirmedIPdusReceived = clientSettings.getMaxUnconfirmedIPdusReceived();
         this.maxNumOfOutstandingIPdus = clientSettings.getMaxNumOfOutstandingIPdus();
+        this.sendQueueCapacity = clientSettings.getSendQueueCapacity();
+        this.writeCoalescing = clientSettings.isWriteCoalescing();
+        this.coalescingMaxDelay = clientSettings.getCoalescingMaxDelay();
+        this.coalescingMaxBytes = clientSettings.getCoalescingMaxBytes();
+        this.timer = clientSettings.getTimer();
     }
 
     // Getters
@@ -96,6 +124,26 @@ public class Iec104Settings {
         return maxNumOfOutstandingIPdus;
     }
 
+    public int getSendQueueCapacity() {
+        return sendQueueCapacity;
+    }
+
+    public boolean isWriteCoalescing() {
+        return writeCoalescing;
+    }
+
+    public int getCoalescingMaxDelay() {
+        return coalescingMaxDelay;
+    }
+
+    public int getCoalescingMaxBytes() {
+        return coalescingMaxBytes;
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
 
     // Setters
 
@@ -119,4 +167,24 @@ public class Iec104Settings {
         this.maxNumOfOutstandingIPdus = maxNumOfOutstandingIPdus;
     }
 
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.sendQueueCapacity = sendQueueCapacity;
+    }
+
+    public void setWriteCoalescing(boolean writeCoalescing) {
+        this.writeCoalescing = writeCoalescing;
+    }
+
+    public void setCoalescingMaxDelay(int coalescingMaxDelay) {
+        this.coalescingMaxDelay = coalescingMaxDelay;
+    }
+
+    public void setCoalescingMaxBytes(int coalescingMaxBytes) {
+        this.coalescingMaxBytes = coalescingMaxBytes;
+    }
+
+    public void setTimer(HashedWheelTimer timer) {
+        this.timer = timer;
+    }
+
 }
@@ -0,0 +1,344 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.internal;
+
+import net.sympower.iec60870.common.IEC60870Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed-wheel timer that serves the timeouts of many connections from a single thread. Tasks are kept in doubly
+ * linked bucket lists indexed by their expiry tick, so scheduling, re-scheduling and cancelling a task are O(1) and
+ * a cancelled task is removed at once instead of waiting for its due time. The worker thread sleeps until the next
+ * tick whose bucket holds a task and waits without timeout while no task is scheduled.
+ * <p>
+ * Expired tasks run on the worker thread one after the other and must therefore return quickly: a task that writes
+ * to a socket or calls a listener delays every other timeout served by the timer. Such tasks should only hand their
+ * work on, to the event loop of the connection they belong to or to an executor from {@link #newExpiryExecutor()}.
+ * Those executors share a bounded pool of expiry threads owned by the timer, so connections do not hold a thread
+ * each for their timeouts. Tasks are fired up to one tick late, never early.
+ * <p>
+ * {@link #shared()} returns the process-wide instance used by all connections unless a timer is configured
+ * explicitly.
+ *
+ * @since 2.1
+ */
+public class HashedWheelTimer {
+
+    /**
+     * Default tick duration in milliseconds.
+     */
+    public static final int DEFAULT_TICK_MILLIS = 1;
+
+    /**
+     * Default number of buckets of the wheel.
+     */
+    public static final int DEFAULT_TICKS_PER_WHEEL = 1024;
+
+    /**
+     * Maximum number of threads running the work handed on by expired tasks.
+     */
+    public static final int EXPIRY_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final Object lock = new Object();
+    private final long tickNanos;
+    private final TimeoutTask[] buckets;
+    private final int mask;
+    private final long startNanos;
+    private final boolean shared;
+    private final List<TimeoutTask> expired = new ArrayList<>();
+    private final ThreadPoolExecutor expiryThreads;
+
+    private long tick;
+    private long wakeTick;
+    private int pending;
+    private boolean stopped;
+
+    /**
+     * Creates and starts a timer with the default tick duration and wheel size.
+     */
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Creates and starts a timer.
+     *
+     * @param tickMillis tick duration in milliseconds, which is the timing resolution
+     * @param ticksPerWheel number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(int tickMillis, int ticksPerWheel) {
+        this(tickMillis, ticksPerWheel, "IEC60870-Timer", "IEC60870-Expiry-", false);
+    }
+
+    private HashedWheelTimer(int tickMillis, int ticksPerWheel, String threadName, String expiryThreadPrefix,
+            boolean shared) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick duration must be at least 1 ms");
+        }
+        if (ticksPerWheel < 1 || ticksPerWheel > 1 << 20) {
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and " + (1 << 20));
+        }
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new TimeoutTask[wheelSize];
+        this.mask = wheelSize - 1;
+        this.shared = shared;
+        this.startNanos = System.nanoTime();
+        // Threads are only started while expired work is waiting and end after a minute without work
+        this.expiryThreads = new ThreadPoolExecutor(EXPIRY_THREADS, EXPIRY_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), IEC60870Threads.daemonThreadFactory(expiryThreadPrefix));
+        expiryThreads.allowCoreThreadTimeOut(true);
+
+        Thread worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Returns the process-wide timer, which is created on first use and never stopped.
+     */
+    public static HashedWheelTimer shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Schedules the task to run after its timeout. A task that is already scheduled is moved to its new due time.
+     *
+     * @param task the task to schedule
+     * @throws IllegalStateException if the timer has been stopped
+     */
+    public void addTimerTask(TimeoutTask task) {
+        addTimerTask(task, task.getTimeout());
+    }
+
+    /**
+     * Schedules the task to run after the given delay instead of its own timeout. A task that is already scheduled
+     * is moved to its new due time.
+     *
+     * @param task the task to schedule
+     * @param delayMillis delay in milliseconds
+     * @throws IllegalStateException if the timer has been stopped
+     */
+    public void addTimerTask(TimeoutTask task, long delayMillis) {
+        HashedWheelTimer previous = task.timer;
+        if (previous != null && previous != this) {
+            previous.remove(task);
+        }
+
+        synchronized (lock) {
+            if (stopped) {
+                throw new IllegalStateException("Timer has been stopped");
+            }
+            if (task.timer == this) {
+                unlink(task);
+                pending--;
+            }
+            task.updateDueTime(delayMillis);
+
+            long now = System.nanoTime();
+            if (pending == 0) {
+                // The worker has been idle; skip the ticks it did not process
+                tick = Math.max(tick, currentTick(now));
+            }
+            long deadlineTick = (now - startNanos + TimeUnit.MILLISECONDS.toNanos(delayMillis)) / tickNanos;
+            task.expiryTick = Math.max(deadlineTick, tick);
+            task.bucket = (int) (task.expiryTick & mask);
+            link(task);
+
+            if (pending++ == 0 || task.expiryTick < wakeTick) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns an executor for the work of expired tasks of one connection. It runs the work in submission order on
+     * the timer's expiry threads, which are shared by all executors of this timer, and has no thread of its own.
+     */
+    public SerialExecutor newExpiryExecutor() {
+        return new SerialExecutor(expiryThreads);
+    }
+
+    /**
+     * Returns the number of scheduled tasks.
+     */
+    public int getPendingTasks() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    /**
+     * Stops the worker thread and drops all scheduled tasks without running them. Work already handed to the expiry
+     * threads still runs, after which they end.
+     *
+     * @throws IllegalStateException if called on the {@link #shared()} timer
+     */
+    public void stop() {
+        if (shared) {
+            throw new IllegalStateException("The shared timer cannot be stopped");
+        }
+        synchronized (lock) {
+            stopped = true;
+            for (int i = 0; i < buckets.length; i++) {
+                TimeoutTask task = buckets[i];
+                while (task != null) {
+                    TimeoutTask next = task.next;
+                    task.prev = null;
+                    task.next = null;
+                    task.timer = null;
+                    task = next;
+                }
+                buckets[i] = null;
+            }
+            pending = 0;
+            lock.notifyAll();
+        }
+        expiryThreads.shutdown();
+    }
+
+    void remove(TimeoutTask task) {
+        synchronized (lock) {
+            if (task.timer == this) {
+                unlink(task);
+                pending--;
+            }
+        }
+    }
+
+    private void link(TimeoutTask task) {
+        TimeoutTask head = buckets[task.bucket];
+        task.prev = null;
+        task.next = head;
+        if (head != null) {
+            head.prev = task;
+        }
+        buckets[task.bucket] = task;
+        task.timer = this;
+    }
+
+    private void unlink(TimeoutTask task) {
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        }
+        else {
+            buckets[task.bucket] = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.timer = null;
+    }
+
+    private void run() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    if (stopped) {
+                        return;
+                    }
+                    if (pending == 0) {
+                        lock.wait();
+                        continue;
+                    }
+                    long now = System.nanoTime();
+                    long nowTick = currentTick(now);
+                    if (tick >= nowTick) {
+                        wakeTick = nextOccupiedTick();
+                        TimeUnit.NANOSECONDS.timedWait(lock, startNanos + (wakeTick + 1) * tickNanos - now);
+                        continue;
+                    }
+                    // A backlog longer than one rotation is covered by visiting every bucket once
+                    tick = Math.max(tick, nowTick - buckets.length);
+                    while (tick < nowTick) {
+                        expireBucket(tick++);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            runExpired();
+        }
+    }
+
+    /**
+     * Returns the number of ticks that have fully elapsed; a bucket can be processed once its tick has elapsed.
+     */
+    private long currentTick(long now) {
+        return (now - startNanos) / tickNanos;
+    }
+
+    private long nextOccupiedTick() {
+        for (long t = tick; t < tick + buckets.length; t++) {
+            if (buckets[(int) (t & mask)] != null) {
+                return t;
+            }
+        }
+        return tick + buckets.length;
+    }
+
+    private void expireBucket(long expiredTick) {
+        TimeoutTask task = buckets[(int) (expiredTick & mask)];
+        while (task != null) {
+            TimeoutTask next = task.next;
+            if (task.expiryTick <= expiredTick) {
+                unlink(task);
+                pending--;
+                expired.add(task);
+            }
+            task = next;
+        }
+    }
+
+    private void runExpired() {
+        for (int i = 0; i < expired.size(); i++) {
+            try {
+                expired.get(i).manExec();
+            } catch (RuntimeException e) {
+                logger.warn("Timeout task failed", e);
+            }
+        }
+        expired.clear();
+    }
+
+    private static class SharedHolder {
+        private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(DEFAULT_TICK_MILLIS,
+                DEFAULT_TICKS_PER_WHEEL, "IEC60870-SharedTimer", "IEC60870-SharedExpiry-", true);
+    }
+}
@@ -28,8 +28,15 @@ public abstract class TimeoutTask implements Comparable<TimeoutTask> {
 
     private long dueTime;
 
-    private boolean canceled;
-    private boolean done;
+    private volatile boolean canceled;
+    private volatile boolean done;
+
+    // Bucket list membership while scheduled on a HashedWheelTimer, guarded by the timer
+    volatile HashedWheelTimer timer;
+    TimeoutTask prev;
+    TimeoutTask next;
+    int bucket;
+    long expiryTick;
 
     public TimeoutTask(int timeout) {
 
@@ -52,9 +59,9 @@ public abstract class TimeoutTask implements Comparable<TimeoutTask> {
         }
     }
 
-    void updateDueTime() {
+    void updateDueTime(long delay) {
 
-        this.dueTime = System.currentTimeMillis() + timeout;
+        this.dueTime = System.currentTimeMillis() + delay;
         this.canceled = false;
         this.done = false;
     }
@@ -74,6 +81,15 @@ public abstract class TimeoutTask implements Comparable<TimeoutTask> {
     public void cancel() {
 
         this.canceled = true;
+        HashedWheelTimer scheduledOn = timer;
+        if (scheduledOn != null) {
+            scheduledOn.remove(this);
+        }
+    }
+
+    int getTimeout() {
+
+        return timeout;
     }
 
     public long sleepTimeFromDueTime() {
@@ -87,22 +103,4 @@ public abstract class TimeoutTask implements Comparable<TimeoutTask> {
         return Long.compare(this.dueTime, o.dueTime);
     }
 
-    @Override
-    public boolean equals(Object obj) {
-
-        if (!(obj instanceof TimeoutTask)) {
-            return false;
-        }
-
-        TimeoutTask o = (TimeoutTask) obj;
-        return this.dueTime == o.dueTime && this.canceled == o.canceled && this.done == o.done
-                && this.timeout == o.timeout;
-    }
-
-    @Override
-    public int hashCode() {
-
-        return this.timeout ^ ((Boolean.valueOf(canceled).hashCode()) << 2) ^ Boolean.valueOf(done).hashCode();
-    }
-
 }
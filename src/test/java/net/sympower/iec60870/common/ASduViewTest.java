@@ -0,0 +1,194 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeDoublePointWithQuality;
+import net.sympower.iec60870.common.elements.IeNormalizedValue;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.IeValueWithTransientState;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ASduViewTest {
+
+    private static final int COMMON_ADDRESS = 4711;
+    private static final long TIMESTAMP = 1540688399999L;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+
+    @Test
+    public void testSequenceOfShortFloats_shouldMatchEagerDecode() throws IOException {
+        InformationElement[][] elements = new InformationElement[48][];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new InformationElement[] { new IeShortFloat(i * 1.5f),
+                    new IeQuality(i % 2 == 0, false, false, false, i % 3 == 0) };
+        }
+        ASdu asdu = new ASdu(ASduType.M_ME_NC_1, true, CauseOfTransmission.INTERROGATED_BY_STATION, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(1000, elements));
+
+        ASduView view = viewOf(asdu);
+
+        assertEquals(ASduType.M_ME_NC_1, view.getTypeIdentification());
+        assertEquals(CauseOfTransmission.INTERROGATED_BY_STATION, view.getCauseOfTransmission());
+        assertEquals(COMMON_ADDRESS, view.getCommonAddress());
+        assertTrue(view.isSequenceOfElements());
+        assertEquals(48, view.size());
+        for (int i = 0; i < view.size(); i++) {
+            assertEquals(1000 + i, view.ioa(i));
+            assertEquals(i * 1.5f, view.floatValue(i), 0f);
+            assertEquals(i % 2 == 0, (view.quality(i) & ASduView.QUALITY_OVERFLOW) != 0);
+            assertEquals(i % 3 == 0, (view.quality(i) & ASduView.QUALITY_INVALID) != 0);
+        }
+    }
+
+    @Test
+    public void testTimeTaggedFloat_shouldMatchEagerDecode() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_ME_TF_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(70000, new IeShortFloat(-12.25f),
+                        new IeQuality(false, true, false, true, false), new IeTime56(TIMESTAMP)));
+
+        ASduView view = viewOf(asdu);
+
+        assertEquals(1, view.size());
+        assertEquals(70000, view.ioa(0));
+        assertEquals(-12.25f, view.floatValue(0), 0f);
+        assertEquals(ASduView.QUALITY_BLOCKED | ASduView.QUALITY_NOT_TOPICAL, view.quality(0));
+        IeTime56 eager = (IeTime56) view.toASdu().getInformationObjects()[0].getInformationElements()[0][2];
+        assertEquals(eager.getTimestamp(), view.timestamp(0));
+    }
+
+    @Test
+    public void testTimeTag_shouldBeReadInTheTimeZoneOfTheSettings() throws IOException {
+        TimeZone tokyo = TimeZone.getTimeZone("Asia/Tokyo");
+        ASdu asdu = new ASdu(ASduType.M_ME_TF_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(70000, new IeShortFloat(1f),
+                        new IeQuality(false, false, false, false, false), new IeTime56(TIMESTAMP, tokyo, false)));
+        settings.setTimeZone(tokyo);
+
+        assertEquals(TIMESTAMP, viewOf(asdu).timestamp(0));
+    }
+
+    @Test
+    public void testSinglePoints_shouldAddressEachInformationObject() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_SP_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS,
+                new InformationObject(10, new IeSinglePointWithQuality(true, false, false, false, false)),
+                new InformationObject(20, new IeSinglePointWithQuality(false, false, true, false, true)));
+
+        ASduView view = viewOf(asdu);
+
+        assertFalse(view.isSequenceOfElements());
+        assertEquals(2, view.size());
+        assertEquals(10, view.ioa(0));
+        assertEquals(20, view.ioa(1));
+        assertEquals(0, view.quality(0));
+        assertEquals(ASduView.QUALITY_SUBSTITUTED | ASduView.QUALITY_INVALID, view.quality(1));
+    }
+
+    @Test
+    public void testIntegerValues_shouldMatchEagerDecode() throws IOException {
+        ASduView single = viewOf(new ASdu(ASduType.M_SP_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false,
+                0, COMMON_ADDRESS, new InformationObject(1, new IeSinglePointWithQuality(true, true, false, false,
+                        false))));
+        ASduView doublePoint = viewOf(new ASdu(ASduType.M_DP_NA_1, false, CauseOfTransmission.SPONTANEOUS, false,
+                false, 0, COMMON_ADDRESS, new InformationObject(1, new IeDoublePointWithQuality(
+                        IeDoublePointWithQuality.DoublePointInformation.OFF, false, false, false, true))));
+        ASduView step = viewOf(new ASdu(ASduType.M_ST_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(1, new IeValueWithTransientState(-17, true),
+                        new IeQuality(false, false, false, false, false))));
+        ASduView counter = viewOf(new ASdu(ASduType.M_IT_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false,
+                0, COMMON_ADDRESS, new InformationObject(1, new IeBinaryCounterReading(-123456, 3,
+                        IeBinaryCounterReading.Flag.INVALID))));
+
+        assertEquals(1, single.intValue(0));
+        assertEquals(ASduView.QUALITY_BLOCKED, single.quality(0));
+        assertEquals(1, doublePoint.intValue(0));
+        assertEquals(ASduView.QUALITY_INVALID, doublePoint.quality(0));
+        assertEquals(-17, step.intValue(0));
+        assertEquals(-123456, counter.intValue(0));
+        assertEquals(ASduView.QUALITY_INVALID, counter.quality(0));
+    }
+
+    @Test
+    public void testNormalizedValue_shouldBeScaledLikeEagerDecode() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_ME_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(1, new IeNormalizedValue(-16384),
+                        new IeQuality(false, false, false, false, false)));
+
+        assertEquals(-0.5f, viewOf(asdu).floatValue(0), 0f);
+    }
+
+    @Test
+    public void testToASdu_shouldDecodeOnceAndCache() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(5, new IeShortFloat(3f),
+                        new IeQuality(false, false, false, false, false)));
+
+        ASduView view = viewOf(asdu);
+
+        ASdu decoded = view.toASdu();
+        assertSame(decoded, view.toASdu());
+        assertEquals(asdu.toString(), decoded.toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTimestampOfUntaggedType_shouldBeRejected() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(5, new IeShortFloat(3f),
+                        new IeQuality(false, false, false, false, false)));
+
+        viewOf(asdu).timestamp(0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedAsdu_shouldBeRejected() throws IOException {
+        ASdu asdu = new ASdu(ASduType.M_ME_NC_1, true, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(5, new InformationElement[][] {
+                        { new IeShortFloat(1f), new IeQuality(false, false, false, false, false) },
+                        { new IeShortFloat(2f), new IeQuality(false, false, false, false, false) } }));
+        byte[] buffer = new byte[255];
+        int length = asdu.encode(buffer, 0, settings);
+
+        new ASduView(buffer, 0, length - 1, settings);
+    }
+
+    private ASduView viewOf(ASdu asdu) throws IOException {
+        byte[] buffer = new byte[300];
+        int length = asdu.encode(buffer, 10, settings);
+        return new ASduView(buffer, 10, length, settings);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IEC60870EventDispatcherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private IEC60870EventDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatch_shouldKeepOrderPerCommonAddress() {
+        givenDispatcher(4, 1000, DispatchOverflowPolicy.BLOCK);
+        List<List<Integer>> received = List.of(new CopyOnWriteArrayList<>(), new CopyOnWriteArrayList<>());
+
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            dispatcher.dispatch(1, () -> received.get(0).add(value));
+            dispatcher.dispatch(2, () -> received.get(1).add(value));
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> received.get(0).size() == 500 && received.get(1).size() == 500);
+        for (List<Integer> station : received) {
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i, (int) station.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testBlockedStation_shouldNotDelayOtherLanes() {
+        givenDispatcher(2, 10, DispatchOverflowPolicy.BLOCK);
+        AtomicBoolean otherStationServed = new AtomicBoolean();
+
+        dispatcher.dispatch(0, this::awaitRelease);
+        dispatcher.dispatch(1, () -> otherStationServed.set(true));
+
+        await().atMost(2, TimeUnit.SECONDS).until(otherStationServed::get);
+    }
+
+    @Test
+    public void testQueueDepth_shouldCountWaitingEvents() {
+        givenBlockedDispatcher(10, DispatchOverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(0, () -> { });
+        }
+
+        assertEquals(5, dispatcher.getQueueDepth());
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> dispatcher.getQueueDepth() == 0);
+    }
+
+    @Test
+    public void testDropOldest_shouldKeepNewestEvents() {
+        givenBlockedDispatcher(3, DispatchOverflowPolicy.DROP_OLDEST);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            assertTrue(dispatcher.dispatch(0, () -> received.add(value)));
+        }
+        release.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> received.size() == 3);
+        assertEquals(List.of(7, 8, 9), received);
+        assertEquals(7, dispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testCloseOnOverflow_shouldRejectEvent() {
+        givenBlockedDispatcher(2, DispatchOverflowPolicy.CLOSE);
+
+        assertTrue(dispatcher.dispatch(0, () -> { }));
+        assertTrue(dispatcher.dispatch(0, () -> { }));
+        assertFalse(dispatcher.dispatch(0, () -> { }));
+        assertEquals(1, dispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testBlockOnOverflow_shouldWaitForRoom() throws Exception {
+        givenBlockedDispatcher(1, DispatchOverflowPolicy.BLOCK);
+        dispatcher.dispatch(0, () -> { });
+        AtomicBoolean dispatched = new AtomicBoolean();
+
+        Thread reader = new Thread(() -> dispatched.set(dispatcher.dispatch(0, () -> { })));
+        reader.start();
+        reader.join(200);
+        assertFalse(dispatched.get());
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(dispatched::get);
+    }
+
+    @Test
+    public void testFailingEvent_shouldNotStopLane() {
+        givenDispatcher(1, 10, DispatchOverflowPolicy.BLOCK);
+        AtomicBoolean nextEventRun = new AtomicBoolean();
+
+        dispatcher.dispatch(0, () -> {
+            throw new IllegalStateException("listener failure");
+        });
+        dispatcher.dispatch(0, () -> nextEventRun.set(true));
+
+        await().atMost(2, TimeUnit.SECONDS).until(nextEventRun::get);
+    }
+
+    @Test
+    public void testShutdown_shouldDeliverQueuedEvents() {
+        givenBlockedDispatcher(10, DispatchOverflowPolicy.BLOCK);
+        AtomicBoolean queuedEventRun = new AtomicBoolean();
+        dispatcher.dispatch(0, () -> queuedEventRun.set(true));
+
+        dispatcher.shutdown();
+        dispatcher.dispatch(0, () -> { });
+        release.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(queuedEventRun::get);
+        assertEquals(1, dispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testShutdownNow_shouldDiscardQueuedEvents() throws Exception {
+        givenBlockedDispatcher(10, DispatchOverflowPolicy.BLOCK);
+        AtomicBoolean queuedEventRun = new AtomicBoolean();
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(0, () -> queuedEventRun.set(true));
+        }
+
+        dispatcher.shutdownNow();
+        release.countDown();
+
+        assertTrue(dispatcher.awaitTermination(2, TimeUnit.SECONDS));
+        assertFalse(queuedEventRun.get());
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(3, dispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testAwaitTermination_shouldWaitForRunningEvent() throws Exception {
+        givenBlockedDispatcher(10, DispatchOverflowPolicy.BLOCK);
+
+        dispatcher.shutdownNow();
+
+        assertFalse(dispatcher.awaitTermination(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(dispatcher.awaitTermination(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testIsDispatchThread_shouldOnlyHoldOnConsumerThreads() {
+        givenDispatcher(1, 10, DispatchOverflowPolicy.BLOCK);
+        AtomicBoolean onConsumer = new AtomicBoolean();
+
+        dispatcher.dispatch(0, () -> onConsumer.set(dispatcher.isDispatchThread()));
+
+        await().atMost(2, TimeUnit.SECONDS).until(onConsumer::get);
+        assertFalse(dispatcher.isDispatchThread());
+    }
+
+    private void givenDispatcher(int threads, int capacity, DispatchOverflowPolicy policy) {
+        dispatcher = new IEC60870EventDispatcher(threads, capacity, policy,
+                IEC60870Threads.daemonThreadFactory("Dispatch-Test-"));
+    }
+
+    private void givenBlockedDispatcher(int capacity, DispatchOverflowPolicy policy) {
+        givenDispatcher(1, capacity, policy);
+        CountDownLatch blocked = new CountDownLatch(1);
+        dispatcher.dispatch(0, () -> {
+            blocked.countDown();
+            awaitRelease();
+        });
+        await().atMost(2, TimeUnit.SECONDS).until(() -> blocked.getCount() == 0);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
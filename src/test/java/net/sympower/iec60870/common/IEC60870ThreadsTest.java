@@ -0,0 +1,90 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IEC60870ThreadsTest {
+
+    @Test
+    public void testDaemonThreadFactory_shouldCreateNumberedDaemonThreads() {
+        ThreadFactory factory = IEC60870Threads.daemonThreadFactory("Test-");
+
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertTrue(first.isDaemon());
+        assertEquals("Test-0", first.getName());
+        assertEquals("Test-1", second.getName());
+    }
+
+    @Test
+    public void testVirtualThreadFactory_shouldMatchJvmSupport() throws Exception {
+        if (!IEC60870Threads.isVirtualThreadSupported()) {
+            try {
+                IEC60870Threads.virtualThreadFactory("Test-");
+                fail("Expected UnsupportedOperationException on a JVM without virtual threads");
+            } catch (UnsupportedOperationException e) {
+                return;
+            }
+        }
+
+        Thread thread = IEC60870Threads.virtualThreadFactory("Test-").newThread(() -> { });
+
+        assertTrue(isVirtual(thread));
+        assertEquals("Test-0", thread.getName());
+    }
+
+    @Test
+    public void testVirtualThreadFactoryIfSupported_shouldRunTasks() throws Exception {
+        ThreadFactory factory = IEC60870Threads.virtualThreadFactoryIfSupported("Test-");
+        CountDownLatch ran = new CountDownLatch(1);
+
+        Thread thread = factory.newThread(ran::countDown);
+        thread.start();
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertEquals(IEC60870Threads.isVirtualThreadSupported(), isVirtual(thread));
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            Method isVirtual = Thread.class.getMethod("isVirtual");
+            return (Boolean) isVirtual.invoke(thread);
+        } catch (NoSuchMethodException e) {
+            assertFalse(IEC60870Threads.isVirtualThreadSupported());
+            return false;
+        }
+    }
+}
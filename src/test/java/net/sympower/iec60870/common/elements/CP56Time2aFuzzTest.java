@@ -0,0 +1,206 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.elements;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link CP56Time2a} with the {@link Calendar} based conversion it replaces, for random and transition times
+ * in time zones with and without daylight saving time, half hour offsets and historic offset changes.
+ */
+public class CP56Time2aFuzzTest {
+
+    private static final long START = 0L;
+    private static final long END = 3_155_760_000_000L;
+    private static final int SAMPLES_PER_ZONE = 20_000;
+
+    private static final List<TimeZone> ZONES = List.of(TimeZone.getTimeZone("UTC"), TimeZone.getTimeZone("CET"),
+            TimeZone.getTimeZone("Europe/London"), TimeZone.getTimeZone("Europe/Moscow"),
+            TimeZone.getTimeZone("America/New_York"), TimeZone.getTimeZone("America/Sao_Paulo"),
+            TimeZone.getTimeZone("America/St_Johns"), TimeZone.getTimeZone("Australia/Lord_Howe"),
+            TimeZone.getTimeZone("Asia/Kolkata"), TimeZone.getTimeZone("Pacific/Chatham"),
+            TimeZone.getTimeZone("Africa/Monrovia"), TimeZone.getTimeZone("GMT+05:45"),
+            new SimpleTimeZone(3_600_000, "Custom", Calendar.MARCH, -1, Calendar.SUNDAY, 3_600_000,
+                    SimpleTimeZone.UTC_TIME, Calendar.OCTOBER, -1, Calendar.SUNDAY, 3_600_000,
+                    SimpleTimeZone.UTC_TIME, 3_600_000));
+
+    private final Random random = new Random(60870);
+
+    @Test
+    public void testEncodeRandomTimes_shouldMatchCalendar() {
+        for (TimeZone zone : ZONES) {
+            for (int i = 0; i < SAMPLES_PER_ZONE; i++) {
+                assertEncodedLikeCalendar(START + (long) (random.nextDouble() * (END - START)), zone,
+                        random.nextBoolean());
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeAroundTransitions_shouldMatchCalendar() {
+        for (TimeZone zone : ZONES) {
+            for (long transition : transitions(zone)) {
+                for (long delta = -7_200_000; delta <= 7_200_000; delta += 599_999) {
+                    assertEncodedLikeCalendar(transition + delta, zone, false);
+                }
+                assertEncodedLikeCalendar(transition - 1, zone, false);
+                assertEncodedLikeCalendar(transition, zone, true);
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeRandomBytes_shouldMatchCalendar() {
+        byte[] time = new byte[CP56Time2a.LENGTH];
+        int[] centuryStarts = { 1970, 1900, 2000, 1950 };
+        for (TimeZone zone : ZONES) {
+            for (int i = 0; i < SAMPLES_PER_ZONE; i++) {
+                random.nextBytes(time);
+                int startOfCentury = centuryStarts[i % centuryStarts.length];
+                assertEquals(Arrays.toString(time) + " in " + zone.getID(),
+                        decodeWithCalendar(time, startOfCentury, zone),
+                        CP56Time2a.decode(time, 0, startOfCentury, zone));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeAroundTransitions_shouldMatchCalendar() {
+        for (TimeZone zone : ZONES) {
+            for (long transition : transitions(zone)) {
+                for (long delta = -7_200_000; delta <= 7_200_000; delta += 599_999) {
+                    byte[] time = encodeWithCalendar(transition + delta, zone, false);
+                    assertDecodedLikeCalendar(time, zone);
+                    time[3] ^= 0x80;
+                    assertDecodedLikeCalendar(time, zone);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testYearsOutsideCachedRange_shouldMatchCalendar() {
+        TimeZone zone = TimeZone.getTimeZone("CET");
+        long[] timestamps = { -62_135_596_800_000L, -12_219_292_800_000L, -11_676_096_000_001L,
+                253_402_300_799_999L, 253_402_300_800_000L };
+        for (long timestamp : timestamps) {
+            assertEncodedLikeCalendar(timestamp, zone, false);
+        }
+        byte[] time = encodeWithCalendar(1_700_000_000_000L, zone, false);
+        for (int startOfCentury : new int[] { 1500, 1599, 9950, 10_000 }) {
+            assertEquals(decodeWithCalendar(time, startOfCentury, zone),
+                    CP56Time2a.decode(time, 0, startOfCentury, zone));
+        }
+    }
+
+    @Test
+    public void testBufferPosition_shouldOnlyTouchSevenBytes() {
+        TimeZone zone = TimeZone.getTimeZone("CET");
+        byte[] buffer = new byte[32];
+        Arrays.fill(buffer, (byte) 0x55);
+
+        for (int i = 0; i < 1000; i++) {
+            long timestamp = START + (long) (random.nextDouble() * (END - START));
+            assertEquals(CP56Time2a.LENGTH, CP56Time2a.encode(timestamp, zone, false, buffer, 13));
+            assertEquals(timestamp, CP56Time2a.decode(buffer, 13, 1970, zone));
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            if (i < 13 || i >= 20) {
+                assertEquals(0x55, buffer[i]);
+            }
+        }
+    }
+
+    private void assertEncodedLikeCalendar(long timestamp, TimeZone zone, boolean invalid) {
+        byte[] time = new byte[CP56Time2a.LENGTH];
+        CP56Time2a.encode(timestamp, zone, invalid, time, 0);
+        assertArrayEquals(timestamp + " in " + zone.getID(), encodeWithCalendar(timestamp, zone, invalid), time);
+    }
+
+    private void assertDecodedLikeCalendar(byte[] time, TimeZone zone) {
+        assertEquals(Arrays.toString(time) + " in " + zone.getID(), decodeWithCalendar(time, 1970, zone),
+                CP56Time2a.decode(time, 0, 1970, zone));
+    }
+
+    private static List<Long> transitions(TimeZone zone) {
+        List<Long> transitions = new ArrayList<>();
+        // The custom zone follows the EU rules of CET
+        String id = zone instanceof SimpleTimeZone ? "CET" : zone.getID();
+        ZoneRules rules = ZoneId.of(id, ZoneId.SHORT_IDS).getRules();
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(START));
+        while (transition != null && transition.toEpochSecond() * 1000 < END) {
+            transitions.add(transition.toEpochSecond() * 1000);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        if (transitions.isEmpty()) {
+            transitions.add(1_700_000_000_000L);
+        }
+        return transitions;
+    }
+
+    /**
+     * The conversion of IeTime56 before CP56Time2a was added.
+     */
+    private static byte[] encodeWithCalendar(long timestamp, TimeZone timeZone, boolean invalid) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(timestamp);
+        int ms = calendar.get(Calendar.MILLISECOND) + 1000 * calendar.get(Calendar.SECOND);
+        int minute = calendar.get(Calendar.MINUTE) | (invalid ? 0x80 : 0);
+        int hour = calendar.get(Calendar.HOUR_OF_DAY)
+                | (calendar.getTimeZone().inDaylightTime(calendar.getTime()) ? 0x80 : 0);
+        int day = calendar.get(Calendar.DAY_OF_MONTH)
+                + ((((calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7) + 1) << 5);
+        return new byte[] { (byte) ms, (byte) (ms >> 8), (byte) minute, (byte) hour, (byte) day,
+                (byte) (calendar.get(Calendar.MONTH) + 1), (byte) (calendar.get(Calendar.YEAR) % 100) };
+    }
+
+    private static long decodeWithCalendar(byte[] value, int startOfCentury, TimeZone timeZone) {
+        int century = startOfCentury / 100 * 100;
+        if (value[6] < (startOfCentury % 100)) {
+            century += 100;
+        }
+        int ms = (value[0] & 0xff) + ((value[1] & 0xff) << 8);
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.set(Calendar.DST_OFFSET, (value[3] & 0x80) == 0x80 ? 3600000 : 0);
+        calendar.set((value[6] & 0x7f) + century, (value[5] & 0x0f) - 1, value[4] & 0x1f, value[3] & 0x1f,
+                value[2] & 0x3f, ms / 1000);
+        calendar.set(Calendar.MILLISECOND, ms % 1000);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Protocol;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeQualifierOfCounterInterrogation;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IEC60870IntegratedTotalsTest {
+
+    private static final int COMMON_ADDRESS = 1;
+    private static final int GENERAL = IEC60870IntegratedTotals.GENERAL_REQUEST;
+
+    private IEC60870IntegratedTotals totals;
+    private RecordingConnection connection;
+
+    @After
+    public void tearDown() {
+        if (totals != null) {
+            totals.close();
+        }
+    }
+
+    @Test
+    public void testFreeze_shouldKeepRunningTotalAndAdvanceSequenceNumber() {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+
+        totals.add(index, 42);
+        totals.freeze(COMMON_ADDRESS, GENERAL, false);
+        totals.add(index, 8);
+
+        assertEquals(42, totals.getFrozenValue(index));
+        assertEquals(50, totals.getValue(index));
+        assertEquals(1, totals.getSequenceNumber(index));
+    }
+
+    @Test
+    public void testFreezeWithReset_shouldRestartRunningTotal() {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+
+        totals.add(index, 42);
+        totals.freeze(COMMON_ADDRESS, GENERAL, true);
+        totals.add(index, 8);
+
+        assertEquals(42, totals.getFrozenValue(index));
+        assertEquals(8, totals.getValue(index));
+    }
+
+    @Test
+    public void testSequenceNumber_shouldWrapAfter31() {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+
+        for (int i = 0; i < 33; i++) {
+            totals.freeze(COMMON_ADDRESS, GENERAL, false);
+        }
+
+        assertEquals(1, totals.getSequenceNumber(index));
+    }
+
+    @Test
+    public void testGroupFreeze_shouldOnlyFreezeGroupMembers() {
+        givenTotals(10);
+        int member = totals.addCounter(COMMON_ADDRESS, 100, 2, false);
+        int other = totals.addCounter(COMMON_ADDRESS, 101, 3, false);
+        totals.add(member, 5);
+        totals.add(other, 7);
+
+        totals.freeze(COMMON_ADDRESS, 2, false);
+
+        assertEquals(5, totals.getFrozenValue(member));
+        assertEquals(0, totals.getFrozenValue(other));
+        assertEquals(0, totals.getSequenceNumber(other));
+    }
+
+    @Test
+    public void testConcurrentUpdates_shouldBeFrozenAtOneInstant() throws Exception {
+        givenTotals(1000);
+        for (int i = 0; i < 1000; i++) {
+            totals.addCounter(COMMON_ADDRESS, i);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                for (int i = 0; i < 1000; i++) {
+                    totals.add(i, 1);
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 50; round++) {
+                totals.freeze(COMMON_ADDRESS, GENERAL, false);
+                // The writer increments the counters in order, so a consistent cut is never increasing and spans
+                // at most one increment
+                int first = totals.getFrozenValue(0);
+                int last = totals.getFrozenValue(999);
+                int previous = first;
+                for (int i = 1; i < 1000; i++) {
+                    int value = totals.getFrozenValue(i);
+                    assertTrue(value <= previous);
+                    previous = value;
+                }
+                assertTrue(first - last <= 1);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testFreezeWithResetDuringUpdates_shouldNotLoseCounts() throws Exception {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+        int increments = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < increments; i++) {
+                totals.add(index, 1);
+            }
+        });
+        writer.start();
+        long frozen = 0;
+        while (writer.isAlive()) {
+            totals.freeze(COMMON_ADDRESS, GENERAL, true);
+            frozen += totals.getFrozenValue(index);
+        }
+        writer.join();
+
+        assertEquals(increments, frozen + totals.getValue(index));
+    }
+
+    @Test
+    public void testCarryAndAdjustedFlags_shouldBeReportedOnce() {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+        givenConnection();
+
+        totals.set(index, Integer.MAX_VALUE);
+        totals.add(index, 1);
+        totals.freeze(COMMON_ADDRESS, GENERAL, false);
+        IeBinaryCounterReading first = readAll().get(100);
+        totals.freeze(COMMON_ADDRESS, GENERAL, false);
+        IeBinaryCounterReading second = readAll().get(100);
+
+        assertEquals(Integer.MIN_VALUE, first.getCounterReading());
+        assertTrue(first.getFlags().contains(IeBinaryCounterReading.Flag.CARRY));
+        assertTrue(first.getFlags().contains(IeBinaryCounterReading.Flag.COUNTER_ADJUSTED));
+        assertEquals(0, second.getFlagBits());
+        assertEquals(2, second.getSequenceNumber());
+    }
+
+    @Test
+    public void testReadCommand_shouldSendFrozenValuesInPackedAsdus() {
+        givenTotals(1000);
+        for (int i = 0; i < 200; i++) {
+            totals.add(totals.addCounter(COMMON_ADDRESS, 1000 + i), i);
+        }
+        for (int i = 0; i < 50; i++) {
+            totals.addCounter(COMMON_ADDRESS, 5000 + 10 * i, 0, true);
+        }
+        givenConnection();
+        totals.freeze(COMMON_ADDRESS, GENERAL, false);
+
+        assertTrue(totals.handle(connection, counterInterrogation(COMMON_ADDRESS, GENERAL, 0)));
+
+        List<ASdu> sent = awaitTermination(1);
+        AsduPacker packer = new AsduPacker(new IEC60870Settings());
+        int expected = ceil(200, packer.maxSequence(5)) + ceil(50, packer.maxObjects(12));
+        assertEquals(expected + 2, sent.size());
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, sent.get(0).getCauseOfTransmission());
+        assertEquals(ASduType.M_IT_NA_1, sent.get(1).getTypeIdentification());
+        assertTrue(sent.get(1).isSequenceOfElements());
+        assertEquals(CauseOfTransmission.REQUESTED_BY_GENERAL_COUNTER, sent.get(1).getCauseOfTransmission());
+        assertEquals(ASduType.M_IT_TB_1, sent.get(expected).getTypeIdentification());
+        Map<Integer, IeBinaryCounterReading> readings = readings(sent);
+        assertEquals(250, readings.size());
+        assertEquals(123, readings.get(1123).getCounterReading());
+    }
+
+    @Test
+    public void testConnectionNotInQueueOrder_shouldKeepValuesBetweenConfirmationAndTermination() throws Exception {
+        givenTotals(1000);
+        for (int i = 0; i < 50; i++) {
+            totals.addCounter(COMMON_ADDRESS, 1000 + 10 * i);
+        }
+        givenConnection();
+        connection.sendOutOfQueueOrder();
+        connection.deferAcknowledgements();
+        totals.freeze(COMMON_ADDRESS, GENERAL, false);
+
+        totals.handle(connection, counterInterrogation(COMMON_ADDRESS, GENERAL, 0));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1);
+        Thread.sleep(100);
+        assertEquals("Values must wait for the confirmation", 1, connection.getSent().size());
+
+        connection.acknowledgeAll();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() > 1);
+        Thread.sleep(100);
+        int sent = connection.getSent().size();
+        assertFalse("The termination must wait for the values", isTerminated(connection.getSent(), 1));
+
+        connection.acknowledgeAll();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> isTerminated(connection.getSent(), 1));
+        assertEquals(sent + 1, connection.getSent().size());
+    }
+
+    @Test
+    public void testGroupReadCommand_shouldUseGroupCause() {
+        givenTotals(10);
+        totals.addCounter(COMMON_ADDRESS, 100, 1, false);
+        totals.addCounter(COMMON_ADDRESS, 101, 4, false);
+        givenConnection();
+
+        totals.handle(connection, counterInterrogation(COMMON_ADDRESS, 4, 0));
+
+        List<ASdu> sent = awaitTermination(1);
+        assertEquals(3, sent.size());
+        assertEquals(CauseOfTransmission.REQUESTED_BY_GROUP_4_COUNTER, sent.get(1).getCauseOfTransmission());
+        assertEquals(101, sent.get(1).getInformationObjects()[0].getInformationObjectAddress());
+    }
+
+    @Test
+    public void testFreezeCommand_shouldConfirmAndTerminateWithoutData() {
+        givenTotals(10);
+        int index = totals.addCounter(COMMON_ADDRESS, 100);
+        totals.add(index, 3);
+        givenConnection();
+
+        totals.handle(connection, counterInterrogation(COMMON_ADDRESS, GENERAL, 2));
+
+        List<ASdu> sent = awaitTermination(1);
+        assertEquals(2, sent.size());
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, sent.get(0).getCauseOfTransmission());
+        assertEquals(3, totals.getFrozenValue(index));
+        assertEquals(0, totals.getValue(index));
+    }
+
+    @Test
+    public void testBroadcastFreeze_shouldAnswerEachStation() {
+        givenTotals(10);
+        int first = totals.addCounter(1, 100);
+        int second = totals.addCounter(2, 100);
+        totals.add(first, 1);
+        totals.add(second, 2);
+        givenConnection();
+
+        totals.handle(connection, counterInterrogation(0xffff, GENERAL, 1));
+
+        List<ASdu> sent = awaitTermination(2);
+        assertEquals(4, sent.size());
+        assertEquals(2, sent.get(2).getCommonAddress());
+        assertEquals(1, totals.getFrozenValue(first));
+        assertEquals(2, totals.getFrozenValue(second));
+    }
+
+    @Test
+    public void testInvalidRequests_shouldBeRejected() {
+        givenTotals(10);
+        totals.addCounter(COMMON_ADDRESS, 100);
+        givenConnection();
+
+        totals.handle(connection, counterInterrogation(COMMON_ADDRESS, 6, 0));
+        totals.handle(connection, counterInterrogation(7, GENERAL, 0));
+        totals.handle(connection, IEC60870Protocol.counterInterrogation(0, COMMON_ADDRESS,
+                CauseOfTransmission.DEACTIVATION, new IeQualifierOfCounterInterrogation(GENERAL, 0)));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 3);
+        List<ASdu> sent = connection.getSent();
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, sent.get(0).getCauseOfTransmission());
+        assertEquals(CauseOfTransmission.UNKNOWN_COMMON_ADDRESS_OF_ASDU, sent.get(1).getCauseOfTransmission());
+        assertEquals(CauseOfTransmission.UNKNOWN_CAUSE_OF_TRANSMISSION, sent.get(2).getCauseOfTransmission());
+        for (ASdu reply : sent) {
+            assertTrue(reply.isNegativeConfirm());
+        }
+        assertFalse(totals.handle(connection, IEC60870Protocol.read(0, COMMON_ADDRESS, 100)));
+    }
+
+    private void givenTotals(int capacity) {
+        totals = new IEC60870IntegratedTotals(capacity);
+    }
+
+    private void givenConnection() {
+        connection = new RecordingConnection();
+        connection.startDataTransfer(null);
+    }
+
+    private Map<Integer, IeBinaryCounterReading> readAll() {
+        int before = connection.getSent().size();
+        totals.handle(connection, counterInterrogation(COMMON_ADDRESS, GENERAL, 0));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> isTerminated(connection.getSent().subList(before,
+                connection.getSent().size()), 1));
+        List<ASdu> sent = connection.getSent();
+        return readings(sent.subList(before, sent.size()));
+    }
+
+    private List<ASdu> awaitTermination(int stations) {
+        await().atMost(10, TimeUnit.SECONDS).until(() -> isTerminated(connection.getSent(), stations));
+        return connection.getSent();
+    }
+
+    private static boolean isTerminated(List<ASdu> sent, int count) {
+        return sent.stream()
+                .filter(asdu -> asdu.getCauseOfTransmission() == CauseOfTransmission.ACTIVATION_TERMINATION)
+                .count() == count;
+    }
+
+    private static Map<Integer, IeBinaryCounterReading> readings(List<ASdu> sent) {
+        Map<Integer, IeBinaryCounterReading> readings = new TreeMap<>();
+        for (ASdu asdu : sent) {
+            if (asdu.getTypeIdentification() == ASduType.C_CI_NA_1) {
+                continue;
+            }
+            for (InformationObject object : asdu.getInformationObjects()) {
+                InformationElement[][] elements = object.getInformationElements();
+                for (int i = 0; i < elements.length; i++) {
+                    int address = object.getInformationObjectAddress() + (asdu.isSequenceOfElements() ? i : 0);
+                    readings.put(address, (IeBinaryCounterReading) elements[i][0]);
+                }
+            }
+        }
+        return readings;
+    }
+
+    private static ASdu counterInterrogation(int commonAddress, int request, int freeze) {
+        return IEC60870Protocol.counterInterrogation(0, commonAddress, CauseOfTransmission.ACTIVATION,
+                new IeQualifierOfCounterInterrogation(request, freeze));
+    }
+
+    private static int ceil(int counters, int perAsdu) {
+        return (counters + perAsdu - 1) / perAsdu;
+    }
+}
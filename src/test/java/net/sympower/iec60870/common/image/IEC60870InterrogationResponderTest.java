@@ -0,0 +1,305 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Protocol;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IEC60870InterrogationResponderTest {
+
+    private static final int COMMON_ADDRESS = 1;
+    private static final int STATION = 20;
+
+    private IEC60870ProcessImage image;
+    private IEC60870InterrogationResponder responder;
+    private RecordingConnection connection;
+
+    @After
+    public void tearDown() {
+        if (responder != null) {
+            responder.close();
+        }
+        if (image != null) {
+            image.close();
+        }
+    }
+
+    @Test
+    public void testStationInterrogation_shouldConfirmSendAllPointsAndTerminate() {
+        givenImage(1000);
+        addPoints(COMMON_ADDRESS, 100, 10, IEC60870PointType.SCALED_VALUE);
+        addPoints(COMMON_ADDRESS, 500, 5, IEC60870PointType.SINGLE_POINT);
+        givenResponder(32);
+
+        assertTrue(responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION)));
+
+        List<ASdu> sent = awaitTermination(1);
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, sent.get(0).getCauseOfTransmission());
+        assertFalse(sent.get(0).isNegativeConfirm());
+        assertEquals(4, sent.size());
+        for (ASdu asdu : sent.subList(1, 3)) {
+            assertEquals(CauseOfTransmission.INTERROGATED_BY_STATION, asdu.getCauseOfTransmission());
+            assertTrue(asdu.isSequenceOfElements());
+        }
+        Map<Integer, Integer> values = scaledValues(sent);
+        assertEquals(10, values.size());
+        assertEquals(7, (int) values.get(107));
+        assertEquals(0, responder.getActiveInterrogations());
+    }
+
+    @Test
+    public void testLargeInterrogation_shouldUseMinimumNumberOfAsdus() {
+        givenImage(100_000);
+        addPoints(COMMON_ADDRESS, 1, 50_000, IEC60870PointType.SHORT_FLOAT);
+        for (int i = 0; i < 50_000; i++) {
+            image.addPoint(COMMON_ADDRESS, 100_000 + 2 * i, IEC60870PointType.SHORT_FLOAT);
+        }
+        givenResponder(32);
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION));
+
+        List<ASdu> sent = awaitTermination(1);
+        int perSequence = image.maxElementsPerSequenceAsdu(IEC60870PointType.SHORT_FLOAT, false);
+        int perAsdu = image.maxObjectsPerAsdu(IEC60870PointType.SHORT_FLOAT, false);
+        int expected = ceil(50_000, perSequence) + ceil(50_000, perAsdu);
+        assertEquals(expected + 2, sent.size());
+        int points = 0;
+        for (ASdu asdu : sent.subList(1, sent.size() - 1)) {
+            points += asdu.isSequenceOfElements() ? asdu.getSequenceLength() : asdu.getInformationObjects().length;
+        }
+        assertEquals(100_000, points);
+    }
+
+    @Test
+    public void testGroupInterrogation_shouldOnlySendGroupMembers() {
+        givenImage(100);
+        addPoints(COMMON_ADDRESS, 100, 10, IEC60870PointType.SCALED_VALUE);
+        image.addToGroup(image.indexOf(COMMON_ADDRESS, 102), 3);
+        image.addToGroup(image.indexOf(COMMON_ADDRESS, 105), 3);
+        image.addToGroup(image.indexOf(COMMON_ADDRESS, 106), 4);
+        givenResponder(32);
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION + 3));
+
+        List<ASdu> sent = awaitTermination(1);
+        assertEquals(3, sent.size());
+        ASdu data = sent.get(1);
+        assertEquals(CauseOfTransmission.INTERROGATED_BY_GROUP_3, data.getCauseOfTransmission());
+        assertEquals(List.of(102, 105), new ArrayList<>(scaledValues(sent).keySet()));
+    }
+
+    @Test
+    public void testUnknownCommonAddress_shouldBeRejected() {
+        givenImage(10);
+        addPoints(COMMON_ADDRESS, 100, 1, IEC60870PointType.SINGLE_POINT);
+        givenResponder(32);
+
+        responder.handle(connection, interrogation(7, CauseOfTransmission.ACTIVATION, STATION));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1);
+        ASdu reply = connection.getSent().get(0);
+        assertEquals(CauseOfTransmission.UNKNOWN_COMMON_ADDRESS_OF_ASDU, reply.getCauseOfTransmission());
+        assertTrue(reply.isNegativeConfirm());
+    }
+
+    @Test
+    public void testInvalidQualifier_shouldBeConfirmedNegatively() {
+        givenImage(10);
+        addPoints(COMMON_ADDRESS, 100, 1, IEC60870PointType.SINGLE_POINT);
+        givenResponder(32);
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, 50));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1);
+        ASdu reply = connection.getSent().get(0);
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, reply.getCauseOfTransmission());
+        assertTrue(reply.isNegativeConfirm());
+    }
+
+    @Test
+    public void testBroadcastInterrogation_shouldAnswerEachStation() {
+        givenImage(100);
+        addPoints(1, 100, 5, IEC60870PointType.SCALED_VALUE);
+        addPoints(2, 100, 5, IEC60870PointType.SCALED_VALUE);
+        givenResponder(32);
+
+        responder.handle(connection, interrogation(0xffff, CauseOfTransmission.ACTIVATION, STATION));
+
+        List<ASdu> sent = awaitTermination(2);
+        assertEquals(6, sent.size());
+        int[] expectedAddresses = { 1, 1, 1, 2, 2, 2 };
+        for (int i = 0; i < sent.size(); i++) {
+            assertEquals(expectedAddresses[i], sent.get(i).getCommonAddress());
+        }
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, sent.get(3).getCauseOfTransmission());
+    }
+
+    @Test
+    public void testUnacknowledgedAsdus_shouldLimitQueuedAsdus() {
+        givenImage(1000);
+        for (int i = 0; i < 100; i++) {
+            image.addPoint(COMMON_ADDRESS, 10 * i, IEC60870PointType.SHORT_FLOAT);
+        }
+        givenResponder(2);
+        connection.deferAcknowledgements();
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 2);
+        for (int i = 0; i < 10 && !isTerminated(connection.getSent(), 1); i++) {
+            assertTrue(connection.getUnacknowledgedCount() <= 2);
+            int acknowledged = connection.getSent().size();
+            connection.acknowledgeAll();
+            await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() > acknowledged
+                    || isTerminated(connection.getSent(), 1));
+        }
+        assertTrue(isTerminated(connection.getSent(), 1));
+        assertEquals(ceil(100, 30) + 2, connection.getSent().size());
+    }
+
+    @Test
+    public void testConnectionNotInQueueOrder_shouldKeepValuesBetweenConfirmationAndTermination() throws Exception {
+        givenImage(1000);
+        for (int i = 0; i < 100; i++) {
+            image.addPoint(COMMON_ADDRESS, 10 * i, IEC60870PointType.SHORT_FLOAT);
+        }
+        givenResponder(32);
+        connection.sendOutOfQueueOrder();
+        connection.deferAcknowledgements();
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1);
+        Thread.sleep(100);
+        assertEquals("Values must wait for the confirmation", 1, connection.getSent().size());
+
+        connection.acknowledgeAll();
+        int asdus = ceil(100, 30);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1 + asdus);
+        Thread.sleep(100);
+        assertFalse("The termination must wait for the values", isTerminated(connection.getSent(), 1));
+
+        connection.acknowledgeAll();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> isTerminated(connection.getSent(), 1));
+        assertEquals(asdus + 2, connection.getSent().size());
+    }
+
+    @Test
+    public void testDeactivation_shouldCancelRunningInterrogation() {
+        givenImage(1000);
+        addPoints(COMMON_ADDRESS, 1, 1000, IEC60870PointType.SHORT_FLOAT);
+        givenResponder(1);
+        connection.deferAcknowledgements();
+
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, STATION));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 1);
+        responder.handle(connection, interrogation(COMMON_ADDRESS, CauseOfTransmission.DEACTIVATION, STATION));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.getSent().size() == 2);
+        ASdu reply = connection.getSent().get(1);
+        assertEquals(CauseOfTransmission.DEACTIVATION_CON, reply.getCauseOfTransmission());
+        assertFalse(reply.isNegativeConfirm());
+        assertEquals(0, responder.getActiveInterrogations());
+    }
+
+    @Test
+    public void testOtherAsdu_shouldNotBeHandled() {
+        givenImage(10);
+        givenResponder(32);
+
+        assertFalse(responder.handle(connection, IEC60870Protocol.read(0, COMMON_ADDRESS, 100)));
+    }
+
+    private void givenImage(int capacity) {
+        image = new IEC60870ProcessImage(capacity);
+    }
+
+    private void givenResponder(int maxInFlight) {
+        responder = new IEC60870InterrogationResponder(image, maxInFlight);
+        connection = new RecordingConnection();
+        connection.startDataTransfer(null);
+    }
+
+    private void addPoints(int commonAddress, int firstAddress, int count, IEC60870PointType type) {
+        for (int i = 0; i < count; i++) {
+            int index = image.addPoint(commonAddress, firstAddress + i, type);
+            image.update(index, i, IEC60870ProcessImage.QUALITY_GOOD, 0);
+        }
+    }
+
+    private List<ASdu> awaitTermination(int stations) {
+        await().atMost(10, TimeUnit.SECONDS).until(() -> isTerminated(connection.getSent(), stations));
+        return connection.getSent();
+    }
+
+    private static boolean isTerminated(List<ASdu> sent, int stations) {
+        return sent.stream()
+                .filter(asdu -> asdu.getCauseOfTransmission() == CauseOfTransmission.ACTIVATION_TERMINATION)
+                .count() == stations;
+    }
+
+    private static Map<Integer, Integer> scaledValues(List<ASdu> sent) {
+        Map<Integer, Integer> values = new HashMap<>();
+        for (ASdu asdu : sent) {
+            if (asdu.getTypeIdentification() != ASduType.M_ME_NB_1) {
+                continue;
+            }
+            for (InformationObject object : asdu.getInformationObjects()) {
+                InformationElement[][] elements = object.getInformationElements();
+                for (int i = 0; i < elements.length; i++) {
+                    int address = object.getInformationObjectAddress() + (asdu.isSequenceOfElements() ? i : 0);
+                    values.put(address, ((IeScaledValue) elements[i][0]).getUnnormalizedValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    private static ASdu interrogation(int commonAddress, CauseOfTransmission cot, int qualifier) {
+        return IEC60870Protocol.interrogation(0, commonAddress, cot, new IeQualifierOfInterrogation(qualifier));
+    }
+
+    private static int ceil(int points, int perAsdu) {
+        return (points + perAsdu - 1) / perAsdu;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.ASduView;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeDoublePointWithQuality;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.IeValueWithTransientState;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IEC60870PointCacheTest {
+
+    private static final int COMMON_ADDRESS = 1;
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+
+    @Test
+    public void testViewsAndDecodedAsdus_shouldBeCachedAlike() throws IOException {
+        List<ASdu> asdus = List.of(
+                new ASdu(ASduType.M_SP_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                        new InformationObject(1, new IeSinglePointWithQuality(true, false, true, false, false))),
+                new ASdu(ASduType.M_DP_TB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                        new InformationObject(2, new IeDoublePointWithQuality(
+                                IeDoublePointWithQuality.DoublePointInformation.ON, false, false, false, true),
+                                new IeTime56(TIMESTAMP))),
+                new ASdu(ASduType.M_ST_NA_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                        new InformationObject(3, new IeValueWithTransientState(-5, false),
+                                new IeQuality(true, false, false, false, false))),
+                new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                        new InformationObject(4, new IeScaledValue(-1234), new IeQuality(false, true, false, false,
+                                false))),
+                new ASdu(ASduType.M_ME_TF_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                        new InformationObject(5, new IeShortFloat(230.25f), new IeQuality(false, false, false, true,
+                                false), new IeTime56(TIMESTAMP + 5))),
+                new ASdu(ASduType.M_IT_NA_1, false, CauseOfTransmission.REQUESTED_BY_GENERAL_COUNTER, false, false,
+                        0, COMMON_ADDRESS, new InformationObject(6, new IeBinaryCounterReading(-77, 1,
+                                IeBinaryCounterReading.Flag.INVALID))));
+        IEC60870PointCache fromViews = new IEC60870PointCache(10);
+        IEC60870PointCache fromAsdus = new IEC60870PointCache(10);
+
+        for (ASdu asdu : asdus) {
+            fromViews.onAsduViewReceived(viewOf(asdu));
+            fromAsdus.onAsduReceived(asdu);
+        }
+
+        double[] values = { 1, 2, -5, -1234, 230.25, -77 };
+        int[] qualities = { ASduView.QUALITY_SUBSTITUTED, ASduView.QUALITY_INVALID, ASduView.QUALITY_OVERFLOW,
+                ASduView.QUALITY_BLOCKED, ASduView.QUALITY_NOT_TOPICAL, ASduView.QUALITY_INVALID };
+        for (IEC60870PointCache cache : List.of(fromViews, fromAsdus)) {
+            assertEquals(6, cache.size());
+            for (int i = 0; i < values.length; i++) {
+                int index = cache.indexOf(COMMON_ADDRESS, i + 1);
+                assertEquals(values[i], cache.getValue(index), 0);
+                assertEquals(qualities[i], cache.getQuality(index));
+            }
+            IEC60870PointCache.PointValue point = cache.read(cache.indexOf(COMMON_ADDRESS, 5),
+                    new IEC60870PointCache.PointValue());
+            assertEquals(TIMESTAMP + 5, point.getTimestamp());
+            assertEquals(ASduType.M_ME_TF_1, point.getType());
+            assertEquals(TIMESTAMP, cache.getTimestamp(cache.indexOf(COMMON_ADDRESS, 2)));
+        }
+    }
+
+    @Test
+    public void testUntaggedValues_shouldBeStampedWithReceptionTime() throws IOException {
+        IEC60870PointCache cache = new IEC60870PointCache(10);
+        long before = System.currentTimeMillis();
+
+        cache.onAsduViewReceived(viewOf(floats(100, 3, 1f)));
+
+        long timestamp = cache.getTimestamp(cache.indexOf(COMMON_ADDRESS, 102));
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void testListeners_shouldOnlyReceiveChangesInTheirRange() throws IOException {
+        IEC60870PointCache cache = new IEC60870PointCache(100);
+        List<Integer> changed = new ArrayList<>();
+        IEC60870PointCache.PointListener listener = index -> changed.add(cache.getInformationObjectAddress(index));
+        cache.addListener(COMMON_ADDRESS, 102, 104, listener);
+        cache.addListener(2, 100, 110, index -> changed.add(-1));
+
+        cache.onAsduViewReceived(viewOf(floats(100, 10, 1f)));
+        cache.onAsduViewReceived(viewOf(floats(100, 10, 1f)));
+        cache.onAsduViewReceived(viewOf(floats(103, 1, 2f)));
+        cache.removeListener(listener);
+        cache.onAsduViewReceived(viewOf(floats(103, 1, 3f)));
+
+        assertEquals(List.of(102, 103, 104, 103), changed);
+    }
+
+    @Test
+    public void testFullCache_shouldDropNewPoints() throws IOException {
+        IEC60870PointCache cache = new IEC60870PointCache(5);
+
+        cache.onAsduViewReceived(viewOf(floats(100, 8, 1f)));
+
+        assertEquals(5, cache.size());
+        assertEquals(3, cache.getDroppedCount());
+        assertEquals(-1, cache.indexOf(COMMON_ADDRESS, 105));
+    }
+
+    @Test
+    public void testNegativeConfirmsAndCommands_shouldBeIgnored() {
+        IEC60870PointCache cache = new IEC60870PointCache(5);
+
+        cache.onAsduReceived(new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.ACTIVATION_CON, false, true, 0,
+                COMMON_ADDRESS, new InformationObject(1, new IeShortFloat(1f), new IeQuality(false, false, false,
+                        false, false))));
+        cache.onAsduReceived(new ASdu(ASduType.C_IC_NA_1, false, CauseOfTransmission.ACTIVATION_CON, false, false,
+                0, COMMON_ADDRESS, new InformationObject[0]));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentReads_shouldSeeConsistentPoints() throws Exception {
+        IEC60870PointCache cache = new IEC60870PointCache(10);
+        cache.onAsduViewReceived(viewOf(floats(100, 1, 0f)));
+        int index = cache.indexOf(COMMON_ADDRESS, 100);
+        ASduView[] views = new ASduView[64];
+        for (int i = 0; i < views.length; i++) {
+            // The quality is invalid exactly for the odd values
+            views[i] = viewOf(new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                    COMMON_ADDRESS, new InformationObject(100, new IeShortFloat(i),
+                            new IeQuality(false, false, false, false, i % 2 == 1))));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                cache.onAsduViewReceived(views[i % views.length]);
+            }
+        });
+        writer.start();
+        try {
+            IEC60870PointCache.PointValue point = new IEC60870PointCache.PointValue();
+            for (int i = 0; i < 200_000; i++) {
+                cache.read(index, point);
+                boolean odd = ((int) point.getValue()) % 2 == 1;
+                assertEquals(odd ? ASduView.QUALITY_INVALID : 0, point.getQuality());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testPointsAddedConcurrently_shouldBeReadableOnceFound() throws Exception {
+        int points = 5000;
+        IEC60870PointCache cache = new IEC60870PointCache(points);
+        ASduView[] views = new ASduView[points];
+        for (int i = 0; i < points; i++) {
+            views[i] = viewOf(floats(i, 1, i));
+        }
+        Thread writer = new Thread(() -> {
+            for (ASduView view : views) {
+                cache.onAsduViewReceived(view);
+            }
+        });
+        writer.start();
+        try {
+            IEC60870PointCache.PointValue point = new IEC60870PointCache.PointValue();
+            for (int address = 0; address < points; address++) {
+                int index;
+                while ((index = cache.indexOf(COMMON_ADDRESS, address)) < 0) {
+                    Thread.onSpinWait();
+                }
+                cache.read(index, point);
+            }
+        } finally {
+            writer.join();
+        }
+    }
+
+    private ASdu floats(int firstAddress, int count, float value) {
+        InformationElement[][] elements = new InformationElement[count][];
+        for (int i = 0; i < count; i++) {
+            elements[i] = new InformationElement[] { new IeShortFloat(value),
+                    new IeQuality(false, false, false, false, false) };
+        }
+        return new ASdu(ASduType.M_ME_NC_1, true, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(firstAddress, elements));
+    }
+
+    private ASduView viewOf(ASdu asdu) throws IOException {
+        byte[] buffer = new byte[300];
+        int length = asdu.encode(buffer, 0, settings);
+        return new ASduView(buffer, 0, length, settings);
+    }
+}
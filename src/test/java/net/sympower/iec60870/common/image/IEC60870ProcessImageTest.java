@@ -0,0 +1,246 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IEC60870ProcessImageTest {
+
+    private static final int COMMON_ADDRESS = 1;
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    private IEC60870ProcessImage image;
+
+    @After
+    public void tearDown() {
+        if (image != null) {
+            image.close();
+        }
+    }
+
+    @Test
+    public void testAddPoint_shouldNumberPointsAndFindThemByAddress() {
+        image = new IEC60870ProcessImage(10);
+
+        assertEquals(0, image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SINGLE_POINT));
+        assertEquals(1, image.addPoint(COMMON_ADDRESS, 101, IEC60870PointType.SHORT_FLOAT));
+        assertEquals(2, image.addPoint(2, 100, IEC60870PointType.SCALED_VALUE));
+
+        assertEquals(1, image.indexOf(COMMON_ADDRESS, 101));
+        assertEquals(2, image.indexOf(2, 100));
+        assertEquals(-1, image.indexOf(3, 100));
+        assertEquals(IEC60870PointType.SCALED_VALUE, image.getPointType(2));
+        assertEquals(IEC60870ProcessImage.QUALITY_INVALID, image.getQuality(0));
+        assertEquals(3, image.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddPointTwice_shouldBeRejected() {
+        image = new IEC60870ProcessImage(10);
+        image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SINGLE_POINT);
+        image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.DOUBLE_POINT);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddPointBeyondCapacity_shouldBeRejected() {
+        image = new IEC60870ProcessImage(1);
+        image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SINGLE_POINT);
+        image.addPoint(COMMON_ADDRESS, 101, IEC60870PointType.SINGLE_POINT);
+    }
+
+    @Test
+    public void testUpdate_shouldReportChangesOnly() {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SINGLE_POINT);
+
+        assertTrue("First valid value changes the quality", update(index, 0));
+        assertFalse(update(index, 0));
+        assertTrue(update(index, 1));
+        assertTrue(image.update(index, 1, IEC60870ProcessImage.QUALITY_NOT_TOPICAL, TIMESTAMP));
+    }
+
+    @Test
+    public void testDeadband_shouldCompareWithLastReportedValue() {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SHORT_FLOAT, false, 0.5);
+
+        assertTrue(update(index, 10.0));
+        assertFalse(update(index, 10.3));
+        assertFalse(update(index, 9.6));
+        assertTrue("Drift beyond the deadband is reported", update(index, 10.6));
+        assertFalse(update(index, 10.2));
+
+        assertEquals(10.2, image.getValue(index), 0);
+        assertEquals(TIMESTAMP, image.getTimestamp(index));
+    }
+
+    @Test
+    public void testDeadbandOnDigitalPoint_shouldBeIgnored() {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.DOUBLE_POINT, false, 5);
+
+        assertTrue(update(index, 1));
+        assertTrue(update(index, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateOfUnknownPoint_shouldBeRejected() {
+        image = new IEC60870ProcessImage(10);
+        image.update(COMMON_ADDRESS, 100, 1, IEC60870ProcessImage.QUALITY_GOOD, TIMESTAMP);
+    }
+
+    @Test
+    public void testChanges_shouldBeSentSpontaneouslyToStartedConnections() throws Exception {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SHORT_FLOAT, true, 0);
+        RecordingConnection started = givenConnection(true);
+        RecordingConnection stopped = givenConnection(false);
+
+        update(index, 42.5);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> started.getSent().size() == 1);
+        ASdu asdu = started.getSent().get(0);
+        assertEquals(ASduType.M_ME_TF_1, asdu.getTypeIdentification());
+        assertEquals(CauseOfTransmission.SPONTANEOUS, asdu.getCauseOfTransmission());
+        assertEquals(COMMON_ADDRESS, asdu.getCommonAddress());
+        InformationObject object = asdu.getInformationObjects()[0];
+        assertEquals(100, object.getInformationObjectAddress());
+        InformationElement[] elements = object.getInformationElements()[0];
+        assertEquals(42.5f, ((IeShortFloat) elements[0]).getValue(), 0);
+        assertEquals(TIMESTAMP, ((IeTime56) elements[2]).getTimestamp());
+        assertTrue(stopped.getSent().isEmpty());
+    }
+
+    @Test
+    public void testChangesWhileSending_shouldBePackedIntoFullAsdus() throws Exception {
+        image = new IEC60870ProcessImage(1000);
+        int trigger = image.addPoint(COMMON_ADDRESS, 1, IEC60870PointType.SINGLE_POINT);
+        List<Integer> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(image.addPoint(COMMON_ADDRESS, 1000 + i, IEC60870PointType.SHORT_FLOAT));
+            points.add(image.addPoint(COMMON_ADDRESS, 2000 + i, IEC60870PointType.SINGLE_POINT));
+        }
+        RecordingConnection connection = givenConnection(true);
+        connection.hold();
+
+        update(trigger, 1);
+        assertTrue(connection.awaitFirstSend());
+        for (int index : points) {
+            update(index, 1);
+        }
+        connection.release();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> connection.countInformationObjects() == 401);
+        int floatsPerAsdu = image.maxObjectsPerAsdu(IEC60870PointType.SHORT_FLOAT, false);
+        int singlesPerAsdu = image.maxObjectsPerAsdu(IEC60870PointType.SINGLE_POINT, false);
+        assertEquals(30, floatsPerAsdu);
+        assertEquals(60, singlesPerAsdu);
+        int expectedAsdus = 1 + (200 + floatsPerAsdu - 1) / floatsPerAsdu + (200 + singlesPerAsdu - 1) / singlesPerAsdu;
+        assertEquals(expectedAsdus, connection.getSent().size());
+        for (ASdu asdu : connection.getSent()) {
+            assertFalse(asdu.isSequenceOfElements());
+        }
+    }
+
+    @Test
+    public void testClosedConnection_shouldBeDetached() throws Exception {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SINGLE_POINT);
+        RecordingConnection closed = givenConnection(true);
+        RecordingConnection open = givenConnection(true);
+        closed.close();
+
+        update(index, 1);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> open.getSent().size() == 1);
+        assertTrue(closed.getSent().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentUpdates_shouldReadConsistentPoints() throws Exception {
+        image = new IEC60870ProcessImage(10);
+        int index = image.addPoint(COMMON_ADDRESS, 100, IEC60870PointType.SHORT_FLOAT, true, 0);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                long value = 0;
+                while (running.get()) {
+                    value = (value + 1) % 1_000_000;
+                    image.update(index, value, IEC60870ProcessImage.QUALITY_GOOD, TIMESTAMP + value);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                InformationElement[] elements = image.createInformationObject(index).getInformationElements()[0];
+                float value = ((IeShortFloat) elements[0]).getValue();
+                long timestamp = ((IeTime56) elements[2]).getTimestamp();
+                if (timestamp != 0 && TIMESTAMP + (long) value != timestamp) {
+                    fail("Value " + value + " read with timestamp of another update: " + timestamp);
+                }
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+    }
+
+    private boolean update(int index, double value) {
+        return image.update(index, value, IEC60870ProcessImage.QUALITY_GOOD, TIMESTAMP);
+    }
+
+    private RecordingConnection givenConnection(boolean dataTransferStarted) {
+        RecordingConnection connection = new RecordingConnection();
+        if (dataTransferStarted) {
+            connection.startDataTransfer(null);
+        }
+        image.addConnection(connection);
+        return connection;
+    }
+}
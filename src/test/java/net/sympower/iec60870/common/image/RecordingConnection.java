@@ -0,0 +1,153 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.common.image;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection without a transport that records the ASDUs sent on it. Sending can be held back to let changes
+ * accumulate, and acknowledgements can be deferred to model a send window.
+ */
+class RecordingConnection extends IEC60870Connection {
+
+    private final List<ASdu> sent = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private final CountDownLatch firstSend = new CountDownLatch(1);
+    private final List<CompletableFuture<Void>> unacknowledged = new CopyOnWriteArrayList<>();
+    private volatile boolean deferAcknowledgements;
+    private volatile boolean outOfQueueOrder;
+
+    RecordingConnection() {
+        super(null, null, new IEC60870Settings());
+    }
+
+    /**
+     * Blocks every send until {@link #release()} is called.
+     */
+    void hold() {
+        release = new CountDownLatch(1);
+    }
+
+    void release() {
+        release.countDown();
+    }
+
+    /**
+     * Leaves the futures returned by {@link #sendAsync(ASdu)} pending until {@link #acknowledgeAll()} is called.
+     */
+    void deferAcknowledgements() {
+        deferAcknowledgements = true;
+    }
+
+    /**
+     * Reports that queued ASDUs may be sent out of order, as on an IEC 101 secondary station.
+     */
+    void sendOutOfQueueOrder() {
+        outOfQueueOrder = true;
+    }
+
+    void acknowledgeAll() {
+        for (CompletableFuture<Void> future : unacknowledged) {
+            unacknowledged.remove(future);
+            future.complete(null);
+        }
+    }
+
+    int getUnacknowledgedCount() {
+        return unacknowledged.size();
+    }
+
+    boolean awaitFirstSend() throws InterruptedException {
+        return firstSend.await(2, TimeUnit.SECONDS);
+    }
+
+    List<ASdu> getSent() {
+        return new ArrayList<>(sent);
+    }
+
+    int countInformationObjects() {
+        int count = 0;
+        for (ASdu asdu : sent) {
+            count += asdu.getInformationObjects().length;
+        }
+        return count;
+    }
+
+    @Override
+    public void startDataTransfer(IEC60870EventListener listener) {
+        dataTransferStarted.set(true);
+    }
+
+    @Override
+    public void stopDataTransfer() {
+        dataTransferStarted.set(false);
+    }
+
+    @Override
+    public void send(ASdu asdu) throws IOException {
+        firstSend.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted");
+        }
+        sent.add(asdu);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(ASdu asdu) {
+        if (!deferAcknowledgements) {
+            return super.sendAsync(asdu);
+        }
+        sent.add(asdu);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        unacknowledged.add(future);
+        return future;
+    }
+
+    @Override
+    public boolean isSentInQueueOrder() {
+        return !outOfQueueOrder;
+    }
+
+    @Override
+    protected void performClose() {
+    }
+
+    @Override
+    protected void readerTask() {
+    }
+}
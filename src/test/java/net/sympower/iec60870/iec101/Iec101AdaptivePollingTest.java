@@ -0,0 +1,142 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.iec101.connection.Iec101AdaptivePollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101LineStatistics;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.measurement;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class Iec101AdaptivePollingTest {
+
+    private static final long POLLING_INTERVAL_MS = 50;
+    private static final long INITIAL_BACKOFF_MS = 10;
+    private static final long MAX_BACKOFF_MS = 200;
+    private static final int BURST_SIZE = 20;
+
+    private Iec101LineFixture fixture;
+    private Iec101ServerConnection server;
+    private Iec101ClientConnection client;
+    private AsduRecordingClient serverListener;
+    private AsduRecordingClient clientListener;
+
+    @After
+    public void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    public void testIdleStation_shouldBeBackedOff() throws Exception {
+        givenClientAndServerAreConnected();
+        Thread.sleep(500);
+
+        long pollsBefore = client.getLineStatistics().getPolls();
+        Thread.sleep(1000);
+        Iec101LineStatistics statistics = client.getLineStatistics();
+
+        // Polling at the fixed 50 ms interval would send 20 polls a second
+        long polls = statistics.getPolls() - pollsBefore;
+        assertTrue("Idle station was polled " + polls + " times", polls > 0 && polls <= 8);
+        assertEquals(0, statistics.getPollsWithData());
+    }
+
+    @Test
+    public void testClass1Burst_shouldBePolledBackToBack() throws Exception {
+        givenClientAndServerAreConnected();
+        Thread.sleep(500);
+
+        for (int i = 0; i < BURST_SIZE; i++) {
+            server.queueClass1Response(measurement(i));
+        }
+
+        // Fetching the burst at one poll per interval would take a second
+        await().atMost(MAX_BACKOFF_MS + 500, TimeUnit.MILLISECONDS)
+               .until(() -> clientListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == BURST_SIZE);
+        Iec101LineStatistics statistics = client.getLineStatistics();
+        assertEquals(BURST_SIZE, statistics.getPollsWithData());
+        assertTrue(statistics.getLineUtilisation() > 0);
+    }
+
+    @Test
+    public void testDataFlowControl_shouldHoldSendUntilCleared() throws Exception {
+        givenClientAndServerAreConnected();
+        server.setDataFlowControl(true);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(client::isDataFlowControl);
+
+        CompletableFuture<Void> sent = CompletableFuture.runAsync(() -> {
+            try {
+                client.send(singleCommand(true));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(sent.isDone());
+        assertFalse(serverListener.hasReceived(ASduType.C_SC_NA_1, CauseOfTransmission.ACTIVATION));
+
+        server.setDataFlowControl(false);
+
+        sent.get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.hasReceived(ASduType.C_SC_NA_1, CauseOfTransmission.ACTIVATION));
+    }
+
+    private void givenClientAndServerAreConnected() throws IOException {
+        fixture = new Iec101LineFixture(new Iec101MemoryLine(), lineSettings());
+        Iec101ClientSettings clientSettings = clientSettings(POLLING_INTERVAL_MS);
+        // Enough for the station to clear DFC while a send waits
+        clientSettings.setAckTimeoutMs(500);
+        fixture.givenClientAndServerAreConnected(clientSettings,
+                new Iec101AdaptivePollScheduler(INITIAL_BACKOFF_MS, MAX_BACKOFF_MS));
+        server = fixture.getServer();
+        client = fixture.getClient();
+        serverListener = fixture.getServerListener();
+        clientListener = fixture.getClientListener();
+    }
+}
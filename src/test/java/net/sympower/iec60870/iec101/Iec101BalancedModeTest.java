@@ -0,0 +1,345 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.iec101.connection.Iec101BalancedConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.LINK_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.measurement;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec101BalancedModeTest {
+
+    private static final int BAUD_RATE = 9600;
+    private static final long POLLING_INTERVAL_MS = 500;
+    private static final int EVENTS = 5;
+    private static final long EVENT_SPACING_MS = 170;
+    private static final int CONCURRENT_SENDS = 30;
+    private static final int SEND_QUEUE_CAPACITY = CONCURRENT_SENDS;
+
+    private Iec101MemoryLine line;
+    private Iec101LineFixture fixture;
+    private Iec101BalancedConnection controllingStation;
+    private Iec101BalancedConnection controlledStation;
+    private Iec101ServerConnection server;
+    private LatencyRecorder controllingListener;
+    private LatencyRecorder controlledListener;
+
+    @After
+    public void tearDown() {
+        for (IEC60870Connection connection : new IEC60870Connection[] { controllingStation, controlledStation }) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+        controllingStation = null;
+        controlledStation = null;
+        server = null;
+        if (fixture != null) {
+            fixture.close();
+            fixture = null;
+        }
+        if (line != null) {
+            line.close();
+            line = null;
+        }
+    }
+
+    @Test
+    public void testSpontaneousData_shouldBeSentWithoutWaitingForPoll() throws Exception {
+        givenBalancedStationsAreConnected(0);
+
+        controlledStation.send(measurement(1));
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> controllingListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == 1);
+    }
+
+    @Test
+    public void testSpontaneousLatency_shouldBeLowerThanWithUnbalancedPolling() throws Exception {
+        givenUnbalancedStationsAreConnected(BAUD_RATE);
+        double unbalancedLatencyMs = whenEventsOccur(asdu -> server.queueClass1Response(asdu), controllingListener);
+        tearDown();
+
+        givenBalancedStationsAreConnected(BAUD_RATE);
+        double balancedLatencyMs = whenEventsOccur(asdu -> controlledStation.sendAsync(asdu), controllingListener);
+
+        String measured = String.format("Average latency %.1f ms balanced, %.1f ms unbalanced polled every %d ms",
+                balancedLatencyMs, unbalancedLatencyMs, POLLING_INTERVAL_MS);
+        assertTrue(measured, balancedLatencyMs < 100);
+        assertTrue(measured, balancedLatencyMs * 3 < unbalancedLatencyMs);
+    }
+
+    @Test
+    public void testConcurrentSends_shouldPipelineBothDirections() throws Exception {
+        givenBalancedStationsAreConnected(BAUD_RATE);
+        givenControlledStationConfirmsCommands();
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[2 * CONCURRENT_SENDS];
+        for (int i = 0; i < CONCURRENT_SENDS; i++) {
+            futures[2 * i] = controllingStation.sendAsync(singleCommand(i % 2 == 0));
+            futures[2 * i + 1] = controlledStation.sendAsync(measurement(i));
+        }
+
+        CompletableFuture.allOf(futures).get(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> controllingListener.findAsdusOfType(ASduType.C_SC_NA_1).size() == CONCURRENT_SENDS);
+        thenValuesWereReceivedInOrder(controllingListener, 0, CONCURRENT_SENDS);
+        assertEquals(CONCURRENT_SENDS, controlledListener.findAsdusOfType(ASduType.C_SC_NA_1).size());
+    }
+
+    @Test
+    public void testRepeatedFrame_shouldBeAcknowledgedButDeliveredOnce() throws Exception {
+        line = new Iec101MemoryLine(1, 0, true);
+        controlledStation = balancedStation(line.getServerEnd(), false, 0);
+        controlledListener = new LatencyRecorder();
+        controlledStation.startDataTransfer(controlledListener);
+        DataInputStream input = new DataInputStream(line.getClientEnd().getInputStream());
+
+        whenRemoteSends(primaryFixedFrame(FunctionCode.RESET_REMOTE_LINK));
+        thenRemoteReceivesAcknowledgement(input);
+        byte[] first = userData(true, measurement(1));
+        whenRemoteSends(first);
+        thenRemoteReceivesAcknowledgement(input);
+        whenRemoteSends(first);
+        thenRemoteReceivesAcknowledgement(input);
+        whenRemoteSends(userData(false, measurement(2)));
+        thenRemoteReceivesAcknowledgement(input);
+
+        thenValuesWereReceivedInOrder(controlledListener, 1, 2);
+    }
+
+    @Test
+    public void testRemoteStationStopsResponding_shouldFailSend() throws Exception {
+        givenBalancedStationsAreConnected(0);
+
+        controlledStation.close();
+
+        try {
+            controllingStation.send(measurement(1));
+            fail("Expected the send to fail without acknowledgement");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertFalse(controllingStation.isLinkActive());
+    }
+
+    @Test
+    public void testFullSendQueue_shouldRejectFurtherSends() throws Exception {
+        givenBalancedStationsAreConnected(BAUD_RATE);
+
+        // The link thread may take ASDUs off the queue while it fills, so send until one is rejected
+        List<CompletableFuture<Void>> accepted = new ArrayList<>();
+        CompletableFuture<Void> future = controlledStation.sendAsync(measurement(0));
+        while (!future.isCompletedExceptionally() && accepted.size() < 2 * SEND_QUEUE_CAPACITY) {
+            accepted.add(future);
+            future = controlledStation.sendAsync(measurement(accepted.size()));
+        }
+
+        assertTrue("Expected a send to be rejected", future.isCompletedExceptionally());
+        assertTrue(accepted.size() >= SEND_QUEUE_CAPACITY);
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause().getMessage().startsWith("Send queue is full"));
+        }
+        CompletableFuture.allOf(accepted.toArray(new CompletableFuture<?>[0]))
+                         .get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void givenBalancedStationsAreConnected(int baudRate) throws IOException {
+        line = new Iec101MemoryLine(1, baudRate, true);
+        controllingStation = balancedStation(line.getClientEnd(), true, baudRate);
+        controlledStation = balancedStation(line.getServerEnd(), false, baudRate);
+        controllingListener = new LatencyRecorder();
+        controlledListener = new LatencyRecorder();
+        controllingStation.startDataTransfer(controllingListener);
+        controlledStation.startDataTransfer(controlledListener);
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> controllingListener.isConnectionReady() && controlledListener.isConnectionReady());
+    }
+
+    private void givenUnbalancedStationsAreConnected(int baudRate) throws IOException {
+        fixture = new Iec101LineFixture(new Iec101MemoryLine(1, baudRate, false), lineSettings(baudRate));
+        controllingListener = new LatencyRecorder();
+        fixture.givenClientAndServerAreConnected(lineSettings(baudRate), clientSettings(POLLING_INTERVAL_MS),
+                new Iec101RoundRobinPollScheduler(), controllingListener);
+        server = fixture.getServer();
+    }
+
+    private void givenControlledStationConfirmsCommands() {
+        controlledListener.onCommand = asdu -> {
+            try {
+                // Called on the reader thread, which must not wait for the confirmation to be acknowledged
+                controlledStation.sendConfirmation(asdu);
+            } catch (IOException e) {
+                fail("Failed to confirm command: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Runs a station on the streams of one end of the line, so that closing the station leaves the line up.
+     */
+    private Iec101BalancedConnection balancedStation(Iec101Transport end, boolean controlling, int baudRate) {
+        Iec101ClientSettings linkSettings = new Iec101ClientSettings();
+        linkSettings.setAckTimeoutMs(200);
+        linkSettings.setMaxRetries(2);
+        linkSettings.setLinkRetryIntervalMs(100);
+        linkSettings.setSendQueueCapacity(SEND_QUEUE_CAPACITY);
+        return new Iec101BalancedConnection(new DataInputStream(end.getInputStream()),
+                new DataOutputStream(end.getOutputStream()), lineSettings(baudRate), LINK_ADDRESS, controlling,
+                linkSettings);
+    }
+
+    /**
+     * Sends events at intervals that are not aligned with the polling interval and returns their average latency.
+     */
+    private double whenEventsOccur(EventSource source, LatencyRecorder receiver) throws Exception {
+        long totalLatencyNanos = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            int value = i;
+            long sentNanos = System.nanoTime();
+            source.send(measurement(value));
+            await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+                   .until(() -> receiver.receivedNanos.containsKey(value));
+            totalLatencyNanos += receiver.receivedNanos.get(value) - sentNanos;
+            Thread.sleep(EVENT_SPACING_MS);
+        }
+        return totalLatencyNanos / (EVENTS * 1_000_000.0);
+    }
+
+    private void whenRemoteSends(byte[] frame) throws IOException {
+        line.getClientEnd().getOutputStream().write(frame);
+    }
+
+    /**
+     * Skips the station's own primary frames, with which it keeps trying to reset the remote link, and expects a
+     * positive acknowledgement.
+     */
+    private static void thenRemoteReceivesAcknowledgement(DataInputStream input) throws IOException {
+        IEC60870Settings settings = lineSettings(0);
+        while (true) {
+            Iec101Frame frame = Iec101Frame.decode(input, settings);
+            if (frame instanceof Iec101FixedFrame && !((Iec101FixedFrame) frame).getPrm()) {
+                Iec101FixedFrame response = (Iec101FixedFrame) frame;
+                assertEquals(FunctionCode.USER_DATA_RESPONSE, response.getFunctionCode());
+                assertFalse("Controlled station must send DIR=0", response.getDir());
+                return;
+            }
+        }
+    }
+
+    private static void thenValuesWereReceivedInOrder(AsduRecordingClient listener, int first, int count) {
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> listener.findAsdusOfType(ASduType.M_ME_NB_1).size() >= count);
+        List<ASdu> received = listener.findAsdusOfType(ASduType.M_ME_NB_1);
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(first + i, scaledValue(received.get(i)));
+        }
+    }
+
+    private static byte[] primaryFixedFrame(FunctionCode functionCode) {
+        return encode(new Iec101FixedFrame(LINK_ADDRESS, functionCode, true, false, false, false, false, true));
+    }
+
+    private static byte[] userData(boolean fcb, ASdu asdu) {
+        return encode(new Iec101VariableFrame(LINK_ADDRESS, FunctionCode.USER_DATA_CONFIRMED, true, true, fcb, false,
+                false, true, asdu));
+    }
+
+    private static byte[] encode(Iec101Frame frame) {
+        byte[] buffer = new byte[261];
+        int length = frame.encode(buffer, lineSettings(0));
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static int scaledValue(ASdu asdu) {
+        return ((IeScaledValue) asdu.getInformationObjects()[0].getInformationElements()[0][0]).getUnnormalizedValue();
+    }
+
+    private interface EventSource {
+        void send(ASdu asdu) throws IOException;
+    }
+
+    private static class LatencyRecorder extends AsduRecordingClient {
+
+        final Map<Integer, Long> receivedNanos = new ConcurrentHashMap<>();
+        volatile Consumer<ASdu> onCommand;
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            if (asdu.getTypeIdentification() == ASduType.M_ME_NB_1) {
+                receivedNanos.putIfAbsent(scaledValue(asdu), System.nanoTime());
+            }
+            super.onAsduReceived(asdu);
+            Consumer<ASdu> commandHandler = onCommand;
+            if (commandHandler != null && asdu.getTypeIdentification() == ASduType.C_SC_NA_1) {
+                commandHandler.accept(asdu);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.NO_POLLING_MS;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Iec101BlockingReaderTest {
+
+    private static final int ROUND_TRIPS = 50;
+
+    private final List<Thread> clientThreads = new CopyOnWriteArrayList<>();
+
+    private Iec101LineFixture fixture;
+    private Iec101MemoryLine line;
+    private Iec101ClientConnection client;
+    private AsduRecordingClient serverListener;
+
+    @After
+    public void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    public void testConfirmedSends_shouldBeAcknowledgedWithoutPollingDelay() throws Exception {
+        givenClientAndServerAreConnected();
+
+        long elapsedNanos = whenClientSendsConfirmedCommands(ROUND_TRIPS);
+
+        // Polling the line every 10 ms costs about 5 ms per hop, and every confirmed send waits for two hops
+        long averageMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / ROUND_TRIPS;
+        assertTrue("Average round trip was " + averageMicros + " µs", averageMicros < 5000);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.findAsdusOfType(ASduType.C_SC_NA_1).size() == ROUND_TRIPS);
+    }
+
+    @Test
+    public void testIdleLine_shouldNotBePolled() throws Exception {
+        givenClientAndServerAreConnected();
+        long readCallsBefore = awaitLinkSetupIsRead();
+
+        Thread.sleep(500);
+
+        assertEquals(readCallsBefore, line.getReadCalls());
+    }
+
+    @Test
+    public void testClose_shouldStopBlockedReader() throws Exception {
+        givenClientAndServerAreConnected();
+
+        client.close();
+
+        await().atMost(2, TimeUnit.SECONDS)
+               .until(() -> clientThreads.stream().noneMatch(Thread::isAlive));
+    }
+
+    private void givenClientAndServerAreConnected() throws IOException {
+        line = new Iec101MemoryLine();
+        fixture = new Iec101LineFixture(line, lineSettings());
+        IEC60870Settings clientLineSettings = lineSettings();
+        clientLineSettings.setThreadFactory(recordingThreadFactory());
+        fixture.givenClientAndServerAreConnected(clientLineSettings, clientSettings(NO_POLLING_MS),
+                new Iec101RoundRobinPollScheduler(), new AsduRecordingClient());
+        client = fixture.getClient();
+        serverListener = fixture.getServerListener();
+    }
+
+    /**
+     * Returns the read calls once the readers have taken the last frames of the link setup, which may still be on
+     * the line when both stations report the connection ready.
+     */
+    private long awaitLinkSetupIsRead() throws InterruptedException {
+        long readCalls = line.getReadCalls();
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(100);
+            long readCallsNow = line.getReadCalls();
+            if (readCallsNow == readCalls) {
+                return readCalls;
+            }
+            readCalls = readCallsNow;
+        }
+        throw new AssertionError("The readers kept reading from an idle line");
+    }
+
+    private long whenClientSendsConfirmedCommands(int count) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            client.send(singleCommand(i % 2 == 0));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private ThreadFactory recordingThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "IEC101-Test-Client-" + clientThreads.size());
+            thread.setDaemon(true);
+            clientThreads.add(thread);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.NO_POLLING_MS;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs confirmed sends over a simulated serial line, where every send is a variable frame from the client followed
+ * by a single character acknowledgement from the server, and checks that both stations keep the line idle between
+ * frames. The gaps themselves are computed by Iec101LineTiming and tested against an injected clock in
+ * Iec101LineTimingTest, so this test only relies on the emulated line seeing gaps that are too short, which a slow
+ * host cannot cause.
+ * <p>
+ * The sends per second are measured on the emulated clock of the line, up to the moment the last acknowledgement
+ * has been transmitted, and compared with the capacity of the line: the time of all frames plus an idle gap between
+ * each two of them. They cannot exceed it without shortening a gap, and a station that waits longer than the gap, for
+ * example for a whole tick, falls well below it. The lower bounds leave room for the host at the higher baud rates,
+ * where its latency is a larger part of each send.
+ */
+public class Iec101LinePacingTest {
+
+    private static final int IDLE_GAP_BITS = 33;
+
+    private Iec101LineFixture fixture;
+
+    @After
+    public void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    public void testConfirmedSendsAt9600Baud_shouldKeepIdleGapsAtLineSpeed() throws Exception {
+        thenConfirmedSendsKeepIdleGapsAtLineSpeed(9600, 10, 0.8);
+    }
+
+    @Test
+    public void testConfirmedSendsAt19200Baud_shouldKeepIdleGapsAtLineSpeed() throws Exception {
+        thenConfirmedSendsKeepIdleGapsAtLineSpeed(19200, 20, 0.8);
+    }
+
+    @Test
+    public void testConfirmedSendsAt115200Baud_shouldKeepIdleGapsAtLineSpeed() throws Exception {
+        thenConfirmedSendsKeepIdleGapsAtLineSpeed(115200, 50, 0.5);
+    }
+
+    private void thenConfirmedSendsKeepIdleGapsAtLineSpeed(int baudRate, int sends, double minUtilization)
+            throws Exception {
+        fixture = new Iec101LineFixture(new Iec101MemoryLine(1, baudRate, false), lineSettings(baudRate));
+        fixture.givenClientAndServerAreConnected(clientSettings(NO_POLLING_MS));
+        Iec101MemoryLine line = fixture.getLine();
+        long bytesBefore = line.getTransmittedBytes();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < sends; i++) {
+            fixture.getClient().send(singleCommand(i % 2 == 0));
+        }
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> fixture.getServerListener().findAsdusOfType(ASduType.C_SC_NA_1).size() == sends);
+        assertEquals(0, line.getIdleGapViolations());
+
+        long lineBits = (line.getTransmittedBytes() - bytesBefore) * Iec101MemoryLine.BITS_PER_CHARACTER
+                + (2L * sends - 1) * IDLE_GAP_BITS;
+        double capacity = (double) sends * baudRate / lineBits;
+        double achieved = sends * 1e9 / (line.getIdleAtNanos() - startNanos);
+        assertTrue("Achieved " + achieved + " sends/s, more than the " + capacity + " the line carries",
+                achieved <= capacity);
+        assertTrue("Achieved " + achieved + " sends/s, less than " + minUtilization + " of " + capacity,
+                achieved >= minUtilization * capacity);
+    }
+}
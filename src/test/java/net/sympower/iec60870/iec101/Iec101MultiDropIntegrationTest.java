@@ -0,0 +1,457 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.connection.Iec101AdaptivePollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101LineStatistics;
+import net.sympower.iec60870.iec101.connection.Iec101LinkConnection;
+import net.sympower.iec60870.iec101.connection.Iec101MultiDropPrimary;
+import net.sympower.iec60870.iec101.connection.Iec101Poll;
+import net.sympower.iec60870.iec101.connection.Iec101PollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+import net.sympower.iec60870.iec101.frame.Iec101SingleCharFrame;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101RespondingServer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.COMMON_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.EXTENDED_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.measurement;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec101MultiDropIntegrationTest {
+
+    private static final int STATIONS = 3;
+    private static final int SILENT_LINK_ADDRESS = 30;
+    private static final int BURST_SIZE = 50;
+    private static final int COMMANDS = 100;
+    private static final long ACK_TIMEOUT_MS = 100;
+    private static final long LATE_RESPONSE_MS = 150;
+
+    private final List<Iec101ServerConnection> servers = new ArrayList<>();
+    private final List<Iec101RespondingServer> serverListeners = new ArrayList<>();
+    private final List<AsduRecordingClient> linkListeners = new ArrayList<>();
+
+    private Iec101MemoryLine line;
+    private Iec101MultiDropPrimary primary;
+
+    @After
+    public void tearDown() {
+        if (primary != null) {
+            primary.close();
+        }
+        for (Iec101ServerConnection server : servers) {
+            server.close();
+        }
+        if (line != null) {
+            line.close();
+        }
+    }
+
+    @Test
+    public void testAllStations_shouldBeResetAndPolled() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+
+        whenDataTransferIsStartedOnAllLinks();
+
+        thenAllLinksBecomeReady();
+    }
+
+    @Test
+    public void testInterrogation_shouldOnlyReachAddressedStation() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+        givenAllLinksAreReady();
+
+        link(2).interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+
+        // The confirmation and termination are class 1 and the values class 2, so they may arrive in any order
+        thenLinkReceives(2, ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_CON);
+        thenLinkReceives(2, ASduType.M_ME_NB_1, CauseOfTransmission.INTERROGATED_BY_STATION);
+        thenLinkReceives(2, ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_TERMINATION);
+        assertTrue(serverListeners.get(1).hasReceived(ASduType.C_IC_NA_1));
+        assertFalse(serverListeners.get(0).hasReceived(ASduType.C_IC_NA_1));
+        assertFalse(serverListeners.get(2).hasReceived(ASduType.C_IC_NA_1));
+        assertFalse(linkListeners.get(0).hasReceivedAsdu());
+        assertFalse(linkListeners.get(2).hasReceivedAsdu());
+    }
+
+    @Test
+    public void testListenerCallbacks_shouldBeAbleToSendBlocking() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+        Iec101LinkConnection link = link(1);
+        List<IOException> failures = new CopyOnWriteArrayList<>();
+        AtomicInteger terminations = new AtomicInteger();
+        AsduRecordingClient listener = new AsduRecordingClient() {
+            @Override
+            public void onConnectionReady() {
+                super.onConnectionReady();
+                // On the callback thread, so the send waits for the confirmation
+                sendInterrogation(link, failures);
+            }
+
+            @Override
+            public void onAsduReceived(ASdu asdu) {
+                super.onAsduReceived(asdu);
+                if (asdu.getTypeIdentification() == ASduType.C_IC_NA_1
+                        && asdu.getCauseOfTransmission() == CauseOfTransmission.ACTIVATION_TERMINATION
+                        && terminations.incrementAndGet() == 1) {
+                    // On the reader thread, so the send only queues the ASDU
+                    sendInterrogation(link, failures);
+                }
+            }
+        };
+
+        link.startDataTransfer(listener);
+
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(() -> terminations.get() == 2);
+        assertTrue("Sends from callbacks failed: " + failures, failures.isEmpty());
+        assertEquals(2, serverListeners.get(0).getReceivedAsdus().stream()
+                                             .filter(type -> type == ASduType.C_IC_NA_1)
+                                             .count());
+    }
+
+    @Test
+    public void testLateResponse_shouldNotBeDeliveredAgainWhenRepeated() throws Exception {
+        line = new Iec101MemoryLine(1, 0, false);
+        givenStationAnsweringFirstPollLate(1);
+        givenPrimary(links -> Iec101Poll.class2(1), new Iec101ClientSettings().getSendQueueCapacity());
+        primary.addLink(1);
+        AsduRecordingClient listener = new AsduRecordingClient();
+
+        link(1).startDataTransfer(listener);
+
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(listener::hasReceivedAsdu);
+        // The station repeats the late response for the retried poll
+        Thread.sleep(3 * ACK_TIMEOUT_MS);
+        assertEquals(1, listener.findAsdusOfType(ASduType.M_ME_NB_1).size());
+    }
+
+    @Test
+    public void testInterrogationOfEveryStation_shouldTrackFrameCountPerLink() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+        givenAllLinksAreReady();
+
+        for (int i = 1; i <= STATIONS; i++) {
+            link(i).interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+        }
+
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> linkListeners.stream().allMatch(
+                       l -> l.hasReceived(ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_TERMINATION)));
+    }
+
+    @Test
+    public void testSilentStation_shouldNotStopPollingOfOthers() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+        Iec101LinkConnection silentLink = primary.addLink(SILENT_LINK_ADDRESS);
+        AsduRecordingClient silentListener = new AsduRecordingClient();
+        silentLink.startDataTransfer(silentListener);
+        givenAllLinksAreReady();
+
+        link(1).interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> linkListeners.get(0).hasReceived(ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_TERMINATION));
+        assertFalse(silentListener.isConnectionReady());
+        thenSendFails(silentLink);
+    }
+
+    @Test
+    public void testPollScheduler_shouldDecideWhichStationIsPolled() throws Exception {
+        givenStationsOnPartyLine(links -> Iec101Poll.class1(1));
+        givenAllLinksAreReady();
+
+        link(1).interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+        link(2).interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> linkListeners.get(0).hasReceived(ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_TERMINATION));
+        assertTrue(serverListeners.get(1).hasReceived(ASduType.C_IC_NA_1));
+        assertFalse(linkListeners.get(1).hasReceivedAsdu());
+    }
+
+    @Test
+    public void testAdaptiveScheduler_shouldBackOffIdleStations() throws Exception {
+        givenStationsOnPartyLine(new Iec101AdaptivePollScheduler(10, 200));
+        givenAllLinksAreReady();
+        Thread.sleep(500);
+
+        long pollsBefore = primary.getLineStatistics().getPolls();
+        Thread.sleep(1000);
+        Iec101LineStatistics statistics = primary.getLineStatistics();
+
+        // Round-robin polling every 10 ms would poll three idle stations about 300 times a second
+        long polls = statistics.getPolls() - pollsBefore;
+        assertTrue("Idle stations were polled " + polls + " times", polls > 0 && polls <= 3 * 8);
+        assertTrue(statistics.getLineUtilisation() < 0.5);
+    }
+
+    @Test
+    public void testAdaptiveScheduler_shouldPollBusyStationBackToBack() throws Exception {
+        givenStationsOnPartyLine(new Iec101AdaptivePollScheduler(10, 200));
+        givenAllLinksAreReady();
+        Thread.sleep(500);
+        long pollsWithDataBefore = primary.getLineStatistics().getPollsWithData();
+
+        for (int i = 0; i < BURST_SIZE; i++) {
+            servers.get(1).queueClass2Response(measurement(i));
+        }
+
+        await().atMost(2, TimeUnit.SECONDS)
+               .until(() -> linkListeners.get(1).findAsdusOfType(ASduType.M_ME_NB_1).size() == BURST_SIZE);
+        Iec101LineStatistics statistics = primary.getLineStatistics();
+        assertEquals(BURST_SIZE, statistics.getPollsWithData() - pollsWithDataBefore);
+        assertTrue(statistics.getPollsPerSecond() > 0);
+        assertTrue(statistics.getBytesSent() > 0 && statistics.getBytesReceived() > 0);
+    }
+
+    @Test
+    public void testDataFlowControl_shouldHoldUserDataUntilCleared() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler());
+        givenAllLinksAreReady();
+        Iec101ServerConnection station = servers.get(0);
+        station.setDataFlowControl(true);
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(() -> link(1).isDataFlowControl());
+
+        CompletableFuture<Void> sent = link(1).sendAsync(interrogation());
+        Thread.sleep(200);
+        assertFalse(sent.isDone());
+        assertFalse(serverListeners.get(0).hasReceived(ASduType.C_IC_NA_1));
+
+        station.setDataFlowControl(false);
+
+        sent.get(EXTENDED_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListeners.get(0).hasReceived(ASduType.C_IC_NA_1));
+    }
+
+    @Test
+    public void testUserData_shouldTakeTurnsWithPolls() throws Exception {
+        List<CompletableFuture<Void>> commands = new ArrayList<>();
+        AtomicInteger pollsBetweenCommands = new AtomicInteger();
+        givenStationsOnPartyLine(links -> {
+            synchronized (commands) {
+                if (!commands.isEmpty() && !commands.stream().allMatch(CompletableFuture::isDone)) {
+                    pollsBetweenCommands.incrementAndGet();
+                }
+            }
+            return Iec101Poll.class2(links.get(0).getLinkAddress());
+        });
+        givenAllLinksAreReady();
+
+        synchronized (commands) {
+            for (int i = 0; i < COMMANDS; i++) {
+                commands.add(link(1).sendAsync(interrogation()));
+            }
+        }
+        CompletableFuture.allOf(commands.toArray(new CompletableFuture[0]))
+                         .get(EXTENDED_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue("Polls between commands: " + pollsBetweenCommands.get(),
+                pollsBetweenCommands.get() >= COMMANDS - 1);
+    }
+
+    @Test
+    public void testFullSendQueue_shouldRejectUserData() throws Exception {
+        givenStationsOnPartyLine(new Iec101RoundRobinPollScheduler(), 2);
+        givenAllLinksAreReady();
+        servers.get(0).setDataFlowControl(true);
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(() -> link(1).isDataFlowControl());
+
+        link(1).sendAsync(interrogation());
+        link(1).sendAsync(interrogation());
+        CompletableFuture<Void> rejected = link(1).sendAsync(interrogation());
+
+        assertTrue(rejected.isCompletedExceptionally());
+    }
+
+    private void givenStationsOnPartyLine(Iec101PollScheduler scheduler) throws IOException {
+        givenStationsOnPartyLine(scheduler, new Iec101ClientSettings().getSendQueueCapacity());
+    }
+
+    private void givenStationsOnPartyLine(Iec101PollScheduler scheduler, int sendQueueCapacity) throws IOException {
+        line = new Iec101MemoryLine(STATIONS, 0, false);
+
+        for (int i = 0; i < STATIONS; i++) {
+            Iec101ServerConnection server = new Iec101ServerConnection(
+                new DataInputStream(line.getServerEnd(i).getInputStream()),
+                new DataOutputStream(line.getServerEnd(i).getOutputStream()),
+                lineSettings(),
+                i + 1
+            );
+            Iec101RespondingServer serverListener = new Iec101RespondingServer();
+            serverListener.setServerConnection(server);
+            server.startDataTransfer(serverListener);
+            servers.add(server);
+            serverListeners.add(serverListener);
+        }
+
+        givenPrimary(scheduler, sendQueueCapacity);
+        for (int i = 1; i <= STATIONS; i++) {
+            primary.addLink(i);
+        }
+    }
+
+    private void givenPrimary(Iec101PollScheduler scheduler, int sendQueueCapacity) {
+        Iec101ClientSettings clientSettings = new Iec101ClientSettings();
+        clientSettings.setAckTimeoutMs(ACK_TIMEOUT_MS);
+        clientSettings.setMaxRetries(1);
+        clientSettings.setPollingIntervalMs(10);
+        clientSettings.setLinkRetryIntervalMs(500);
+        clientSettings.setSendQueueCapacity(sendQueueCapacity);
+
+        primary = new Iec101MultiDropPrimary(
+            new DataInputStream(line.getClientEnd().getInputStream()),
+            new DataOutputStream(line.getClientEnd().getOutputStream()),
+            lineSettings(),
+            clientSettings,
+            scheduler
+        );
+    }
+
+    /**
+     * Starts a station that answers the first poll after the acknowledgement timeout, and the retried poll with a
+     * repetition of that response, as a station does that received both.
+     */
+    private void givenStationAnsweringFirstPollLate(int linkAddress) {
+        Iec101Transport end = line.getServerEnd(0);
+        Thread station = new Thread(() -> {
+            Iec101FrameReader requests = new Iec101FrameReader(end.getInputStream(), lineSettings());
+            int dataResponses = 0;
+            try {
+                while (true) {
+                    Iec101FixedFrame request = (Iec101FixedFrame) requests.read();
+                    if (request.getFunctionCode() == FunctionCode.REQUEST_LINK_STATUS) {
+                        respond(end, new Iec101FixedFrame(linkAddress, FunctionCode.STATUS_LINK, false, false, false,
+                                false, false));
+                    } else if (request.getFunctionCode() == FunctionCode.RESET_REMOTE_LINK) {
+                        respond(end, Iec101SingleCharFrame.createAck());
+                    } else if (dataResponses < 2) {
+                        if (dataResponses++ == 0) {
+                            Thread.sleep(LATE_RESPONSE_MS);
+                        }
+                        respond(end, new Iec101VariableFrame(linkAddress, FunctionCode.USER_DATA_RESPONSE, false,
+                                false, false, false, false, measurement(1)));
+                    } else {
+                        respond(end, new Iec101FixedFrame(linkAddress, FunctionCode.RESP_NACK_NO_DATA, false, false,
+                                false, false, false));
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // The line was closed
+            }
+        });
+        station.setDaemon(true);
+        station.start();
+    }
+
+    private static void respond(Iec101Transport end, Iec101Frame frame) throws IOException {
+        byte[] buffer = new byte[256];
+        end.getOutputStream().write(buffer, 0, frame.encode(buffer, lineSettings()));
+    }
+
+    private void givenAllLinksAreReady() throws IOException {
+        whenDataTransferIsStartedOnAllLinks();
+        thenAllLinksBecomeReady();
+    }
+
+    private void whenDataTransferIsStartedOnAllLinks() throws IOException {
+        for (int i = 1; i <= STATIONS; i++) {
+            AsduRecordingClient listener = new AsduRecordingClient();
+            linkListeners.add(listener);
+            link(i).startDataTransfer(listener);
+        }
+    }
+
+    private void thenAllLinksBecomeReady() {
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> linkListeners.stream().allMatch(AsduRecordingClient::isConnectionReady));
+        for (int i = 1; i <= STATIONS; i++) {
+            assertTrue(link(i).isLinkActive());
+        }
+    }
+
+    private void thenLinkReceives(int linkAddress, ASduType type, CauseOfTransmission cot) {
+        await().atMost(EXTENDED_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> linkListeners.get(linkAddress - 1).hasReceived(type, cot));
+    }
+
+    private static void thenSendFails(Iec101LinkConnection link) throws Exception {
+        try {
+            link.sendAsync(null).get(EXTENDED_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Expected sending to an inactive link to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static void sendInterrogation(Iec101LinkConnection link, List<IOException> failures) {
+        try {
+            link.interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+        } catch (IOException e) {
+            failures.add(e);
+        }
+    }
+
+    private Iec101LinkConnection link(int linkAddress) {
+        return primary.getLink(linkAddress);
+    }
+
+    private static ASdu interrogation() {
+        return new ASdu(ASduType.C_IC_NA_1, false, CauseOfTransmission.ACTIVATION, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(0, new IeQualifierOfInterrogation(20)));
+    }
+}
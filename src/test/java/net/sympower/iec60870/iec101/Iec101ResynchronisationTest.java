@@ -0,0 +1,172 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101LineStatistics;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.LINK_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.NO_POLLING_MS;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.measurement;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that line noise costs the frames it hits, but not the link.
+ */
+public class Iec101ResynchronisationTest {
+
+    private static final int BAUD_RATE = 19200;
+    private static final byte[] NOISE = {0x00, 0x68, 0x7F, 0x10, 0x33, 0x68, 0x68, 0x01, 0x02, 0x03};
+    private static final double BIT_ERROR_RATE = 2e-4;
+    private static final int COMMANDS = 100;
+
+    private Iec101MemoryLine line;
+    private Iec101LineFixture fixture;
+    private Iec101ServerConnection server;
+    private Iec101ClientConnection client;
+    private AsduRecordingClient serverListener;
+    private AsduRecordingClient clientListener;
+
+    @After
+    public void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (line != null) {
+            line.close();
+        }
+    }
+
+    @Test
+    public void testNoiseOnIdleLine_shouldBeDroppedWithoutLosingTheLink() throws Exception {
+        givenClientAndServerAreConnected(new Iec101MemoryLine());
+
+        line.getServerEnd().getOutputStream().write(NOISE);
+        line.getClientEnd().getOutputStream().write(NOISE);
+        client.send(singleCommand(true));
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.hasReceived(ASduType.C_SC_NA_1, CauseOfTransmission.ACTIVATION));
+        assertEquals(NOISE.length, client.getLineStatistics().getDroppedBytes());
+        assertEquals(NOISE.length, server.getDroppedBytes());
+        assertTrue(client.getLineStatistics().getBadFrames() > 0);
+        assertFalse(clientListener.isConnectionLost());
+        assertFalse(serverListener.isConnectionLost());
+    }
+
+    @Test
+    public void testNoisyLine_shouldConfirmEveryCommandOverOneLink() throws Exception {
+        givenClientAndServerAreConnected(new Iec101MemoryLine(BAUD_RATE, BIT_ERROR_RATE, 42));
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            futures.add(client.sendAsync(singleCommand(i % 2 == 0)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                         .get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Iec101LineStatistics statistics = client.getLineStatistics();
+        assertTrue("No byte was corrupted: " + line.getCorruptedBytes(), line.getCorruptedBytes() > 0);
+        assertTrue(statistics.toString(), statistics.getBadFrames() + server.getBadFrames() > 0);
+        assertEquals(COMMANDS, serverListener.findAsdusOfType(ASduType.C_SC_NA_1).size());
+        assertFalse(clientListener.isConnectionLost());
+    }
+
+    @Test
+    public void testRepeatedPoll_shouldRepeatTheLostResponse() throws Exception {
+        line = new Iec101MemoryLine();
+        server = new Iec101ServerConnection(line.getServerEnd(), lineSettings(BAUD_RATE), LINK_ADDRESS);
+        server.startDataTransfer(new AsduRecordingClient());
+        server.queueClass2Response(measurement(42));
+        Iec101FrameReader responses = new Iec101FrameReader(line.getClientEnd().getInputStream(),
+            lineSettings(BAUD_RATE));
+
+        request(FunctionCode.RESET_REMOTE_LINK, false, false);
+        responses.read();
+        request(FunctionCode.REQUEST_CLASS_2_DATA, true, true);
+        Iec101VariableFrame response = (Iec101VariableFrame) responses.read();
+        // The response is lost, so the primary repeats the request with the same FCB
+        request(FunctionCode.REQUEST_CLASS_2_DATA, true, true);
+        Iec101Frame repeated = responses.read();
+        request(FunctionCode.REQUEST_CLASS_2_DATA, true, false);
+        Iec101Frame next = responses.read();
+
+        assertTrue(repeated instanceof Iec101VariableFrame);
+        assertNotNull(((Iec101VariableFrame) repeated).getAsdu());
+        assertEquals(response.getAsdu().toString(), ((Iec101VariableFrame) repeated).getAsdu().toString());
+        assertEquals(FunctionCode.RESP_NACK_NO_DATA, ((Iec101FixedFrame) next).getFunctionCode());
+    }
+
+    private void request(FunctionCode functionCode, boolean fcv, boolean fcb) throws IOException {
+        byte[] buffer = new byte[16];
+        int length = new Iec101FixedFrame(LINK_ADDRESS, functionCode, true, fcv, fcb, false, false)
+            .encode(buffer, lineSettings(BAUD_RATE));
+        line.getClientEnd().getOutputStream().write(buffer, 0, length);
+    }
+
+    private void givenClientAndServerAreConnected(Iec101MemoryLine memoryLine) throws IOException {
+        line = memoryLine;
+        fixture = new Iec101LineFixture(line, lineSettings(BAUD_RATE));
+        Iec101ClientSettings clientSettings = clientSettings(NO_POLLING_MS);
+        clientSettings.setAckTimeoutMs(100);
+        clientSettings.setMaxRetries(5);
+        fixture.givenClientAndServerAreConnected(clientSettings);
+        server = fixture.getServer();
+        client = fixture.getClient();
+        serverListener = fixture.getServerListener();
+        clientListener = fixture.getClientListener();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101PollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.Iec101LineFixture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static net.sympower.iec60870.spy.Iec101LineFixture.NO_POLLING_MS;
+import static net.sympower.iec60870.spy.Iec101LineFixture.clientSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.lineSettings;
+import static net.sympower.iec60870.spy.Iec101LineFixture.measurement;
+import static net.sympower.iec60870.spy.Iec101LineFixture.singleCommand;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec101SendQueueTest {
+
+    private static final int BAUD_RATE = 9600;
+    private static final int COMMANDS = 20;
+    private static final long POLLING_INTERVAL_MS = 50;
+    private static final long SEND_TIMEOUT_MS = 300;
+
+    private Iec101LineFixture fixture;
+    private Iec101ServerConnection server;
+    private Iec101ClientConnection client;
+    private AsduRecordingClient serverListener;
+    private AsduRecordingClient clientListener;
+
+    @After
+    public void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    public void testSendAsync_shouldQueueWithoutWaitingForTheLine() throws Exception {
+        givenClientAndServerAreConnected(NO_POLLING_MS, 1000);
+
+        // A confirmed command takes about 25 ms on a 9600 baud line, so twenty of them take half a second
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = whenClientQueuesCommands(COMMANDS);
+        long queuedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Queueing took " + queuedMs + " ms", queuedMs < 100);
+        assertTrue(client.getSendQueueSize() > 0);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(CONNECTION_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        thenServerReceivedCommandsInOrder(COMMANDS);
+        assertEquals(0, client.getSendQueueSize());
+    }
+
+    @Test
+    public void testPolls_shouldInterleaveWithQueuedUserData() throws Exception {
+        givenClientAndServerAreConnected(POLLING_INTERVAL_MS, 1000);
+
+        List<CompletableFuture<Void>> futures = whenClientQueuesCommands(COMMANDS);
+        server.queueClass1Response(measurement(1));
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> !clientListener.findAsdusOfType(ASduType.M_ME_NB_1).isEmpty());
+        assertFalse("Class 1 data was only fetched after the backlog", futures.get(COMMANDS - 1).isDone());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(CONNECTION_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        thenServerReceivedCommandsInOrder(COMMANDS);
+    }
+
+    @Test
+    public void testSilentStation_shouldFailTheFutureAfterRetries() throws Exception {
+        givenClientAndServerAreConnected(NO_POLLING_MS, 1000);
+        server.close();
+
+        CompletableFuture<Void> future = client.sendAsync(singleCommand(0, true));
+
+        try {
+            future.get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Send to a silent station should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getMessage().startsWith("Failed to send frame after"));
+        }
+    }
+
+    @Test
+    public void testFullQueue_shouldFailImmediately() throws Exception {
+        givenClientAndServerAreConnected(POLLING_INTERVAL_MS, 2);
+        server.setDataFlowControl(true);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(client::isDataFlowControl);
+
+        List<CompletableFuture<Void>> futures = whenClientQueuesCommands(3);
+
+        assertTrue(futures.get(2).isCompletedExceptionally());
+        assertEquals(2, client.getSendQueueSize());
+
+        server.setDataFlowControl(false);
+
+        futures.get(0).get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        futures.get(1).get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testBlockingSendHeldByDataFlowControl_shouldTimeOutAndNotBeSent() throws Exception {
+        givenClientAndServerAreConnected(POLLING_INTERVAL_MS, 1000);
+        server.setDataFlowControl(true);
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT).until(client::isDataFlowControl);
+
+        long start = System.nanoTime();
+        try {
+            client.send(singleCommand(0, true));
+            fail("Send held back by DFC should time out");
+        } catch (IOException e) {
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("Waited " + waitedMs + " ms", waitedMs >= SEND_TIMEOUT_MS);
+        }
+        server.setDataFlowControl(false);
+        client.sendAsync(singleCommand(1, true)).get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        thenServerReceivedCommands(1);
+    }
+
+    @Test
+    public void testBlockingSendOnTheLinkThread_shouldBeRejected() throws Exception {
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        givenClientAndServerAreConnected(POLLING_INTERVAL_MS, 1000, links -> {
+            if (!outcome.isDone()) {
+                try {
+                    client.send(singleCommand(0, true));
+                    outcome.complete(null);
+                } catch (Exception e) {
+                    outcome.complete(e);
+                }
+            }
+            return null;
+        });
+
+        assertTrue(outcome.get(CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testClose_shouldFailQueuedSends() throws Exception {
+        givenClientAndServerAreConnected(NO_POLLING_MS, 1000);
+
+        List<CompletableFuture<Void>> futures = whenClientQueuesCommands(COMMANDS);
+        client.close();
+
+        CompletableFuture<Void> last = futures.get(COMMANDS - 1);
+        assertTrue(last.isCompletedExceptionally());
+        assertTrue(client.sendAsync(singleCommand(0, true)).isCompletedExceptionally());
+    }
+
+    private void givenClientAndServerAreConnected(long pollingIntervalMs, int sendQueueCapacity) throws IOException {
+        givenClientAndServerAreConnected(pollingIntervalMs, sendQueueCapacity, new Iec101RoundRobinPollScheduler());
+    }
+
+    private void givenClientAndServerAreConnected(long pollingIntervalMs, int sendQueueCapacity,
+            Iec101PollScheduler pollScheduler) throws IOException {
+        fixture = new Iec101LineFixture(new Iec101MemoryLine(1, BAUD_RATE, false), lineSettings(BAUD_RATE));
+        Iec101ClientSettings clientSettings = clientSettings(pollingIntervalMs);
+        clientSettings.setAckTimeoutMs(100);
+        clientSettings.setMaxRetries(1);
+        clientSettings.setSendQueueCapacity(sendQueueCapacity);
+        clientSettings.setSendTimeoutMs(SEND_TIMEOUT_MS);
+        fixture.givenClientAndServerAreConnected(clientSettings, pollScheduler);
+        server = fixture.getServer();
+        client = fixture.getClient();
+        serverListener = fixture.getServerListener();
+        clientListener = fixture.getClientListener();
+    }
+
+    /**
+     * Queues commands whose information object addresses number them, so that the station can tell their order.
+     */
+    private List<CompletableFuture<Void>> whenClientQueuesCommands(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(client.sendAsync(singleCommand(i, true)));
+        }
+        return futures;
+    }
+
+    private void thenServerReceivedCommands(int... numbers) {
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.findAsdusOfType(ASduType.C_SC_NA_1).size() >= numbers.length);
+        List<ASdu> commands = serverListener.findAsdusOfType(ASduType.C_SC_NA_1);
+        assertEquals(numbers.length, commands.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], commands.get(i).getInformationObjects()[0].getInformationObjectAddress());
+        }
+    }
+
+    private void thenServerReceivedCommandsInOrder(int count) {
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.findAsdusOfType(ASduType.C_SC_NA_1).size() == count);
+        List<ASdu> commands = serverListener.findAsdusOfType(ASduType.C_SC_NA_1);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, commands.get(i).getInformationObjects()[0].getInformationObjectAddress());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.IeSingleCommand;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.api.Iec101Server;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+import net.sympower.iec60870.iec101.transport.Iec101TcpTransport;
+import net.sympower.iec60870.iec101.transport.Iec101Transport;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.COMMON_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.LINK_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.MEASUREMENT_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.SCALED_VALUE;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.SINGLE_COMMAND_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs client and server built with the public builders on the transports that replace a serial port.
+ */
+public class Iec101TransportIntegrationTest {
+
+    private static final int BAUD_RATE = 19200;
+    private static final long POLLING_INTERVAL_MS = 50;
+
+    private final AsduRecordingClient clientListener = new AsduRecordingClient();
+    private final AsduRecordingClient serverListener = new AsduRecordingClient();
+
+    private Iec101MemoryLine line;
+    private ServerSocket terminalServer;
+    private Iec101Server server;
+    private volatile Iec101ServerConnection serverConnection;
+    private Iec101ClientConnection client;
+
+    @After
+    public void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+        if (line != null) {
+            line.close();
+        }
+        if (terminalServer != null) {
+            terminalServer.close();
+        }
+    }
+
+    @Test
+    public void testMemoryLine_shouldCarryCommandsAndPolledData() throws Exception {
+        line = new Iec101MemoryLine(BAUD_RATE, 0);
+
+        givenServerIsStarted(line.getServerEnd());
+        givenClientIsConnected(line.getClientEnd());
+
+        thenCommandsAndPolledDataAreExchanged();
+    }
+
+    @Test
+    public void testTcpTransport_shouldCarryCommandsAndPolledData() throws Exception {
+        terminalServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        CompletableFuture<Iec101Transport> accepted = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new Iec101TcpTransport(terminalServer.accept());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Iec101Transport clientTransport = Iec101TcpTransport.connect(
+            InetAddress.getLoopbackAddress().getHostAddress(), terminalServer.getLocalPort(), 1000);
+
+        givenServerIsStarted(accepted.get(TIMEOUT_SECONDS, TIMEOUT_UNIT));
+        givenClientIsConnected(clientTransport);
+
+        thenCommandsAndPolledDataAreExchanged();
+    }
+
+    @Test
+    public void testClientClose_shouldCloseTransport() throws Exception {
+        line = new Iec101MemoryLine(BAUD_RATE, 0);
+        givenServerIsStarted(line.getServerEnd());
+        givenClientIsConnected(line.getClientEnd());
+
+        client.close();
+
+        // Closing the transport hangs up the line, which the server notices as a lost connection
+        await().atMost(TIMEOUT_SECONDS, TIMEOUT_UNIT).until(serverListener::isConnectionLost);
+    }
+
+    private void givenServerIsStarted(Iec101Transport transport) throws IOException {
+        server = new IEC60870ServerBuilder()
+            .iec101(transport)
+            .baudRate(BAUD_RATE)
+            .linkAddress(LINK_ADDRESS)
+            .build();
+        server.start(connection -> {
+            serverConnection = (Iec101ServerConnection) connection;
+            try {
+                connection.startDataTransfer(serverListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void givenClientIsConnected(Iec101Transport transport) throws IOException {
+        client = new IEC60870ClientBuilder()
+            .iec101(transport)
+            .baudRate(BAUD_RATE)
+            .linkAddress(LINK_ADDRESS)
+            .commonAddress(COMMON_ADDRESS)
+            .pollingIntervalMs(POLLING_INTERVAL_MS)
+            .ackTimeoutMs(1000)
+            .initializationTimeoutMs(TimeUnit.SECONDS.toMillis(CONNECTION_TIMEOUT_SECONDS))
+            .build();
+        client.startDataTransfer(clientListener);
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> clientListener.isConnectionReady() && serverListener.isConnectionReady());
+    }
+
+    private void thenCommandsAndPolledDataAreExchanged() throws IOException {
+        client.singleCommand(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, SINGLE_COMMAND_ADDRESS,
+            new IeSingleCommand(true, 0, false));
+        await().atMost(TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.hasReceived(ASduType.C_SC_NA_1, CauseOfTransmission.ACTIVATION));
+
+        serverConnection.queueClass2Response(scaledMeasurement());
+        await().atMost(TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> clientListener.hasReceived(ASduType.M_ME_NB_1, CauseOfTransmission.SPONTANEOUS));
+        ASdu received = clientListener.getLastReceivedAsduOfType(ASduType.M_ME_NB_1);
+        IeScaledValue value = (IeScaledValue) received.getInformationObjects()[0].getInformationElements()[0][0];
+        assertEquals(SCALED_VALUE, value.getUnnormalizedValue());
+    }
+
+    private static ASdu scaledMeasurement() {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+            new InformationObject(MEASUREMENT_ADDRESS,
+                new IeScaledValue(SCALED_VALUE), new IeQuality(false, false, false, false, false)));
+    }
+}
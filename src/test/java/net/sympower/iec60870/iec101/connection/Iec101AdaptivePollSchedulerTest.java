@@ -0,0 +1,186 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class Iec101AdaptivePollSchedulerTest {
+
+    private static final long INITIAL_BACKOFF_MS = 10;
+    private static final long MAX_BACKOFF_MS = 80;
+
+    private long nowNanos = 1_000_000_000L;
+    private final Iec101AdaptivePollScheduler scheduler =
+            new Iec101AdaptivePollScheduler(INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, () -> nowNanos);
+
+    @Test
+    public void testAccessDemand_shouldPollClass1BackToBack() {
+        TestLink link = new TestLink(1);
+        List<TestLink> links = Collections.singletonList(link);
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+
+        link.accessDemand = true;
+
+        for (int i = 0; i < 3; i++) {
+            Iec101Poll poll = scheduler.nextPoll(links);
+            assertTrue(poll.isClass1());
+            givenPollCompleted(poll, Iec101PollResult.USER_DATA);
+        }
+    }
+
+    @Test
+    public void testNoData_shouldBackOffExponentiallyUpToMaximum() {
+        List<TestLink> links = Collections.singletonList(new TestLink(1));
+        long[] expectedBackoffs = { 10, 20, 40, 80, 80 };
+
+        for (long expectedBackoff : expectedBackoffs) {
+            givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+            assertEquals(expectedBackoff, scheduler.getBackoffMs(1));
+
+            advanceMs(expectedBackoff - 1);
+            assertNull(scheduler.nextPoll(links));
+            advanceMs(1);
+        }
+    }
+
+    @Test
+    public void testUserData_shouldPollAgainImmediately() {
+        List<TestLink> links = Collections.singletonList(new TestLink(1));
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+        advanceMs(INITIAL_BACKOFF_MS);
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+        advanceMs(2 * INITIAL_BACKOFF_MS);
+
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.USER_DATA);
+
+        assertEquals(0, scheduler.getBackoffMs(1));
+        Iec101Poll poll = scheduler.nextPoll(links);
+        assertEquals(1, poll.getLinkAddress());
+        assertFalse(poll.isClass1());
+    }
+
+    @Test
+    public void testNoResponse_shouldBackOff() {
+        List<TestLink> links = Collections.singletonList(new TestLink(1));
+
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_RESPONSE);
+
+        assertEquals(INITIAL_BACKOFF_MS, scheduler.getBackoffMs(1));
+        assertNull(scheduler.nextPoll(links));
+    }
+
+    @Test
+    public void testDataFlowControl_shouldKeepPollingAtInitialBackoff() {
+        TestLink link = new TestLink(1);
+        List<TestLink> links = Collections.singletonList(link);
+        for (int i = 0; i < 4; i++) {
+            givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+            advanceMs(scheduler.getBackoffMs(1));
+        }
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+        assertEquals(MAX_BACKOFF_MS, scheduler.getBackoffMs(1));
+
+        link.dataFlowControl = true;
+        advanceMs(INITIAL_BACKOFF_MS);
+
+        assertEquals(1, scheduler.nextPoll(links).getLinkAddress());
+    }
+
+    @Test
+    public void testBusyStation_shouldNotStarveOthers() {
+        List<TestLink> links = Arrays.asList(new TestLink(1), new TestLink(2), new TestLink(3));
+
+        int[] polls = new int[4];
+        for (int i = 0; i < 30; i++) {
+            Iec101Poll poll = scheduler.nextPoll(links);
+            polls[poll.getLinkAddress()]++;
+            givenPollCompleted(poll, Iec101PollResult.USER_DATA);
+        }
+
+        assertEquals(10, polls[1]);
+        assertEquals(10, polls[2]);
+        assertEquals(10, polls[3]);
+    }
+
+    @Test
+    public void testIdleDelay_shouldLastUntilNextStationIsDue() {
+        List<TestLink> links = Arrays.asList(new TestLink(1), new TestLink(2));
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+        givenPollCompleted(scheduler.nextPoll(links), Iec101PollResult.NO_DATA);
+        advanceMs(4);
+
+        assertNull(scheduler.nextPoll(links));
+
+        assertEquals(6, scheduler.idleDelayMs(1000));
+        assertEquals(2, scheduler.idleDelayMs(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumBelowInitialBackoff_shouldBeRejected() {
+        new Iec101AdaptivePollScheduler(100, 10);
+    }
+
+    private void givenPollCompleted(Iec101Poll poll, Iec101PollResult result) {
+        scheduler.onPollCompleted(poll, result);
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static class TestLink implements Iec101PolledLink {
+        private final int linkAddress;
+        private boolean accessDemand;
+        private boolean dataFlowControl;
+
+        private TestLink(int linkAddress) {
+            this.linkAddress = linkAddress;
+        }
+
+        @Override
+        public int getLinkAddress() {
+            return linkAddress;
+        }
+
+        @Override
+        public boolean isAccessDemand() {
+            return accessDemand;
+        }
+
+        @Override
+        public boolean isDataFlowControl() {
+            return dataFlowControl;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class Iec101EventBufferTest {
+
+    private static final int COMMON_ADDRESS = 1;
+    private static final int MAX_FRAME_SIZE = 261;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+    private final Iec101EventBuffer buffer = new Iec101EventBuffer(settings);
+
+    @Test
+    public void testFlappingClass2Value_shouldBeCoalescedToLatest() {
+        for (int i = 0; i < 100; i++) {
+            buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 100, i));
+        }
+
+        ASdu asdu = buffer.pollClass2();
+
+        assertEquals(1, asdu.getInformationObjects().length);
+        assertEquals(99f, valueOf(asdu.getInformationObjects()[0]), 0);
+        assertNull(buffer.pollClass2());
+    }
+
+    @Test
+    public void testUpdatedClass2Value_shouldKeepItsPosition() {
+        buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 100, 1));
+        buffer.addClass2(singlePoint(CauseOfTransmission.SPONTANEOUS, 200));
+        buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 100, 2));
+
+        ASdu asdu = buffer.pollClass2();
+
+        assertEquals(ASduType.M_ME_NC_1, asdu.getTypeIdentification());
+        assertEquals(2f, valueOf(asdu.getInformationObjects()[0]), 0);
+        assertEquals(ASduType.M_SP_NA_1, buffer.pollClass2().getTypeIdentification());
+    }
+
+    @Test
+    public void testClass2Backlog_shouldBePackedUpToFrameSize() throws Exception {
+        int points = 200;
+        for (int ioa = 0; ioa < points; ioa++) {
+            buffer.addClass2(measurement(CauseOfTransmission.PERIODIC, ioa, ioa));
+        }
+
+        Set<Integer> received = new HashSet<>();
+        List<ASdu> responses = new ArrayList<>();
+        ASdu asdu;
+        while ((asdu = buffer.pollClass2()) != null) {
+            responses.add(asdu);
+            for (InformationObject informationObject : asdu.getInformationObjects()) {
+                assertTrue(received.add(informationObject.getInformationObjectAddress()));
+            }
+            thenAsduFitsIntoOneFrame(asdu);
+        }
+
+        // 6 header bytes and 8 bytes per short float leave room for 30 objects in a 252 byte ASDU
+        assertEquals(points, received.size());
+        assertEquals(7, responses.size());
+        assertEquals(30, responses.get(0).getInformationObjects().length);
+    }
+
+    @Test
+    public void testChangedCause_shouldMoveValueToEnd() {
+        buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 100, 1));
+        buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 101, 1));
+        buffer.addClass2(measurement(CauseOfTransmission.PERIODIC, 100, 2));
+
+        ASdu first = buffer.pollClass2();
+        ASdu second = buffer.pollClass2();
+
+        assertEquals(CauseOfTransmission.SPONTANEOUS, first.getCauseOfTransmission());
+        assertEquals(101, first.getInformationObjects()[0].getInformationObjectAddress());
+        assertEquals(1, first.getInformationObjects().length);
+        assertEquals(CauseOfTransmission.PERIODIC, second.getCauseOfTransmission());
+        assertEquals(100, second.getInformationObjects()[0].getInformationObjectAddress());
+    }
+
+    @Test
+    public void testInterrogationResponses_shouldStayBetweenConfirmationAndTermination() {
+        buffer.addClass2(interrogation(CauseOfTransmission.ACTIVATION_CON));
+        for (int ioa = 0; ioa < 3; ioa++) {
+            buffer.addClass2(measurement(CauseOfTransmission.INTERROGATED_BY_STATION, ioa, ioa));
+        }
+        buffer.addClass2(interrogation(CauseOfTransmission.ACTIVATION_TERMINATION));
+        buffer.addClass2(measurement(CauseOfTransmission.INTERROGATED_BY_STATION, 3, 3));
+
+        assertEquals(CauseOfTransmission.ACTIVATION_CON, buffer.pollClass2().getCauseOfTransmission());
+        assertEquals(3, buffer.pollClass2().getInformationObjects().length);
+        assertEquals(CauseOfTransmission.ACTIVATION_TERMINATION, buffer.pollClass2().getCauseOfTransmission());
+        assertEquals(3, buffer.pollClass2().getInformationObjects()[0].getInformationObjectAddress());
+        assertFalse(buffer.hasClass2());
+    }
+
+    @Test
+    public void testClass1_shouldStayOrderedAndPackConsecutiveEvents() {
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 1));
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 1));
+        buffer.addClass1(measurement(CauseOfTransmission.SPONTANEOUS, 2, 0));
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 1));
+
+        ASdu first = buffer.pollClass1();
+        ASdu second = buffer.pollClass1();
+        ASdu third = buffer.pollClass1();
+
+        assertEquals(ASduType.M_SP_NA_1, first.getTypeIdentification());
+        assertEquals(2, first.getInformationObjects().length);
+        assertEquals(ASduType.M_ME_NC_1, second.getTypeIdentification());
+        assertEquals(ASduType.M_SP_NA_1, third.getTypeIdentification());
+        assertEquals(1, third.getInformationObjects().length);
+        assertFalse(buffer.hasClass1());
+    }
+
+    @Test
+    public void testClass1Commands_shouldNotBeMerged() {
+        ASdu confirmation = interrogation(CauseOfTransmission.ACTIVATION_CON);
+        buffer.addClass1(confirmation);
+        buffer.addClass1(interrogation(CauseOfTransmission.ACTIVATION_CON));
+
+        assertEquals(confirmation, buffer.pollClass1());
+        assertTrue(buffer.hasClass1());
+    }
+
+    @Test
+    public void testPolledAsdus_shouldHandOverTheirFutures() {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        CompletableFuture<Void> later = new CompletableFuture<>();
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 1), first);
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 2), second);
+        buffer.addClass1(interrogation(CauseOfTransmission.ACTIVATION_TERMINATION), later);
+
+        List<CompletableFuture<Void>> delivered = new ArrayList<>();
+        buffer.pollClass1(delivered);
+
+        assertEquals(List.of(first, second), delivered);
+        assertFalse("Completed by the caller once the response is sent", first.isDone());
+        assertFalse(later.isDone());
+    }
+
+    @Test
+    public void testReplacedClass2Value_shouldCompleteItsFuture() {
+        CompletableFuture<Void> replaced = new CompletableFuture<>();
+        CompletableFuture<Void> latest = new CompletableFuture<>();
+        buffer.addClass2(measurement(CauseOfTransmission.PERIODIC, 100, 1), replaced);
+        buffer.addClass2(measurement(CauseOfTransmission.PERIODIC, 100, 2), latest);
+
+        assertTrue(replaced.isDone());
+        List<CompletableFuture<Void>> delivered = new ArrayList<>();
+        buffer.pollClass2(delivered);
+        assertEquals(List.of(latest), delivered);
+    }
+
+    @Test
+    public void testPartlyPolledAsdu_shouldHandOverItsFutureWithTheLastObject() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        buffer.addClass2(new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.PERIODIC, false, false, 0,
+                COMMON_ADDRESS, measurement(CauseOfTransmission.PERIODIC, 100, 1).getInformationObjects()[0],
+                measurement(CauseOfTransmission.PERIODIC, 101, 1).getInformationObjects()[0]), future);
+        // Moves the value of IOA 100 behind the value of IOA 101
+        buffer.addClass2(measurement(CauseOfTransmission.SPONTANEOUS, 100, 2), null);
+
+        List<CompletableFuture<Void>> delivered = new ArrayList<>();
+        buffer.pollClass2(delivered);
+
+        assertEquals(List.of(future), delivered);
+    }
+
+    @Test
+    public void testFailAll_shouldFailQueuedFutures() {
+        CompletableFuture<Void> class1 = new CompletableFuture<>();
+        CompletableFuture<Void> class2 = new CompletableFuture<>();
+        buffer.addClass1(singlePoint(CauseOfTransmission.SPONTANEOUS, 1), class1);
+        buffer.addClass2(measurement(CauseOfTransmission.PERIODIC, 100, 1), class2);
+
+        buffer.failAll(new IOException("closed"));
+
+        assertTrue(class1.isCompletedExceptionally());
+        assertTrue(class2.isCompletedExceptionally());
+        assertFalse(buffer.hasClass1());
+        assertFalse(buffer.hasClass2());
+    }
+
+    private void thenAsduFitsIntoOneFrame(ASdu asdu) throws Exception {
+        byte[] frame = new byte[MAX_FRAME_SIZE];
+        int length = new Iec101VariableFrame(1, FunctionCode.USER_DATA_RESPONSE, false, false, false, false, false,
+                asdu).encode(frame, settings);
+        Iec101Frame decoded = Iec101Frame.decode(new ByteArrayInputStream(frame, 0, length), settings);
+
+        byte[] original = new byte[MAX_FRAME_SIZE];
+        byte[] roundTrip = new byte[MAX_FRAME_SIZE];
+        asdu.encode(original, 0, settings);
+        ((Iec101VariableFrame) decoded).getAsdu().encode(roundTrip, 0, settings);
+        assertArrayEquals(original, roundTrip);
+    }
+
+    private static float valueOf(InformationObject informationObject) {
+        return ((IeShortFloat) informationObject.getInformationElements()[0][0]).getValue();
+    }
+
+    private static ASdu measurement(CauseOfTransmission cot, int ioa, float value) {
+        return new ASdu(ASduType.M_ME_NC_1, false, cot, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(ioa, new IeShortFloat(value), new IeQuality(false, false, false, false, false)));
+    }
+
+    private static ASdu singlePoint(CauseOfTransmission cot, int ioa) {
+        return new ASdu(ASduType.M_SP_NA_1, false, cot, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(ioa, new IeSinglePointWithQuality(true, false, false, false, false)));
+    }
+
+    private static ASdu interrogation(CauseOfTransmission cot) {
+        return new ASdu(ASduType.C_IC_NA_1, false, cot, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(0, new IeQualifierOfInterrogation(20)));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.IEC60870Settings;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class Iec101LineTimingTest {
+
+    // 68 L L 68, control field, two byte link address, a ten byte C_SC_NA_1 ASDU, checksum and 16
+    private static final int COMMAND_FRAME_LENGTH = 19;
+
+    private volatile long nowNanos = 1_000_000_000L;
+
+    @Test
+    public void testCharacterFormat_shouldCountStartParityAndStopBits() {
+        assertEquals(20, Iec101LineTiming.halfBitsPerCharacter(settings(9600, SerialPort.NO_PARITY,
+                SerialPort.ONE_STOP_BIT)));
+        assertEquals(22, Iec101LineTiming.halfBitsPerCharacter(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT)));
+        assertEquals(23, Iec101LineTiming.halfBitsPerCharacter(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_POINT_FIVE_STOP_BITS)));
+        assertEquals(24, Iec101LineTiming.halfBitsPerCharacter(settings(9600, SerialPort.ODD_PARITY,
+                SerialPort.TWO_STOP_BITS)));
+    }
+
+    @Test
+    public void testBaudRate_shouldDetermineTransmissionAndIdleTime() {
+        Iec101LineTiming timing = new Iec101LineTiming(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT), () -> nowNanos);
+
+        // 11 bits per character and 33 bit times of idle line at 9600 baud
+        assertEquals(1_145_826, timing.getCharacterNanos());
+        assertEquals(3_437_478, timing.getIdleGapNanos());
+        assertEquals(261 * 1_145_826L, timing.transmissionNanos(261));
+    }
+
+    @Test
+    public void testWrite_shouldKeepLineBusyUntilFrameAndIdleGapHavePassed() throws Exception {
+        Iec101LineTiming timing = new Iec101LineTiming(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT), () -> nowNanos);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        timing.write(line, new byte[] { 0x10, 0x49, 0x01, 0x00, 0x4A, 0x16 });
+
+        assertEquals(6, line.size());
+        assertEquals(timing.transmissionNanos(6) + timing.getIdleGapNanos(), timing.nanosUntilIdle());
+    }
+
+    @Test
+    public void testFrameReceived_shouldDelayAnswerByIdleGap() {
+        Iec101LineTiming timing = new Iec101LineTiming(settings(19200, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT), () -> nowNanos);
+
+        timing.onFrameReceived();
+
+        assertEquals(timing.getIdleGapNanos(), timing.nanosUntilIdle());
+        nowNanos += timing.getIdleGapNanos();
+        assertEquals(0, timing.nanosUntilIdle());
+    }
+
+    @Test
+    public void testConfirmedSend_shouldAllowNextSendAfterFramesAndTwoIdleGaps() throws Exception {
+        Iec101LineTiming timing = new Iec101LineTiming(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT), () -> nowNanos);
+        long startNanos = nowNanos;
+
+        timing.write(new ByteArrayOutputStream(), new byte[COMMAND_FRAME_LENGTH]);
+        // The secondary answers with a single character once the command and an idle gap have passed
+        nowNanos = startNanos + timing.transmissionNanos(COMMAND_FRAME_LENGTH) + timing.getIdleGapNanos()
+                + timing.transmissionNanos(1);
+        timing.onFrameReceived();
+
+        assertEquals(timing.getIdleGapNanos(), timing.nanosUntilIdle());
+        long roundTripNanos = nowNanos + timing.nanosUntilIdle() - startNanos;
+        assertEquals(timing.transmissionNanos(COMMAND_FRAME_LENGTH + 1) + 2 * timing.getIdleGapNanos(),
+                roundTripNanos);
+        // 20 characters and two idle gaps of 33 bits, 286 bits per send, leave room for 33 sends per second
+        assertEquals(33, TimeUnit.SECONDS.toNanos(1) / roundTripNanos);
+    }
+
+    @Test
+    public void testFixedInterFrameDelay_shouldBeAddedToIdleGap() throws Exception {
+        IEC60870Settings settings = settings(115200, SerialPort.EVEN_PARITY, SerialPort.ONE_STOP_BIT);
+        long minIdleGapNanos = new Iec101LineTiming(settings, () -> nowNanos).getIdleGapNanos();
+        settings.setInterFrameDelayMs(250);
+        Iec101LineTiming timing = new Iec101LineTiming(settings, () -> nowNanos);
+
+        assertEquals(minIdleGapNanos + TimeUnit.MILLISECONDS.toNanos(250), timing.getIdleGapNanos());
+
+        timing.write(new ByteArrayOutputStream(), new byte[COMMAND_FRAME_LENGTH]);
+        nowNanos += timing.transmissionNanos(COMMAND_FRAME_LENGTH);
+
+        assertEquals(timing.getIdleGapNanos(), timing.nanosUntilIdle());
+    }
+
+    @Test
+    public void testFrameReceivedDuringTransmission_shouldNotShortenIdleTime() throws Exception {
+        Iec101LineTiming timing = new Iec101LineTiming(settings(9600, SerialPort.EVEN_PARITY,
+                SerialPort.ONE_STOP_BIT), () -> nowNanos);
+
+        timing.write(new ByteArrayOutputStream(), new byte[COMMAND_FRAME_LENGTH]);
+        timing.onFrameReceived();
+
+        assertEquals(timing.transmissionNanos(COMMAND_FRAME_LENGTH) + timing.getIdleGapNanos(),
+                timing.nanosUntilIdle());
+    }
+
+    @Test
+    public void testWriteOnBusyLine_shouldWaitUntilLineIsIdle() throws Exception {
+        IEC60870Settings settings = settings(9600, SerialPort.EVEN_PARITY, SerialPort.ONE_STOP_BIT);
+        settings.setInterFrameDelayMs(20);
+        Iec101LineTiming timing = new Iec101LineTiming(settings, () -> nowNanos);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        timing.write(line, new byte[COMMAND_FRAME_LENGTH]);
+
+        Thread writer = new Thread(() -> {
+            try {
+                timing.write(line, new byte[] { (byte) 0xE5 });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        Thread.sleep(100);
+
+        assertEquals("The second frame must wait for the line", COMMAND_FRAME_LENGTH, line.size());
+
+        nowNanos += timing.nanosUntilIdle();
+        writer.join(TimeUnit.SECONDS.toMillis(2));
+
+        assertFalse(writer.isAlive());
+        assertEquals(COMMAND_FRAME_LENGTH + 1, line.size());
+    }
+
+    @Test
+    public void testUnknownBaudRate_shouldOnlyEnforceInterFrameDelay() {
+        IEC60870Settings settings = settings(0, SerialPort.EVEN_PARITY, SerialPort.ONE_STOP_BIT);
+        settings.setInterFrameDelayMs(5);
+        Iec101LineTiming timing = new Iec101LineTiming(settings, () -> nowNanos);
+
+        assertEquals(0, timing.transmissionNanos(261));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), timing.getIdleGapNanos());
+    }
+
+    private static IEC60870Settings settings(int baudRate, int parity, int stopBits) {
+        IEC60870Settings settings = new IEC60870Settings();
+        settings.setBaudRate(baudRate);
+        settings.setDataBits(8);
+        settings.setParity(parity);
+        settings.setStopBits(stopBits);
+        return settings;
+    }
+}
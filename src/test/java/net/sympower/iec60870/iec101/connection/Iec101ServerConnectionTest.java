@@ -0,0 +1,256 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeBinaryCounterReading;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec101ServerConnectionTest {
+
+    private static final int LINK_ADDRESS = 1;
+    private static final int COMMON_ADDRESS = 1;
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+    private final ScriptedInputStream lineInput = new ScriptedInputStream();
+    private final ResponseOutputStream lineOutput = new ResponseOutputStream();
+    private Iec101ServerConnection server;
+    private boolean fcb;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new Iec101ServerConnection(new DataInputStream(lineInput), new DataOutputStream(lineOutput), settings,
+                LINK_ADDRESS);
+        server.startDataTransfer(new AsduRecordingClient());
+    }
+
+    @After
+    public void tearDown() {
+        lineInput.close();
+        server.close();
+    }
+
+    @Test
+    public void testSpontaneousAsdu_shouldBeSentInAnswerToClass1Poll() throws Exception {
+        CompletableFuture<Void> delivered = server.sendAsync(measurement(CauseOfTransmission.SPONTANEOUS));
+
+        Iec101Frame status = whenPrimaryPolls(FunctionCode.REQUEST_LINK_STATUS);
+        assertEquals(FunctionCode.STATUS_LINK_ACCESS_DEMAND, ((Iec101FixedFrame) status).getFunctionCode());
+        assertFalse("Sent before it was polled", delivered.isDone());
+
+        Iec101Frame response = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_1_DATA);
+
+        assertEquals(CauseOfTransmission.SPONTANEOUS, ((Iec101VariableFrame) response).getAsdu()
+                .getCauseOfTransmission());
+        delivered.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testInterrogatedAsdu_shouldBeSentInAnswerToClass2Poll() throws Exception {
+        CompletableFuture<Void> delivered = server.sendAsync(measurement(CauseOfTransmission.INTERROGATED_BY_STATION));
+
+        Iec101Frame class1 = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_1_DATA);
+        assertEquals(FunctionCode.RESP_NACK_NO_DATA, ((Iec101FixedFrame) class1).getFunctionCode());
+        assertFalse(delivered.isDone());
+
+        Iec101Frame class2 = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_2_DATA);
+
+        assertEquals(CauseOfTransmission.INTERROGATED_BY_STATION, ((Iec101VariableFrame) class2).getAsdu()
+                .getCauseOfTransmission());
+        delivered.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCounterReading_shouldBeSentInAnswerToClass2Poll() throws Exception {
+        CompletableFuture<Void> delivered = server.sendAsync(new ASdu(ASduType.M_IT_NA_1, false,
+                CauseOfTransmission.REQUESTED_BY_GENERAL_COUNTER, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(200, new IeBinaryCounterReading(42, 1))));
+
+        Iec101Frame class1 = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_1_DATA);
+        assertEquals(FunctionCode.RESP_NACK_NO_DATA, ((Iec101FixedFrame) class1).getFunctionCode());
+
+        Iec101Frame class2 = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_2_DATA);
+
+        assertEquals(ASduType.M_IT_NA_1, ((Iec101VariableFrame) class2).getAsdu().getTypeIdentification());
+        delivered.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testConfirmationAndTermination_shouldBeClass1Data() throws Exception {
+        server.sendAsync(measurement(CauseOfTransmission.INTERROGATED_BY_STATION));
+        server.sendAsync(interrogation(CauseOfTransmission.ACTIVATION_CON));
+        server.sendAsync(interrogation(CauseOfTransmission.ACTIVATION_TERMINATION));
+
+        List<CauseOfTransmission> class1 = new ArrayList<>();
+        Iec101Frame response;
+        while ((response = whenPrimaryPolls(FunctionCode.REQUEST_CLASS_1_DATA)) instanceof Iec101VariableFrame) {
+            class1.add(((Iec101VariableFrame) response).getAsdu().getCauseOfTransmission());
+        }
+
+        assertEquals(List.of(CauseOfTransmission.ACTIVATION_CON, CauseOfTransmission.ACTIVATION_TERMINATION), class1);
+    }
+
+    @Test
+    public void testClose_shouldFailQueuedAsdus() throws Exception {
+        CompletableFuture<Void> delivered = server.sendAsync(measurement(CauseOfTransmission.PERIODIC));
+
+        server.close();
+
+        try {
+            delivered.get(1, TimeUnit.SECONDS);
+            fail("Expected the queued ASDU to fail on close");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertTrue(server.sendAsync(measurement(CauseOfTransmission.PERIODIC)).isCompletedExceptionally());
+    }
+
+    /**
+     * Sends a request of the primary station with the next frame count bit and returns the station's response.
+     */
+    private Iec101Frame whenPrimaryPolls(FunctionCode functionCode) throws Exception {
+        boolean fcv = functionCode != FunctionCode.REQUEST_LINK_STATUS;
+        if (fcv) {
+            fcb = !fcb;
+        }
+        byte[] buffer = new byte[16];
+        int length = new Iec101FixedFrame(LINK_ADDRESS, functionCode, true, fcv, fcv && fcb, false, false)
+                .encode(buffer, settings);
+        lineInput.feed(Arrays.copyOf(buffer, length));
+
+        byte[] response = lineOutput.frames.poll(2, TimeUnit.SECONDS);
+        assertTrue("No response to " + functionCode, response != null);
+        return Iec101Frame.decode(new ByteArrayInputStream(response), settings);
+    }
+
+    private static ASdu measurement(CauseOfTransmission cot) {
+        return new ASdu(ASduType.M_ME_NB_1, false, cot, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(100, new IeScaledValue(1), new IeQuality(false, false, false, false, false)));
+    }
+
+    private static ASdu interrogation(CauseOfTransmission cot) {
+        return new ASdu(ASduType.C_IC_NA_1, false, cot, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(0, new IeQualifierOfInterrogation(20)));
+    }
+
+    /**
+     * Collects the frames written by the station; each write is one frame.
+     */
+    private static class ResponseOutputStream extends OutputStream {
+
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            frames.add(Arrays.copyOfRange(buffer, offset, offset + length));
+        }
+    }
+
+    /**
+     * Hands the frames fed by the test to the station's reader and otherwise blocks like an idle line.
+     */
+    private static class ScriptedInputStream extends InputStream {
+
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private byte[] current = new byte[0];
+        private int position;
+
+        void feed(byte[] frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == current.length) {
+                try {
+                    current = frames.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+                if (current == END) {
+                    frames.add(END);
+                    return -1;
+                }
+                position = 0;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            frames.add(END);
+        }
+    }
+}
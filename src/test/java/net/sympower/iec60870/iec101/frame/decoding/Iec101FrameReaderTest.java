@@ -0,0 +1,234 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.frame.decoding;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.frame.Iec101FixedFrame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame;
+import net.sympower.iec60870.iec101.frame.Iec101Frame.FunctionCode;
+import net.sympower.iec60870.iec101.frame.Iec101FrameReader;
+import net.sympower.iec60870.iec101.frame.Iec101SingleCharFrame;
+import net.sympower.iec60870.iec101.frame.Iec101VariableFrame;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec101FrameReaderTest {
+
+    private static final int LINK_ADDRESS = 0x0102;
+    private static final byte[] NOISE = {0x00, 0x55, (byte) 0xFF, 0x16, 0x33};
+
+    private final IEC60870Settings settings = settings();
+
+    @Test
+    public void testNoiseBeforeFrame_shouldBeDroppedAndFrameRead() throws IOException {
+        Iec101FrameReader reader = givenReader(NOISE, fixedFrame(FunctionCode.REQUEST_CLASS_2_DATA));
+
+        Iec101FixedFrame frame = (Iec101FixedFrame) reader.read();
+
+        assertEquals(FunctionCode.REQUEST_CLASS_2_DATA, frame.getFunctionCode());
+        assertEquals(LINK_ADDRESS, frame.getLinkAddress());
+        assertEquals(NOISE.length, reader.getDroppedBytes());
+        assertEquals(0, reader.getBadFrames());
+    }
+
+    @Test
+    public void testFixedFrameWithTwoByteAddress_shouldPassChecksum() throws IOException {
+        Iec101FrameReader reader = givenReader(fixedFrame(FunctionCode.REQUEST_LINK_STATUS));
+
+        assertEquals(LINK_ADDRESS, ((Iec101FixedFrame) reader.read()).getLinkAddress());
+        assertEquals(0, reader.getBadFrames());
+    }
+
+    @Test
+    public void testCorruptedChecksum_shouldRejectFrameAndKeepReading() throws IOException {
+        byte[] corrupted = fixedFrame(FunctionCode.REQUEST_CLASS_1_DATA);
+        corrupted[corrupted.length - 2]++;
+        Iec101FrameReader reader = givenReader(corrupted, variableFrame());
+
+        Iec101VariableFrame frame = (Iec101VariableFrame) reader.read();
+
+        assertEquals(ASduType.C_IC_NA_1, frame.getAsdu().getTypeIdentification());
+        assertEquals(1, reader.getBadFrames());
+        assertEquals(corrupted.length, reader.getDroppedBytes());
+    }
+
+    @Test
+    public void testFalseStartCharacter_shouldResynchroniseOnFollowingFrame() throws IOException {
+        // A stray start character swallows the first bytes of the real frame while the reader checks its length fields
+        Iec101FrameReader reader = givenReader(new byte[] {0x68}, variableFrame(), new byte[] {0x10},
+                fixedFrame(FunctionCode.REQUEST_CLASS_2_DATA));
+
+        assertEquals(Iec101Frame.FrameType.VARIABLE_LENGTH, reader.read().getFrameType());
+        assertEquals(Iec101Frame.FrameType.FIXED_LENGTH, reader.read().getFrameType());
+        assertEquals(2, reader.getBadFrames());
+        assertEquals(2, reader.getDroppedBytes());
+    }
+
+    @Test
+    public void testInvalidVariableHeader_shouldBeRejectedWithoutWaitingForTheBody() throws IOException {
+        Iec101FrameReader reader = givenReader(new byte[] {0x68, 0x20, 0x21, 0x55}, new byte[] {Iec101Frame.ACK});
+
+        assertTrue(((Iec101SingleCharFrame) reader.read()).isAck());
+        assertEquals(1, reader.getBadFrames());
+        assertEquals(4, reader.getDroppedBytes());
+    }
+
+    @Test
+    public void testUndecodableFrame_shouldBeSkippedAsAWhole() throws IOException {
+        // Valid checksum and end character, but function code 7 does not exist
+        byte[] frame = {0x10, 0x47, 0x02, 0x01, 0x00, 0x16};
+        frame[4] = (byte) (0x47 + 0x02 + 0x01);
+        Iec101FrameReader reader = givenReader(frame, new byte[] {Iec101Frame.NACK});
+
+        assertTrue(((Iec101SingleCharFrame) reader.read()).isNack());
+        assertEquals(1, reader.getBadFrames());
+        assertEquals(frame.length, reader.getDroppedBytes());
+    }
+
+    @Test
+    public void testIdleLineWithinFrame_shouldRejectCandidateAndRescan() throws IOException {
+        byte[] frame = fixedFrame(FunctionCode.REQUEST_CLASS_2_DATA);
+        ScriptedInputStream input = new ScriptedInputStream();
+        input.add(Arrays.copyOf(frame, 3));
+        input.addTimeout();
+        input.add(frame);
+        Iec101FrameReader reader = new Iec101FrameReader(input, settings);
+
+        try {
+            reader.read();
+            fail("Timeout within the frame should be passed on");
+        } catch (InterruptedIOException e) {
+            assertEquals(1, reader.getBadFrames());
+        }
+        assertEquals(FunctionCode.REQUEST_CLASS_2_DATA, ((Iec101FixedFrame) reader.read()).getFunctionCode());
+        assertEquals(3, reader.getDroppedBytes());
+    }
+
+    @Test
+    public void testTimeoutBetweenFrames_shouldKeepNoBytes() throws IOException {
+        ScriptedInputStream input = new ScriptedInputStream();
+        input.addTimeout();
+        input.add(new byte[] {Iec101Frame.ACK});
+        Iec101FrameReader reader = new Iec101FrameReader(input, settings);
+
+        try {
+            reader.read();
+            fail("Timeout on an idle line should be passed on");
+        } catch (InterruptedIOException e) {
+            assertEquals(0, reader.getBadFrames());
+        }
+        assertTrue(((Iec101SingleCharFrame) reader.read()).isAck());
+    }
+
+    @Test(expected = IOException.class)
+    public void testEndOfStream_shouldFail() throws IOException {
+        givenReader(NOISE).read();
+    }
+
+    private Iec101FrameReader givenReader(byte[]... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            bytes.write(part, 0, part.length);
+        }
+        return new Iec101FrameReader(new ByteArrayInputStream(bytes.toByteArray()), settings);
+    }
+
+    private byte[] fixedFrame(FunctionCode functionCode) {
+        return encode(new Iec101FixedFrame(LINK_ADDRESS, functionCode, true, false, false, false, false));
+    }
+
+    private byte[] variableFrame() {
+        ASdu asdu = new ASdu(ASduType.C_IC_NA_1, false, CauseOfTransmission.ACTIVATION, false, false, 0, 1,
+                new InformationObject(0, new IeQualifierOfInterrogation(20)));
+        return encode(new Iec101VariableFrame(LINK_ADDRESS, FunctionCode.USER_DATA_CONFIRMED, true, true, false,
+                false, false, asdu));
+    }
+
+    private byte[] encode(Iec101Frame frame) {
+        byte[] buffer = new byte[261];
+        return Arrays.copyOf(buffer, frame.encode(buffer, settings));
+    }
+
+    private static IEC60870Settings settings() {
+        IEC60870Settings settings = new IEC60870Settings();
+        settings.setLinkAddressLength(2);
+        return settings;
+    }
+
+    /**
+     * Hands out its chunks one read at a time and throws a read timeout where one was added.
+     */
+    private static class ScriptedInputStream extends InputStream {
+
+        private final Deque<byte[]> chunks = new ArrayDeque<>();
+
+        void add(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        void addTimeout() {
+            chunks.add(new byte[0]);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            byte[] chunk = chunks.poll();
+            if (chunk == null) {
+                return -1;
+            }
+            if (chunk.length == 0) {
+                throw new InterruptedIOException("Read timed out");
+            }
+            int count = Math.min(length, chunk.length);
+            System.arraycopy(chunk, 0, buffer, offset, count);
+            if (count < chunk.length) {
+                chunks.addFirst(Arrays.copyOfRange(chunk, count, chunk.length));
+            }
+            return count;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 import static net.sympower.iec60870.iec101.frame.Iec101FrameTestUtils.ACD_CLEAR;
 import static net.sympower.iec60870.iec101.frame.Iec101FrameTestUtils.BYTE_TO_UNSIGNED_MASK;
@@ -108,6 +109,29 @@ public class Iec101VariableFrameDecodingTest {
         whenVariableDecodingExpectsException(frameBytes, "start");
     }
 
+    @Test
+    public void testDecodeVariableFrame_ChecksumMismatch_ShouldThrowException() throws IOException {
+        byte[] frameBytes = givenValidPrimaryVariableFrame(TEST_ADDRESS_3, FCB_SET, FCV_DISABLED);
+        frameBytes[frameBytes.length - 2]++;
+
+        whenVariableDecodingExpectsException(frameBytes, "checksum");
+    }
+
+    @Test
+    public void testDecodeVariableFrame_LengthBeyondAsdu_ShouldThrowException() throws IOException {
+        byte[] frameBytes = givenVariableFrameWithPaddedAsdu();
+
+        whenVariableDecodingExpectsException(frameBytes, "shorter than announced");
+    }
+
+    @Test
+    public void testDecodeVariableFrame_TruncatedFrame_ShouldThrowException() throws IOException {
+        byte[] validFrame = givenValidPrimaryVariableFrame(TEST_ADDRESS_3, FCB_SET, FCV_DISABLED);
+        byte[] frameBytes = Arrays.copyOf(validFrame, validFrame.length - 3);
+
+        whenVariableDecodingExpectsException(frameBytes, "end of stream");
+    }
+
     private static byte[] givenVariableFrameWithLengthMismatch() {
         return new byte[] {
             START_VARIABLE_FRAME,
@@ -119,6 +143,17 @@ public class Iec101VariableFrameDecodingTest {
         };
     }
 
+    private static byte[] givenVariableFrameWithPaddedAsdu() {
+        // A zero byte after the ASDU leaves the checksum unchanged, so only the announced length is wrong
+        byte[] validFrame = givenValidPrimaryVariableFrame(TEST_ADDRESS_3, FCB_SET, FCV_DISABLED);
+        byte[] frame = new byte[validFrame.length + 1];
+        System.arraycopy(validFrame, 0, frame, 0, validFrame.length - 2);
+        System.arraycopy(validFrame, validFrame.length - 2, frame, validFrame.length - 1, 2);
+        frame[1]++;
+        frame[2]++;
+        return frame;
+    }
+
     private static byte[] givenVariableFrameWithInvalidSecondStart() {
         return new byte[] {
             START_VARIABLE_FRAME,
@@ -144,9 +179,9 @@ public class Iec101VariableFrameDecodingTest {
             QOI_STATION_INTERROGATION  // QOI: Station interrogation (20)
         };
         
-        // Calculate frame length (control + address + ASDU + checksum)
+        // Calculate frame length (control + address + ASDU)
         int addressLength = SETTINGS.getLinkAddressLength();
-        byte length = (byte) (1 + addressLength + asduBytes.length + 1);
+        byte length = (byte) (1 + addressLength + asduBytes.length);
         
         // Control field: PRM=1 + FCB/FCV + function code
         byte control = (byte) (PRM_BIT_MASK | (fcb ? FCB_ACD_BIT_MASK : 0) | (fcv ? FCV_DFC_BIT_MASK : 0) | FunctionCode.USER_DATA_CONFIRMED.getCode());
@@ -196,9 +231,9 @@ public class Iec101VariableFrameDecodingTest {
             QOI_STATION_INTERROGATION  // QOI: Station interrogation (20)
         };
         
-        // Calculate frame length (control + address + ASDU + checksum)
+        // Calculate frame length (control + address + ASDU)
         int addressLength = SETTINGS.getLinkAddressLength();
-        byte length = (byte) (1 + addressLength + asduBytes.length + 1);
+        byte length = (byte) (1 + addressLength + asduBytes.length);
         
         // Control field: PRM=0 + ACD/DFC + function code
         byte control = (byte) ((acd ? FCB_ACD_BIT_MASK : 0) | (dfc ? FCV_DFC_BIT_MASK : 0) | FunctionCode.USER_DATA_NO_REPLY.getCode());
@@ -0,0 +1,230 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec101.transport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class Iec101MemoryLineTest {
+
+    private Iec101MemoryLine line;
+
+    @After
+    public void tearDown() {
+        if (line != null) {
+            line.close();
+        }
+    }
+
+    @Test
+    public void testLineWithoutErrors_shouldDeliverBytesUnchangedInBothDirections() throws IOException {
+        line = new Iec101MemoryLine();
+        byte[] request = { 0x10, 0x49, 0x01, 0x4A, 0x16 };
+        byte[] response = { (byte) 0xE5 };
+
+        line.getClientEnd().getOutputStream().write(request);
+        line.getServerEnd().getOutputStream().write(response);
+
+        assertArrayEquals(request, readFully(line.getServerEnd().getInputStream(), request.length));
+        assertArrayEquals(response, readFully(line.getClientEnd().getInputStream(), response.length));
+        assertEquals(request.length + response.length, line.getTransmittedBytes());
+        assertEquals(0, line.getCorruptedBytes());
+    }
+
+    @Test
+    public void testBaudRate_shouldDelayBytesUntilTransmitted() throws IOException {
+        int baudRate = 9600;
+        int length = 96;
+        line = new Iec101MemoryLine(baudRate, 0);
+        long expectedNanos = TimeUnit.SECONDS.toNanos(1) * Iec101MemoryLine.BITS_PER_CHARACTER * length / baudRate;
+
+        long start = System.nanoTime();
+        line.getClientEnd().getOutputStream().write(new byte[length]);
+        readFully(line.getServerEnd().getInputStream(), length);
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertTrue("Took " + elapsedNanos + " ns", elapsedNanos >= expectedNanos);
+    }
+
+    @Test
+    public void testPartyLine_shouldBroadcastToAllServersAndCollectTheirAnswers() throws IOException {
+        line = new Iec101MemoryLine(3, 0, false);
+        byte[] request = { 0x10, 0x5B, 0x02, 0x5D, 0x16 };
+
+        line.getClientEnd().getOutputStream().write(request);
+        line.getServerEnd(1).getOutputStream().write(0xE5);
+        line.getServerEnd(2).getOutputStream().write(0xA2);
+
+        for (int server = 0; server < 3; server++) {
+            assertArrayEquals(request, readFully(line.getServerEnd(server).getInputStream(), request.length));
+        }
+        assertArrayEquals(new byte[] { (byte) 0xE5, (byte) 0xA2 },
+                readFully(line.getClientEnd().getInputStream(), 2));
+    }
+
+    @Test
+    public void testHalfDuplexLine_shouldCountFramesWithoutIdleGap() throws IOException {
+        line = new Iec101MemoryLine(1, 9600, false);
+
+        line.getClientEnd().getOutputStream().write(new byte[5]);
+        line.getServerEnd().getOutputStream().write(0xE5);
+
+        assertEquals(1, line.getIdleGapViolations());
+    }
+
+    @Test
+    public void testFullDuplexLine_shouldOnlyCountFramesWithoutIdleGapInTheSameDirection() throws IOException {
+        line = new Iec101MemoryLine(1, 9600, true);
+
+        line.getClientEnd().getOutputStream().write(new byte[5]);
+        line.getServerEnd().getOutputStream().write(0xE5);
+        assertEquals(0, line.getIdleGapViolations());
+
+        line.getClientEnd().getOutputStream().write(new byte[5]);
+        assertEquals(1, line.getIdleGapViolations());
+    }
+
+    @Test
+    public void testReadCalls_shouldCountReadsAndAvailableOnAllEnds() throws IOException {
+        line = new Iec101MemoryLine();
+        line.getClientEnd().getOutputStream().write(1);
+
+        line.getServerEnd().getInputStream().available();
+        line.getServerEnd().getInputStream().read();
+
+        assertEquals(2, line.getReadCalls());
+    }
+
+    @Test
+    public void testBitErrorRate_shouldCorruptBytesAtExpectedRate() throws Exception {
+        double bitErrorRate = 1e-3;
+        int length = 200_000;
+        line = new Iec101MemoryLine(0, bitErrorRate, 42);
+        byte[] written = new byte[length];
+        for (int i = 0; i < length; i++) {
+            written[i] = (byte) i;
+        }
+
+        byte[] received = transmit(line.getClientEnd(), line.getServerEnd(), written);
+
+        int corrupted = 0;
+        for (int i = 0; i < length; i++) {
+            if (received[i] != written[i]) {
+                corrupted++;
+            }
+        }
+        double expected = length * (1 - Math.pow(1 - bitErrorRate, 8));
+        assertEquals(corrupted, line.getCorruptedBytes());
+        assertEquals(expected, corrupted, expected * 0.1);
+    }
+
+    @Test
+    public void testSameSeed_shouldCorruptSameBits() throws Exception {
+        byte[] written = new byte[10_000];
+
+        line = new Iec101MemoryLine(0, 1e-2, 7);
+        byte[] first = transmit(line.getClientEnd(), line.getServerEnd(), written);
+        line.close();
+        line = new Iec101MemoryLine(0, 1e-2, 7);
+        byte[] second = transmit(line.getClientEnd(), line.getServerEnd(), written);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testClose_shouldEndBlockedReadOnOtherEnd() throws Exception {
+        line = new Iec101MemoryLine();
+        InputStream serverInput = line.getServerEnd().getInputStream();
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return serverInput.read();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(read.isDone());
+
+        line.getClientEnd().close();
+
+        assertEquals(-1, (int) read.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose_shouldFail() throws IOException {
+        line = new Iec101MemoryLine();
+        line.close();
+
+        line.getClientEnd().getOutputStream().write(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBitErrorRate_shouldBeRejected() {
+        new Iec101MemoryLine(9600, 1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLineWithoutServers_shouldBeRejected() {
+        new Iec101MemoryLine(0, 9600, false);
+    }
+
+    private static byte[] transmit(Iec101Transport sender, Iec101Transport receiver, byte[] data) throws Exception {
+        CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+            try {
+                return readFully(receiver.getInputStream(), data.length);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        OutputStream output = sender.getOutputStream();
+        for (int offset = 0; offset < data.length; offset += 255) {
+            output.write(data, offset, Math.min(255, data.length - offset));
+        }
+        return received.get(10, TimeUnit.SECONDS);
+    }
+
+    private static byte[] readFully(InputStream input, int length) throws IOException {
+        byte[] data = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = input.read(data, offset, length - offset);
+            if (read < 0) {
+                throw new IOException("Line closed after " + offset + " bytes");
+            }
+            offset += read;
+        }
+        return data;
+    }
+}
@@ -32,9 +32,12 @@ import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
 import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
 import net.sympower.iec60870.common.api.IEC60870Connection;
 import net.sympower.iec60870.common.api.IEC60870EventListener;
+import net.sympower.iec60870.common.api.IEC60870AsduViewListener;
 import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduView;
 import net.sympower.iec60870.common.ASduType;
 import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Threads;
 import net.sympower.iec60870.common.elements.IeBinaryStateInformation;
 import net.sympower.iec60870.common.elements.IeDoubleCommand;
 import net.sympower.iec60870.common.elements.IeNormalizedValue;
@@ -53,6 +56,11 @@ import net.sympower.iec60870.common.elements.InformationObject;
 import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
@@ -66,6 +74,7 @@ public class Iec104ClientServerIntegrationTest {
 
     private IEC60870Server server;
     private Iec104ClientConnection client;
+    private CompletableFuture<Void> blockedCommand;
 
     private RespondingServer spyServerListener;
     private AsduRecordingClient spyClientListener;
@@ -95,6 +104,34 @@ public class Iec104ClientServerIntegrationTest {
         thenClientReceivesMeasurementData();
     }
 
+    @Test
+    public void testInterrogationCommand_withViewListener_shouldReceiveAsduViews() throws Exception {
+        givenServerIsRunning();
+        ViewRecordingClient viewListener = givenClientIsConnectedWithViewListener();
+
+        whenClientSendsInterrogation();
+
+        await().atMost(3, TimeUnit.SECONDS).until(() -> viewListener.findView(ASduType.M_ME_NB_1) != null);
+        ASduView view = viewListener.findView(ASduType.M_ME_NB_1);
+        assertEquals(COMMON_ADDRESS, view.getCommonAddress());
+        assertEquals(3, view.size());
+        assertEquals(101, view.ioa(1));
+        assertEquals(12345f, view.floatValue(0), 0f);
+        assertEquals(-5432f, view.floatValue(1), 0f);
+        assertEquals(0, view.quality(2));
+    }
+
+    @Test
+    public void testCustomThreadFactory_shouldDeliverCallbacksOnItsThreads() throws Exception {
+        givenServerIsRunning();
+        ThreadRecordingClient threadListener = givenClientIsConnectedWithThreadFactory("Custom-Reader-");
+
+        whenClientSendsInterrogation();
+
+        await().atMost(3, TimeUnit.SECONDS).until(() -> !threadListener.callbackThreads.isEmpty());
+        assertTrue(threadListener.callbackThreads.stream().allMatch(name -> name.startsWith("Custom-Reader-")));
+    }
+
     @Test
     public void testSingleCommand_shouldReceiveConfirmationFromServer() throws Exception {
         givenServerIsRunning();
@@ -392,6 +429,33 @@ public class Iec104ClientServerIntegrationTest {
                .until(() -> spyServerListener.isConnectionAccepted() && spyClientListener.isConnectionReady());
     }
 
+    private ViewRecordingClient givenClientIsConnectedWithViewListener() throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .build();
+
+        ViewRecordingClient viewListener = new ViewRecordingClient();
+        client.startDataTransfer(viewListener);
+
+        await().atMost(2, TimeUnit.SECONDS).until(spyServerListener::isConnectionAccepted);
+        return viewListener;
+    }
+
+    private ThreadRecordingClient givenClientIsConnectedWithThreadFactory(String namePrefix) throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .threadFactory(IEC60870Threads.daemonThreadFactory(namePrefix))
+                .build();
+
+        ThreadRecordingClient threadListener = new ThreadRecordingClient();
+        client.startDataTransfer(threadListener);
+
+        await().atMost(2, TimeUnit.SECONDS).until(spyServerListener::isConnectionAccepted);
+        return threadListener;
+    }
+
     private void whenClientSendsInterrogation() throws IOException {
         client.interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, 
                            new IeQualifierOfInterrogation(20));
@@ -985,7 +1049,7 @@ public class Iec104ClientServerIntegrationTest {
         // When: Client tries to send more I-frames than K allows
         whenClientSendsMoreFramesThanKThreshold();
 
-        // Then: Client should block after K frames and throw exception
+        // Then: Client should block after K frames and fail once t1 expires
         thenClientBlocksAfterKFramesAndThrowsException();
     }
 
@@ -1080,6 +1144,7 @@ public class Iec104ClientServerIntegrationTest {
                 .commonAddress(COMMON_ADDRESS)
                 .connectionTimeout(CONNECTION_TIMEOUT)
                 .maxNumOfOutstandingIPdus(3) // K parameter: 3 outstanding I-frames
+                .maxTimeNoAckReceived(1000) // T1: 1 second instead of default 15
                 .build();
         
         spyClientListener = new AsduRecordingClient();
@@ -1129,13 +1194,15 @@ public class Iec104ClientServerIntegrationTest {
                             new IeSingleCommand(true, 0, false));
         Thread.sleep(50);
         
-        // This 4th frame should fail because K=3 and no acknowledgments received
-        try {
-            client.singleCommand(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, 1004, 
-                                new IeSingleCommand(true, 0, false));
-        } catch (IOException e) {
-            // Expected - this should throw "Too many unacknowledged I-frames"
-        }
+        // The 4th frame waits for an acknowledgment because K=3 and none has been received
+        blockedCommand = CompletableFuture.runAsync(() -> {
+            try {
+                client.singleCommand(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, 1004, 
+                                    new IeSingleCommand(true, 0, false));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
     }
 
     private void thenServerReceivesExactlyOneCommand() {
@@ -1185,24 +1252,22 @@ public class Iec104ClientServerIntegrationTest {
         assertTrue("Connection should be ready", spyClientListener.isConnectionReady());
     }
 
-    private void thenClientBlocksAfterKFramesAndThrowsException() {
+    private void thenClientBlocksAfterKFramesAndThrowsException() throws Exception {
         await().atMost(3, TimeUnit.SECONDS).until(() ->
             ((NoAckSpyServerListener) spyServerListener).getCommandReceiveCount() >= 3);
         
         assertEquals("Server should receive exactly 3 commands due to K parameter", 3,
                     ((NoAckSpyServerListener) spyServerListener).getCommandReceiveCount());
+        assertFalse("4th command should wait for an acknowledgment", blockedCommand.isDone());
         
-        boolean exceptionThrown = false;
+        // Without an acknowledgment t1 expires and the waiting command fails
         try {
-            client.singleCommand(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, 1005, 
-                                new IeSingleCommand(true, 0, false));
-        } catch (IOException e) {
-            exceptionThrown = true;
-            assertTrue("Should get 'Too many unacknowledged I-frames' error", 
-                      e.getMessage().contains("Too many unacknowledged I-frames"));
+            blockedCommand.get(5, TimeUnit.SECONDS);
+            fail("Should throw IOException when no acknowledgment arrives within t1");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
         }
-        
-        assertTrue("Should throw IOException when exceeding K parameter", exceptionThrown);
+        assertEquals(3, ((NoAckSpyServerListener) spyServerListener).getCommandReceiveCount());
     }
 
     private static class NoAckSpyServerListener extends RespondingServer {
@@ -1248,4 +1313,42 @@ public class Iec104ClientServerIntegrationTest {
         }
     }
 
+
+    private static class ViewRecordingClient implements IEC60870AsduViewListener {
+
+        private final List<ASduView> views = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAsduViewReceived(ASduView view) {
+            views.add(view);
+        }
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            fail("ASDU should have been delivered as a view");
+        }
+
+        @Override
+        public void onConnectionReady() {
+        }
+
+        @Override
+        public void onConnectionLost(IOException cause) {
+        }
+
+        ASduView findView(ASduType type) {
+            return views.stream().filter(v -> v.getTypeIdentification() == type).findFirst().orElse(null);
+        }
+    }
+
+    private static class ThreadRecordingClient extends AsduRecordingClient {
+
+        private final List<String> callbackThreads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            callbackThreads.add(Thread.currentThread().getName());
+            super.onAsduReceived(asdu);
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.common.api.IEC60870ServerListener;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class Iec104DispatchIntegrationTest {
+
+    private static final int TEST_PORT = 12348;
+    private static final int COMMON_ADDRESS = 1;
+
+    private final CountDownLatch releaseListener = new CountDownLatch(1);
+
+    private IEC60870Server server;
+    private Iec104ClientConnection client;
+    private AsduRecordingClient clientListener;
+    private BlockingListener serverListener;
+    private volatile IEC60870Connection serverConnection;
+
+    @After
+    public void tearDown() {
+        releaseListener.countDown();
+        if (client != null && !client.isClosed()) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testBlockedListener_shouldNotStopAcknowledgments() throws Exception {
+        givenServerIsRunning(1, 100, DispatchOverflowPolicy.BLOCK);
+        givenClientIsConnected();
+
+        List<CompletableFuture<Void>> futures = whenClientSendsAsync(20);
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection.getDispatchQueueDepth() == 19);
+
+        releaseListener.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == 20);
+        thenServerReceivedValuesInOrder(20);
+        assertEquals(0, serverConnection.getDispatchQueueDepth());
+    }
+
+    @Test
+    public void testDropOldestPolicy_shouldDiscardQueuedAsdus() throws Exception {
+        givenServerIsRunning(1, 5, DispatchOverflowPolicy.DROP_OLDEST);
+        givenClientIsConnected();
+
+        List<CompletableFuture<Void>> futures = whenClientSendsAsync(20);
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection.getDroppedAsduCount() == 14);
+
+        releaseListener.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == 6);
+    }
+
+    @Test
+    public void testClosePolicy_shouldCloseConnectionOnOverflow() throws Exception {
+        givenServerIsRunning(1, 5, DispatchOverflowPolicy.CLOSE);
+        givenClientIsConnected();
+
+        whenClientSendsAsync(10);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> serverConnection.isClosed());
+        await().atMost(5, TimeUnit.SECONDS).until(clientListener::isConnectionLost);
+    }
+
+    @Test
+    public void testConnectionLost_shouldFollowLastDeliveredAsdu() throws Exception {
+        givenServerIsRunning(1, 100, DispatchOverflowPolicy.BLOCK);
+        givenClientIsConnected();
+        List<CompletableFuture<Void>> futures = whenClientSendsAsync(5);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection.getDispatchQueueDepth() == 4);
+
+        client.close();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection.isClosed());
+        releaseListener.countDown();
+
+        await().atMost(5, TimeUnit.SECONDS).until(serverListener::isConnectionLost);
+        assertEquals(1, serverListener.findAsdusOfType(ASduType.M_ME_NB_1).size());
+        assertEquals(4, serverConnection.getDroppedAsduCount());
+    }
+
+    private void givenServerIsRunning(int dispatchThreads, int queueCapacity, DispatchOverflowPolicy policy)
+            throws IOException {
+        serverListener = new BlockingListener();
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .maxConnections(1)
+                .maxTimeNoAckSent(200)
+                .dispatchThreads(dispatchThreads)
+                .dispatchQueueCapacity(queueCapacity)
+                .dispatchOverflowPolicy(policy)
+                .build();
+        server.start(new IEC60870ServerListener() {
+            @Override
+            public void onConnectionAccepted(IEC60870Connection connection) {
+                try {
+                    connection.startDataTransfer(serverListener);
+                } catch (IOException e) {
+                    fail("Failed to start data transfer on server connection: " + e.getMessage());
+                }
+                serverConnection = connection;
+            }
+        });
+    }
+
+    private void givenClientIsConnected() throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .build();
+        clientListener = new AsduRecordingClient();
+        client.startDataTransfer(clientListener);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection != null && clientListener.isConnectionReady());
+    }
+
+    private List<CompletableFuture<Void>> whenClientSendsAsync(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(client.sendAsync(measurement(i)));
+        }
+        return futures;
+    }
+
+    private void thenServerReceivedValuesInOrder(int count) {
+        List<ASdu> received = serverListener.findAsdusOfType(ASduType.M_ME_NB_1);
+        for (int i = 0; i < count; i++) {
+            IeScaledValue value = (IeScaledValue) received.get(i).getInformationObjects()[0]
+                    .getInformationElements()[0][0];
+            assertEquals(i, value.getUnnormalizedValue());
+        }
+    }
+
+    private static ASdu measurement(int value) {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(100, new IeScaledValue(value), new IeQuality(false, false, false, false, false)));
+    }
+
+    private class BlockingListener extends AsduRecordingClient {
+
+        @Override
+        public void onAsduReceived(ASdu asdu) {
+            try {
+                releaseListener.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.onAsduReceived(asdu);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.ASduView;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.DispatchOverflowPolicy;
+import net.sympower.iec60870.common.api.IEC60870AsduViewListener;
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870EventListener;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.common.api.IEC60870ServerListener;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.IeSinglePointWithQuality;
+import net.sympower.iec60870.common.elements.IeTime56;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.api.Iec104Server;
+import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
+import net.sympower.iec60870.iec104.connection.Iec104EventLoop;
+import net.sympower.iec60870.iec104.connection.Iec104ServerSettings;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import net.sympower.iec60870.spy.RespondingServer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+
+public class Iec104NonBlockingServerIntegrationTest {
+
+    private static final int TEST_PORT = 12346;
+    private static final int COMMON_ADDRESS = 1;
+    private static final int CLIENT_COUNT = 100;
+    private static final int EVENT_LOOP_THREADS = 2;
+
+    private IEC60870Server server;
+    private final List<Iec104ClientConnection> clients = new ArrayList<>();
+    private final List<AsduRecordingClient> clientListeners = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (Iec104ClientConnection client : clients) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testInterrogation_shouldBeAnsweredByNonBlockingServer() throws Exception {
+        RespondingServer respondingServer = new RespondingServer();
+        givenNonBlockingServerIsRunning(respondingServer, 1);
+        givenClientsAreConnected(1);
+
+        whenClientsSendInterrogation();
+
+        await().atMost(5, TimeUnit.SECONDS).until(respondingServer::hasReceivedInterrogation);
+        await().atMost(5, TimeUnit.SECONDS)
+               .until(() -> clientListeners.get(0).hasReceived(ASduType.M_ME_NB_1, CauseOfTransmission.SPONTANEOUS));
+    }
+
+    @Test
+    public void testManyClients_shouldBeServedByEventLoopPool() throws Exception {
+        ConfirmingServer confirmingServer = new ConfirmingServer();
+        givenNonBlockingServerIsRunning(confirmingServer, CLIENT_COUNT);
+        givenClientsAreConnected(CLIENT_COUNT);
+
+        whenClientsSendInterrogation();
+
+        thenEveryClientReceivesConfirmation();
+        assertEquals(CLIENT_COUNT, confirmingServer.acceptedConnections.get());
+        assertEquals(EVENT_LOOP_THREADS, countThreadsNamed("IEC104-EventLoop-"));
+    }
+
+    @Test
+    public void testClosedConnection_shouldReleaseConnectionSlot() throws Exception {
+        ConfirmingServer confirmingServer = new ConfirmingServer();
+        givenNonBlockingServerIsRunning(confirmingServer, 1);
+        givenClientsAreConnected(1);
+
+        clients.get(0).close();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> confirmingServer.lostConnections.get() > 0);
+
+        givenClientsAreConnected(1);
+        whenClientsSendInterrogation();
+
+        await().atMost(5, TimeUnit.SECONDS)
+               .until(() -> clientListeners.get(1).hasReceived(ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_CON));
+    }
+
+    @Test
+    public void testThreadFactory_shouldCreateEventLoopThreads() throws Exception {
+        AtomicInteger eventLoopThreads = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            if (runnable instanceof Iec104EventLoop) {
+                eventLoopThreads.incrementAndGet();
+            }
+            Thread thread = new Thread(runnable, "Custom-");
+            thread.setDaemon(true);
+            return thread;
+        };
+        RespondingServer respondingServer = new RespondingServer();
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .nonBlocking(true)
+                .eventLoopThreads(EVENT_LOOP_THREADS)
+                .threadFactory(threadFactory)
+                .build();
+        server.start(respondingServer);
+        givenClientsAreConnected(1);
+
+        whenClientsSendInterrogation();
+
+        await().atMost(5, TimeUnit.SECONDS).until(respondingServer::hasReceivedInterrogation);
+        assertEquals(EVENT_LOOP_THREADS, eventLoopThreads.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlockOverflowPolicy_shouldBeRejectedWithDispatchThreads() throws Exception {
+        new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .nonBlocking(true)
+                .dispatchThreads(1)
+                .dispatchOverflowPolicy(DispatchOverflowPolicy.BLOCK)
+                .build();
+    }
+
+    @Test
+    public void testTimeZone_shouldBeUsedByConnections() throws Exception {
+        TimeZone timeZone = TimeZone.getTimeZone("GMT+02:00");
+        Iec104ServerSettings settings = new Iec104ServerSettings();
+        settings.setPort(TEST_PORT);
+        settings.setNonBlocking(true);
+        settings.setEventLoopThreads(EVENT_LOOP_THREADS);
+        settings.setTimeZone(timeZone);
+        TimestampRecordingServer timestampServer = new TimestampRecordingServer();
+        server = new Iec104Server(settings);
+        server.start(timestampServer);
+        givenClientsAreConnected(1);
+        long timestamp = 1700000000000L;
+
+        clients.get(0).send(new ASdu(ASduType.M_SP_TB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS, new InformationObject(1, new InformationElement[][] { {
+                        new IeSinglePointWithQuality(true, false, false, false, false),
+                        new IeTime56(timestamp, timeZone, false) } })));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> timestampServer.timestamp.get() != 0);
+        assertEquals(timestamp, timestampServer.timestamp.get());
+    }
+
+    private void givenNonBlockingServerIsRunning(IEC60870ServerListener listener, int maxConnections)
+            throws IOException {
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .maxConnections(maxConnections)
+                .nonBlocking(true)
+                .eventLoopThreads(EVENT_LOOP_THREADS)
+                .build();
+        server.start(listener);
+    }
+
+    private void givenClientsAreConnected(int count) throws IOException {
+        List<AsduRecordingClient> newListeners = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Iec104ClientConnection client = new IEC60870ClientBuilder()
+                    .iec104("localhost", TEST_PORT)
+                    .connectionTimeout(5000)
+                    .build();
+            AsduRecordingClient listener = new AsduRecordingClient();
+            client.startDataTransfer(listener);
+            clients.add(client);
+            clientListeners.add(listener);
+            newListeners.add(listener);
+        }
+
+        await().atMost(10, TimeUnit.SECONDS)
+               .until(() -> newListeners.stream().allMatch(AsduRecordingClient::isConnectionReady));
+    }
+
+    private void whenClientsSendInterrogation() throws IOException {
+        for (Iec104ClientConnection client : clients) {
+            if (!client.isClosed()) {
+                client.interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION, new IeQualifierOfInterrogation(20));
+            }
+        }
+    }
+
+    private void thenEveryClientReceivesConfirmation() {
+        await().atMost(10, TimeUnit.SECONDS)
+               .until(() -> clientListeners.stream()
+                       .allMatch(l -> l.hasReceived(ASduType.C_IC_NA_1, CauseOfTransmission.ACTIVATION_CON)));
+    }
+
+    private static long countThreadsNamed(String prefix) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(Thread::isAlive)
+                .filter(t -> t.getName().startsWith(prefix))
+                .count();
+    }
+
+    private static class TimestampRecordingServer implements IEC60870ServerListener {
+
+        private final AtomicLong timestamp = new AtomicLong();
+
+        @Override
+        public void onConnectionAccepted(IEC60870Connection connection) {
+            try {
+                connection.startDataTransfer(new IEC60870AsduViewListener() {
+                    @Override
+                    public void onAsduViewReceived(ASduView view) {
+                        timestamp.set(view.timestamp(0));
+                    }
+
+                    @Override
+                    public void onAsduReceived(ASdu asdu) {
+                    }
+
+                    @Override
+                    public void onConnectionReady() {
+                    }
+
+                    @Override
+                    public void onConnectionLost(IOException cause) {
+                    }
+                });
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+
+    private static class ConfirmingServer implements IEC60870ServerListener {
+
+        private final AtomicInteger acceptedConnections = new AtomicInteger();
+        private final AtomicInteger lostConnections = new AtomicInteger();
+
+        @Override
+        public void onConnectionAccepted(IEC60870Connection connection) {
+            acceptedConnections.incrementAndGet();
+            try {
+                connection.startDataTransfer(new IEC60870EventListener() {
+                    @Override
+                    public void onAsduReceived(ASdu asdu) {
+                        try {
+                            connection.sendConfirmation(asdu);
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+
+                    @Override
+                    public void onConnectionReady() {
+                    }
+
+                    @Override
+                    public void onConnectionLost(IOException cause) {
+                        lostConnections.incrementAndGet();
+                    }
+                });
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+}
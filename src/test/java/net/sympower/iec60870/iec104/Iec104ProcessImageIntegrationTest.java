@@ -0,0 +1,209 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.common.api.IEC60870ServerListener;
+import net.sympower.iec60870.common.elements.IeQualifierOfInterrogation;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.common.image.IEC60870InterrogationResponder;
+import net.sympower.iec60870.common.image.IEC60870PointType;
+import net.sympower.iec60870.common.image.IEC60870ProcessImage;
+import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class Iec104ProcessImageIntegrationTest {
+
+    private static final int TEST_PORT = 12349;
+    private static final int COMMON_ADDRESS = 1;
+    private static final int POINTS = 1000;
+
+    private IEC60870ProcessImage image;
+    private IEC60870InterrogationResponder responder;
+    private IEC60870Server server;
+    private Iec104ClientConnection client;
+    private AsduRecordingClient clientListener;
+    private volatile IEC60870Connection serverConnection;
+
+    @After
+    public void tearDown() {
+        if (client != null && !client.isClosed()) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+        if (responder != null) {
+            responder.close();
+        }
+        if (image != null) {
+            image.close();
+        }
+    }
+
+    @Test
+    public void testUpdates_shouldReachClientWithLatestValues() throws Exception {
+        givenProcessImage();
+        givenServerIsRunning();
+        givenClientIsConnected();
+
+        for (int round = 1; round <= 3; round++) {
+            for (int i = 0; i < POINTS; i++) {
+                image.update(i, round * 100 + i % 100, IEC60870ProcessImage.QUALITY_GOOD, System.currentTimeMillis());
+            }
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> latestValues().size() == POINTS
+                && latestValues().values().stream().allMatch(value -> value >= 300));
+        Map<Integer, Integer> latest = latestValues();
+        for (int i = 0; i < POINTS; i++) {
+            assertEquals(300 + i % 100, (int) latest.get(1000 + i));
+        }
+    }
+
+    @Test
+    public void testInterrogationDuringUpdates_shouldLeaveClientWithCurrentValues() throws Exception {
+        givenProcessImage();
+        givenServerIsRunning();
+        givenClientIsConnected();
+        AtomicBoolean updating = new AtomicBoolean(true);
+        Thread updater = new Thread(() -> {
+            Random random = new Random(42);
+            int value = 0;
+            while (updating.get()) {
+                image.update(random.nextInt(POINTS), ++value % 30000, IEC60870ProcessImage.QUALITY_GOOD,
+                        System.currentTimeMillis());
+                if (value % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+        updater.start();
+
+        try {
+            client.interrogation(COMMON_ADDRESS, CauseOfTransmission.ACTIVATION,
+                    new IeQualifierOfInterrogation(20));
+            await().atMost(10, TimeUnit.SECONDS).until(() -> clientListener.hasReceived(ASduType.C_IC_NA_1,
+                    CauseOfTransmission.ACTIVATION_TERMINATION));
+        } finally {
+            updating.set(false);
+            updater.join();
+        }
+
+        List<ASdu> interrogated = clientListener.findAsdusOfType(ASduType.M_ME_NB_1).stream()
+                .filter(asdu -> asdu.getCauseOfTransmission() == CauseOfTransmission.INTERROGATED_BY_STATION)
+                .collect(Collectors.toList());
+        assertEquals((POINTS + 79) / 80, interrogated.size());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> {
+            Map<Integer, Integer> latest = latestValues();
+            for (int i = 0; i < POINTS; i++) {
+                Integer value = latest.get(1000 + i);
+                if (value == null || value != (int) image.getValue(i)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private Map<Integer, Integer> latestValues() {
+        Map<Integer, Integer> values = new HashMap<>();
+        for (ASdu asdu : clientListener.findAsdusOfType(ASduType.M_ME_NB_1)) {
+            for (InformationObject object : asdu.getInformationObjects()) {
+                InformationElement[][] elements = object.getInformationElements();
+                for (int i = 0; i < elements.length; i++) {
+                    int address = object.getInformationObjectAddress() + (asdu.isSequenceOfElements() ? i : 0);
+                    values.put(address, ((IeScaledValue) elements[i][0]).getUnnormalizedValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    private void givenProcessImage() {
+        image = new IEC60870ProcessImage(POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            image.addPoint(COMMON_ADDRESS, 1000 + i, IEC60870PointType.SCALED_VALUE);
+        }
+        responder = new IEC60870InterrogationResponder(image);
+    }
+
+    private void givenServerIsRunning() throws IOException {
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .maxConnections(1)
+                .build();
+        server.start(new IEC60870ServerListener() {
+            @Override
+            public void onConnectionAccepted(IEC60870Connection connection) {
+                try {
+                    connection.startDataTransfer(new AsduRecordingClient() {
+                        @Override
+                        public void onAsduReceived(ASdu asdu) {
+                            responder.handle(connection, asdu);
+                        }
+                    });
+                } catch (IOException e) {
+                    fail("Failed to start data transfer on server connection: " + e.getMessage());
+                }
+                image.addConnection(connection);
+                serverConnection = connection;
+            }
+        });
+    }
+
+    private void givenClientIsConnected() throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .build();
+        clientListener = new AsduRecordingClient();
+        client.startDataTransfer(clientListener);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection != null
+                && serverConnection.isDataTransferStarted());
+    }
+}
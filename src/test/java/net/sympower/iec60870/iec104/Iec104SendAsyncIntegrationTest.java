@@ -0,0 +1,197 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870Connection;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.common.api.IEC60870ServerListener;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.connection.Iec104ClientConnection;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec104SendAsyncIntegrationTest {
+
+    private static final int TEST_PORT = 12347;
+    private static final int COMMON_ADDRESS = 1;
+
+    private IEC60870Server server;
+    private Iec104ClientConnection client;
+    private AsduRecordingClient clientListener;
+    private volatile IEC60870Connection serverConnection;
+
+    @After
+    public void tearDown() {
+        if (client != null && !client.isClosed()) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testSendAsyncBeyondKWindow_shouldDeliverAllAsdusInOrder() throws Exception {
+        givenServerIsRunning(12, 1000);
+        givenClientIsConnected(8, 200);
+
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(100);
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        await().atMost(5, TimeUnit.SECONDS)
+               .until(() -> clientListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == 100);
+        thenClientReceivedValuesInOrder(100);
+    }
+
+    @Test
+    public void testSendAsyncRepeatedBatches_shouldAcknowledgeEveryFrame() throws Exception {
+        givenServerIsRunning(12, 100);
+        givenClientIsConnected(8, 1);
+
+        for (int batch = 0; batch < 200; batch++) {
+            List<CompletableFuture<Void>> futures = whenServerSendsAsync(20);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testSendAsync_shouldCompleteOnlyWhenAcknowledged() throws Exception {
+        givenServerIsRunning(2, 1000);
+        givenClientIsConnected(8, 1000);
+
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(1);
+
+        await().atMost(2, TimeUnit.SECONDS)
+               .until(() -> clientListener.findAsdusOfType(ASduType.M_ME_NB_1).size() == 1);
+        assertFalse("Future must wait for the client's S-frame", futures.get(0).isDone());
+
+        futures.get(0).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSendAsyncWithFullQueue_shouldFailFast() throws Exception {
+        givenServerIsRunning(1, 2);
+        givenClientIsConnected(8, 10000);
+
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(4);
+
+        assertTrue(futures.get(3).isCompletedExceptionally());
+        assertFalse(futures.get(0).isDone());
+        assertFalse(futures.get(2).isDone());
+    }
+
+    @Test
+    public void testClose_shouldFailPendingFutures() throws Exception {
+        givenServerIsRunning(1, 10);
+        givenClientIsConnected(8, 10000);
+
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(3);
+        serverConnection.close();
+
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get(2, TimeUnit.SECONDS);
+                fail("Expected pending send to fail when the connection closes");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    private void givenServerIsRunning(int k, int sendQueueCapacity) throws IOException {
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .maxConnections(1)
+                .maxNumOfOutstandingIPdus(k)
+                .sendQueueCapacity(sendQueueCapacity)
+                .build();
+        server.start(new IEC60870ServerListener() {
+            @Override
+            public void onConnectionAccepted(IEC60870Connection connection) {
+                try {
+                    connection.startDataTransfer(new AsduRecordingClient());
+                } catch (IOException e) {
+                    fail("Failed to start data transfer on server connection: " + e.getMessage());
+                }
+                serverConnection = connection;
+            }
+        });
+    }
+
+    private void givenClientIsConnected(int w, int t2) throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .maxUnconfirmedIPdusReceived(w)
+                .maxTimeNoAckSent(t2)
+                .build();
+        clientListener = new AsduRecordingClient();
+        client.startDataTransfer(clientListener);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection != null && clientListener.isConnectionReady());
+    }
+
+    private List<CompletableFuture<Void>> whenServerSendsAsync(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(serverConnection.sendAsync(measurement(i)));
+        }
+        return futures;
+    }
+
+    private void thenClientReceivedValuesInOrder(int count) {
+        List<ASdu> received = clientListener.findAsdusOfType(ASduType.M_ME_NB_1);
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            IeScaledValue value = (IeScaledValue) received.get(i).getInformationObjects()[0]
+                    .getInformationElements()[0][0];
+            assertEquals(i, value.getUnnormalizedValue());
+        }
+    }
+
+    private static ASdu measurement(int value) {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(100, new IeScaledValue(value), new IeQuality(false, false, false, false, false)));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.apdu;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.InformationElement;
+import net.sympower.iec60870.common.elements.InformationObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class APduDecoderTest {
+
+    private final IEC60870Settings settings = new IEC60870Settings();
+
+    @Test
+    public void testFramesInOneRead_shouldBeDecodedWithSingleRead() throws Exception {
+        byte[] stream = concat(iFrame(0, 5, 1.5f), sFrame(7), iFrame(1, 5, 2.5f));
+        ChunkedInputStream input = new ChunkedInputStream(stream, stream.length);
+        APduDecoder decoder = new APduDecoder(settings);
+
+        thenIFrameHasValue(decoder.read(input), 0, 5, 1.5f);
+        APdu sFormat = decoder.read(input);
+        assertEquals(APdu.ApciType.S_FORMAT, sFormat.getApciType());
+        assertEquals(7, sFormat.getReceiveSeqNumber());
+        thenIFrameHasValue(decoder.read(input), 1, 5, 2.5f);
+
+        assertEquals(1, input.reads);
+    }
+
+    @Test
+    public void testFrameSplitAcrossReads_shouldBeReassembled() throws Exception {
+        byte[] stream = concat(iFrame(3, 0, 1.5f), startDtAct(), iFrame(4, 0, -4.25f));
+        APduDecoder decoder = new APduDecoder(settings);
+
+        for (int chunkSize = 1; chunkSize < stream.length; chunkSize++) {
+            ChunkedInputStream input = new ChunkedInputStream(stream, chunkSize);
+
+            thenIFrameHasValue(decoder.read(input), 3, 0, 1.5f);
+            assertEquals(APdu.ApciType.STARTDT_ACT, decoder.read(input).getApciType());
+            thenIFrameHasValue(decoder.read(input), 4, 0, -4.25f);
+            assertEquals(0, decoder.getBufferedBytes());
+        }
+    }
+
+    @Test
+    public void testIncompleteFrame_shouldNotBeReturned() throws Exception {
+        byte[] frame = iFrame(0, 0, 1.5f);
+        APduDecoder decoder = new APduDecoder(settings);
+
+        decoder.read(new ChunkedInputStream(concat(startDtAct(), Arrays.copyOf(frame, frame.length - 1)), 255));
+
+        assertNull(decoder.next());
+        assertEquals(frame.length - 1, decoder.getBufferedBytes());
+    }
+
+    @Test
+    public void testEndOfStream_shouldThrowEofException() throws Exception {
+        byte[] frame = iFrame(0, 0, 1.5f);
+        APduDecoder decoder = new APduDecoder(settings);
+
+        try {
+            decoder.read(new ChunkedInputStream(Arrays.copyOf(frame, 8), 255));
+            fail("Expected EOFException");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testInvalidStartFlag_shouldThrowIOException() throws Exception {
+        APduDecoder decoder = new APduDecoder(settings);
+
+        try {
+            decoder.read(new ChunkedInputStream(new byte[] { 0x10, 0x04, 0x01, 0x00, 0x00, 0x00 }, 6));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("START flag"));
+        }
+    }
+
+    @Test
+    public void testInvalidLength_shouldThrowIOException() throws Exception {
+        APduDecoder decoder = new APduDecoder(settings);
+
+        try {
+            decoder.read(new ChunkedInputStream(new byte[] { 0x68, 0x02, 0x01, 0x00 }, 4));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("invalid length"));
+        }
+    }
+
+    @Test
+    public void testDecodedAsdu_shouldMatchStreamDecoder() throws Exception {
+        byte[] frame = iFrame(100, 200, 42.0f);
+        APduDecoder decoder = new APduDecoder(settings);
+
+        APdu buffered = decoder.read(new ChunkedInputStream(frame, frame.length));
+        APdu streamed = APdu.decode(new ChunkedInputStream(frame, 1), settings);
+
+        assertEquals(streamed.getSendSeqNumber(), buffered.getSendSeqNumber());
+        assertEquals(streamed.getReceiveSeqNumber(), buffered.getReceiveSeqNumber());
+        assertEquals(streamed.getASdu().toString(), buffered.getASdu().toString());
+    }
+
+    @Test
+    public void testAsduViewMode_shouldReturnViewInsteadOfAsdu() throws Exception {
+        byte[] stream = concat(iFrame(0, 0, 1.5f), iFrame(1, 0, 2.5f));
+        APduDecoder decoder = new APduDecoder(settings);
+        decoder.setDecodeAsduViews(true);
+
+        APdu first = decoder.read(new ChunkedInputStream(stream, stream.length));
+        APdu second = decoder.next();
+
+        assertNull(first.getASdu());
+        assertEquals(100, first.getASduView().ioa(0));
+        assertEquals(1.5f, first.getASduView().floatValue(0), 0.0f);
+        assertEquals(2.5f, second.getASduView().floatValue(0), 0.0f);
+        assertEquals(1, second.getSendSeqNumber());
+    }
+
+    private void thenIFrameHasValue(APdu apdu, int sendSeqNum, int receiveSeqNum, float value) {
+        assertEquals(APdu.ApciType.I_FORMAT, apdu.getApciType());
+        assertEquals(sendSeqNum, apdu.getSendSeqNumber());
+        assertEquals(receiveSeqNum, apdu.getReceiveSeqNumber());
+        ASdu asdu = apdu.getASdu();
+        assertEquals(ASduType.M_ME_NC_1, asdu.getTypeIdentification());
+        InformationElement[] elements = asdu.getInformationObjects()[0].getInformationElements()[0];
+        assertEquals(value, ((IeShortFloat) elements[0]).getValue(), 0.0f);
+    }
+
+    private byte[] iFrame(int sendSeqNum, int receiveSeqNum, float value) {
+        ASdu asdu = new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                new InformationObject(100, new IeShortFloat(value), new IeQuality(false, false, false, false, false)));
+        byte[] buffer = new byte[APdu.MAX_FRAME_LENGTH];
+        int length = APdu.encodeIFormat(buffer, sendSeqNum, receiveSeqNum, asdu, settings);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static byte[] sFrame(int receiveSeqNum) {
+        byte[] buffer = new byte[APdu.CONTROL_FRAME_LENGTH];
+        APdu.encodeSFormat(buffer, receiveSeqNum);
+        return buffer;
+    }
+
+    private static byte[] startDtAct() {
+        return new byte[] { 0x68, 0x04, 0x07, 0x00, 0x00, 0x00 };
+    }
+
+    private static byte[] concat(byte[]... frames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            out.write(frame, 0, frame.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns at most {@code chunkSize} bytes per read, like a socket receiving the data in separate segments.
+     */
+    private static class ChunkedInputStream extends InputStream {
+
+        private final byte[] data;
+        private final int chunkSize;
+        private int position;
+        private int reads;
+
+        ChunkedInputStream(byte[] data, int chunkSize) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, chunkSize), data.length - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            reads++;
+            return count;
+        }
+    }
+}
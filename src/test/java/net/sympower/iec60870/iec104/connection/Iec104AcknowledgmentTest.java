@@ -0,0 +1,303 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.apdu.APdu;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec104AcknowledgmentTest {
+
+    private static final byte[] STARTDT_ACT = { 0x68, 0x04, 0x07, 0x00, 0x00, 0x00 };
+    private static final byte[] STOPDT_ACT = { 0x68, 0x04, 0x13, 0x00, 0x00, 0x00 };
+
+    private final Iec104ServerSettings settings = new Iec104ServerSettings();
+    private final ScriptedInputStream socketInput = new ScriptedInputStream();
+    private final RecordingOutputStream socketOutput = new RecordingOutputStream();
+    private Iec104ServerConnection connection;
+
+    @After
+    public void tearDown() {
+        socketOutput.releaseWrites();
+        socketInput.close();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testAcknowledgmentDuringWrite_shouldCompleteFuture() throws Exception {
+        givenStartedServerConnection(12);
+        socketOutput.holdWrites();
+
+        CompletableFuture<CompletableFuture<Void>> sent = CompletableFuture.supplyAsync(
+                () -> connection.sendAsync(measurement(0)));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.heldWrites.getCount() == 0);
+        whenClientAcknowledges(1);
+        // Let the reader handle the acknowledgment while the I-frame is still being written
+        Thread.sleep(100);
+
+        socketOutput.releaseWrites();
+        sent.get(2, TimeUnit.SECONDS).get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPartialAcknowledgment_shouldCompleteOnlyCoveredFrames() throws Exception {
+        givenStartedServerConnection(12);
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(3);
+
+        whenClientAcknowledges(2);
+        futures.get(1).get(2, TimeUnit.SECONDS);
+        whenClientAcknowledges(2);
+        Thread.sleep(100);
+
+        assertTrue(futures.get(0).isDone());
+        assertFalse(futures.get(2).isDone());
+
+        whenClientAcknowledges(3);
+        futures.get(2).get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSend_shouldWaitBehindQueuedAsdusInsteadOfFailing() throws Exception {
+        givenStartedServerConnection(1);
+        whenServerSendsAsync(2);
+
+        CompletableFuture<Void> sent = CompletableFuture.runAsync(() -> {
+            try {
+                connection.send(measurement(2));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse("send() must wait while the k window is full", sent.isDone());
+
+        whenClientAcknowledges(1);
+        whenClientAcknowledges(2);
+        sent.get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0, 1, 2), socketOutput.sentValues());
+    }
+
+    @Test
+    public void testStartDtAfterStopDt_shouldFailUnacknowledgedFutures() throws Exception {
+        givenStartedServerConnection(12);
+        List<CompletableFuture<Void>> futures = whenServerSendsAsync(2);
+
+        socketInput.feed(STOPDT_ACT);
+        socketInput.feed(STARTDT_ACT);
+
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get(2, TimeUnit.SECONDS);
+                fail("Expected the sequence number reset to fail the unacknowledged send");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+        await().atMost(2, TimeUnit.SECONDS).until(connection::isDataTransferStarted);
+
+        CompletableFuture<Void> afterRestart = connection.sendAsync(measurement(2));
+        whenClientAcknowledges(1);
+        afterRestart.get(2, TimeUnit.SECONDS);
+    }
+
+    private void givenStartedServerConnection(int k) throws IOException {
+        settings.setMaxNumOfOutstandingIPdus(k);
+        settings.setMaxTimeNoAckReceived(600000);
+        settings.setMaxIdleTime(600000);
+
+        connection = new Iec104ServerConnection(new StreamSocket(), settings);
+        connection.startDataTransfer(new AsduRecordingClient());
+        socketInput.feed(STARTDT_ACT);
+
+        await().atMost(2, TimeUnit.SECONDS).until(connection::isDataTransferStarted);
+    }
+
+    private List<CompletableFuture<Void>> whenServerSendsAsync(int count) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(connection.sendAsync(measurement(i)));
+        }
+        return futures;
+    }
+
+    private void whenClientAcknowledges(int receiveSeqNum) {
+        byte[] sFrame = new byte[APdu.CONTROL_FRAME_LENGTH];
+        APdu.encodeSFormat(sFrame, receiveSeqNum);
+        socketInput.feed(sFrame);
+    }
+
+    private static ASdu measurement(int value) {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                new InformationObject(100, new IeScaledValue(value), new IeQuality(false, false, false, false, false)));
+    }
+
+    private class StreamSocket extends Socket {
+
+        @Override
+        public InputStream getInputStream() {
+            return socketInput;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return socketOutput;
+        }
+    }
+
+    /**
+     * Records every frame the connection writes. While held, I-frame writes block until released, like a socket
+     * whose send buffer is full.
+     */
+    private class RecordingOutputStream extends OutputStream {
+
+        private final List<byte[]> frames = new CopyOnWriteArrayList<>();
+        private final AtomicReference<CountDownLatch> release = new AtomicReference<>();
+        private final CountDownLatch heldWrites = new CountDownLatch(1);
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            byte[] frame = Arrays.copyOfRange(buffer, offset, offset + length);
+            frames.add(frame);
+            CountDownLatch latch = release.get();
+            if (latch != null && (frame[2] & 0x01) == 0) {
+                heldWrites.countDown();
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void holdWrites() {
+            release.set(new CountDownLatch(1));
+        }
+
+        void releaseWrites() {
+            CountDownLatch latch = release.getAndSet(null);
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        List<Integer> sentValues() throws IOException {
+            List<Integer> values = new ArrayList<>();
+            for (byte[] frame : frames) {
+                APdu apdu = APdu.decode(new ByteArrayInputStream(frame), settings);
+                if (apdu.getApciType() == APdu.ApciType.I_FORMAT) {
+                    IeScaledValue value = (IeScaledValue) apdu.getASdu().getInformationObjects()[0]
+                            .getInformationElements()[0][0];
+                    values.add(value.getUnnormalizedValue());
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Hands the frames fed by the test to the connection's reader and otherwise blocks like an idle socket.
+     */
+    private static class ScriptedInputStream extends InputStream {
+
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private byte[] current = new byte[0];
+        private int position;
+
+        void feed(byte[] frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == current.length) {
+                try {
+                    current = frames.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+                if (current == END) {
+                    frames.add(END);
+                    return -1;
+                }
+                position = 0;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            frames.add(END);
+        }
+    }
+}
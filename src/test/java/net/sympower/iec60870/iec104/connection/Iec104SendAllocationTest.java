@@ -0,0 +1,178 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+
+public class Iec104SendAllocationTest {
+
+    private static final byte[] STARTDT_ACT = { 0x68, 0x04, 0x07, 0x00, 0x00, 0x00 };
+    private static final int WARM_UP_FRAMES = 20000;
+    private static final int MEASURED_FRAMES = 10000;
+
+    private final CountingOutputStream socketOutput = new CountingOutputStream();
+    private final StartDtInputStream socketInput = new StartDtInputStream();
+    private Iec104ServerConnection connection;
+
+    @After
+    public void tearDown() {
+        socketInput.release();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testSendIFrame_shouldNotAllocate() throws Exception {
+        givenStartedServerConnection();
+        ASdu asdu = measurement();
+
+        sendFrames(asdu, WARM_UP_FRAMES);
+        long allocatedBytes = whenFramesAreSentMeasuringAllocation(asdu, MEASURED_FRAMES);
+
+        assertEquals("Bytes allocated per I-frame", 0, allocatedBytes / MEASURED_FRAMES);
+    }
+
+    private void givenStartedServerConnection() throws IOException {
+        Iec104ServerSettings settings = new Iec104ServerSettings();
+        settings.setMaxNumOfOutstandingIPdus(Integer.MAX_VALUE);
+        settings.setMaxTimeNoAckReceived(600000);
+        settings.setMaxIdleTime(600000);
+
+        connection = new Iec104ServerConnection(new StreamSocket(), settings);
+        connection.startDataTransfer(new AsduRecordingClient());
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.count.get() == STARTDT_ACT.length);
+    }
+
+    private long whenFramesAreSentMeasuringAllocation(ASdu asdu, int frames) throws IOException {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long calibrationStart = threadMXBean.getThreadAllocatedBytes(threadId);
+        long calibrationEnd = threadMXBean.getThreadAllocatedBytes(threadId);
+        long measurementOverhead = calibrationEnd - calibrationStart;
+
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        sendFrames(asdu, frames);
+        long end = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        return end - start - measurementOverhead;
+    }
+
+    private void sendFrames(ASdu asdu, int frames) throws IOException {
+        for (int i = 0; i < frames; i++) {
+            connection.send(asdu);
+        }
+    }
+
+    private static ASdu measurement() {
+        return new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                new InformationObject(100, new IeShortFloat(1.5f), new IeQuality(false, false, false, false, false)));
+    }
+
+    private class StreamSocket extends Socket {
+
+        @Override
+        public InputStream getInputStream() {
+            return socketInput;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return socketOutput;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count.addAndGet(length);
+        }
+    }
+
+    /**
+     * Delivers a single STARTDT act and then blocks like an idle socket until the test is torn down.
+     */
+    private static class StartDtInputStream extends InputStream {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position < STARTDT_ACT.length) {
+                int count = Math.min(length, STARTDT_ACT.length - position);
+                System.arraycopy(STARTDT_ACT, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return -1;
+        }
+
+        void release() {
+            closed.countDown();
+        }
+    }
+}
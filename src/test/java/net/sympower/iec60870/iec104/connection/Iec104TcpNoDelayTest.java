@@ -0,0 +1,100 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.api.IEC60870ClientBuilder;
+import net.sympower.iec60870.common.api.IEC60870Server;
+import net.sympower.iec60870.common.api.IEC60870ServerBuilder;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Iec104TcpNoDelayTest {
+
+    private static final int TEST_PORT = 12350;
+
+    private IEC60870Server server;
+    private Iec104ClientConnection client;
+    private volatile Iec104ServerConnection serverConnection;
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testBlockingServer_shouldDisableNagleOnBothEnds() throws Exception {
+        givenServerIsRunning(false);
+
+        givenClientIsConnected();
+
+        assertTrue(client.getSocket().getTcpNoDelay());
+        assertTrue(serverConnection.getSocket().getTcpNoDelay());
+    }
+
+    @Test
+    public void testNonBlockingServer_shouldDisableNagleOnAcceptedChannels() throws Exception {
+        givenServerIsRunning(true);
+
+        givenClientIsConnected();
+
+        assertTrue(serverConnection.getSocket().getTcpNoDelay());
+    }
+
+    private void givenServerIsRunning(boolean nonBlocking) throws IOException {
+        server = new IEC60870ServerBuilder()
+                .iec104(TEST_PORT)
+                .nonBlocking(nonBlocking)
+                .build();
+        server.start(connection -> {
+            try {
+                connection.startDataTransfer(new AsduRecordingClient());
+            } catch (IOException e) {
+                fail("Failed to start data transfer on server connection: " + e.getMessage());
+            }
+            serverConnection = (Iec104ServerConnection) connection;
+        });
+    }
+
+    private void givenClientIsConnected() throws IOException {
+        client = new IEC60870ClientBuilder()
+                .iec104("localhost", TEST_PORT)
+                .build();
+        client.startDataTransfer(new AsduRecordingClient());
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> serverConnection != null);
+    }
+}
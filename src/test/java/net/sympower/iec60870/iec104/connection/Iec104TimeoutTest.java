@@ -0,0 +1,258 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.apdu.APdu;
+import net.sympower.iec60870.internal.HashedWheelTimer;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class Iec104TimeoutTest {
+
+    private static final byte[] STARTDT_ACT = { 0x68, 0x04, 0x07, 0x00, 0x00, 0x00 };
+    private static final byte TESTFR_ACT_CONTROL = 0x43;
+
+    private final Iec104ServerSettings settings = new Iec104ServerSettings();
+    private final HashedWheelTimer timer = new HashedWheelTimer();
+    private final ScriptedInputStream socketInput = new ScriptedInputStream();
+    private final RecordingOutputStream socketOutput = new RecordingOutputStream();
+    private Iec104ServerConnection connection;
+
+    @After
+    public void tearDown() {
+        socketInput.close();
+        if (connection != null) {
+            connection.close();
+        }
+        timer.stop();
+    }
+
+    @Test
+    public void testIdleConnection_shouldSendTestFrameAfterT3() throws Exception {
+        settings.setMaxIdleTime(200);
+        givenStartedServerConnection();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.count(TESTFR_ACT_CONTROL) > 0);
+    }
+
+    @Test
+    public void testReceivedFrames_shouldPostponeTestFrame() throws Exception {
+        settings.setMaxIdleTime(300);
+        givenStartedServerConnection();
+
+        for (int i = 0; i < 12; i++) {
+            whenClientAcknowledges(0);
+            Thread.sleep(50);
+        }
+        assertEquals("t3 must count from the last received frame", 0, socketOutput.count(TESTFR_ACT_CONTROL));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.count(TESTFR_ACT_CONTROL) > 0);
+    }
+
+    @Test
+    public void testTimeouts_shouldNotWriteOnTimerThread() throws Exception {
+        settings.setMaxIdleTime(200);
+        settings.setMaxTimeNoAckSent(50);
+        givenStartedServerConnection();
+
+        whenClientSendsIFrame(0);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.count(TESTFR_ACT_CONTROL) > 0
+                && socketOutput.lastAcknowledged() == 1);
+        assertFalse(socketOutput.writerThreads.isEmpty());
+        for (String thread : socketOutput.writerThreads) {
+            assertFalse("Timeout work ran on " + thread, thread.startsWith("IEC60870-Timer"));
+        }
+    }
+
+    @Test
+    public void testT2RacingIFrames_shouldAcknowledgeEveryIFrame() throws Exception {
+        settings.setMaxTimeNoAckSent(5);
+        settings.setMaxUnconfirmedIPdusReceived(1000);
+        givenStartedServerConnection();
+
+        // I-frames arriving around the expiry of t2 must be covered by that S-frame or by the next t2
+        Random random = new Random(7);
+        int count = 300;
+        for (int i = 0; i < count; i++) {
+            whenClientSendsIFrame(i);
+            Thread.sleep(random.nextInt(8));
+        }
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.lastAcknowledged() == count);
+        assertTrue(connection.isDataTransferStarted());
+    }
+
+    private void givenStartedServerConnection() throws IOException {
+        settings.setTimer(timer);
+        settings.setMaxTimeNoAckReceived(600000);
+
+        connection = new Iec104ServerConnection(new StreamSocket(), settings);
+        connection.startDataTransfer(new AsduRecordingClient());
+        socketInput.feed(STARTDT_ACT);
+
+        await().atMost(2, TimeUnit.SECONDS).until(connection::isDataTransferStarted);
+    }
+
+    private void whenClientAcknowledges(int receiveSeqNum) {
+        byte[] sFrame = new byte[APdu.CONTROL_FRAME_LENGTH];
+        APdu.encodeSFormat(sFrame, receiveSeqNum);
+        socketInput.feed(sFrame);
+    }
+
+    private void whenClientSendsIFrame(int sendSeqNum) {
+        byte[] buffer = new byte[255];
+        int length = APdu.encodeIFormat(buffer, sendSeqNum, 0, measurement(sendSeqNum), settings);
+        socketInput.feed(Arrays.copyOf(buffer, length));
+    }
+
+    private static ASdu measurement(int value) {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                new InformationObject(100, new IeScaledValue(value), new IeQuality(false, false, false, false, false)));
+    }
+
+    private class StreamSocket extends Socket {
+
+        @Override
+        public InputStream getInputStream() {
+            return socketInput;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return socketOutput;
+        }
+    }
+
+    /**
+     * Records every frame the connection writes and the thread that wrote it.
+     */
+    private static class RecordingOutputStream extends OutputStream {
+
+        private final List<byte[]> frames = new CopyOnWriteArrayList<>();
+        private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            frames.add(Arrays.copyOfRange(buffer, offset, offset + length));
+            writerThreads.add(Thread.currentThread().getName());
+        }
+
+        int count(byte control) {
+            int count = 0;
+            for (byte[] frame : frames) {
+                if (frame[2] == control) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        int lastAcknowledged() {
+            int receiveSeqNum = -1;
+            for (byte[] frame : frames) {
+                if ((frame[2] & 0x03) == 0x01) {
+                    receiveSeqNum = ((frame[4] & 0xfe) >> 1) | ((frame[5] & 0xff) << 7);
+                }
+            }
+            return receiveSeqNum;
+        }
+    }
+
+    /**
+     * Hands the frames fed by the test to the connection's reader and otherwise blocks like an idle socket.
+     */
+    private static class ScriptedInputStream extends InputStream {
+
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private byte[] current = new byte[0];
+        private int position;
+
+        void feed(byte[] frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == current.length) {
+                try {
+                    current = frames.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+                if (current == END) {
+                    frames.add(END);
+                    return -1;
+                }
+                position = 0;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            frames.add(END);
+        }
+    }
+}
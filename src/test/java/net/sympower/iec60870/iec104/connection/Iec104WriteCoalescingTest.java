@@ -0,0 +1,214 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.iec104.connection;
+
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeShortFloat;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec104.apdu.APdu;
+import net.sympower.iec60870.spy.AsduRecordingClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Iec104WriteCoalescingTest {
+
+    private static final byte[] STARTDT_ACT = { 0x68, 0x04, 0x07, 0x00, 0x00, 0x00 };
+    private static final int FRAMES = 200;
+    private static final int MAX_BYTES = 4096;
+
+    private final CountingOutputStream socketOutput = new CountingOutputStream();
+    private final StartDtInputStream socketInput = new StartDtInputStream();
+    private Iec104ServerConnection connection;
+    private int frameLength;
+
+    @After
+    public void tearDown() {
+        socketInput.release();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testWithoutCoalescing_shouldWriteEachFrameSeparately() throws Exception {
+        givenStartedServerConnection(false, 1000, 10000);
+
+        whenFramesAreSent(FRAMES);
+
+        assertEquals(FRAMES, socketOutput.writes.get());
+    }
+
+    @Test
+    public void testCoalescing_shouldBatchFramesIntoFewWrites() throws Exception {
+        givenStartedServerConnection(true, 50, 10000);
+
+        whenFramesAreSent(FRAMES);
+
+        thenAllFramesAreWritten(FRAMES);
+        int maxWrites = FRAMES * frameLength / MAX_BYTES + 1;
+        assertTrue("Expected at most " + maxWrites + " writes but was " + socketOutput.writes.get(),
+                socketOutput.writes.get() <= maxWrites);
+    }
+
+    @Test
+    public void testCoalescing_shouldFlushSingleFrameAfterMaxDelay() throws Exception {
+        givenStartedServerConnection(true, 20, 10000);
+
+        whenFramesAreSent(1);
+
+        thenAllFramesAreWritten(1);
+        assertEquals(1, socketOutput.writes.get());
+    }
+
+    @Test
+    public void testCoalescing_shouldFlushImmediatelyWhenKWindowIsFull() throws Exception {
+        givenStartedServerConnection(true, 60000, 3);
+
+        whenFramesAreSent(3);
+
+        assertEquals(3L * frameLength, socketOutput.bytes.get() - STARTDT_ACT.length);
+        assertEquals(1, socketOutput.writes.get());
+    }
+
+    @Test
+    public void testCoalescing_shouldFlushWhenSendQueueDrains() throws Exception {
+        givenStartedServerConnection(true, 60000, 10000);
+
+        connection.sendAsync(measurement());
+
+        assertEquals(frameLength, socketOutput.bytes.get() - STARTDT_ACT.length);
+    }
+
+    private void givenStartedServerConnection(boolean coalescing, int maxDelay, int k) throws IOException {
+        Iec104ServerSettings settings = new Iec104ServerSettings();
+        settings.setMaxNumOfOutstandingIPdus(k);
+        settings.setMaxTimeNoAckReceived(600000);
+        settings.setMaxIdleTime(600000);
+        settings.setWriteCoalescing(coalescing);
+        settings.setCoalescingMaxDelay(maxDelay);
+        settings.setCoalescingMaxBytes(MAX_BYTES);
+
+        connection = new Iec104ServerConnection(new StreamSocket(), settings);
+        connection.startDataTransfer(new AsduRecordingClient());
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> socketOutput.bytes.get() == STARTDT_ACT.length);
+        socketOutput.writes.set(0);
+        frameLength = APdu.encodeIFormat(new byte[APdu.MAX_FRAME_LENGTH], 0, 0, measurement(), settings);
+    }
+
+    private void whenFramesAreSent(int frames) throws IOException {
+        for (int i = 0; i < frames; i++) {
+            connection.send(measurement());
+        }
+    }
+
+    private void thenAllFramesAreWritten(int frames) {
+        await().atMost(2, TimeUnit.SECONDS)
+               .until(() -> socketOutput.bytes.get() == STARTDT_ACT.length + (long) frames * frameLength);
+    }
+
+    private static ASdu measurement() {
+        return new ASdu(ASduType.M_ME_NC_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0, 1,
+                new InformationObject(100, new IeShortFloat(1.5f), new IeQuality(false, false, false, false, false)));
+    }
+
+    private class StreamSocket extends Socket {
+
+        @Override
+        public InputStream getInputStream() {
+            return socketInput;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return socketOutput;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void write(int b) {
+            writes.incrementAndGet();
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            writes.incrementAndGet();
+            bytes.addAndGet(length);
+        }
+    }
+
+    private static class StartDtInputStream extends InputStream {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position < STARTDT_ACT.length) {
+                int count = Math.min(length, STARTDT_ACT.length - position);
+                System.arraycopy(STARTDT_ACT, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return -1;
+        }
+
+        void release() {
+            closed.countDown();
+        }
+    }
+}
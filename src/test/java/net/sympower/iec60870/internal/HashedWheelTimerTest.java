@@ -0,0 +1,234 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.internal;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(1, 64);
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testTaskIsCalledOnTimeout() {
+        AtomicLong executionTime = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+        TimeoutTask task = new TimeoutTask(200) {
+            @Override
+            protected void execute() {
+                executionTime.set(System.currentTimeMillis() - startTime);
+            }
+        };
+
+        timer.addTimerTask(task);
+
+        await().atMost(1, TimeUnit.SECONDS).until(task::isDone);
+        assertTrue("Task must not run early", executionTime.get() >= 200);
+        assertEquals(200, executionTime.get(), 40.0);
+    }
+
+    @Test
+    public void testTimeoutBeyondOneWheelRotation_shouldWaitForRemainingRounds() {
+        AtomicLong executionTime = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+        TimeoutTask task = new TimeoutTask(150) {
+            @Override
+            protected void execute() {
+                executionTime.set(System.currentTimeMillis() - startTime);
+            }
+        };
+
+        timer.addTimerTask(task);
+
+        await().atMost(1, TimeUnit.SECONDS).until(task::isDone);
+        assertTrue("Task must not run early", executionTime.get() >= 150);
+    }
+
+    @Test
+    public void testCancelledTask_shouldBeRemovedImmediately() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        TimeoutTask task = countingTask(50, executions);
+
+        timer.addTimerTask(task);
+        task.cancel();
+
+        assertEquals(0, timer.getPendingTasks());
+        Thread.sleep(150);
+        assertEquals(0, executions.get());
+        assertFalse(task.isPlanned());
+    }
+
+    @Test
+    public void testRescheduledTask_shouldRunOnceAtNewDueTime() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        TimeoutTask task = countingTask(100, executions);
+
+        timer.addTimerTask(task);
+        Thread.sleep(60);
+        timer.addTimerTask(task);
+
+        assertEquals(1, timer.getPendingTasks());
+        Thread.sleep(60);
+        assertEquals("Rescheduling must move the due time", 0, executions.get());
+        await().atMost(1, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+        Thread.sleep(150);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testTaskWithDelay_shouldRunAfterDelayInsteadOfTimeout() {
+        AtomicLong executionTime = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+        TimeoutTask task = new TimeoutTask(1000) {
+            @Override
+            protected void execute() {
+                executionTime.set(System.currentTimeMillis() - startTime);
+            }
+        };
+
+        timer.addTimerTask(task, 100);
+
+        await().atMost(500, TimeUnit.MILLISECONDS).until(task::isDone);
+        assertTrue("Task must not run early", executionTime.get() >= 100);
+    }
+
+    @Test
+    public void testFailingTask_shouldNotStopTimer() {
+        AtomicInteger executions = new AtomicInteger();
+        timer.addTimerTask(new TimeoutTask(10) {
+            @Override
+            protected void execute() {
+                throw new IllegalStateException("expected");
+            }
+        });
+        TimeoutTask task = countingTask(30, executions);
+        timer.addTimerTask(task);
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+    }
+
+    @Test
+    public void testManyTasks_shouldAllExpire() {
+        AtomicInteger executions = new AtomicInteger();
+        for (int i = 0; i < 10000; i++) {
+            timer.addTimerTask(countingTask(i % 300, executions));
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 10000);
+        assertEquals(0, timer.getPendingTasks());
+    }
+
+    @Test
+    public void testExpiryExecutors_shouldShareBoundedThreadsAndKeepOrderPerExecutor() {
+        int connections = 1000;
+        int tasksPerConnection = 5;
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<List<Integer>> order = new ArrayList<>();
+        AtomicInteger executions = new AtomicInteger();
+        for (int c = 0; c < connections; c++) {
+            SerialExecutor executor = timer.newExpiryExecutor();
+            List<Integer> connectionOrder = Collections.synchronizedList(new ArrayList<>());
+            order.add(connectionOrder);
+            for (int i = 0; i < tasksPerConnection; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    threads.add(Thread.currentThread());
+                    connectionOrder.add(index);
+                    executions.incrementAndGet();
+                });
+            }
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == connections * tasksPerConnection);
+        assertTrue("Expiry executors must not hold a thread each", threads.size() <= HashedWheelTimer.EXPIRY_THREADS);
+        for (List<Integer> connectionOrder : order) {
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4), connectionOrder);
+        }
+    }
+
+    @Test
+    public void testBlockedExpiryExecutor_shouldNotDelayOtherExecutors() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        SerialExecutor blocked = timer.newExpiryExecutor();
+        blocked.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.execute(executions::incrementAndGet);
+
+        timer.newExpiryExecutor().execute(executions::incrementAndGet);
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+        release.countDown();
+        await().atMost(1, TimeUnit.SECONDS).until(() -> executions.get() == 2);
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutDownExpiryExecutor_shouldRejectTasks() {
+        SerialExecutor executor = timer.newExpiryExecutor();
+        executor.shutdown();
+
+        executor.execute(() -> { });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedTimer_shouldNotBeStoppable() {
+        HashedWheelTimer.shared().stop();
+    }
+
+    private static TimeoutTask countingTask(int timeout, AtomicInteger executions) {
+        return new TimeoutTask(timeout) {
+            @Override
+            protected void execute() {
+                executions.incrementAndGet();
+            }
+        };
+    }
+}
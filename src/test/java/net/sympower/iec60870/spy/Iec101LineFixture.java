@@ -0,0 +1,197 @@
+/*
+ * Original work: Copyright 2014-20 Fraunhofer ISE (OpenMUC j60870)
+ *
+ * Modified work: Copyright 2025 Sympower
+ *
+ * This file is part of the enhanced IEC 60870 library.
+ * Original project: https://github.com/openmuc/j60870
+ * Enhanced version: https://github.com/josh-mills-sympower/IEC-60870-5
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package net.sympower.iec60870.spy;
+
+import com.fazecast.jSerialComm.SerialPort;
+import net.sympower.iec60870.common.ASdu;
+import net.sympower.iec60870.common.ASduType;
+import net.sympower.iec60870.common.CauseOfTransmission;
+import net.sympower.iec60870.common.IEC60870Settings;
+import net.sympower.iec60870.common.elements.IeQuality;
+import net.sympower.iec60870.common.elements.IeScaledValue;
+import net.sympower.iec60870.common.elements.IeSingleCommand;
+import net.sympower.iec60870.common.elements.InformationObject;
+import net.sympower.iec60870.iec101.connection.Iec101ClientConnection;
+import net.sympower.iec60870.iec101.connection.Iec101ClientSettings;
+import net.sympower.iec60870.iec101.connection.Iec101PollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101RoundRobinPollScheduler;
+import net.sympower.iec60870.iec101.connection.Iec101ServerConnection;
+import net.sympower.iec60870.iec101.transport.Iec101MemoryLine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static net.sympower.iec60870.iec101.Iec101TestConstants.COMMON_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.CONNECTION_TIMEOUT_SECONDS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.LINK_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.MEASUREMENT_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.SINGLE_COMMAND_ADDRESS;
+import static net.sympower.iec60870.iec101.Iec101TestConstants.TIMEOUT_UNIT;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * An unbalanced IEC-101 client and server connected over an {@link Iec101MemoryLine}, together with the settings,
+ * commands and measurements that the IEC-101 line tests share. The connections run on the streams of the line, so
+ * closing one of them leaves the line up; {@link #close()} closes both connections and the line.
+ */
+public class Iec101LineFixture {
+
+    public static final long NO_POLLING_MS = 60000;
+
+    private final Iec101MemoryLine line;
+    private final IEC60870Settings settings;
+    private Iec101ServerConnection server;
+    private Iec101ClientConnection client;
+    private AsduRecordingClient serverListener;
+    private AsduRecordingClient clientListener;
+
+    public Iec101LineFixture(Iec101MemoryLine line, IEC60870Settings settings) {
+        this.line = line;
+        this.settings = settings;
+    }
+
+    public void givenClientAndServerAreConnected(Iec101ClientSettings clientSettings) throws IOException {
+        givenClientAndServerAreConnected(clientSettings, new Iec101RoundRobinPollScheduler());
+    }
+
+    public void givenClientAndServerAreConnected(Iec101ClientSettings clientSettings,
+            Iec101PollScheduler pollScheduler) throws IOException {
+        givenClientAndServerAreConnected(settings, clientSettings, pollScheduler, new AsduRecordingClient());
+    }
+
+    /**
+     * Starts the server on the server end of the line and the client on the client end, and waits until both report
+     * the connection ready.
+     *
+     * @param clientLineSettings the line settings of the client, which may differ from the server's in the thread
+     *            factory
+     */
+    public void givenClientAndServerAreConnected(IEC60870Settings clientLineSettings,
+            Iec101ClientSettings clientSettings, Iec101PollScheduler pollScheduler,
+            AsduRecordingClient clientListener) throws IOException {
+        server = new Iec101ServerConnection(
+            new DataInputStream(line.getServerEnd().getInputStream()),
+            new DataOutputStream(line.getServerEnd().getOutputStream()),
+            settings,
+            LINK_ADDRESS
+        );
+        client = new Iec101ClientConnection(
+            new DataInputStream(line.getClientEnd().getInputStream()),
+            new DataOutputStream(line.getClientEnd().getOutputStream()),
+            clientLineSettings,
+            LINK_ADDRESS,
+            clientSettings,
+            pollScheduler
+        );
+
+        serverListener = new AsduRecordingClient();
+        this.clientListener = clientListener;
+        server.startDataTransfer(serverListener);
+        client.startDataTransfer(clientListener);
+
+        await().atMost(CONNECTION_TIMEOUT_SECONDS, TIMEOUT_UNIT)
+               .until(() -> serverListener.isConnectionReady() && clientListener.isConnectionReady());
+    }
+
+    public Iec101MemoryLine getLine() {
+        return line;
+    }
+
+    public Iec101ServerConnection getServer() {
+        return server;
+    }
+
+    public Iec101ClientConnection getClient() {
+        return client;
+    }
+
+    public AsduRecordingClient getServerListener() {
+        return serverListener;
+    }
+
+    public AsduRecordingClient getClientListener() {
+        return clientListener;
+    }
+
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        line.close();
+    }
+
+    /**
+     * Returns the settings of a line without speed limit.
+     */
+    public static IEC60870Settings lineSettings() {
+        return lineSettings(0);
+    }
+
+    /**
+     * Returns the settings of a line with the given baud rate, which transmits 8E1 characters like
+     * {@link Iec101MemoryLine}.
+     */
+    public static IEC60870Settings lineSettings(int baudRate) {
+        IEC60870Settings settings = new IEC60870Settings();
+        settings.setBaudRate(baudRate);
+        settings.setDataBits(8);
+        settings.setStopBits(SerialPort.ONE_STOP_BIT);
+        settings.setParity(SerialPort.EVEN_PARITY);
+        settings.setInterFrameDelayMs(0);
+        return settings;
+    }
+
+    /**
+     * Returns client settings that poll at the given interval and wait long enough for the link to be set up.
+     */
+    public static Iec101ClientSettings clientSettings(long pollingIntervalMs) {
+        Iec101ClientSettings clientSettings = new Iec101ClientSettings();
+        clientSettings.setInitializationTimeoutMs(CONNECTION_TIMEOUT_SECONDS * 1000);
+        clientSettings.setPollingIntervalMs(pollingIntervalMs);
+        return clientSettings;
+    }
+
+    public static ASdu singleCommand(boolean on) {
+        return singleCommand(SINGLE_COMMAND_ADDRESS, on);
+    }
+
+    public static ASdu singleCommand(int informationObjectAddress, boolean on) {
+        return new ASdu(ASduType.C_SC_NA_1, false, CauseOfTransmission.ACTIVATION, false, false, 0, COMMON_ADDRESS,
+                new InformationObject(informationObjectAddress, new IeSingleCommand(on, 0, false)));
+    }
+
+    /**
+     * Returns a spontaneous scaled measurement. Each value has its own common address, so that a station can neither
+     * coalesce queued values nor pack a burst into fewer responses.
+     */
+    public static ASdu measurement(int value) {
+        return new ASdu(ASduType.M_ME_NB_1, false, CauseOfTransmission.SPONTANEOUS, false, false, 0,
+                COMMON_ADDRESS + value, new InformationObject(MEASUREMENT_ADDRESS, new IeScaledValue(value),
+                new IeQuality(false, false, false, false, false)));
+    }
+}